@@ -0,0 +1,78 @@
+package com.ibm.casesdk.perf.bench;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMInBasket;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+import com.ibm.casesdk.perf.data.CountDistribution;
+import com.ibm.casesdk.perf.data.DataGenerator;
+import com.ibm.casesdk.perf.data.FakeTask;
+import com.ibm.casesdk.perf.data.GeneratorConfig;
+
+import java.util.List;
+
+/**
+ * Creates the fake SDK objects used by the benchmarks with a {@link DataGenerator}. The same
+ * seed always creates the same objects, so runs can be compared.
+ */
+public class BenchmarkData {
+
+    public static final long SEED = 42;
+    public static final String PREFIX = "CRE1";
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @param basketCount
+     * @param taskCount   the number of tasks, spread evenly over the workbaskets
+     * @return
+     */
+    public static List<ICMInBasket> createBaskets(int basketCount, int taskCount) {
+        final GeneratorConfig config = new GeneratorConfig();
+        config.setSeed(SEED);
+        config.setTasksPerBasket(CountDistribution.constant(taskCount / basketCount));
+        config.setPropertiesPerTask(CountDistribution.constant(0));
+        config.setSectionsPerTask(CountDistribution.constant(0));
+
+        return new DataGenerator(config).generateBaskets(PREFIX, PREFIX, basketCount);
+    }
+
+    /**
+     * Create tasks grouped around places spread over a region, like the open tasks of a city.
+     *
+     * @param taskCount
+     * @param regionRadius  the distance from the center within which the places are, in degrees
+     * @param clusterCount  the number of places
+     * @param clusterRadius the standard deviation of the distance of a task to its place
+     * @return
+     */
+    public static List<ICMTask> createTasks(int taskCount, double regionRadius, int clusterCount,
+                                            double clusterRadius) {
+        final GeneratorConfig config = new GeneratorConfig();
+        config.setSeed(SEED);
+        config.setTasksPerBasket(CountDistribution.constant(taskCount));
+        config.setPropertiesPerTask(CountDistribution.constant(0));
+        config.setSectionsPerTask(CountDistribution.constant(0));
+        config.setRegionRadius(regionRadius);
+        config.setClusterCount(clusterCount);
+        config.setClusterRadius(clusterRadius);
+
+        return new DataGenerator(config).generateBaskets(PREFIX, PREFIX, 1).get(0).getTasks();
+    }
+
+    /**
+     * Create a task whose properties are split over layout sections, with one property layout
+     * per section.
+     *
+     * @param propertyCount
+     * @param sectionCount
+     * @return
+     */
+    public static FakeTask createTask(int propertyCount, int sectionCount) {
+        final GeneratorConfig config = new GeneratorConfig();
+        config.setSeed(SEED);
+        config.setPropertiesPerTask(CountDistribution.constant(propertyCount));
+        config.setSectionsPerTask(CountDistribution.constant(sectionCount));
+
+        return new DataGenerator(config).generateTask(PREFIX, PREFIX + "_Queue0");
+    }
+}
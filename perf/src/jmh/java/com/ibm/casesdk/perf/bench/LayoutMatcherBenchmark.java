@@ -0,0 +1,54 @@
+package com.ibm.casesdk.perf.bench;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMLayout;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMProperty;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+import com.ibm.casesdk.sample.edittask.utils.LayoutMatcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching the properties of a task to its layouts, done by {@code TaskDisplayHelper.displayTask}
+ * on the UI thread before any view is inflated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LayoutMatcherBenchmark {
+
+    @Param({"5", "50", "500"})
+    public int propertyCount;
+
+    @Param({"1", "5", "20"})
+    public int sectionCount;
+
+    private ICMTask mTask;
+
+    @Setup
+    public void setUp() {
+        mTask = BenchmarkData.createTask(propertyCount, sectionCount);
+    }
+
+    /**
+     * @return the number of matched properties, all the layouts of the task are matched
+     */
+    @Benchmark
+    public int matchAllLayouts() {
+        final List<ICMProperty> properties = mTask.getProperties();
+        int matched = 0;
+        for (ICMLayout layout : mTask.getLayout()) {
+            matched += LayoutMatcher.getLayoutProperties(layout, properties).size();
+        }
+        return matched;
+    }
+}
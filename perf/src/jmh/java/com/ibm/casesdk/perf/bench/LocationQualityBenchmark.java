@@ -0,0 +1,52 @@
+package com.ibm.casesdk.perf.bench;
+
+import com.ibm.casesdk.sample.nearbytasks.utils.LocationQuality;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparing location fixes in the nearby app, {@code Utils.isBetterLocation}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LocationQualityBenchmark {
+
+    private static final int FIX_COUNT = 1024;
+
+    private final double[] mLatDeltas = new double[FIX_COUNT];
+    private final double[] mLongDeltas = new double[FIX_COUNT];
+    private final long[] mTimeDeltas = new long[FIX_COUNT];
+    private final float[] mAccuracyDeltas = new float[FIX_COUNT];
+    private final boolean[] mSameProviders = new boolean[FIX_COUNT];
+    private int mNext;
+
+    @Setup
+    public void setUp() {
+        // fixes a few meters apart, a few seconds to a few minutes apart, like a walking user
+        final Random random = new Random(BenchmarkData.SEED);
+        for (int i = 0; i < FIX_COUNT; i++) {
+            mLatDeltas[i] = random.nextGaussian() * 0.0005;
+            mLongDeltas[i] = random.nextGaussian() * 0.0005;
+            mTimeDeltas[i] = (long) (random.nextGaussian() * 180000);
+            mAccuracyDeltas[i] = (float) (random.nextGaussian() * 100);
+            mSameProviders[i] = random.nextInt(4) != 0;
+        }
+    }
+
+    @Benchmark
+    public boolean isBetter() {
+        final int i = mNext++ & (FIX_COUNT - 1);
+        return LocationQuality.isBetter(mLatDeltas[i], mLongDeltas[i], mTimeDeltas[i], mAccuracyDeltas[i],
+                mSameProviders[i]);
+    }
+}
@@ -0,0 +1,58 @@
+package com.ibm.casesdk.perf.bench;
+
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing the updated properties sent with a task action, {@code new Gson().toJson(properties)}
+ * in {@code TaskController.performTaskAction}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PropertiesJsonBenchmark {
+
+    @Param({"5", "50", "500"})
+    public int propertyCount;
+
+    private final Gson mGson = new Gson();
+    private Map<String, String> mProperties;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(BenchmarkData.SEED);
+        mProperties = new HashMap<>();
+        for (int p = 0; p < propertyCount; p++) {
+            mProperties.put("CRE1_Property" + p, Long.toHexString(random.nextLong()));
+        }
+    }
+
+    /**
+     * What the controller does: a new {@link Gson} for every action.
+     */
+    @Benchmark
+    public String newGson() {
+        return new Gson().toJson(mProperties);
+    }
+
+    /**
+     * For comparison, a {@link Gson} instance kept between actions.
+     */
+    @Benchmark
+    public String sharedGson() {
+        return mGson.toJson(mProperties);
+    }
+}
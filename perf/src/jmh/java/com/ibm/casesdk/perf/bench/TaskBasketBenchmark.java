@@ -0,0 +1,89 @@
+package com.ibm.casesdk.perf.bench;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMInBasket;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+import com.ibm.casesdk.sample.nearbytasks.controllers.TaskBasketIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the workbasket of a task in the nearby app, {@code CaseController.findTaskBasket}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TaskBasketBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int taskCount;
+
+    @Param({"10"})
+    public int basketCount;
+
+    private List<ICMInBasket> mBaskets;
+    private List<ICMTask> mTasks;
+    private TaskBasketIndex mIndex;
+    private Random mRandom;
+
+    @Setup
+    public void setUp() {
+        mBaskets = BenchmarkData.createBaskets(basketCount, taskCount);
+        mTasks = new ArrayList<>();
+        for (ICMInBasket basket : mBaskets) {
+            mTasks.addAll(basket.getTasks());
+        }
+
+        mIndex = new TaskBasketIndex();
+        for (ICMInBasket basket : mBaskets) {
+            mIndex.indexBasket(basket);
+        }
+
+        mRandom = new Random(BenchmarkData.SEED);
+    }
+
+    @Benchmark
+    public ICMInBasket findIndexed() {
+        return mIndex.findBasket(nextTask());
+    }
+
+    /**
+     * The lookup made before the index: every task of every basket is compared.
+     */
+    @Benchmark
+    public ICMInBasket findByScan() {
+        final ICMTask task = nextTask();
+        for (ICMInBasket basket : mBaskets) {
+            for (ICMTask basketTask : basket.getTasks()) {
+                if (basketTask.getId().equalsIgnoreCase(task.getId())) {
+                    return basket;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Indexing a basket again, as done when a basket is reloaded.
+     */
+    @Benchmark
+    public int reindexBasket() {
+        mIndex.indexBasket(mBaskets.get(mRandom.nextInt(basketCount)));
+        return mIndex.size();
+    }
+
+    private ICMTask nextTask() {
+        return mTasks.get(mRandom.nextInt(mTasks.size()));
+    }
+}
@@ -0,0 +1,116 @@
+package com.ibm.casesdk.perf.bench;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+import com.ibm.casesdk.perf.data.FakeTask;
+import com.ibm.casesdk.sample.nearbytasks.controllers.TaskClusterer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clustering the task markers of the nearby app when the tasks or the camera change,
+ * {@code TaskClusterRenderer}. Runs on the clustering thread, not on the UI thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskClustererBenchmark {
+
+    private static final int CAMERA_COUNT = 1024;
+
+    // same city as TaskSpatialIndexBenchmark
+    private static final double REGION_RADIUS = 1.0;
+    private static final int CLUSTER_COUNT = 40;
+    private static final double CLUSTER_RADIUS = 0.05;
+
+    // about the area of a phone screen at zoom 12
+    private static final double SCREEN_WIDTH = 0.1;
+    private static final double SCREEN_HEIGHT = 0.15;
+
+    @Param({"1000", "10000", "100000"})
+    public int taskCount;
+
+    @Param({"12"})
+    public int zoom;
+
+    private List<ICMTask> mTasks;
+    private List<ICMTask> mChangedTasks;
+    private TaskClusterer mClusterer;
+    private final double[] mLatitudes = new double[CAMERA_COUNT];
+    private final double[] mLongitudes = new double[CAMERA_COUNT];
+    private int mNext;
+
+    @Setup
+    public void setUp() {
+        mTasks = BenchmarkData.createTasks(taskCount, REGION_RADIUS, CLUSTER_COUNT, CLUSTER_RADIUS);
+
+        // a refresh where 1% of the tasks were completed and as many were created
+        final List<ICMTask> created = BenchmarkData.createTasks(taskCount / 100, REGION_RADIUS, CLUSTER_COUNT,
+                CLUSTER_RADIUS);
+        mChangedTasks = new ArrayList<>(mTasks.subList(created.size(), mTasks.size()));
+        for (int i = 0; i < created.size(); i++) {
+            // the same seed gives the same ids
+            final FakeTask task = (FakeTask) created.get(i);
+            task.setId("created-" + i);
+            mChangedTasks.add(task);
+        }
+
+        mClusterer = new TaskClusterer(64, 4, 17);
+        mClusterer.setTasks(mTasks);
+        mClusterer.getClusters(zoom, -90, -180, 90, 180);
+
+        // the camera follows the tasks
+        final Random random = new Random(BenchmarkData.SEED);
+        for (int i = 0; i < CAMERA_COUNT; i++) {
+            final ICMTask task = mTasks.get(random.nextInt(mTasks.size()));
+            mLatitudes[i] = task.getLatitude();
+            mLongitudes[i] = task.getLongitude();
+        }
+    }
+
+    /**
+     * A camera move: the clusters of the zoom level are known, only the visible ones are picked.
+     */
+    @Benchmark
+    public List<TaskClusterer.TaskCluster> getClusters() {
+        final int i = next();
+        return mClusterer.getClusters(zoom, mLatitudes[i] - SCREEN_HEIGHT / 2, mLongitudes[i] - SCREEN_WIDTH / 2,
+                mLatitudes[i] + SCREEN_HEIGHT / 2, mLongitudes[i] + SCREEN_WIDTH / 2);
+    }
+
+    /**
+     * A refresh of the nearby tasks, then back: only the changed tasks move between the cells.
+     */
+    @Benchmark
+    public boolean setTasks() {
+        mClusterer.setTasks(mChangedTasks);
+        return mClusterer.setTasks(mTasks);
+    }
+
+    /**
+     * The clusters without the incremental cells: every task is assigned to a cell again.
+     */
+    @Benchmark
+    public List<TaskClusterer.TaskCluster> clusterFromScratch() {
+        final int i = next();
+        final TaskClusterer clusterer = new TaskClusterer(64, 4, 17);
+        clusterer.setTasks(mTasks);
+        return clusterer.getClusters(zoom, mLatitudes[i] - SCREEN_HEIGHT / 2, mLongitudes[i] - SCREEN_WIDTH / 2,
+                mLatitudes[i] + SCREEN_HEIGHT / 2, mLongitudes[i] + SCREEN_WIDTH / 2);
+    }
+
+    private int next() {
+        return mNext++ & (CAMERA_COUNT - 1);
+    }
+}
@@ -0,0 +1,118 @@
+package com.ibm.casesdk.perf.bench;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+import com.ibm.casesdk.sample.nearbytasks.controllers.NearbyTaskCache;
+import com.ibm.casesdk.sample.nearbytasks.controllers.TaskSpatialIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answering the nearby task queries of the nearby app from its index,
+ * {@code CaseController.fetchNearbyTasks}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskSpatialIndexBenchmark {
+
+    private static final int QUERY_COUNT = 1024;
+
+    // a city with a few dozen busy districts
+    private static final double REGION_RADIUS = 1.0;
+    private static final int CLUSTER_COUNT = 40;
+    private static final double CLUSTER_RADIUS = 0.05;
+
+    @Param({"1000", "10000", "100000"})
+    public int taskCount;
+
+    @Param({"0.2"})
+    public double radius;
+
+    @Param({"5"})
+    public int precision;
+
+    private List<ICMTask> mTasks;
+    private TaskSpatialIndex mIndex;
+    private NearbyTaskCache mCache;
+    private final double[] mLatitudes = new double[QUERY_COUNT];
+    private final double[] mLongitudes = new double[QUERY_COUNT];
+    private int mNext;
+
+    @Setup
+    public void setUp() {
+        mTasks = BenchmarkData.createTasks(taskCount, REGION_RADIUS, CLUSTER_COUNT, CLUSTER_RADIUS);
+
+        // one query that covers the whole region, its tiles don't expire during the run
+        mCache = new NearbyTaskCache(precision, TimeUnit.DAYS.toMillis(1));
+        final ICMTask center = mTasks.get(0);
+        for (NearbyTaskCache.Region region : mCache.findMissingRegions(center.getLatitude(), center.getLongitude(),
+                4 * REGION_RADIUS)) {
+            mCache.putRegion(region, mTasks);
+        }
+        mIndex = mCache.getIndex();
+
+        // the users are where the tasks are
+        final Random random = new Random(BenchmarkData.SEED);
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            final ICMTask task = mTasks.get(random.nextInt(mTasks.size()));
+            mLatitudes[i] = task.getLatitude() + random.nextGaussian() * 0.01;
+            mLongitudes[i] = task.getLongitude() + random.nextGaussian() * 0.01;
+        }
+    }
+
+    @Benchmark
+    public List<ICMTask> findWithinRadius() {
+        final int i = next();
+        return mIndex.findWithinRadius(mLatitudes[i], mLongitudes[i], radius);
+    }
+
+    @Benchmark
+    public List<ICMTask> findInBounds() {
+        final int i = next();
+        return mIndex.findInBounds(mLatitudes[i] - radius, mLongitudes[i] - radius,
+                mLatitudes[i] + radius, mLongitudes[i] + radius);
+    }
+
+    /**
+     * The check made before every query to decide whether the server has to be asked.
+     */
+    @Benchmark
+    public List<NearbyTaskCache.Region> findMissingRegions() {
+        final int i = next();
+        return mCache.findMissingRegions(mLatitudes[i], mLongitudes[i], radius);
+    }
+
+    /**
+     * The query without an index: the distance to every task is compared.
+     */
+    @Benchmark
+    public List<ICMTask> findByScan() {
+        final int i = next();
+        final List<ICMTask> found = new ArrayList<>();
+        final double squaredRadius = radius * radius;
+        for (ICMTask task : mTasks) {
+            final double latitudeDelta = task.getLatitude() - mLatitudes[i];
+            final double longitudeDelta = task.getLongitude() - mLongitudes[i];
+            if (latitudeDelta * latitudeDelta + longitudeDelta * longitudeDelta <= squaredRadius) {
+                found.add(task);
+            }
+        }
+        return found;
+    }
+
+    private int next() {
+        return mNext++ & (QUERY_COUNT - 1);
+    }
+}
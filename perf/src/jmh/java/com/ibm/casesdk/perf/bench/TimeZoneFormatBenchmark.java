@@ -0,0 +1,36 @@
+package com.ibm.casesdk.perf.bench;
+
+import com.ibm.casesdk.sample.edittask.utils.TimeZoneFormat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and formatting timestamp property values, {@code Utils.parseTimeZone} and
+ * {@code Utils.formatDateWithTimeZone}. Every timestamp property of a displayed task is parsed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TimeZoneFormatBenchmark {
+
+    private final String mValue = "2016-04-12T10:00:00.000+0200";
+    private final Date mDate = new Date(1460448000000L);
+
+    @Benchmark
+    public Date parse() {
+        return TimeZoneFormat.parse(mValue);
+    }
+
+    @Benchmark
+    public String format() {
+        return TimeZoneFormat.format(mDate);
+    }
+}
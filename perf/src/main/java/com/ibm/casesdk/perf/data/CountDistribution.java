@@ -0,0 +1,114 @@
+package com.ibm.casesdk.perf.data;
+
+import java.util.Random;
+
+/**
+ * The distribution a number of generated items is drawn from, e.g. the number of tasks of a
+ * workbasket.
+ * <p>
+ * Distributions are written as {@code <n>}, {@code uniform:<min>:<max>} or
+ * {@code lognormal:<median>:<p99>}. Real workbaskets are very uneven, a few hold most of the
+ * tasks, which the log-normal distribution models.
+ */
+public abstract class CountDistribution {
+
+    // the 99th percentile of the standard normal distribution
+    private static final double Z_99 = 2.326348;
+
+    /**
+     * Draw a count.
+     *
+     * @param random
+     * @return a count, never negative
+     */
+    public abstract int sample(Random random);
+
+    public static CountDistribution constant(final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative count: " + count);
+        }
+
+        return new CountDistribution() {
+            @Override
+            public int sample(Random random) {
+                return count;
+            }
+
+            @Override
+            public String toString() {
+                return String.valueOf(count);
+            }
+        };
+    }
+
+    /**
+     * @param min
+     * @param max inclusive
+     * @return
+     */
+    public static CountDistribution uniform(final int min, final int max) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("Invalid min/max: " + min + "/" + max);
+        }
+
+        return new CountDistribution() {
+            @Override
+            public int sample(Random random) {
+                return min + random.nextInt(max - min + 1);
+            }
+
+            @Override
+            public String toString() {
+                return "uniform:" + min + ":" + max;
+            }
+        };
+    }
+
+    public static CountDistribution logNormal(final int median, final int p99) {
+        if (median <= 0 || p99 < median) {
+            throw new IllegalArgumentException("Invalid median/p99: " + median + "/" + p99);
+        }
+
+        final double mu = Math.log(median);
+        final double sigma = (Math.log(p99) - mu) / Z_99;
+
+        return new CountDistribution() {
+            @Override
+            public int sample(Random random) {
+                return (int) Math.min(Integer.MAX_VALUE, Math.round(Math.exp(mu + sigma * random.nextGaussian())));
+            }
+
+            @Override
+            public String toString() {
+                return "lognormal:" + median + ":" + p99;
+            }
+        };
+    }
+
+    /**
+     * Parse a distribution written as described in the class documentation.
+     *
+     * @param value
+     * @return
+     */
+    public static CountDistribution parse(String value) {
+        final String[] parts = value.trim().split(":");
+
+        try {
+            if (parts.length == 1) {
+                return constant(Integer.parseInt(parts[0]));
+            }
+
+            switch (parts[0]) {
+                case "uniform":
+                    return uniform(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                case "lognormal":
+                    return logNormal(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid count distribution: " + value, e);
+        }
+
+        throw new IllegalArgumentException("Unknown count distribution: " + value);
+    }
+}
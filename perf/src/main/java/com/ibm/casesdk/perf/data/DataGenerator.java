@@ -0,0 +1,364 @@
+package com.ibm.casesdk.perf.data;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMInBasket;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMLayout;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMProperty;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMSolution;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Creates solutions, roles, workbaskets, tasks, properties and layouts for scale tests, shaped
+ * by a {@link GeneratorConfig}.
+ * <p>
+ * The output only depends on the configuration: the same seed always creates the same objects,
+ * in the same order. Property definitions are shared by all the tasks of a solution, like the
+ * properties of a case type, so property {@code n} always has the same name and type.
+ * <p>
+ * Task locations are grouped in clusters around the center of the configuration, the way cases
+ * gather in towns, which is what the nearby sample has to cope with.
+ */
+public class DataGenerator {
+
+    private static final String[] STEP_NAMES = {"Review Application", "Inspect Property",
+            "Approve Loan", "Collect Documents", "Verify Income", "Appraise Collateral"};
+    private static final String[] USERS = {"p8admin", "loanofficer", "inspector", "underwriter"};
+    private static final String[] RESPONSES = {"Complete", "Reject", "Escalate"};
+    private static final String TIMESTAMP_PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+    private static final long BASE_TIME = 1460448000000L;
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    /**
+     * The name and type of a property of a solution.
+     */
+    private static class PropertyDefinition {
+        String mSymbolicName;
+        String mDisplayName;
+        int mType;
+        boolean mChoiceList;
+        boolean mReadonly;
+        boolean mRequired;
+        boolean mHidden;
+    }
+
+    private final GeneratorConfig mConfig;
+    private final Random mRandom;
+    private final SimpleDateFormat mTimestampFormat;
+    private final double[][] mClusters;
+    private final HashMap<String, List<PropertyDefinition>> mDefinitions = new HashMap<>();
+    private int mTypeWeightTotal;
+    private int mTaskCount;
+    private int mCaseCount;
+
+    public DataGenerator(GeneratorConfig config) {
+        mConfig = config;
+        mRandom = new Random(config.getSeed());
+
+        mTimestampFormat = new SimpleDateFormat(TIMESTAMP_PATTERN, Locale.US);
+        mTimestampFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        for (int type = 0; type <= ICMProperty.IBMPropertyTypeUnknown; type++) {
+            mTypeWeightTotal += config.getPropertyTypeWeight(type);
+        }
+        if (mTypeWeightTotal <= 0) {
+            throw new IllegalArgumentException("All the property type weights are 0");
+        }
+
+        // the clusters are placed first, so they don't move when the sizes change
+        final Random clusterRandom = new Random(config.getSeed());
+        mClusters = new double[config.getClusterCount()][];
+        for (int i = 0; i < mClusters.length; i++) {
+            mClusters[i] = randomPointInRegion(clusterRandom);
+        }
+    }
+
+    /**
+     * @return {@link GeneratorConfig#getSolutionCount()} solutions with all their roles,
+     * workbaskets and tasks
+     */
+    public List<ICMSolution> generateSolutions() {
+        final List<ICMSolution> solutions = new ArrayList<>();
+        for (int s = 0; s < mConfig.getSolutionCount(); s++) {
+            solutions.add(generateSolution(s));
+        }
+        return solutions;
+    }
+
+    public FakeSolution generateSolution(int index) {
+        final FakeSolution solution = new FakeSolution();
+        solution.setName(numbered(mConfig.getSolutionName(), index));
+        solution.setPrefix(index == 0 ? mConfig.getSolutionPrefix() : mConfig.getSolutionPrefix() + "S" + index);
+        solution.setDescription("Generated solution " + index);
+        solution.setFolderId(randomGuid());
+
+        int totalTasks = 0;
+        for (int r = 0; r < mConfig.getRolesPerSolution(); r++) {
+            final FakeRole role = new FakeRole();
+            role.setId(r + 1);
+            role.setName(numbered(mConfig.getRoleName(), r));
+            role.setAuthoredName(role.getName());
+            role.setWorkbaskets(generateBaskets(solution.getPrefix(), solution.getPrefix() + "_R" + r,
+                    mConfig.getBasketsPerRole().sample(mRandom)));
+
+            int roleTasks = 0;
+            for (ICMInBasket basket : role.getWorkbaskets()) {
+                roleTasks += basket.getTasksCount();
+            }
+            role.setTotalTasks(roleTasks);
+            totalTasks += roleTasks;
+
+            solution.getRoles().add(role);
+        }
+
+        solution.setTotalTasks(totalTasks);
+        return solution;
+    }
+
+    /**
+     * @param solutionPrefix the prefix of the solution, which selects the property definitions
+     * @param queuePrefix    the prefix of the queue names, which must be unique
+     * @param count
+     * @return workbaskets with {@link GeneratorConfig#getTasksPerBasket()} tasks each, the first
+     * one is the inbox
+     */
+    public List<ICMInBasket> generateBaskets(String solutionPrefix, String queuePrefix, int count) {
+        final List<ICMInBasket> baskets = new ArrayList<>(count);
+
+        for (int b = 0; b < count; b++) {
+            final FakeInBasket basket = new FakeInBasket();
+            basket.setName(b == 0 ? "Inbox" : "Workbasket " + b);
+            basket.setAuthoredName(basket.getName());
+            basket.setQueueName(queuePrefix + "_Queue" + b);
+            basket.setInbox(b == 0);
+
+            final int taskCount = mConfig.getTasksPerBasket().sample(mRandom);
+            for (int t = 0; t < taskCount; t++) {
+                basket.getTasks().add(generateTask(solutionPrefix, basket.getQueueName()));
+            }
+            basket.setTasksCount(taskCount);
+
+            baskets.add(basket);
+        }
+
+        return baskets;
+    }
+
+    /**
+     * @param solutionPrefix the prefix of the solution, which selects the property definitions
+     * @param queueName      the queue of the workbasket the task is in
+     * @return a task with {@link GeneratorConfig#getPropertiesPerTask()} properties split over
+     * {@link GeneratorConfig#getSectionsPerTask()} layout sections
+     */
+    public FakeTask generateTask(String solutionPrefix, String queueName) {
+        final int number = mTaskCount++;
+        final FakeTask task = new FakeTask();
+        task.setId(String.format("{%08X-%04X-%04X-%04X-%012X}", number, mRandom.nextInt(0x10000),
+                mRandom.nextInt(0x10000), mRandom.nextInt(0x10000), mRandom.nextLong() & 0xFFFFFFFFFFFFL));
+
+        // a few tasks of the same case follow each other
+        if (mCaseCount == 0 || mRandom.nextInt(3) == 0) {
+            mCaseCount++;
+        }
+        task.setCaseId(String.format("{CASE%04X-0000-0000-0000-%012X}", mCaseCount, (long) mCaseCount));
+        task.setCaseTitle(solutionPrefix + "_Loan_" + (100000 + mCaseCount));
+        task.setCaseTypeId(solutionPrefix + "_Loan");
+
+        task.setStepName(STEP_NAMES[mRandom.nextInt(STEP_NAMES.length)]);
+        task.setSubject(task.getStepName() + " " + task.getCaseTitle());
+        task.setTaskType(solutionPrefix + "_" + task.getStepName().replace(' ', '_'));
+        task.setOriginator(USERS[mRandom.nextInt(USERS.length)]);
+        task.setCanReassign(mRandom.nextBoolean());
+
+        final long received = BASE_TIME - (long) (mRandom.nextDouble() * 90 * DAY);
+        task.setDateReceived(formatTimestamp(received));
+        task.setDeadline(formatTimestamp(received + (7 + mRandom.nextInt(30)) * DAY));
+        task.setOverdueStatus(mRandom.nextInt(10) == 0 ? 1 : 0);
+
+        if (mRandom.nextDouble() < mConfig.getLockedRate()) {
+            task.setLockedUser(USERS[mRandom.nextInt(USERS.length)]);
+        }
+
+        task.setResponses(new ArrayList<>(Arrays.asList(RESPONSES).subList(0, 1 + mRandom.nextInt(RESPONSES.length))));
+        task.getInbaskets().add(new FakeQueue(queueName));
+
+        if (mRandom.nextDouble() >= mConfig.getNoLocationRate()) {
+            final double[] location = randomTaskLocation();
+            task.setLatitude((float) location[0]);
+            task.setLongitude((float) location[1]);
+        }
+
+        final int propertyCount = mConfig.getPropertiesPerTask().sample(mRandom);
+        final List<PropertyDefinition> definitions = getDefinitions(solutionPrefix, propertyCount);
+        for (int p = 0; p < propertyCount; p++) {
+            task.getProperties().add(generateProperty(definitions.get(p), task));
+        }
+
+        task.setLayout(generateLayout(task.getProperties(), mConfig.getSectionsPerTask().sample(mRandom)));
+        return task;
+    }
+
+    /**
+     * Split the properties in contiguous groups, one per section. Each section is followed by a
+     * property layout for its first property, like a header field.
+     */
+    private List<ICMLayout> generateLayout(List<ICMProperty> properties, int sectionCount) {
+        final List<ICMLayout> layout = new ArrayList<>();
+        if (sectionCount <= 0) {
+            return layout;
+        }
+
+        final int perSection = (properties.size() + sectionCount - 1) / sectionCount;
+        for (int s = 0; s < sectionCount; s++) {
+            final FakeLayout section = new FakeLayout();
+            section.setType(ICMLayout.LAYOUT_SECTION);
+            section.setTitle("Section " + (s + 1));
+            section.setName("section" + s);
+
+            final int first = s * perSection;
+            for (int p = first; p < Math.min(properties.size(), first + perSection); p++) {
+                section.getProperties().add(properties.get(p).getSymbolicName());
+            }
+            layout.add(section);
+
+            if (first < properties.size()) {
+                final FakeLayout property = new FakeLayout();
+                property.setType(ICMLayout.LAYOUT_PROPERTY);
+                property.setName(properties.get(first).getSymbolicName());
+                layout.add(property);
+            }
+        }
+
+        return layout;
+    }
+
+    private FakeProperty generateProperty(PropertyDefinition definition, FakeTask task) {
+        final FakeProperty property = new FakeProperty();
+        property.setSymbolicName(definition.mSymbolicName);
+        property.setDisplayName(definition.mDisplayName);
+        property.setType(definition.mType);
+        property.setReadonly(definition.mReadonly);
+        property.setRequired(definition.mRequired);
+        property.setHidden(definition.mHidden);
+        property.setTaskId(task.getId());
+        property.setCaseId(task.getCaseId());
+
+        switch (definition.mType) {
+            case ICMProperty.IBMPropertyTypeBoolean:
+                property.setValue(String.valueOf(mRandom.nextBoolean()));
+                break;
+            case ICMProperty.IBMPropertyTypeInteger:
+                property.setMinimumValue(0);
+                property.setMaximumValue(1000000);
+                property.setValue(String.valueOf(mRandom.nextInt(1000000)));
+                break;
+            case ICMProperty.IBMPropertyTypeDouble:
+                property.setValue(String.format(Locale.US, "%.2f", mRandom.nextDouble() * 100000));
+                break;
+            case ICMProperty.IBMPropertyTypeTimestamp:
+                property.setValue(formatTimestamp(BASE_TIME - (long) (mRandom.nextDouble() * 365 * DAY)));
+                break;
+            default:
+                property.setMaximumLength(64);
+                if (definition.mChoiceList) {
+                    final Map<String, String> choices = new LinkedHashMap<>();
+                    for (int c = 0; c < 5; c++) {
+                        choices.put("choice" + c, "Choice " + c);
+                    }
+                    property.setChoices(choices);
+                    property.setChoiceList(true);
+                    property.setValue("choice" + mRandom.nextInt(choices.size()));
+                } else {
+                    property.setValue(Long.toHexString(mRandom.nextLong()));
+                }
+                break;
+        }
+
+        return property;
+    }
+
+    /**
+     * Get the first {@code count} property definitions of a solution. They are created from
+     * their own seed, so they don't depend on the order the tasks are generated in.
+     */
+    private List<PropertyDefinition> getDefinitions(String solutionPrefix, int count) {
+        List<PropertyDefinition> definitions = mDefinitions.get(solutionPrefix);
+        if (definitions == null) {
+            definitions = new ArrayList<>();
+            mDefinitions.put(solutionPrefix, definitions);
+        }
+
+        for (int p = definitions.size(); p < count; p++) {
+            final Random random = new Random(mConfig.getSeed() * 31 + solutionPrefix.hashCode() * 17L + p);
+            final PropertyDefinition definition = new PropertyDefinition();
+            definition.mSymbolicName = solutionPrefix + "_Property" + p;
+            definition.mDisplayName = "Property " + p;
+            definition.mType = randomType(random);
+            definition.mChoiceList = definition.mType == ICMProperty.IBMPropertyTypeString
+                    && random.nextDouble() < mConfig.getChoiceListRate();
+            definition.mReadonly = random.nextDouble() < mConfig.getReadonlyRate();
+            definition.mRequired = random.nextDouble() < mConfig.getRequiredRate();
+            definition.mHidden = random.nextDouble() < mConfig.getHiddenRate();
+            definitions.add(definition);
+        }
+
+        return definitions;
+    }
+
+    private int randomType(Random random) {
+        int draw = random.nextInt(mTypeWeightTotal);
+        for (int type = 0; type <= ICMProperty.IBMPropertyTypeUnknown; type++) {
+            draw -= mConfig.getPropertyTypeWeight(type);
+            if (draw < 0) {
+                return type;
+            }
+        }
+        return ICMProperty.IBMPropertyTypeString;
+    }
+
+    /**
+     * @return {latitude, longitude} around a random cluster, or anywhere in the region if there
+     * are no clusters
+     */
+    private double[] randomTaskLocation() {
+        if (mClusters.length == 0) {
+            return randomPointInRegion(mRandom);
+        }
+
+        final double[] cluster = mClusters[mRandom.nextInt(mClusters.length)];
+        return new double[]{
+                cluster[0] + mRandom.nextGaussian() * mConfig.getClusterRadius(),
+                cluster[1] + mRandom.nextGaussian() * mConfig.getClusterRadius()};
+    }
+
+    private double[] randomPointInRegion(Random random) {
+        // uniform over the disc, not bunched up in the middle
+        final double distance = mConfig.getRegionRadius() * Math.sqrt(random.nextDouble());
+        final double angle = random.nextDouble() * 2 * Math.PI;
+        return new double[]{
+                mConfig.getLatitude() + distance * Math.sin(angle),
+                mConfig.getLongitude() + distance * Math.cos(angle)};
+    }
+
+    private String randomGuid() {
+        return String.format("{%08X-%04X-%04X-%04X-%012X}", mRandom.nextInt(), mRandom.nextInt(0x10000),
+                mRandom.nextInt(0x10000), mRandom.nextInt(0x10000), mRandom.nextLong() & 0xFFFFFFFFFFFFL);
+    }
+
+    private String formatTimestamp(long time) {
+        return mTimestampFormat.format(new Date(time));
+    }
+
+    private static String numbered(String name, int index) {
+        return index == 0 ? name : name + " " + (index + 1);
+    }
+}
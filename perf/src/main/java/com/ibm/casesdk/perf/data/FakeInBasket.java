@@ -0,0 +1,86 @@
+package com.ibm.casesdk.perf.data;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMInBasket;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A workbasket and its tasks.
+ */
+public class FakeInBasket implements ICMInBasket {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<ICMTask> mTasks = new ArrayList<>();
+    private String mName;
+    private String mAuthoredName;
+    private String mDescription;
+    private String mQueueName;
+    private int mTasksCount;
+    private boolean mInbox;
+
+    @Override
+    public List<ICMTask> getTasks() {
+        return mTasks;
+    }
+
+    public void setTasks(List<ICMTask> tasks) {
+        mTasks = tasks;
+    }
+
+    @Override
+    public String getName() {
+        return mName;
+    }
+
+    public void setName(String name) {
+        mName = name;
+    }
+
+    @Override
+    public String getAuthoredName() {
+        return mAuthoredName;
+    }
+
+    public void setAuthoredName(String authoredName) {
+        mAuthoredName = authoredName;
+    }
+
+    @Override
+    public String getDescription() {
+        return mDescription;
+    }
+
+    public void setDescription(String description) {
+        mDescription = description;
+    }
+
+    @Override
+    public String getQueueName() {
+        return mQueueName;
+    }
+
+    public void setQueueName(String queueName) {
+        mQueueName = queueName;
+    }
+
+    @Override
+    public int getTasksCount() {
+        return mTasksCount;
+    }
+
+    public void setTasksCount(int tasksCount) {
+        mTasksCount = tasksCount;
+    }
+
+    @Override
+    public boolean isInbox() {
+        return mInbox;
+    }
+
+    public void setInbox(boolean inbox) {
+        mInbox = inbox;
+    }
+}
@@ -0,0 +1,55 @@
+package com.ibm.casesdk.perf.data;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A section or a property of the layout of a {@link FakeTask}.
+ */
+public class FakeLayout implements ICMLayout {
+
+    private static final long serialVersionUID = 1L;
+
+    private String mType;
+    private String mTitle;
+    private List<String> mProperties = new ArrayList<>();
+    private String mName;
+
+    @Override
+    public String getType() {
+        return mType;
+    }
+
+    public void setType(String type) {
+        mType = type;
+    }
+
+    @Override
+    public String getTitle() {
+        return mTitle;
+    }
+
+    public void setTitle(String title) {
+        mTitle = title;
+    }
+
+    @Override
+    public List<String> getProperties() {
+        return mProperties;
+    }
+
+    public void setProperties(List<String> properties) {
+        mProperties = properties;
+    }
+
+    @Override
+    public String getName() {
+        return mName;
+    }
+
+    public void setName(String name) {
+        mName = name;
+    }
+}
@@ -0,0 +1,194 @@
+package com.ibm.casesdk.perf.data;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMProperty;
+
+import java.util.Map;
+
+/**
+ * A property of a {@link FakeTask}.
+ */
+public class FakeProperty implements ICMProperty {
+
+    private static final long serialVersionUID = 1L;
+
+    private String mDisplayName;
+    private String mSymbolicName;
+    private Object mValue;
+    private String mDescription;
+    private boolean mArray;
+    private boolean mReadonly;
+    private int mType;
+    private Object mDefaultValue;
+    private int mMaximumLength;
+    private Object mMaximumValue;
+    private Object mMinimumValue;
+    private boolean mHidden;
+    private boolean mRequired;
+    private Map<String, String> mChoices;
+    private boolean mChoiceList;
+    private String mCaseId;
+    private String mTaskId;
+    private String mDocumentId;
+
+    @Override
+    public String getDisplayName() {
+        return mDisplayName;
+    }
+
+    public void setDisplayName(String displayName) {
+        mDisplayName = displayName;
+    }
+
+    @Override
+    public String getSymbolicName() {
+        return mSymbolicName;
+    }
+
+    public void setSymbolicName(String symbolicName) {
+        mSymbolicName = symbolicName;
+    }
+
+    @Override
+    public Object getValue() {
+        return mValue;
+    }
+
+    public void setValue(Object value) {
+        mValue = value;
+    }
+
+    @Override
+    public String getDescription() {
+        return mDescription;
+    }
+
+    public void setDescription(String description) {
+        mDescription = description;
+    }
+
+    @Override
+    public boolean isArray() {
+        return mArray;
+    }
+
+    public void setArray(boolean array) {
+        mArray = array;
+    }
+
+    @Override
+    public boolean isReadonly() {
+        return mReadonly;
+    }
+
+    public void setReadonly(boolean readonly) {
+        mReadonly = readonly;
+    }
+
+    @Override
+    public int getType() {
+        return mType;
+    }
+
+    public void setType(int type) {
+        mType = type;
+    }
+
+    @Override
+    public Object getDefaultValue() {
+        return mDefaultValue;
+    }
+
+    public void setDefaultValue(Object defaultValue) {
+        mDefaultValue = defaultValue;
+    }
+
+    @Override
+    public int getMaximumLength() {
+        return mMaximumLength;
+    }
+
+    public void setMaximumLength(int maximumLength) {
+        mMaximumLength = maximumLength;
+    }
+
+    @Override
+    public Object getMaximumValue() {
+        return mMaximumValue;
+    }
+
+    public void setMaximumValue(Object maximumValue) {
+        mMaximumValue = maximumValue;
+    }
+
+    @Override
+    public Object getMinimumValue() {
+        return mMinimumValue;
+    }
+
+    public void setMinimumValue(Object minimumValue) {
+        mMinimumValue = minimumValue;
+    }
+
+    @Override
+    public boolean isHidden() {
+        return mHidden;
+    }
+
+    public void setHidden(boolean hidden) {
+        mHidden = hidden;
+    }
+
+    @Override
+    public boolean isRequired() {
+        return mRequired;
+    }
+
+    public void setRequired(boolean required) {
+        mRequired = required;
+    }
+
+    @Override
+    public Map<String, String> getChoices() {
+        return mChoices;
+    }
+
+    public void setChoices(Map<String, String> choices) {
+        mChoices = choices;
+    }
+
+    @Override
+    public boolean hasChoiceList() {
+        return mChoiceList;
+    }
+
+    public void setChoiceList(boolean choiceList) {
+        mChoiceList = choiceList;
+    }
+
+    @Override
+    public String getCaseId() {
+        return mCaseId;
+    }
+
+    public void setCaseId(String caseId) {
+        mCaseId = caseId;
+    }
+
+    @Override
+    public String getTaskId() {
+        return mTaskId;
+    }
+
+    public void setTaskId(String taskId) {
+        mTaskId = taskId;
+    }
+
+    @Override
+    public String getDocumentId() {
+        return mDocumentId;
+    }
+
+    public void setDocumentId(String documentId) {
+        mDocumentId = documentId;
+    }
+}
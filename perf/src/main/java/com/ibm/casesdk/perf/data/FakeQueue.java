@@ -0,0 +1,26 @@
+package com.ibm.casesdk.perf.data;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMQueue;
+
+/**
+ * A queue name, as listed in {@link FakeTask#getInbaskets()}.
+ */
+public class FakeQueue implements ICMQueue {
+
+    private static final long serialVersionUID = 1L;
+
+    private String mQueueName;
+
+    public FakeQueue(String queueName) {
+        mQueueName = queueName;
+    }
+
+    @Override
+    public String getQueueName() {
+        return mQueueName;
+    }
+
+    public void setQueueName(String queueName) {
+        mQueueName = queueName;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ibm.casesdk.perf.data;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMInBasket;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMRole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A role and the workbaskets it can see.
+ */
+public class FakeRole implements ICMRole {
+
+    private static final long serialVersionUID = 1L;
+
+    private int mId;
+    private String mName;
+    private String mAuthoredName;
+    private String mDescription;
+    private List<ICMInBasket> mWorkbaskets = new ArrayList<>();
+    private int mTotalTasks;
+
+    @Override
+    public int getId() {
+        return mId;
+    }
+
+    public void setId(int id) {
+        mId = id;
+    }
+
+    @Override
+    public String getName() {
+        return mName;
+    }
+
+    public void setName(String name) {
+        mName = name;
+    }
+
+    @Override
+    public String getAuthoredName() {
+        return mAuthoredName;
+    }
+
+    public void setAuthoredName(String authoredName) {
+        mAuthoredName = authoredName;
+    }
+
+    @Override
+    public String getDescription() {
+        return mDescription;
+    }
+
+    public void setDescription(String description) {
+        mDescription = description;
+    }
+
+    @Override
+    public List<ICMInBasket> getWorkbaskets() {
+        return mWorkbaskets;
+    }
+
+    public void setWorkbaskets(List<ICMInBasket> workbaskets) {
+        mWorkbaskets = workbaskets;
+    }
+
+    @Override
+    public int getTotalTasks() {
+        return mTotalTasks;
+    }
+
+    public void setTotalTasks(int totalTasks) {
+        mTotalTasks = totalTasks;
+    }
+}
@@ -0,0 +1,109 @@
+package com.ibm.casesdk.perf.data;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMCaseType;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMDocumentType;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMInBasket;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMRole;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMSolution;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A solution and its roles. Document and case types are always empty.
+ */
+public class FakeSolution implements ICMSolution {
+
+    private static final long serialVersionUID = 1L;
+
+    private String mName;
+    private String mPrefix;
+    private String mDescription;
+    private String mFolderId;
+    private int mTotalTasks;
+    private List<ICMDocumentType> mDocumentTypes = new ArrayList<>();
+    private List<ICMCaseType> mCaseTypes = new ArrayList<>();
+    private List<ICMRole> mRoles = new ArrayList<>();
+    private ICMInBasket mInbox;
+
+    @Override
+    public String getName() {
+        return mName;
+    }
+
+    public void setName(String name) {
+        mName = name;
+    }
+
+    @Override
+    public String getPrefix() {
+        return mPrefix;
+    }
+
+    public void setPrefix(String prefix) {
+        mPrefix = prefix;
+    }
+
+    @Override
+    public String getDescription() {
+        return mDescription;
+    }
+
+    public void setDescription(String description) {
+        mDescription = description;
+    }
+
+    @Override
+    public String getFolderId() {
+        return mFolderId;
+    }
+
+    public void setFolderId(String folderId) {
+        mFolderId = folderId;
+    }
+
+    @Override
+    public int getTotalTasks() {
+        return mTotalTasks;
+    }
+
+    public void setTotalTasks(int totalTasks) {
+        mTotalTasks = totalTasks;
+    }
+
+    @Override
+    public List<ICMDocumentType> getDocumentTypes() {
+        return mDocumentTypes;
+    }
+
+    public void setDocumentTypes(List<ICMDocumentType> documentTypes) {
+        mDocumentTypes = documentTypes;
+    }
+
+    @Override
+    public List<ICMCaseType> getCaseTypes() {
+        return mCaseTypes;
+    }
+
+    public void setCaseTypes(List<ICMCaseType> caseTypes) {
+        mCaseTypes = caseTypes;
+    }
+
+    @Override
+    public List<ICMRole> getRoles() {
+        return mRoles;
+    }
+
+    public void setRoles(List<ICMRole> roles) {
+        mRoles = roles;
+    }
+
+    @Override
+    public ICMInBasket getInbox() {
+        return mInbox;
+    }
+
+    public void setInbox(ICMInBasket inbox) {
+        mInbox = inbox;
+    }
+}
@@ -0,0 +1,258 @@
+package com.ibm.casesdk.perf.data;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMLayout;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMProperty;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMQueue;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A task with plain fields, which can be changed at any time.
+ */
+public class FakeTask implements ICMTask {
+
+    private static final long serialVersionUID = 1L;
+
+    private String mId;
+    private String mSubject;
+    private String mStepName;
+    private String mStepDescription;
+    private String mParticipantName;
+    private String mOriginator;
+    private String mDateReceived;
+    private String mDeadline;
+    private String mReminderDate;
+    private String mLockedUser;
+    private boolean mCanReassign;
+    private int mOverdueStatus;
+    private String mComment;
+    private String mCaseId;
+    private String mCaseTitle;
+    private String mTaskType;
+    private int mState;
+    private String mCaseTypeId;
+    private List<String> mResponses = new ArrayList<>();
+    private List<ICMProperty> mProperties = new ArrayList<>();
+    private List<ICMLayout> mLayout = new ArrayList<>();
+    private List<ICMQueue> mInbaskets = new ArrayList<>();
+    private float mLatitude;
+    private float mLongitude;
+
+    @Override
+    public String getId() {
+        return mId;
+    }
+
+    public void setId(String id) {
+        mId = id;
+    }
+
+    @Override
+    public String getSubject() {
+        return mSubject;
+    }
+
+    public void setSubject(String subject) {
+        mSubject = subject;
+    }
+
+    @Override
+    public String getStepName() {
+        return mStepName;
+    }
+
+    public void setStepName(String stepName) {
+        mStepName = stepName;
+    }
+
+    @Override
+    public String getStepDescription() {
+        return mStepDescription;
+    }
+
+    public void setStepDescription(String stepDescription) {
+        mStepDescription = stepDescription;
+    }
+
+    @Override
+    public String getParticipantName() {
+        return mParticipantName;
+    }
+
+    public void setParticipantName(String participantName) {
+        mParticipantName = participantName;
+    }
+
+    @Override
+    public String getOriginator() {
+        return mOriginator;
+    }
+
+    public void setOriginator(String originator) {
+        mOriginator = originator;
+    }
+
+    @Override
+    public String getDateReceived() {
+        return mDateReceived;
+    }
+
+    public void setDateReceived(String dateReceived) {
+        mDateReceived = dateReceived;
+    }
+
+    @Override
+    public String getDeadline() {
+        return mDeadline;
+    }
+
+    public void setDeadline(String deadline) {
+        mDeadline = deadline;
+    }
+
+    @Override
+    public String getReminderDate() {
+        return mReminderDate;
+    }
+
+    public void setReminderDate(String reminderDate) {
+        mReminderDate = reminderDate;
+    }
+
+    @Override
+    public String getLockedUser() {
+        return mLockedUser;
+    }
+
+    public void setLockedUser(String lockedUser) {
+        mLockedUser = lockedUser;
+    }
+
+    @Override
+    public boolean isCanReassign() {
+        return mCanReassign;
+    }
+
+    public void setCanReassign(boolean canReassign) {
+        mCanReassign = canReassign;
+    }
+
+    @Override
+    public int getOverdueStatus() {
+        return mOverdueStatus;
+    }
+
+    public void setOverdueStatus(int overdueStatus) {
+        mOverdueStatus = overdueStatus;
+    }
+
+    @Override
+    public String getComment() {
+        return mComment;
+    }
+
+    public void setComment(String comment) {
+        mComment = comment;
+    }
+
+    @Override
+    public String getCaseId() {
+        return mCaseId;
+    }
+
+    public void setCaseId(String caseId) {
+        mCaseId = caseId;
+    }
+
+    @Override
+    public String getCaseTitle() {
+        return mCaseTitle;
+    }
+
+    public void setCaseTitle(String caseTitle) {
+        mCaseTitle = caseTitle;
+    }
+
+    @Override
+    public String getTaskType() {
+        return mTaskType;
+    }
+
+    public void setTaskType(String taskType) {
+        mTaskType = taskType;
+    }
+
+    @Override
+    public int getState() {
+        return mState;
+    }
+
+    public void setState(int state) {
+        mState = state;
+    }
+
+    @Override
+    public String getCaseTypeId() {
+        return mCaseTypeId;
+    }
+
+    public void setCaseTypeId(String caseTypeId) {
+        mCaseTypeId = caseTypeId;
+    }
+
+    @Override
+    public List<String> getResponses() {
+        return mResponses;
+    }
+
+    public void setResponses(List<String> responses) {
+        mResponses = responses;
+    }
+
+    @Override
+    public List<ICMProperty> getProperties() {
+        return mProperties;
+    }
+
+    public void setProperties(List<ICMProperty> properties) {
+        mProperties = properties;
+    }
+
+    @Override
+    public List<ICMLayout> getLayout() {
+        return mLayout;
+    }
+
+    public void setLayout(List<ICMLayout> layout) {
+        mLayout = layout;
+    }
+
+    @Override
+    public List<ICMQueue> getInbaskets() {
+        return mInbaskets;
+    }
+
+    public void setInbaskets(List<ICMQueue> inbaskets) {
+        mInbaskets = inbaskets;
+    }
+
+    @Override
+    public float getLatitude() {
+        return mLatitude;
+    }
+
+    public void setLatitude(float latitude) {
+        mLatitude = latitude;
+    }
+
+    @Override
+    public float getLongitude() {
+        return mLongitude;
+    }
+
+    public void setLongitude(float longitude) {
+        mLongitude = longitude;
+    }
+}
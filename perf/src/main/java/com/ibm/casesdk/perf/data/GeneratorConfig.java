@@ -0,0 +1,264 @@
+package com.ibm.casesdk.perf.data;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMProperty;
+
+/**
+ * The shape of the data created by a {@link DataGenerator}. The defaults describe a small
+ * solution like the one used by the samples: one role, 5 workbaskets of 100 tasks with 20
+ * properties each, around London.
+ */
+public class GeneratorConfig {
+
+    private long mSeed = 42;
+
+    // solutions and roles
+    private String mSolutionName = "CRE Loans";
+    private String mSolutionPrefix = "CRE1";
+    private String mRoleName = "Loan Officer";
+    private int mSolutionCount = 1;
+    private int mRolesPerSolution = 1;
+
+    // sizes
+    private CountDistribution mBasketsPerRole = CountDistribution.constant(5);
+    private CountDistribution mTasksPerBasket = CountDistribution.constant(100);
+    private CountDistribution mPropertiesPerTask = CountDistribution.constant(20);
+    private CountDistribution mSectionsPerTask = CountDistribution.constant(1);
+
+    // properties, the weights are indexed by ICMProperty type
+    private int[] mPropertyTypeWeights = new int[ICMProperty.IBMPropertyTypeUnknown + 1];
+    private double mChoiceListRate = 0.1;
+    private double mReadonlyRate = 0.2;
+    private double mRequiredRate = 0.1;
+    private double mHiddenRate = 0.05;
+    private double mLockedRate = 0.05;
+
+    // locations, in degrees
+    private double mLatitude = 51.5074;
+    private double mLongitude = -0.1278;
+    private int mClusterCount = 5;
+    private double mRegionRadius = 0.1;
+    private double mClusterRadius = 0.01;
+    private double mNoLocationRate = 0;
+
+    public GeneratorConfig() {
+        mPropertyTypeWeights[ICMProperty.IBMPropertyTypeBoolean] = 10;
+        mPropertyTypeWeights[ICMProperty.IBMPropertyTypeInteger] = 15;
+        mPropertyTypeWeights[ICMProperty.IBMPropertyTypeDouble] = 10;
+        mPropertyTypeWeights[ICMProperty.IBMPropertyTypeTimestamp] = 15;
+        mPropertyTypeWeights[ICMProperty.IBMPropertyTypeString] = 50;
+    }
+
+    public long getSeed() {
+        return mSeed;
+    }
+
+    public void setSeed(long seed) {
+        mSeed = seed;
+    }
+
+    public String getSolutionName() {
+        return mSolutionName;
+    }
+
+    /**
+     * @param solutionName the name of the first solution, the next ones get a number appended
+     */
+    public void setSolutionName(String solutionName) {
+        mSolutionName = solutionName;
+    }
+
+    public String getSolutionPrefix() {
+        return mSolutionPrefix;
+    }
+
+    public void setSolutionPrefix(String solutionPrefix) {
+        mSolutionPrefix = solutionPrefix;
+    }
+
+    public String getRoleName() {
+        return mRoleName;
+    }
+
+    /**
+     * @param roleName the name of the first role of every solution, the next ones get a number
+     *                 appended
+     */
+    public void setRoleName(String roleName) {
+        mRoleName = roleName;
+    }
+
+    public int getSolutionCount() {
+        return mSolutionCount;
+    }
+
+    public void setSolutionCount(int solutionCount) {
+        mSolutionCount = solutionCount;
+    }
+
+    public int getRolesPerSolution() {
+        return mRolesPerSolution;
+    }
+
+    public void setRolesPerSolution(int rolesPerSolution) {
+        mRolesPerSolution = rolesPerSolution;
+    }
+
+    public CountDistribution getBasketsPerRole() {
+        return mBasketsPerRole;
+    }
+
+    public void setBasketsPerRole(CountDistribution basketsPerRole) {
+        mBasketsPerRole = basketsPerRole;
+    }
+
+    public CountDistribution getTasksPerBasket() {
+        return mTasksPerBasket;
+    }
+
+    public void setTasksPerBasket(CountDistribution tasksPerBasket) {
+        mTasksPerBasket = tasksPerBasket;
+    }
+
+    public CountDistribution getPropertiesPerTask() {
+        return mPropertiesPerTask;
+    }
+
+    public void setPropertiesPerTask(CountDistribution propertiesPerTask) {
+        mPropertiesPerTask = propertiesPerTask;
+    }
+
+    public CountDistribution getSectionsPerTask() {
+        return mSectionsPerTask;
+    }
+
+    /**
+     * @param sectionsPerTask the number of layout sections, the properties of a task are split
+     *                        over them. With 0 sections the task has no layout.
+     */
+    public void setSectionsPerTask(CountDistribution sectionsPerTask) {
+        mSectionsPerTask = sectionsPerTask;
+    }
+
+    /**
+     * @param type one of the {@code IBMPropertyType*} constants of {@link ICMProperty}
+     * @return
+     */
+    public int getPropertyTypeWeight(int type) {
+        return mPropertyTypeWeights[type];
+    }
+
+    /**
+     * @param type   one of the {@code IBMPropertyType*} constants of {@link ICMProperty}
+     * @param weight
+     */
+    public void setPropertyTypeWeight(int type, int weight) {
+        mPropertyTypeWeights[type] = weight;
+    }
+
+    public double getChoiceListRate() {
+        return mChoiceListRate;
+    }
+
+    /**
+     * @param choiceListRate the fraction of the string properties that have a choice list
+     */
+    public void setChoiceListRate(double choiceListRate) {
+        mChoiceListRate = choiceListRate;
+    }
+
+    public double getReadonlyRate() {
+        return mReadonlyRate;
+    }
+
+    public void setReadonlyRate(double readonlyRate) {
+        mReadonlyRate = readonlyRate;
+    }
+
+    public double getRequiredRate() {
+        return mRequiredRate;
+    }
+
+    public void setRequiredRate(double requiredRate) {
+        mRequiredRate = requiredRate;
+    }
+
+    public double getHiddenRate() {
+        return mHiddenRate;
+    }
+
+    public void setHiddenRate(double hiddenRate) {
+        mHiddenRate = hiddenRate;
+    }
+
+    public double getLockedRate() {
+        return mLockedRate;
+    }
+
+    /**
+     * @param lockedRate the fraction of the tasks locked by another user
+     */
+    public void setLockedRate(double lockedRate) {
+        mLockedRate = lockedRate;
+    }
+
+    public double getLatitude() {
+        return mLatitude;
+    }
+
+    public void setLatitude(double latitude) {
+        mLatitude = latitude;
+    }
+
+    public double getLongitude() {
+        return mLongitude;
+    }
+
+    public void setLongitude(double longitude) {
+        mLongitude = longitude;
+    }
+
+    public int getClusterCount() {
+        return mClusterCount;
+    }
+
+    /**
+     * @param clusterCount the number of places the tasks are grouped around, 0 to spread them
+     *                     uniformly over the region
+     */
+    public void setClusterCount(int clusterCount) {
+        mClusterCount = clusterCount;
+    }
+
+    public double getRegionRadius() {
+        return mRegionRadius;
+    }
+
+    /**
+     * @param regionRadius the distance from the center within which the clusters are placed
+     */
+    public void setRegionRadius(double regionRadius) {
+        mRegionRadius = regionRadius;
+    }
+
+    public double getClusterRadius() {
+        return mClusterRadius;
+    }
+
+    /**
+     * @param clusterRadius the standard deviation of the distance of a task to its cluster
+     */
+    public void setClusterRadius(double clusterRadius) {
+        mClusterRadius = clusterRadius;
+    }
+
+    public double getNoLocationRate() {
+        return mNoLocationRate;
+    }
+
+    /**
+     * @param noLocationRate the fraction of the tasks without a location
+     */
+    public void setNoLocationRate(double noLocationRate) {
+        mNoLocationRate = noLocationRate;
+    }
+}
@@ -0,0 +1,89 @@
+package com.ibm.casesdk.perf.load;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.Map;
+
+/**
+ * Sends the requests over HTTP, to the stand-in server or to a real one.
+ */
+public class HttpTransport implements Transport {
+
+    private static final String CHARSET = "UTF-8";
+
+    private final String mBaseUrl;
+    private final int mTimeoutMillis;
+
+    /**
+     * @param baseUrl       the endpoint, ending with a slash
+     * @param timeoutMillis the connect and read timeout
+     */
+    public HttpTransport(String baseUrl, int timeoutMillis) {
+        mBaseUrl = baseUrl;
+        mTimeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Response execute(String method, String path, Map<String, String> params) throws IOException {
+        final String query = encode(params);
+        final boolean post = METHOD_POST.equals(method);
+
+        final URL url = new URL(mBaseUrl + path + (post || query.isEmpty() ? "" : "?" + query));
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(mTimeoutMillis);
+        connection.setReadTimeout(mTimeoutMillis);
+        connection.setRequestMethod(method);
+
+        try {
+            if (post) {
+                final byte[] body = query.getBytes(CHARSET);
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+                connection.setFixedLengthStreamingMode(body.length);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body);
+                }
+            }
+
+            final int status = connection.getResponseCode();
+            final InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            return new Response(status, in != null ? read(in) : "");
+        } finally {
+            // keep-alive still reuses the socket once the body has been read
+            connection.disconnect();
+        }
+    }
+
+    private static String encode(Map<String, String> params) throws UnsupportedEncodingException {
+        final StringBuilder query = new StringBuilder();
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            if (query.length() > 0) {
+                query.append('&');
+            }
+            query.append(URLEncoder.encode(param.getKey(), CHARSET))
+                    .append('=')
+                    .append(URLEncoder.encode(param.getValue(), CHARSET));
+        }
+        return query.toString();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toString(CHARSET);
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.ibm.casesdk.perf.load;
+
+import com.ibm.casesdk.perf.server.StandInServer;
+
+import java.util.Map;
+
+/**
+ * Calls a stand-in server directly, without sockets. The client and the server work happen on
+ * the same thread, so the allocation rate covers both.
+ */
+public class InProcessTransport implements Transport {
+
+    private final StandInServer mServer;
+
+    public InProcessTransport(StandInServer server) {
+        mServer = server;
+    }
+
+    @Override
+    public Response execute(String method, String path, Map<String, String> params) throws InterruptedException {
+        final StandInServer.Reply reply = mServer.dispatch(path, params);
+        return new Response(reply.getStatus(), reply.getBody());
+    }
+}
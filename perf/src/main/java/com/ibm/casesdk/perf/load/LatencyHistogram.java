@@ -0,0 +1,108 @@
+package com.ibm.casesdk.perf.load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies.
+ * <p>
+ * Values are counted in logarithmic buckets, each power of two being split into 4 buckets, so
+ * any recorded value is reported with an error of at most 25%. Recording only uses atomic
+ * increments and can be done from any thread.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKET_COUNT = 62 * SUB_BUCKETS;
+
+    private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong mCount = new AtomicLong();
+    private final AtomicLong mSum = new AtomicLong();
+    private final AtomicLong mMax = new AtomicLong();
+
+    /**
+     * Record a value.
+     *
+     * @param value a latency, negative values are counted as 0
+     */
+    public void record(long value) {
+        final long positiveValue = Math.max(0, value);
+
+        mBuckets.incrementAndGet(bucketIndex(positiveValue));
+        mCount.incrementAndGet();
+        mSum.addAndGet(positiveValue);
+
+        long max = mMax.get();
+        while (positiveValue > max && !mMax.compareAndSet(max, positiveValue)) {
+            max = mMax.get();
+        }
+    }
+
+    public long getCount() {
+        return mCount.get();
+    }
+
+    public long getMax() {
+        return mMax.get();
+    }
+
+    /**
+     * @return the average of the recorded values or 0 if there are none
+     */
+    public double getMean() {
+        final long count = mCount.get();
+        return count > 0 ? (double) mSum.get() / count : 0;
+    }
+
+    /**
+     * Get the value below which the given percentage of the recorded values fall.
+     *
+     * @param percentile between 0 and 100
+     * @return the upper bound of the bucket holding the percentile, or 0 if there are no values
+     */
+    public long getPercentile(double percentile) {
+        // the buckets are read one by one, so count them again instead of using mCount
+        final long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = mBuckets.get(i);
+            total += counts[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        // the two bits after the highest one select the bucket within the power of two
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+        return (exponent - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        final int exponent = index / SUB_BUCKETS + 1;
+        final int subBucket = index % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1L) << (exponent - 2)) - 1;
+    }
+}
@@ -0,0 +1,189 @@
+package com.ibm.casesdk.perf.load;
+
+import com.ibm.casesdk.perf.record.Playback;
+import com.ibm.casesdk.perf.record.Recording;
+import com.ibm.casesdk.perf.record.ReplayTransport;
+import com.ibm.casesdk.perf.server.ServerConfig;
+import com.ibm.casesdk.perf.server.StandInServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs scenarios with concurrent simulated users and prints the throughput, the latency
+ * percentiles of every request and the allocation rate of each one.
+ * <p>
+ * Options:
+ * <ul>
+ * <li>{@code --users <n>} the number of concurrent users, 20 by default</li>
+ * <li>{@code --duration <s>} the duration of each scenario, 30 seconds by default</li>
+ * <li>{@code --scenario <name|name:browse:lock:update:complete>} can be repeated, all the
+ * {@link Scenario#getDefaults() default scenarios} run if none is given</li>
+ * <li>{@code --transport <inprocess|http>} how the embedded stand-in server is called,
+ * in-process by default</li>
+ * <li>{@code --url <endpoint>} use an already running server instead of the embedded one</li>
+ * <li>{@code --config <file>} the configuration of the embedded stand-in server</li>
+ * <li>{@code --replay <file>} answer from a recording of a real server instead, see
+ * {@link com.ibm.casesdk.perf.record.RecordingProxy}</li>
+ * <li>{@code --latency-scale <factor>} the factor applied to the recorded latencies, 1 by
+ * default</li>
+ * </ul>
+ */
+public class LoadDriver {
+
+    private static final int HTTP_TIMEOUT = 30000;
+
+    private final ServerConfig mConfig;
+    private final String mUrl;
+    private final boolean mInProcess;
+    private final int mUsers;
+    private final long mDurationMillis;
+    private Recording mRecording;
+    private double mLatencyScale = 1;
+
+    /**
+     * @param config         the configuration of the embedded stand-in server
+     * @param url            the endpoint of an external server, or {@code null} to use the
+     *                       embedded one
+     * @param inProcess      {@code true} to call the embedded server without HTTP
+     * @param users
+     * @param durationMillis
+     */
+    public LoadDriver(ServerConfig config, String url, boolean inProcess, int users, long durationMillis) {
+        mConfig = config;
+        mUrl = url;
+        mInProcess = inProcess;
+        mUsers = users;
+        mDurationMillis = durationMillis;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        File configFile = null;
+        File replayFile = null;
+        double latencyScale = 1;
+        String url = null;
+        boolean inProcess = true;
+        int users = 20;
+        long durationMillis = 30000;
+        final List<Scenario> scenarios = new ArrayList<>();
+
+        for (int i = 0; i < args.length - 1; i += 2) {
+            final String value = args[i + 1];
+            switch (args[i]) {
+                case "--users":
+                    users = Integer.parseInt(value);
+                    break;
+                case "--duration":
+                    durationMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+                    break;
+                case "--scenario":
+                    scenarios.add(Scenario.parse(value));
+                    break;
+                case "--transport":
+                    inProcess = !"http".equals(value);
+                    break;
+                case "--url":
+                    url = value;
+                    break;
+                case "--config":
+                    configFile = new File(value);
+                    break;
+                case "--replay":
+                    replayFile = new File(value);
+                    break;
+                case "--latency-scale":
+                    latencyScale = Double.parseDouble(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        final LoadDriver driver = new LoadDriver(ServerConfig.load(configFile), url, inProcess, users, durationMillis);
+        if (replayFile != null) {
+            driver.setReplay(Recording.load(replayFile), latencyScale);
+        }
+        for (Scenario scenario : scenarios.isEmpty() ? Scenario.getDefaults() : scenarios) {
+            System.out.println(scenario + ", " + users + " users");
+            final long start = System.nanoTime();
+            final LoadMetrics metrics = driver.run(scenario);
+            System.out.print(metrics.formatReport(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            System.out.println();
+        }
+    }
+
+    /**
+     * Answer the requests from a recording instead of a server. The solution and the role of the
+     * users are still the ones of the configuration, they must be in the recording.
+     *
+     * @param recording
+     * @param latencyScale the factor applied to the recorded latencies
+     */
+    public void setReplay(Recording recording, double latencyScale) {
+        mRecording = recording;
+        mLatencyScale = latencyScale;
+    }
+
+    /**
+     * Run a scenario until its duration is over. The embedded server is created again for every
+     * scenario, so completed tasks don't carry over, and a recording is replayed from its start.
+     *
+     * @param scenario
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public LoadMetrics run(Scenario scenario) throws IOException, InterruptedException {
+        StandInServer server = null;
+        final Transport transport;
+
+        if (mRecording != null) {
+            transport = new ReplayTransport(new Playback(mRecording, mLatencyScale));
+        } else if (mUrl != null) {
+            transport = new HttpTransport(mUrl, HTTP_TIMEOUT);
+        } else {
+            server = new StandInServer(mConfig);
+            if (mInProcess) {
+                transport = new InProcessTransport(server);
+            } else {
+                server.start();
+                transport = new HttpTransport(server.getUrl(), HTTP_TIMEOUT);
+            }
+        }
+
+        final String solution = mConfig.getString("dataset.solution", "CRE Loans");
+        final String role = mConfig.getString("dataset.role", "Loan Officer");
+        final LoadMetrics metrics = new LoadMetrics();
+        final CountDownLatch done = new CountDownLatch(mUsers);
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(mDurationMillis);
+        final List<Thread> threads = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < mUsers; i++) {
+                final SimulatedUser user = new SimulatedUser(transport, scenario, metrics, mConfig.getSeed() + i,
+                        "user" + i, solution, role, deadline, done);
+                final Thread thread = new Thread(user, "load-user-" + i);
+                thread.setDaemon(true);
+                threads.add(thread);
+                thread.start();
+            }
+
+            // a user can be stuck in a slow request, don't wait for it forever
+            if (!done.await(mDurationMillis + HTTP_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                for (Thread thread : threads) {
+                    thread.interrupt();
+                }
+            }
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+
+        return metrics;
+    }
+}
@@ -0,0 +1,112 @@
+package com.ibm.casesdk.perf.load;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The results of a load run: the latency of every request, the number of actions and the bytes
+ * allocated by the simulated users. All the methods can be called from any thread.
+ */
+public class LoadMetrics {
+
+    private final ConcurrentHashMap<String, LatencyHistogram> mLatencies = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> mErrors = new ConcurrentHashMap<>();
+    private final AtomicLongArray mActions = new AtomicLongArray(Scenario.ACTION_NAMES.length);
+    private final AtomicLongArray mFailedActions = new AtomicLongArray(Scenario.ACTION_NAMES.length);
+    private final AtomicLong mAllocatedBytes = new AtomicLong();
+
+    /**
+     * @param request        the name of the request, e.g. {@code lock}
+     * @param latencyMicros
+     * @param success
+     */
+    public void recordRequest(String request, long latencyMicros, boolean success) {
+        LatencyHistogram histogram = mLatencies.get(request);
+        if (histogram == null) {
+            mLatencies.putIfAbsent(request, new LatencyHistogram());
+            histogram = mLatencies.get(request);
+        }
+        histogram.record(latencyMicros);
+
+        if (!success) {
+            AtomicLong errors = mErrors.get(request);
+            if (errors == null) {
+                mErrors.putIfAbsent(request, new AtomicLong());
+                errors = mErrors.get(request);
+            }
+            errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * @param action  one of the {@code ACTION_*} constants of {@link Scenario}
+     * @param success
+     */
+    public void recordAction(int action, boolean success) {
+        mActions.incrementAndGet(action);
+        if (!success) {
+            mFailedActions.incrementAndGet(action);
+        }
+    }
+
+    public void recordAllocation(long bytes) {
+        mAllocatedBytes.addAndGet(bytes);
+    }
+
+    public long getActionCount(int action) {
+        return mActions.get(action);
+    }
+
+    public long getTotalActionCount() {
+        long total = 0;
+        for (int i = 0; i < mActions.length(); i++) {
+            total += mActions.get(i);
+        }
+        return total;
+    }
+
+    public long getAllocatedBytes() {
+        return mAllocatedBytes.get();
+    }
+
+    /**
+     * @param elapsedMillis the duration of the run
+     * @return a readable report of the run
+     */
+    public String formatReport(long elapsedMillis) {
+        final double seconds = Math.max(1, elapsedMillis) / 1000.0;
+        final long actions = getTotalActionCount();
+        final StringBuilder report = new StringBuilder();
+
+        report.append(String.format(Locale.US, "  throughput %.1f actions/s, %.1f completed tasks/s\n",
+                actions / seconds, (mActions.get(Scenario.ACTION_COMPLETE)
+                        - mFailedActions.get(Scenario.ACTION_COMPLETE)) / seconds));
+
+        for (int action = 0; action < Scenario.ACTION_NAMES.length; action++) {
+            if (mActions.get(action) > 0) {
+                report.append(String.format(Locale.US, "  %-12s %8d actions  %6d failed\n",
+                        Scenario.ACTION_NAMES[action], mActions.get(action), mFailedActions.get(action)));
+            }
+        }
+
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(mLatencies).entrySet()) {
+            final LatencyHistogram histogram = entry.getValue();
+            final AtomicLong errors = mErrors.get(entry.getKey());
+            report.append(String.format(Locale.US,
+                    "  %-18s n %7d  err %5d  p50 %7.1f  p95 %7.1f  p99 %7.1f  max %7.1f ms\n",
+                    entry.getKey(), histogram.getCount(), errors != null ? errors.get() : 0,
+                    histogram.getPercentile(50) / 1000.0, histogram.getPercentile(95) / 1000.0,
+                    histogram.getPercentile(99) / 1000.0, histogram.getMax() / 1000.0));
+        }
+
+        final long allocated = mAllocatedBytes.get();
+        report.append(String.format(Locale.US, "  allocation %.1f MB/s, %.1f KB/action\n",
+                allocated / seconds / (1024 * 1024), actions > 0 ? allocated / 1024.0 / actions : 0));
+
+        return report.toString();
+    }
+}
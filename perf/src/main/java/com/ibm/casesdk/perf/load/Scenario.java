@@ -0,0 +1,99 @@
+package com.ibm.casesdk.perf.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The mix of actions performed by the simulated users of a load run.
+ */
+public class Scenario {
+
+    public static final int ACTION_BROWSE = 0;
+    public static final int ACTION_LOCK = 1;
+    public static final int ACTION_UPDATE = 2;
+    public static final int ACTION_COMPLETE = 3;
+
+    static final String[] ACTION_NAMES = {"browse", "lock", "update", "complete"};
+
+    private final String mName;
+    private final int[] mWeights;
+    private final int mTotalWeight;
+
+    /**
+     * @param name
+     * @param browse   weight of opening a workbasket and the details of one of its tasks
+     * @param lock     weight of locking and unlocking a task
+     * @param update   weight of locking, updating and unlocking a task
+     * @param complete weight of locking and completing a task
+     */
+    public Scenario(String name, int browse, int lock, int update, int complete) {
+        mName = name;
+        mWeights = new int[]{browse, lock, update, complete};
+        mTotalWeight = browse + lock + update + complete;
+
+        if (mTotalWeight <= 0) {
+            throw new IllegalArgumentException("Scenario " + name + " has no actions");
+        }
+    }
+
+    /**
+     * @return the scenarios run when none is given
+     */
+    public static List<Scenario> getDefaults() {
+        return new ArrayList<>(Arrays.asList(
+                new Scenario("browse", 1, 0, 0, 0),
+                new Scenario("mixed", 60, 15, 15, 10),
+                new Scenario("complete", 10, 0, 30, 60)));
+    }
+
+    /**
+     * Parse a scenario written as {@code name:browse:lock:update:complete}, or the name of one of
+     * the default scenarios.
+     *
+     * @param value
+     * @return
+     */
+    public static Scenario parse(String value) {
+        final String[] parts = value.split(":");
+        if (parts.length == 1) {
+            for (Scenario scenario : getDefaults()) {
+                if (scenario.getName().equals(value)) {
+                    return scenario;
+                }
+            }
+        } else if (parts.length == 5) {
+            return new Scenario(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                    Integer.parseInt(parts[3]), Integer.parseInt(parts[4]));
+        }
+
+        throw new IllegalArgumentException("Invalid scenario " + value);
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * @param random
+     * @return one of the {@code ACTION_*} constants, drawn according to the weights
+     */
+    public int nextAction(Random random) {
+        int draw = random.nextInt(mTotalWeight);
+        for (int action = 0; action < mWeights.length; action++) {
+            draw -= mWeights[action];
+            if (draw < 0) {
+                return action;
+            }
+        }
+
+        return ACTION_BROWSE;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (browse %d, lock %d, update %d, complete %d)", mName,
+                mWeights[ACTION_BROWSE], mWeights[ACTION_LOCK], mWeights[ACTION_UPDATE], mWeights[ACTION_COMPLETE]);
+    }
+}
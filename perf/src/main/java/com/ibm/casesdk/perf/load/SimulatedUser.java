@@ -0,0 +1,312 @@
+package com.ibm.casesdk.perf.load;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.ibm.casesdk.perf.server.ServerConfig;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * One user of a load run. It makes the same calls, in the same order, as the controllers of the
+ * samples: login, solution details and role, then a loop of actions drawn from the
+ * {@link Scenario} until the deadline.
+ */
+public class SimulatedUser implements Runnable {
+
+    private static final String PATH_LOGIN = "logon.do";
+    private static final String PATH_PLUGIN = "plugin.do";
+    private static final String PLUGIN = "CaseAccelerator";
+    private static final String TASK_RESPONSE = "Complete";
+
+    private final Transport mTransport;
+    private final Scenario mScenario;
+    private final LoadMetrics mMetrics;
+    private final Random mRandom;
+    private final String mUser;
+    private final String mSolutionName;
+    private final String mRoleName;
+    private final long mDeadline;
+    private final CountDownLatch mDone;
+    private final List<String> mQueueNames = new ArrayList<>();
+    private final List<String> mTaskIds = new ArrayList<>();
+    private String mSecurityToken;
+
+    /**
+     * @param transport
+     * @param scenario
+     * @param metrics      shared by all the users of the run
+     * @param seed
+     * @param user
+     * @param solutionName
+     * @param roleName
+     * @param deadline     the {@link System#nanoTime()} at which the user stops
+     * @param done         counted down when the user stops
+     */
+    public SimulatedUser(Transport transport, Scenario scenario, LoadMetrics metrics, long seed, String user,
+                         String solutionName, String roleName, long deadline, CountDownLatch done) {
+        mTransport = transport;
+        mScenario = scenario;
+        mMetrics = metrics;
+        mRandom = new Random(seed);
+        mUser = user;
+        mSolutionName = solutionName;
+        mRoleName = roleName;
+        mDeadline = deadline;
+        mDone = done;
+    }
+
+    @Override
+    public void run() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBefore = getAllocatedBytes(threads, threadId);
+
+        try {
+            if (!login() || !loadRole()) {
+                return;
+            }
+
+            while (System.nanoTime() < mDeadline && !Thread.currentThread().isInterrupted()) {
+                // stop once all the tasks are completed, there is nothing left to measure
+                if (mTaskIds.isEmpty() && !refreshTasks()) {
+                    break;
+                }
+
+                final int action = mScenario.nextAction(mRandom);
+                mMetrics.recordAction(action, perform(action));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            final long allocatedAfter = getAllocatedBytes(threads, threadId);
+            if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+                mMetrics.recordAllocation(allocatedAfter - allocatedBefore);
+            }
+            mDone.countDown();
+        }
+    }
+
+    private boolean perform(int action) throws InterruptedException {
+        switch (action) {
+            case Scenario.ACTION_BROWSE:
+                return browse();
+            case Scenario.ACTION_LOCK:
+                return lockAndUnlock();
+            case Scenario.ACTION_UPDATE:
+                return update();
+            case Scenario.ACTION_COMPLETE:
+                return complete();
+            default:
+                return false;
+        }
+    }
+
+    private boolean login() throws InterruptedException {
+        final Map<String, String> params = new LinkedHashMap<>();
+        params.put("userid", mUser);
+        params.put("password", mUser);
+
+        final JsonElement json = call(ServerConfig.ENDPOINT_LOGIN, Transport.METHOD_POST, PATH_LOGIN, params);
+        if (json == null) {
+            return false;
+        }
+
+        mSecurityToken = json.getAsJsonObject().get("security_token").getAsString();
+        return true;
+    }
+
+    /**
+     * Load the details of the solution and keep the workbaskets of the role.
+     */
+    private boolean loadRole() throws InterruptedException {
+        final Map<String, String> params = pluginParams("SolutionDetailsService");
+        params.put("version", "2");
+
+        final JsonElement json = call(ServerConfig.ENDPOINT_SOLUTION_DETAILS, Transport.METHOD_GET, PATH_PLUGIN, params);
+        if (json == null) {
+            return false;
+        }
+
+        for (JsonElement role : json.getAsJsonObject().getAsJsonArray("roles")) {
+            if (mRoleName.equalsIgnoreCase(role.getAsJsonObject().get("name").getAsString())) {
+                for (JsonElement basket : role.getAsJsonObject().getAsJsonArray("workbaskets")) {
+                    mQueueNames.add(basket.getAsJsonObject().get("queue_name").getAsString());
+                }
+            }
+        }
+
+        return !mQueueNames.isEmpty() && refreshTasks();
+    }
+
+    /**
+     * Open a random workbasket and the details of one of its tasks.
+     */
+    private boolean browse() throws InterruptedException {
+        if (!refreshTasks()) {
+            return false;
+        }
+
+        final Map<String, String> params = pluginParams("TaskDetailsService");
+        params.put("task_id", randomTask());
+        return call(ServerConfig.ENDPOINT_TASK_DETAILS, Transport.METHOD_GET, PATH_PLUGIN, params) != null;
+    }
+
+    private boolean lockAndUnlock() throws InterruptedException {
+        final String taskId = randomTask();
+        if (taskId == null || !lock(taskId)) {
+            return false;
+        }
+
+        return taskAction(ServerConfig.ENDPOINT_UNLOCK, "unlock", taskId, null);
+    }
+
+    private boolean update() throws InterruptedException {
+        final String taskId = randomTask();
+        if (taskId == null || !lock(taskId)) {
+            return false;
+        }
+
+        final boolean updated = taskAction(ServerConfig.ENDPOINT_UPDATE, "update", taskId, createValues());
+        return taskAction(ServerConfig.ENDPOINT_UNLOCK, "unlock", taskId, null) && updated;
+    }
+
+    private boolean complete() throws InterruptedException {
+        final String taskId = randomTask();
+        if (taskId == null || !lock(taskId)) {
+            return false;
+        }
+
+        final Map<String, String> params = taskActionParams("complete", taskId, createValues());
+        params.put("response", TASK_RESPONSE);
+        final boolean completed = call(ServerConfig.ENDPOINT_COMPLETE, Transport.METHOD_POST, PATH_PLUGIN, params) != null;
+        if (!completed) {
+            // the task is still there, don't leave it locked for the other users
+            taskAction(ServerConfig.ENDPOINT_UNLOCK, "unlock", taskId, null);
+            return false;
+        }
+
+        // the task is gone for everybody, other users find out when their next action fails
+        mTaskIds.remove(taskId);
+        return true;
+    }
+
+    /**
+     * Load the tasks of a random workbasket, or of the next ones if it is empty.
+     *
+     * @return {@code false} if the request failed or all the workbaskets are empty
+     */
+    private boolean refreshTasks() throws InterruptedException {
+        final int first = mRandom.nextInt(mQueueNames.size());
+
+        for (int i = 0; i < mQueueNames.size(); i++) {
+            final String queueName = mQueueNames.get((first + i) % mQueueNames.size());
+            final Map<String, String> params = pluginParams("WorkbasketService");
+            params.put("workbasket_name", queueName);
+            params.put("queue_name", queueName);
+
+            final JsonElement json = call(ServerConfig.ENDPOINT_WORKBASKET, Transport.METHOD_GET, PATH_PLUGIN, params);
+            if (json == null) {
+                return false;
+            }
+
+            mTaskIds.clear();
+            for (JsonElement task : json.getAsJsonObject().getAsJsonArray("tasks")) {
+                mTaskIds.add(task.getAsJsonObject().get("id").getAsString());
+            }
+
+            if (!mTaskIds.isEmpty()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Lock a task. A task that can't be locked is forgotten until the next refresh, it is
+     * usually completed or locked by another user.
+     */
+    private boolean lock(String taskId) throws InterruptedException {
+        if (taskAction(ServerConfig.ENDPOINT_LOCK, "lock", taskId, null)) {
+            return true;
+        }
+
+        mTaskIds.remove(taskId);
+        return false;
+    }
+
+    private boolean taskAction(String endpoint, String taskAction, String taskId, String properties)
+            throws InterruptedException {
+        return call(endpoint, Transport.METHOD_POST, PATH_PLUGIN,
+                taskActionParams(taskAction, taskId, properties)) != null;
+    }
+
+    private Map<String, String> taskActionParams(String taskAction, String taskId, String properties) {
+        final Map<String, String> params = pluginParams("TaskActionsService");
+        params.put("task_id", taskId);
+        params.put("task_action", taskAction);
+        params.put("user", mUser);
+        if (properties != null) {
+            params.put("properties", properties);
+        }
+        return params;
+    }
+
+    private Map<String, String> pluginParams(String action) {
+        final Map<String, String> params = new LinkedHashMap<>();
+        params.put("plugin", PLUGIN);
+        params.put("action", action);
+        params.put("solution_name", mSolutionName);
+        params.put("security_token", mSecurityToken);
+        return params;
+    }
+
+    private String createValues() {
+        final JsonObject values = new JsonObject();
+        values.addProperty("CRE1_Property0", Long.toHexString(mRandom.nextLong()));
+        return values.toString();
+    }
+
+    private String randomTask() {
+        return mTaskIds.isEmpty() ? null : mTaskIds.get(mRandom.nextInt(mTaskIds.size()));
+    }
+
+    /**
+     * Send a request, record its latency and parse the response like the SDK does.
+     *
+     * @return the parsed response or {@code null} if the request failed
+     */
+    private JsonElement call(String name, String method, String path, Map<String, String> params)
+            throws InterruptedException {
+        final long start = System.nanoTime();
+        JsonElement json = null;
+
+        try {
+            final Transport.Response response = mTransport.execute(method, path, params);
+            if (response.isSuccessful()) {
+                json = new JsonParser().parse(response.getBody());
+            }
+        } catch (IOException | RuntimeException e) {
+            json = null;
+        }
+
+        mMetrics.recordRequest(name, (System.nanoTime() - start) / 1000, json != null);
+        return json;
+    }
+
+    private static long getAllocatedBytes(ThreadMXBean threads, long threadId) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(threadId);
+        }
+        return -1;
+    }
+}
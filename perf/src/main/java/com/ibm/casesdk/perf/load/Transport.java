@@ -0,0 +1,50 @@
+package com.ibm.casesdk.perf.load;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Sends the requests of the simulated users, either over HTTP or straight to an in-process
+ * stand-in server.
+ */
+public interface Transport {
+
+    String METHOD_GET = "GET";
+    String METHOD_POST = "POST";
+
+    /**
+     * The status and the body of a response.
+     */
+    class Response {
+        private final int mStatus;
+        private final String mBody;
+
+        public Response(int status, String body) {
+            mStatus = status;
+            mBody = body;
+        }
+
+        public int getStatus() {
+            return mStatus;
+        }
+
+        public String getBody() {
+            return mBody;
+        }
+
+        public boolean isSuccessful() {
+            return mStatus >= 200 && mStatus < 300;
+        }
+    }
+
+    /**
+     * @param method {@link #METHOD_GET} or {@link #METHOD_POST}, the parameters of a post are
+     *               sent as a form like the SDK does
+     * @param path   the path relative to the endpoint, e.g. {@code plugin.do}
+     * @param params
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    Response execute(String method, String path, Map<String, String> params) throws IOException, InterruptedException;
+}
@@ -0,0 +1,119 @@
+package com.ibm.casesdk.perf.record;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A recorded request and its response. The parameters are already redacted, see
+ * {@link Redactor}.
+ */
+public class Exchange {
+
+    private final String mMethod;
+    private final String mPath;
+    private final Map<String, String> mParams;
+    private final int mStatus;
+    private final String mContentType;
+    private final String mBody;
+    private final long mLatencyMillis;
+
+    /**
+     * @param method
+     * @param path          the path relative to the endpoint, e.g. {@code plugin.do}
+     * @param params        the query and form parameters
+     * @param status
+     * @param contentType
+     * @param body
+     * @param latencyMillis the time from sending the request to receiving the whole response
+     */
+    public Exchange(String method, String path, Map<String, String> params, int status, String contentType,
+                    String body, long latencyMillis) {
+        mMethod = method;
+        mPath = path;
+        mParams = Collections.unmodifiableMap(new TreeMap<>(params));
+        mStatus = status;
+        mContentType = contentType;
+        mBody = body;
+        mLatencyMillis = latencyMillis;
+    }
+
+    public String getMethod() {
+        return mMethod;
+    }
+
+    public String getPath() {
+        return mPath;
+    }
+
+    public Map<String, String> getParams() {
+        return mParams;
+    }
+
+    public int getStatus() {
+        return mStatus;
+    }
+
+    public String getContentType() {
+        return mContentType;
+    }
+
+    public String getBody() {
+        return mBody;
+    }
+
+    public long getLatencyMillis() {
+        return mLatencyMillis;
+    }
+
+    /**
+     * @return the name of the REST call, e.g. {@code plugin.do/TaskActionsService/lock}, used to
+     * replay a similar response when there is no exact match
+     */
+    public String getEndpoint() {
+        return endpointOf(mPath, mParams);
+    }
+
+    static String endpointOf(String path, Map<String, String> params) {
+        final StringBuilder endpoint = new StringBuilder(path);
+        if (params.containsKey("action")) {
+            endpoint.append('/').append(params.get("action"));
+        }
+        if (params.containsKey("task_action")) {
+            endpoint.append('/').append(params.get("task_action"));
+        }
+        return endpoint.toString();
+    }
+
+    JsonObject toJson() {
+        final JsonObject params = new JsonObject();
+        for (Map.Entry<String, String> param : mParams.entrySet()) {
+            params.addProperty(param.getKey(), param.getValue());
+        }
+
+        final JsonObject json = new JsonObject();
+        json.addProperty("method", mMethod);
+        json.addProperty("path", mPath);
+        json.add("params", params);
+        json.addProperty("status", mStatus);
+        json.addProperty("content_type", mContentType);
+        json.addProperty("body", mBody);
+        json.addProperty("latency_ms", mLatencyMillis);
+        return json;
+    }
+
+    static Exchange fromJson(JsonObject json) {
+        final Map<String, String> params = new TreeMap<>();
+        for (Map.Entry<String, JsonElement> param : json.getAsJsonObject("params").entrySet()) {
+            params.put(param.getKey(), param.getValue().getAsString());
+        }
+
+        final JsonElement contentType = json.get("content_type");
+        return new Exchange(json.get("method").getAsString(), json.get("path").getAsString(), params,
+                json.get("status").getAsInt(), contentType != null && !contentType.isJsonNull() ? contentType.getAsString() : null,
+                json.get("body").getAsString(), json.get("latency_ms").getAsLong());
+    }
+}
@@ -0,0 +1,127 @@
+package com.ibm.casesdk.perf.record;
+
+import com.ibm.casesdk.perf.server.HttpMessages;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * An HTTP server answering the requests sent to {@code /navigator/}, the base of the recording
+ * proxy and of the replay server.
+ */
+abstract class LocalServer {
+
+    static final String CONTEXT_PATH = "/navigator/";
+
+    private final int mPort;
+    private final String mThreadName;
+    private HttpServer mServer;
+    private ExecutorService mExecutor;
+
+    /**
+     * @param port       0 to use any free port
+     * @param threadName the prefix of the names of the request threads
+     */
+    LocalServer(int port, String threadName) {
+        mPort = port;
+        mThreadName = threadName;
+    }
+
+    /**
+     * Answer a request.
+     *
+     * @param exchange
+     * @param path     the path relative to {@link #CONTEXT_PATH}, e.g. {@code plugin.do}
+     * @param params   the query and form parameters
+     * @param body     the body of a post, {@code null} for other requests
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    abstract void handle(HttpExchange exchange, String path, Map<String, String> params, String body)
+            throws IOException, InterruptedException;
+
+    public synchronized void start() throws IOException {
+        if (mServer != null) {
+            return;
+        }
+
+        mExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+            private int mCount;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                final Thread thread = new Thread(runnable, mThreadName + "-" + mCount++);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        mServer = HttpServer.create(new InetSocketAddress(mPort), 0);
+        mServer.setExecutor(mExecutor);
+        mServer.createContext(CONTEXT_PATH, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    final Map<String, String> params = new HashMap<>();
+                    HttpMessages.parseParameters(exchange.getRequestURI().getRawQuery(), params);
+                    String body = null;
+                    if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+                        body = HttpMessages.readBody(exchange.getRequestBody());
+                        HttpMessages.parseParameters(body, params);
+                    }
+
+                    LocalServer.this.handle(exchange,
+                            exchange.getRequestURI().getPath().substring(CONTEXT_PATH.length()), params, body);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        mServer.start();
+    }
+
+    public synchronized void stop() {
+        if (mServer == null) {
+            return;
+        }
+
+        mServer.stop(0);
+        mExecutor.shutdownNow();
+        mServer = null;
+        mExecutor = null;
+    }
+
+    /**
+     * @return the base url of the server, ending with a slash
+     */
+    public synchronized String getUrl() {
+        final int port = mServer != null ? mServer.getAddress().getPort() : mPort;
+        return "http://localhost:" + port + CONTEXT_PATH;
+    }
+
+    static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        final byte[] bytes = body.getBytes(HttpMessages.CHARSET);
+        if (contentType != null) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+        }
+        // a length of 0 would mean a chunked response
+        exchange.sendResponseHeaders(status, bytes.length > 0 ? bytes.length : -1);
+
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
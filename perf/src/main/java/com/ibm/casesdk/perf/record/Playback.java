@@ -0,0 +1,106 @@
+package com.ibm.casesdk.perf.record;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Finds the recorded response of a request and waits for its recorded latency, scaled by a
+ * factor: 1 keeps the original latencies, 0.5 replays twice as fast, 2 twice as slow and 0
+ * without any delay.
+ * <p>
+ * A request is matched on its method, path and parameters, without the credentials. When the
+ * same request has been recorded several times, the responses are returned in the recorded order
+ * and the last one is repeated, so a replay is deterministic. A request that has not been
+ * recorded gets the responses of the same REST call in turn, e.g. the details of the recorded
+ * tasks, so the payload still has a real shape and size.
+ */
+public class Playback {
+
+    private final double mLatencyScale;
+    private final Map<String, List<Exchange>> mExchangesByRequest = new HashMap<>();
+    private final Map<String, List<Exchange>> mExchangesByEndpoint = new HashMap<>();
+    private final Map<String, Integer> mCursors = new HashMap<>();
+
+    /**
+     * @param recording
+     * @param latencyScale the factor applied to the recorded latencies
+     */
+    public Playback(Recording recording, double latencyScale) {
+        if (latencyScale < 0) {
+            throw new IllegalArgumentException("Negative latency scale: " + latencyScale);
+        }
+        mLatencyScale = latencyScale;
+
+        for (Exchange exchange : recording.getExchanges()) {
+            add(mExchangesByRequest, requestKey(exchange.getMethod(), exchange.getPath(), exchange.getParams()), exchange);
+            add(mExchangesByEndpoint, exchange.getEndpoint(), exchange);
+        }
+    }
+
+    /**
+     * @param method
+     * @param path   the path relative to the endpoint, e.g. {@code plugin.do}
+     * @param params
+     * @return the recorded exchange or {@code null} if the REST call has never been recorded
+     * @throws InterruptedException if the thread is interrupted while waiting for the latency
+     */
+    public Exchange reply(String method, String path, Map<String, String> params) throws InterruptedException {
+        final Map<String, String> redacted = Redactor.redactParams(params);
+        final Exchange exchange;
+
+        synchronized (this) {
+            final String key = requestKey(method, path, redacted);
+            if (mExchangesByRequest.containsKey(key)) {
+                exchange = next(key, mExchangesByRequest.get(key), false);
+            } else {
+                final String endpoint = Exchange.endpointOf(path, redacted);
+                exchange = mExchangesByEndpoint.containsKey(endpoint)
+                        ? next(endpoint, mExchangesByEndpoint.get(endpoint), true) : null;
+            }
+        }
+
+        if (exchange != null) {
+            final long delay = Math.round(exchange.getLatencyMillis() * mLatencyScale);
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+        }
+
+        return exchange;
+    }
+
+    public double getLatencyScale() {
+        return mLatencyScale;
+    }
+
+    /**
+     * @param key
+     * @param exchanges
+     * @param wrap      {@code true} to start again from the first exchange after the last one,
+     *                  {@code false} to repeat the last one
+     * @return
+     */
+    private Exchange next(String key, List<Exchange> exchanges, boolean wrap) {
+        final Integer cursor = mCursors.get(key);
+        final int index = cursor != null ? cursor : 0;
+        mCursors.put(key, wrap ? (index + 1) % exchanges.size() : Math.min(index + 1, exchanges.size() - 1));
+        return exchanges.get(index);
+    }
+
+    private static String requestKey(String method, String path, Map<String, String> params) {
+        // the parameters of a recorded exchange are already sorted
+        return method + ' ' + path + ' ' + new TreeMap<>(params);
+    }
+
+    private static void add(Map<String, List<Exchange>> exchanges, String key, Exchange exchange) {
+        List<Exchange> list = exchanges.get(key);
+        if (list == null) {
+            list = new ArrayList<>();
+            exchanges.put(key, list);
+        }
+        list.add(exchange);
+    }
+}
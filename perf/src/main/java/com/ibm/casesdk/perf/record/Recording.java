@@ -0,0 +1,81 @@
+package com.ibm.casesdk.perf.record;
+
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The exchanges recorded by a {@link RecordingProxy}, stored as one JSON object per line in the
+ * order the responses were received.
+ */
+public class Recording {
+
+    private static final String CHARSET = "UTF-8";
+
+    private final List<Exchange> mExchanges = new ArrayList<>();
+    private final Writer mWriter;
+
+    private Recording(Writer writer) {
+        mWriter = writer;
+    }
+
+    /**
+     * @param file
+     * @return the exchanges of the file, the recording can't be appended to
+     * @throws IOException
+     */
+    public static Recording load(File file) throws IOException {
+        final Recording recording = new Recording(null);
+        final JsonParser parser = new JsonParser();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), CHARSET))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    recording.mExchanges.add(Exchange.fromJson(parser.parse(line).getAsJsonObject()));
+                }
+            }
+        }
+
+        return recording;
+    }
+
+    /**
+     * @param file   the file the exchanges are written to as soon as they are added
+     * @param append {@code true} to keep the exchanges already in the file
+     * @return
+     * @throws IOException
+     */
+    public static Recording create(File file, boolean append) throws IOException {
+        return new Recording(new OutputStreamWriter(new FileOutputStream(file, append), CHARSET));
+    }
+
+    public synchronized void add(Exchange exchange) throws IOException {
+        mExchanges.add(exchange);
+        if (mWriter != null) {
+            mWriter.write(exchange.toJson().toString());
+            mWriter.write('\n');
+            mWriter.flush();
+        }
+    }
+
+    public synchronized List<Exchange> getExchanges() {
+        return Collections.unmodifiableList(new ArrayList<>(mExchanges));
+    }
+
+    public synchronized void close() throws IOException {
+        if (mWriter != null) {
+            mWriter.close();
+        }
+    }
+}
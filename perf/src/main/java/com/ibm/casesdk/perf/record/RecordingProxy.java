@@ -0,0 +1,167 @@
+package com.ibm.casesdk.perf.record;
+
+import com.ibm.casesdk.perf.server.HttpMessages;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forwards the requests of the samples to a real server and records every exchange in a
+ * {@link Recording}, with its credentials redacted and its latency as seen by the proxy.
+ * <p>
+ * The SDK creates its HTTP client internally, so the samples are pointed at the proxy instead:
+ * build them with {@code -PicmEndpoint=<proxy url>}. The cookies set by the server are passed
+ * through to the SDK but never recorded.
+ * <p>
+ * Options:
+ * <ul>
+ * <li>{@code --upstream <endpoint>} the endpoint of the real server, ending with
+ * {@code /navigator/}</li>
+ * <li>{@code --out <file>} the recording, {@code recording.jsonl} by default</li>
+ * <li>{@code --append} keep the exchanges already in the file</li>
+ * <li>{@code --port <n>} 8091 by default</li>
+ * </ul>
+ */
+public class RecordingProxy extends LocalServer {
+
+    private static final int TIMEOUT = 60000;
+
+    // the request headers forwarded to the server, the others are set by HttpURLConnection
+    private static final List<String> FORWARDED_HEADERS = Arrays.asList(
+            "Accept", "Accept-Language", "Content-Type", "Cookie", "User-Agent");
+
+    private final String mUpstream;
+    private final Recording mRecording;
+
+    /**
+     * @param upstream  the endpoint of the real server, ending with a slash
+     * @param recording
+     * @param port      0 to use any free port
+     */
+    public RecordingProxy(String upstream, Recording recording, int port) {
+        super(port, "record");
+        mUpstream = upstream.endsWith("/") ? upstream : upstream + "/";
+        mRecording = recording;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String upstream = null;
+        File file = new File("recording.jsonl");
+        boolean append = false;
+        int port = 8091;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--upstream":
+                    upstream = args[++i];
+                    break;
+                case "--out":
+                    file = new File(args[++i]);
+                    break;
+                case "--append":
+                    append = true;
+                    break;
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        if (upstream == null) {
+            throw new IllegalArgumentException("Missing --upstream <endpoint>");
+        }
+
+        final RecordingProxy proxy = new RecordingProxy(upstream, Recording.create(file, append), port);
+        proxy.start();
+        System.out.println("Recording " + upstream + " to " + file + ", proxy listening on " + proxy.getUrl());
+    }
+
+    @Override
+    public synchronized void stop() {
+        super.stop();
+        try {
+            mRecording.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not close the recording", e);
+        }
+    }
+
+    @Override
+    void handle(HttpExchange exchange, String path, Map<String, String> params, String body) throws IOException {
+        final String query = exchange.getRequestURI().getRawQuery();
+        final URL url = new URL(mUpstream + path + (query != null ? "?" + query : ""));
+        final String method = exchange.getRequestMethod();
+
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        connection.setInstanceFollowRedirects(false);
+        connection.setRequestMethod(method);
+        for (String header : FORWARDED_HEADERS) {
+            final String value = exchange.getRequestHeaders().getFirst(header);
+            if (value != null) {
+                connection.setRequestProperty(header, value);
+            }
+        }
+
+        final long start = System.nanoTime();
+        final int status;
+        final String contentType;
+        final String responseBody;
+        try {
+            if (body != null) {
+                final byte[] bytes = body.getBytes(HttpMessages.CHARSET);
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(bytes.length);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(bytes);
+                }
+            }
+
+            status = connection.getResponseCode();
+            contentType = connection.getContentType();
+            final InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            responseBody = in != null ? read(in) : "";
+
+            final List<String> cookies = connection.getHeaderFields().get("Set-Cookie");
+            if (cookies != null) {
+                exchange.getResponseHeaders().put("Set-Cookie", cookies);
+            }
+            final String location = connection.getHeaderField("Location");
+            if (location != null) {
+                exchange.getResponseHeaders().set("Location", location);
+            }
+        } catch (IOException e) {
+            respond(exchange, 502, "text/plain", String.valueOf(e.getMessage()));
+            return;
+        } finally {
+            connection.disconnect();
+        }
+        final long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        mRecording.add(new Exchange(method, path, Redactor.redactParams(params), status, contentType,
+                Redactor.redactBody(responseBody), latency));
+
+        // the SDK gets the real body, only the recording is redacted
+        respond(exchange, status, contentType, responseBody);
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try {
+            return HttpMessages.readBody(in);
+        } finally {
+            in.close();
+        }
+    }
+}
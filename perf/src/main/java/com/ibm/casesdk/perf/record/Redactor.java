@@ -0,0 +1,93 @@
+package com.ibm.casesdk.perf.record;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Removes the credentials from the recorded exchanges: the user name, the password and the
+ * security token of the requests, and the security token returned by {@code logon.do}. The
+ * cookies are never recorded.
+ */
+public class Redactor {
+
+    public static final String REDACTED = "redacted";
+
+    private static final Set<String> SECRET_NAMES = new HashSet<>(Arrays.asList(
+            "userid", "password", "security_token", "j_password", "j_username"));
+
+    private Redactor() {
+    }
+
+    /**
+     * @param name the name of a parameter or of a JSON field
+     * @return {@code true} if the value is a credential
+     */
+    public static boolean isSecret(String name) {
+        return SECRET_NAMES.contains(name.toLowerCase());
+    }
+
+    /**
+     * @param params
+     * @return a copy of the parameters, with the credentials replaced by {@link #REDACTED}
+     */
+    public static Map<String, String> redactParams(Map<String, String> params) {
+        final Map<String, String> redacted = new TreeMap<>();
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            redacted.put(param.getKey(), isSecret(param.getKey()) ? REDACTED : param.getValue());
+        }
+        return redacted;
+    }
+
+    /**
+     * @param body a response body
+     * @return the body with the credential fields replaced by {@link #REDACTED}, bodies that are
+     * not JSON are returned as they are
+     */
+    public static String redactBody(String body) {
+        if (body == null || body.isEmpty()) {
+            return body;
+        }
+
+        final JsonElement json;
+        try {
+            json = new JsonParser().parse(body);
+        } catch (JsonParseException e) {
+            return body;
+        }
+
+        return redact(json) ? json.toString() : body;
+    }
+
+    /**
+     * @param json
+     * @return {@code true} if a field has been redacted
+     */
+    private static boolean redact(JsonElement json) {
+        boolean redacted = false;
+
+        if (json.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> field : json.getAsJsonObject().entrySet()) {
+                if (isSecret(field.getKey()) && field.getValue().isJsonPrimitive()) {
+                    field.setValue(new JsonPrimitive(REDACTED));
+                    redacted = true;
+                } else {
+                    redacted |= redact(field.getValue());
+                }
+            }
+        } else if (json.isJsonArray()) {
+            for (JsonElement element : json.getAsJsonArray()) {
+                redacted |= redact(element);
+            }
+        }
+
+        return redacted;
+    }
+}
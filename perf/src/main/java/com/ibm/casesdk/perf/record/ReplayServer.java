@@ -0,0 +1,73 @@
+package com.ibm.casesdk.perf.record;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Serves the responses of a {@link Recording} to the samples, see {@link Playback} for how the
+ * requests are matched and the latencies scaled. Requests whose REST call has never been recorded
+ * get a 404.
+ * <p>
+ * Options:
+ * <ul>
+ * <li>{@code --recording <file>} {@code recording.jsonl} by default</li>
+ * <li>{@code --latency-scale <factor>} 1 by default</li>
+ * <li>{@code --port <n>} 8092 by default</li>
+ * </ul>
+ */
+public class ReplayServer extends LocalServer {
+
+    private final Playback mPlayback;
+
+    /**
+     * @param playback
+     * @param port     0 to use any free port
+     */
+    public ReplayServer(Playback playback, int port) {
+        super(port, "replay");
+        mPlayback = playback;
+    }
+
+    public static void main(String[] args) throws IOException {
+        File file = new File("recording.jsonl");
+        double latencyScale = 1;
+        int port = 8092;
+
+        for (int i = 0; i < args.length - 1; i += 2) {
+            final String value = args[i + 1];
+            switch (args[i]) {
+                case "--recording":
+                    file = new File(value);
+                    break;
+                case "--latency-scale":
+                    latencyScale = Double.parseDouble(value);
+                    break;
+                case "--port":
+                    port = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        final Recording recording = Recording.load(file);
+        final ReplayServer server = new ReplayServer(new Playback(recording, latencyScale), port);
+        server.start();
+        System.out.println("Replaying " + recording.getExchanges().size() + " exchanges of " + file
+                + " at " + latencyScale + "x latency on " + server.getUrl());
+    }
+
+    @Override
+    void handle(HttpExchange exchange, String path, Map<String, String> params, String body)
+            throws IOException, InterruptedException {
+        final Exchange recorded = mPlayback.reply(exchange.getRequestMethod(), path, params);
+        if (recorded == null) {
+            respond(exchange, 404, "text/plain", "Not recorded: " + Exchange.endpointOf(path, params));
+        } else {
+            respond(exchange, recorded.getStatus(), recorded.getContentType(), recorded.getBody());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.ibm.casesdk.perf.record;
+
+import com.ibm.casesdk.perf.load.Transport;
+
+import java.util.Map;
+
+/**
+ * Answers the requests of the load driver from a recording, without sockets.
+ */
+public class ReplayTransport implements Transport {
+
+    private final Playback mPlayback;
+
+    public ReplayTransport(Playback playback) {
+        mPlayback = playback;
+    }
+
+    @Override
+    public Response execute(String method, String path, Map<String, String> params) throws InterruptedException {
+        final Exchange exchange = mPlayback.reply(method, path, params);
+        return exchange != null
+                ? new Response(exchange.getStatus(), exchange.getBody())
+                : new Response(404, "");
+    }
+}
@@ -0,0 +1,217 @@
+package com.ibm.casesdk.perf.server;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMInBasket;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMProperty;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMRole;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMSolution;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+import com.ibm.casesdk.perf.data.FakeInBasket;
+import com.ibm.casesdk.perf.data.FakeProperty;
+import com.ibm.casesdk.perf.data.FakeTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The solutions served by the {@link StandInServer} and the state changes made through it.
+ * <p>
+ * Tasks are found by id, workbaskets by queue name. All the methods are thread safe, the server
+ * handles each request on its own thread.
+ */
+public class Dataset {
+
+    public static final int TASK_STATE_COMPLETE = 5;
+
+    /**
+     * A request that can't be performed on the current state, e.g. locking a task that is locked
+     * by someone else.
+     */
+    public static class ConflictException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        public ConflictException(String message) {
+            super(message);
+        }
+    }
+
+    private final List<ICMSolution> mSolutions;
+    private final HashMap<String, FakeTask> mTasks = new HashMap<>();
+    private final HashMap<String, FakeInBasket> mBaskets = new HashMap<>();
+
+    /**
+     * @param solutions the solutions, their tasks must be {@link FakeTask} instances and their
+     *                  workbaskets {@link FakeInBasket} instances
+     */
+    public Dataset(List<ICMSolution> solutions) {
+        mSolutions = solutions;
+
+        for (ICMSolution solution : solutions) {
+            for (ICMRole role : solution.getRoles()) {
+                for (ICMInBasket basket : role.getWorkbaskets()) {
+                    mBaskets.put(basket.getQueueName(), (FakeInBasket) basket);
+
+                    for (ICMTask task : basket.getTasks()) {
+                        mTasks.put(task.getId(), (FakeTask) task);
+                    }
+                }
+            }
+        }
+    }
+
+    public synchronized List<ICMSolution> getSolutions() {
+        return new ArrayList<>(mSolutions);
+    }
+
+    /**
+     * @param name
+     * @return the solution with the given name or {@code null}
+     */
+    public synchronized ICMSolution findSolution(String name) {
+        for (ICMSolution solution : mSolutions) {
+            if (solution.getName().equalsIgnoreCase(name)) {
+                return solution;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param queueName
+     * @return the workbasket with the given queue name or {@code null}
+     */
+    public synchronized ICMInBasket findBasket(String queueName) {
+        return mBaskets.get(queueName);
+    }
+
+    /**
+     * @param taskId
+     * @return the task with the given id or {@code null}
+     */
+    public synchronized ICMTask findTask(String taskId) {
+        return mTasks.get(taskId);
+    }
+
+    /**
+     * @return the number of tasks that aren't completed yet
+     */
+    public synchronized int getTaskCount() {
+        return mTasks.size();
+    }
+
+    /**
+     * Find the tasks within the given distance of a point.
+     *
+     * @param latitude
+     * @param longitude
+     * @param radius    the distance in degrees, the unit of {@code DEFAULT_RADIUS} in the samples
+     * @return
+     */
+    public synchronized List<ICMTask> findNearbyTasks(double latitude, double longitude, double radius) {
+        final List<ICMTask> tasks = new ArrayList<>();
+        final double squaredRadius = radius * radius;
+
+        for (FakeTask task : mTasks.values()) {
+            final double latitudeDelta = task.getLatitude() - latitude;
+            final double longitudeDelta = task.getLongitude() - longitude;
+            if (latitudeDelta * latitudeDelta + longitudeDelta * longitudeDelta <= squaredRadius) {
+                tasks.add(task);
+            }
+        }
+
+        return tasks;
+    }
+
+    public synchronized ICMTask lock(String taskId, String user) throws ConflictException {
+        final FakeTask task = getTask(taskId);
+        checkNotLockedByOther(task, user);
+
+        task.setLockedUser(user);
+        return task;
+    }
+
+    public synchronized ICMTask unlock(String taskId, String user) throws ConflictException {
+        final FakeTask task = getTask(taskId);
+        checkNotLockedByOther(task, user);
+
+        task.setLockedUser(null);
+        return task;
+    }
+
+    /**
+     * Change the values of the properties of a task. Unknown properties are ignored.
+     *
+     * @param taskId
+     * @param user
+     * @param values the new values by symbolic name
+     * @return
+     * @throws ConflictException
+     */
+    public synchronized ICMTask update(String taskId, String user, Map<String, String> values) throws ConflictException {
+        final FakeTask task = getTask(taskId);
+        checkNotLockedByOther(task, user);
+
+        for (ICMProperty property : task.getProperties()) {
+            if (values.containsKey(property.getSymbolicName())) {
+                ((FakeProperty) property).setValue(values.get(property.getSymbolicName()));
+            }
+        }
+
+        return task;
+    }
+
+    /**
+     * Update the properties of a task and remove it from its workbaskets.
+     *
+     * @param taskId
+     * @param user
+     * @param values   the new values by symbolic name
+     * @param response the response the task is completed with
+     * @return
+     * @throws ConflictException
+     */
+    public synchronized ICMTask complete(String taskId, String user, Map<String, String> values,
+                                         String response) throws ConflictException {
+        final FakeTask task = getTask(taskId);
+        if (response != null && !task.getResponses().contains(response)) {
+            throw new ConflictException("Task " + taskId + " has no response " + response);
+        }
+
+        update(taskId, user, values);
+
+        task.setState(TASK_STATE_COMPLETE);
+        task.setLockedUser(null);
+        mTasks.remove(taskId);
+
+        for (FakeInBasket basket : mBaskets.values()) {
+            final Iterator<ICMTask> iterator = basket.getTasks().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().getId().equals(taskId)) {
+                    iterator.remove();
+                    basket.setTasksCount(basket.getTasks().size());
+                }
+            }
+        }
+
+        return task;
+    }
+
+    private FakeTask getTask(String taskId) throws ConflictException {
+        final FakeTask task = mTasks.get(taskId);
+        if (task == null) {
+            throw new ConflictException("Task " + taskId + " does not exist");
+        }
+
+        return task;
+    }
+
+    private static void checkNotLockedByOther(FakeTask task, String user) throws ConflictException {
+        if (task.getLockedUser() != null && !task.getLockedUser().equalsIgnoreCase(user)) {
+            throw new ConflictException("Task " + task.getId() + " is locked by " + task.getLockedUser());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ibm.casesdk.perf.server;
+
+import com.ibm.casesdk.perf.data.CountDistribution;
+import com.ibm.casesdk.perf.data.DataGenerator;
+import com.ibm.casesdk.perf.data.GeneratorConfig;
+
+/**
+ * Creates the {@link Dataset} of the {@link StandInServer} from the {@code dataset.*} keys of a
+ * {@link ServerConfig}. The same seed always creates the same dataset.
+ */
+public class DatasetFactory {
+
+    private DatasetFactory() {
+    }
+
+    public static Dataset create(ServerConfig config) {
+        return new Dataset(new DataGenerator(createGeneratorConfig(config)).generateSolutions());
+    }
+
+    /**
+     * @param config
+     * @return the generator configuration described by the {@code dataset.*} keys, missing keys
+     * keep the defaults of {@link GeneratorConfig}
+     */
+    public static GeneratorConfig createGeneratorConfig(ServerConfig config) {
+        final GeneratorConfig generatorConfig = new GeneratorConfig();
+        generatorConfig.setSeed(config.getSeed());
+
+        generatorConfig.setSolutionName(config.getString("dataset.solution", generatorConfig.getSolutionName()));
+        generatorConfig.setSolutionPrefix(config.getString("dataset.prefix", generatorConfig.getSolutionPrefix()));
+        generatorConfig.setRoleName(config.getString("dataset.role", generatorConfig.getRoleName()));
+        generatorConfig.setSolutionCount(config.getInt("dataset.solutions", generatorConfig.getSolutionCount()));
+        generatorConfig.setRolesPerSolution(config.getInt("dataset.rolesPerSolution", generatorConfig.getRolesPerSolution()));
+
+        generatorConfig.setBasketsPerRole(getCount(config, "dataset.workbaskets", generatorConfig.getBasketsPerRole()));
+        generatorConfig.setTasksPerBasket(getCount(config, "dataset.tasksPerBasket", generatorConfig.getTasksPerBasket()));
+        generatorConfig.setPropertiesPerTask(getCount(config, "dataset.propertiesPerTask", generatorConfig.getPropertiesPerTask()));
+        generatorConfig.setSectionsPerTask(getCount(config, "dataset.sectionsPerTask", generatorConfig.getSectionsPerTask()));
+
+        generatorConfig.setLockedRate(config.getDouble("dataset.lockedRate", generatorConfig.getLockedRate()));
+        generatorConfig.setLatitude(config.getDouble("dataset.latitude", generatorConfig.getLatitude()));
+        generatorConfig.setLongitude(config.getDouble("dataset.longitude", generatorConfig.getLongitude()));
+        generatorConfig.setRegionRadius(config.getDouble("dataset.spread", generatorConfig.getRegionRadius()));
+        generatorConfig.setClusterCount(config.getInt("dataset.clusters", generatorConfig.getClusterCount()));
+        generatorConfig.setClusterRadius(config.getDouble("dataset.clusterRadius", generatorConfig.getClusterRadius()));
+        generatorConfig.setNoLocationRate(config.getDouble("dataset.noLocationRate", generatorConfig.getNoLocationRate()));
+
+        return generatorConfig;
+    }
+
+    private static CountDistribution getCount(ServerConfig config, String key, CountDistribution defaultValue) {
+        final String value = config.getString(key, null);
+        return value != null ? CountDistribution.parse(value) : defaultValue;
+    }
+}
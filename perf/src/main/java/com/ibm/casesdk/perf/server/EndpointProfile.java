@@ -0,0 +1,58 @@
+package com.ibm.casesdk.perf.server;
+
+import java.util.Random;
+
+/**
+ * How an endpoint of the {@link StandInServer} behaves: how long it takes to respond, how often
+ * it fails and how much filler it adds to its responses.
+ */
+public class EndpointProfile {
+
+    private final LatencyDistribution mLatency;
+    private final double mErrorRate;
+    private final int mErrorStatus;
+    private final int mPaddingBytes;
+
+    /**
+     * @param latency      the distribution of the response delay
+     * @param errorRate    the fraction of requests that fail, between 0 and 1
+     * @param errorStatus  the HTTP status of the failed requests
+     * @param paddingBytes the number of filler characters added to every response
+     */
+    public EndpointProfile(LatencyDistribution latency, double errorRate, int errorStatus, int paddingBytes) {
+        mLatency = latency;
+        mErrorRate = errorRate;
+        mErrorStatus = errorStatus;
+        mPaddingBytes = paddingBytes;
+    }
+
+    public LatencyDistribution getLatency() {
+        return mLatency;
+    }
+
+    public double getErrorRate() {
+        return mErrorRate;
+    }
+
+    public int getErrorStatus() {
+        return mErrorStatus;
+    }
+
+    public int getPaddingBytes() {
+        return mPaddingBytes;
+    }
+
+    /**
+     * @param random
+     * @return {@code true} if the current request has to fail
+     */
+    public boolean shouldFail(Random random) {
+        return mErrorRate > 0 && random.nextDouble() < mErrorRate;
+    }
+
+    @Override
+    public String toString() {
+        return "latency=" + mLatency + " errorRate=" + mErrorRate + " errorStatus=" + mErrorStatus
+                + " padding=" + mPaddingBytes;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ibm.casesdk.perf.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.Map;
+
+/**
+ * Reads the parameters and the bodies of the requests received by the local servers.
+ */
+public class HttpMessages {
+
+    public static final String CHARSET = "UTF-8";
+
+    private HttpMessages() {
+    }
+
+    /**
+     * @param query  a query string or a form body, may be {@code null}
+     * @param params the map the decoded parameters are added to
+     * @throws UnsupportedEncodingException
+     */
+    public static void parseParameters(String query, Map<String, String> params) throws UnsupportedEncodingException {
+        if (query == null || query.isEmpty()) {
+            return;
+        }
+
+        for (String pair : query.split("&")) {
+            final int separator = pair.indexOf('=');
+            if (separator < 0) {
+                params.put(URLDecoder.decode(pair, CHARSET), "");
+            } else {
+                params.put(URLDecoder.decode(pair.substring(0, separator), CHARSET),
+                        URLDecoder.decode(pair.substring(separator + 1), CHARSET));
+            }
+        }
+    }
+
+    public static String readBody(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toString(CHARSET);
+    }
+}
@@ -0,0 +1,102 @@
+package com.ibm.casesdk.perf.server;
+
+import java.util.Random;
+
+/**
+ * The distribution the response delay of an endpoint is drawn from.
+ * <p>
+ * Distributions are written as {@code constant:<ms>}, {@code uniform:<min ms>:<max ms>} or
+ * {@code lognormal:<median ms>:<p99 ms>}. Server response times usually have a long tail, which
+ * the log-normal distribution models with just the median and the 99th percentile.
+ */
+public abstract class LatencyDistribution {
+
+    // the 99th percentile of the standard normal distribution
+    private static final double Z_99 = 2.326348;
+
+    /**
+     * Draw a delay.
+     *
+     * @param random
+     * @return the delay in milliseconds
+     */
+    public abstract long sample(Random random);
+
+    public static LatencyDistribution constant(final long millis) {
+        return new LatencyDistribution() {
+            @Override
+            public long sample(Random random) {
+                return millis;
+            }
+
+            @Override
+            public String toString() {
+                return "constant:" + millis;
+            }
+        };
+    }
+
+    public static LatencyDistribution uniform(final long minMillis, final long maxMillis) {
+        if (maxMillis < minMillis) {
+            throw new IllegalArgumentException("max < min: " + maxMillis + " < " + minMillis);
+        }
+
+        return new LatencyDistribution() {
+            @Override
+            public long sample(Random random) {
+                return minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+            }
+
+            @Override
+            public String toString() {
+                return "uniform:" + minMillis + ":" + maxMillis;
+            }
+        };
+    }
+
+    public static LatencyDistribution logNormal(final long medianMillis, final long p99Millis) {
+        if (medianMillis <= 0 || p99Millis < medianMillis) {
+            throw new IllegalArgumentException("Invalid median/p99: " + medianMillis + "/" + p99Millis);
+        }
+
+        final double mu = Math.log(medianMillis);
+        final double sigma = (Math.log(p99Millis) - mu) / Z_99;
+
+        return new LatencyDistribution() {
+            @Override
+            public long sample(Random random) {
+                return Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+            }
+
+            @Override
+            public String toString() {
+                return "lognormal:" + medianMillis + ":" + p99Millis;
+            }
+        };
+    }
+
+    /**
+     * Parse a distribution written as described in the class documentation.
+     *
+     * @param value
+     * @return
+     */
+    public static LatencyDistribution parse(String value) {
+        final String[] parts = value.trim().split(":");
+
+        try {
+            switch (parts[0]) {
+                case "constant":
+                    return constant(Long.parseLong(parts[1]));
+                case "uniform":
+                    return uniform(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                case "lognormal":
+                    return logNormal(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid latency distribution: " + value, e);
+        }
+
+        throw new IllegalArgumentException("Unknown latency distribution: " + value);
+    }
+}
@@ -0,0 +1,150 @@
+package com.ibm.casesdk.perf.server;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Properties;
+
+/**
+ * The configuration of the {@link StandInServer}, read from a properties file.
+ * <p>
+ * Every endpoint is configured with {@code <endpoint>.latency}, {@code <endpoint>.errorRate},
+ * {@code <endpoint>.errorStatus} and {@code <endpoint>.padding}. Missing values are taken from
+ * the {@code default.*} keys. The dataset is configured with the {@code dataset.*} keys, see
+ * {@code standin.properties} for the complete list.
+ */
+public class ServerConfig {
+
+    public static final String ENDPOINT_LOGIN = "login";
+    public static final String ENDPOINT_SOLUTIONS = "getSolutions";
+    public static final String ENDPOINT_SOLUTION_DETAILS = "getSolutionDetails";
+    public static final String ENDPOINT_WORKBASKET = "getWorkBasket";
+    public static final String ENDPOINT_TASK_DETAILS = "getTaskDetails";
+    public static final String ENDPOINT_LOCK = "lock";
+    public static final String ENDPOINT_UNLOCK = "unlock";
+    public static final String ENDPOINT_UPDATE = "update";
+    public static final String ENDPOINT_COMPLETE = "complete";
+    public static final String ENDPOINT_REASSIGN = "reassign";
+    public static final String ENDPOINT_USERS = "getUsers";
+    public static final String ENDPOINT_NEARBY_TASKS = "getNearbyTasks";
+
+    private static final String DEFAULT_RESOURCE = "/standin.properties";
+
+    private final Properties mProperties;
+    private final HashMap<String, EndpointProfile> mProfiles = new HashMap<>();
+
+    private ServerConfig(Properties properties) {
+        mProperties = properties;
+    }
+
+    /**
+     * Load the default configuration, then the given file on top of it. System properties
+     * override both, e.g. {@code -Dstandin.port=9080}.
+     *
+     * @param file the configuration file or {@code null}
+     * @return
+     * @throws IOException
+     */
+    public static ServerConfig load(File file) throws IOException {
+        final Properties properties = new Properties();
+
+        try (InputStream in = ServerConfig.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in != null) {
+                properties.load(in);
+            }
+        }
+
+        if (file != null) {
+            try (InputStream in = new FileInputStream(file)) {
+                properties.load(in);
+            }
+        }
+
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("standin.")) {
+                properties.setProperty(name.substring("standin.".length()), System.getProperty(name));
+            }
+        }
+
+        return new ServerConfig(properties);
+    }
+
+    /**
+     * Create a configuration from the given properties only, e.g. for tools that start the
+     * server themselves.
+     *
+     * @param properties
+     * @return
+     */
+    public static ServerConfig fromProperties(Properties properties) {
+        final Properties copy = new Properties();
+        copy.putAll(properties);
+        return new ServerConfig(copy);
+    }
+
+    public int getPort() {
+        return getInt("port", 9080);
+    }
+
+    public long getSeed() {
+        return getLong("dataset.seed", 42);
+    }
+
+    public String getString(String key, String defaultValue) {
+        final String value = mProperties.getProperty(key);
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        final String value = mProperties.getProperty(key);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        final String value = mProperties.getProperty(key);
+        return value != null ? Long.parseLong(value.trim()) : defaultValue;
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        final String value = mProperties.getProperty(key);
+        return value != null ? Double.parseDouble(value.trim()) : defaultValue;
+    }
+
+    /**
+     * Change a value, before the server is started.
+     *
+     * @param key
+     * @param value
+     */
+    public synchronized void set(String key, String value) {
+        mProperties.setProperty(key, value);
+        mProfiles.clear();
+    }
+
+    /**
+     * @param endpoint one of the {@code ENDPOINT_*} names
+     * @return the profile of the endpoint
+     */
+    public synchronized EndpointProfile getProfile(String endpoint) {
+        EndpointProfile profile = mProfiles.get(endpoint);
+
+        if (profile == null) {
+            profile = new EndpointProfile(
+                    LatencyDistribution.parse(getEndpointValue(endpoint, "latency", "constant:0")),
+                    Double.parseDouble(getEndpointValue(endpoint, "errorRate", "0")),
+                    Integer.parseInt(getEndpointValue(endpoint, "errorStatus", "500")),
+                    Integer.parseInt(getEndpointValue(endpoint, "padding", "0")));
+            mProfiles.put(endpoint, profile);
+        }
+
+        return profile;
+    }
+
+    private String getEndpointValue(String endpoint, String name, String defaultValue) {
+        final String value = mProperties.getProperty(endpoint + "." + name,
+                mProperties.getProperty("default." + name, defaultValue));
+        return value.trim();
+    }
+}
@@ -0,0 +1,421 @@
+package com.ibm.casesdk.perf.server;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMInBasket;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMSolution;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local stand-in for the Case Manager Mobile plugin of IBM Content Navigator.
+ * <p>
+ * It answers the REST calls made by the SDK ({@code logon.do} and the {@code plugin.do} actions)
+ * from a synthetic {@link Dataset}, so the samples and the perf tools can run without a real
+ * server. Every endpoint has its own latency distribution, error rate and response size, see
+ * {@link ServerConfig}.
+ * <p>
+ * The server is reachable at {@link #getUrl()}, which is the value to use for {@code ENDPOINT}
+ * in the samples.
+ */
+public class StandInServer {
+
+    /**
+     * The status and the JSON body of a response.
+     */
+    public static class Reply {
+        private final int mStatus;
+        private final String mBody;
+
+        Reply(int status, JsonElement json, int paddingBytes) {
+            mStatus = status;
+            mBody = WireFormat.pad(json, paddingBytes).toString();
+        }
+
+        public int getStatus() {
+            return mStatus;
+        }
+
+        public String getBody() {
+            return mBody;
+        }
+
+        public boolean isSuccessful() {
+            return mStatus >= 200 && mStatus < 300;
+        }
+    }
+
+    private static final String CONTEXT_PATH = "/navigator/";
+    private static final String ACTION_LOGIN = "logon.do";
+    private static final String ACTION_PLUGIN = "plugin.do";
+    private static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+
+    private final ServerConfig mConfig;
+    private final Dataset mDataset;
+    private final Random mRandom;
+    private final Map<String, String> mUsersByToken = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> mRequestCounts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> mErrorCounts = new ConcurrentHashMap<>();
+    private HttpServer mServer;
+    private ExecutorService mExecutor;
+
+    public StandInServer(ServerConfig config) {
+        this(config, DatasetFactory.create(config));
+    }
+
+    public StandInServer(ServerConfig config, Dataset dataset) {
+        mConfig = config;
+        mDataset = dataset;
+        mRandom = new Random(config.getSeed());
+    }
+
+    public static void main(String[] args) throws IOException {
+        File configFile = null;
+        for (int i = 0; i < args.length - 1; i++) {
+            if ("--config".equals(args[i])) {
+                configFile = new File(args[++i]);
+            }
+        }
+
+        final ServerConfig config = ServerConfig.load(configFile);
+        for (int i = 0; i < args.length - 1; i++) {
+            if ("--port".equals(args[i])) {
+                config.set("port", args[++i]);
+            }
+        }
+
+        final StandInServer server = new StandInServer(config);
+        server.start();
+        System.out.println("Stand-in server with " + server.getDataset().getTaskCount()
+                + " tasks listening on " + server.getUrl());
+    }
+
+    public synchronized void start() throws IOException {
+        if (mServer != null) {
+            return;
+        }
+
+        mExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+            private int mCount;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                final Thread thread = new Thread(runnable, "standin-" + mCount++);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        mServer = HttpServer.create(new InetSocketAddress(mConfig.getPort()), 0);
+        mServer.setExecutor(mExecutor);
+        mServer.createContext(CONTEXT_PATH, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    handleRequest(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        mServer.start();
+    }
+
+    public synchronized void stop() {
+        if (mServer == null) {
+            return;
+        }
+
+        mServer.stop(0);
+        mExecutor.shutdownNow();
+        mServer = null;
+        mExecutor = null;
+    }
+
+    /**
+     * @return the base url of the server, ending with a slash
+     */
+    public synchronized String getUrl() {
+        final int port = mServer != null ? mServer.getAddress().getPort() : mConfig.getPort();
+        return "http://localhost:" + port + CONTEXT_PATH;
+    }
+
+    public Dataset getDataset() {
+        return mDataset;
+    }
+
+    public ServerConfig getConfig() {
+        return mConfig;
+    }
+
+    /**
+     * @param endpoint one of the {@code ENDPOINT_*} constants of {@link ServerConfig}
+     * @return the number of requests received by the endpoint
+     */
+    public long getRequestCount(String endpoint) {
+        final AtomicLong count = mRequestCounts.get(endpoint);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * @param endpoint one of the {@code ENDPOINT_*} constants of {@link ServerConfig}
+     * @return the number of injected errors returned by the endpoint
+     */
+    public long getErrorCount(String endpoint) {
+        final AtomicLong count = mErrorCounts.get(endpoint);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Answer a request without going through HTTP, used by the in-process transport of the load
+     * driver. The latency and the failures of the endpoint are applied like for HTTP requests.
+     *
+     * @param path   the path of the request, ending with {@code logon.do} or {@code plugin.do}
+     * @param params the query and form parameters
+     * @return
+     * @throws InterruptedException if the thread is interrupted while simulating the latency
+     */
+    public Reply dispatch(String path, Map<String, String> params) throws InterruptedException {
+        final String endpoint;
+        if (path.endsWith(ACTION_LOGIN)) {
+            endpoint = ServerConfig.ENDPOINT_LOGIN;
+        } else if (path.endsWith(ACTION_PLUGIN)) {
+            endpoint = resolveEndpoint(params);
+        } else {
+            endpoint = null;
+        }
+
+        if (endpoint == null) {
+            return new Reply(404, WireFormat.error("Unknown request " + path), 0);
+        }
+
+        count(mRequestCounts, endpoint);
+        final EndpointProfile profile = mConfig.getProfile(endpoint);
+
+        final long latency;
+        final boolean fail;
+        synchronized (mRandom) {
+            latency = profile.getLatency().sample(mRandom);
+            fail = profile.shouldFail(mRandom);
+        }
+
+        if (latency > 0) {
+            Thread.sleep(latency);
+        }
+
+        if (fail) {
+            count(mErrorCounts, endpoint);
+            return new Reply(profile.getErrorStatus(), WireFormat.error("Injected failure of " + endpoint), 0);
+        }
+
+        if (!ServerConfig.ENDPOINT_LOGIN.equals(endpoint) && getUser(params) == null) {
+            return new Reply(401, WireFormat.error("Invalid security token"), 0);
+        }
+
+        try {
+            // the dataset is serialized while it is locked, so a response is never half updated
+            synchronized (mDataset) {
+                final JsonElement response = respond(endpoint, params);
+                if (response == null) {
+                    return new Reply(404, WireFormat.error("Not found"), 0);
+                }
+                return new Reply(200, response, profile.getPaddingBytes());
+            }
+        } catch (Dataset.ConflictException e) {
+            return new Reply(409, WireFormat.error(e.getMessage()), 0);
+        } catch (RuntimeException e) {
+            return new Reply(400, WireFormat.error(String.valueOf(e.getMessage())), 0);
+        }
+    }
+
+    private void handleRequest(HttpExchange exchange) throws IOException {
+        final Map<String, String> params = new HashMap<>();
+        HttpMessages.parseParameters(exchange.getRequestURI().getRawQuery(), params);
+        if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            HttpMessages.parseParameters(HttpMessages.readBody(exchange.getRequestBody()), params);
+        }
+
+        final Reply reply;
+        try {
+            reply = dispatch(exchange.getRequestURI().getPath(), params);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        final byte[] body = reply.getBody().getBytes(HttpMessages.CHARSET);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(reply.getStatus(), body.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String resolveEndpoint(Map<String, String> params) {
+        final String action = params.get("action");
+        if (action == null) {
+            return null;
+        }
+
+        switch (action) {
+            case "SolutionListService":
+                return ServerConfig.ENDPOINT_SOLUTIONS;
+            case "SolutionDetailsService":
+                return ServerConfig.ENDPOINT_SOLUTION_DETAILS;
+            case "WorkbasketService":
+                return ServerConfig.ENDPOINT_WORKBASKET;
+            case "TaskDetailsService":
+                return ServerConfig.ENDPOINT_TASK_DETAILS;
+            case "UserSearchService":
+                return ServerConfig.ENDPOINT_USERS;
+            case "NearbyService":
+                return ServerConfig.ENDPOINT_NEARBY_TASKS;
+            case "TaskActionsService":
+                final String taskAction = params.get("task_action");
+                if ("lock".equals(taskAction)) {
+                    return ServerConfig.ENDPOINT_LOCK;
+                } else if ("unlock".equals(taskAction)) {
+                    return ServerConfig.ENDPOINT_UNLOCK;
+                } else if ("update".equals(taskAction)) {
+                    return ServerConfig.ENDPOINT_UPDATE;
+                } else if ("complete".equals(taskAction)) {
+                    return ServerConfig.ENDPOINT_COMPLETE;
+                } else if ("reassign".equals(taskAction)) {
+                    return ServerConfig.ENDPOINT_REASSIGN;
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param endpoint
+     * @param params
+     * @return the response or {@code null} if the solution, workbasket or task doesn't exist
+     * @throws Dataset.ConflictException
+     */
+    private JsonElement respond(String endpoint, Map<String, String> params) throws Dataset.ConflictException {
+        final String user = getUser(params);
+
+        switch (endpoint) {
+            case ServerConfig.ENDPOINT_LOGIN:
+                final String token = UUID.randomUUID().toString();
+                mUsersByToken.put(token, params.containsKey("userid") ? params.get("userid") : "");
+                return WireFormat.login(token);
+
+            case ServerConfig.ENDPOINT_SOLUTIONS:
+                final JsonArray solutions = new JsonArray();
+                for (ICMSolution solution : mDataset.getSolutions()) {
+                    solutions.add(WireFormat.solution(solution, false));
+                }
+                return solutions;
+
+            case ServerConfig.ENDPOINT_SOLUTION_DETAILS:
+                final ICMSolution solution = mDataset.findSolution(params.get("solution_name"));
+                return solution != null ? WireFormat.solution(solution, true) : null;
+
+            case ServerConfig.ENDPOINT_WORKBASKET:
+                final ICMInBasket basket = mDataset.findBasket(params.get("queue_name"));
+                return basket != null ? WireFormat.workbasket(basket, true) : null;
+
+            case ServerConfig.ENDPOINT_TASK_DETAILS:
+                final ICMTask task = mDataset.findTask(params.get("task_id"));
+                return task != null ? WireFormat.task(task, true) : null;
+
+            case ServerConfig.ENDPOINT_LOCK:
+                return WireFormat.task(mDataset.lock(params.get("task_id"), user), true);
+
+            case ServerConfig.ENDPOINT_UNLOCK:
+                return WireFormat.task(mDataset.unlock(params.get("task_id"), user), true);
+
+            case ServerConfig.ENDPOINT_UPDATE:
+                return WireFormat.task(mDataset.update(params.get("task_id"), user,
+                        parseValues(params.get("properties"))), true);
+
+            case ServerConfig.ENDPOINT_COMPLETE:
+                return WireFormat.caseOf(mDataset.complete(params.get("task_id"), user,
+                        parseValues(params.get("properties")), params.get("response")));
+
+            case ServerConfig.ENDPOINT_REASSIGN:
+                return WireFormat.task(mDataset.unlock(params.get("task_id"), user), true);
+
+            case ServerConfig.ENDPOINT_USERS:
+                final JsonArray users = new JsonArray();
+                final String query = params.containsKey("query") ? params.get("query") : "";
+                for (String name : new String[]{"p8admin", "loanofficer", "inspector", "underwriter"}) {
+                    if (name.contains(query.toLowerCase())) {
+                        users.add(WireFormat.user(name));
+                    }
+                }
+                return users;
+
+            case ServerConfig.ENDPOINT_NEARBY_TASKS:
+                return WireFormat.tasks(mDataset.findNearbyTasks(
+                        Double.parseDouble(params.get("latitude")),
+                        Double.parseDouble(params.get("longitude")),
+                        Double.parseDouble(params.get("radius"))));
+
+            default:
+                return null;
+        }
+    }
+
+    private String getUser(Map<String, String> params) {
+        final String token = params.get("security_token");
+        return token != null ? mUsersByToken.get(token) : null;
+    }
+
+    /**
+     * @param properties the JSON object sent by the SDK, property values by symbolic name
+     * @return
+     */
+    private static Map<String, String> parseValues(String properties) {
+        final Map<String, String> values = new HashMap<>();
+        if (properties == null || properties.isEmpty()) {
+            return values;
+        }
+
+        final JsonObject json = new JsonParser().parse(properties).getAsJsonObject();
+        for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
+            final JsonElement value = entry.getValue();
+            values.put(entry.getKey(), value.isJsonNull() ? null
+                    : value.isJsonPrimitive() ? value.getAsString() : value.toString());
+        }
+
+        return values;
+    }
+
+    private static void count(Map<String, AtomicLong> counts, String endpoint) {
+        AtomicLong count = counts.get(endpoint);
+        if (count == null) {
+            synchronized (counts) {
+                count = counts.get(endpoint);
+                if (count == null) {
+                    count = new AtomicLong();
+                    counts.put(endpoint, count);
+                }
+            }
+        }
+        count.incrementAndGet();
+    }
+}
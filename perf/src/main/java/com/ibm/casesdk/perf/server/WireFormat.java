@@ -0,0 +1,252 @@
+package com.ibm.casesdk.perf.server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMInBasket;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMLayout;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMProperty;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMQueue;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMRole;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMSolution;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes the SDK types as the JSON returned by the Case Manager Mobile plugin. The field names
+ * are the ones the SDK models are deserialized from.
+ */
+public class WireFormat {
+
+    private static final Gson GSON = new Gson();
+
+    private WireFormat() {
+    }
+
+    public static JsonObject login(String securityToken) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("security_token", securityToken);
+        return json;
+    }
+
+    /**
+     * @param solution
+     * @param withRoles {@code false} for the solution list, which doesn't include the roles
+     * @return
+     */
+    public static JsonObject solution(ICMSolution solution, boolean withRoles) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("name", solution.getName());
+        json.addProperty("prefix", solution.getPrefix());
+        json.addProperty("description", solution.getDescription());
+        json.addProperty("folder_id", solution.getFolderId());
+        json.addProperty("total_tasks", solution.getTotalTasks());
+        json.add("document_types", new JsonArray());
+        json.add("case_types", new JsonArray());
+
+        if (withRoles) {
+            final JsonArray roles = new JsonArray();
+            for (ICMRole role : solution.getRoles()) {
+                roles.add(role(role));
+            }
+            json.add("roles", roles);
+        }
+
+        return json;
+    }
+
+    public static JsonObject role(ICMRole role) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("id", role.getId());
+        json.addProperty("name", role.getName());
+        json.addProperty("authored_name", role.getAuthoredName());
+        json.addProperty("description", role.getDescription());
+        json.addProperty("total_tasks", role.getTotalTasks());
+
+        // the tasks are only sent with the details of a basket
+        final JsonArray workbaskets = new JsonArray();
+        for (ICMInBasket basket : role.getWorkbaskets()) {
+            workbaskets.add(workbasket(basket, false));
+        }
+        json.add("workbaskets", workbaskets);
+
+        return json;
+    }
+
+    public static JsonObject workbasket(ICMInBasket basket, boolean withTasks) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("name", basket.getName());
+        json.addProperty("authored_name", basket.getAuthoredName());
+        json.addProperty("description", basket.getDescription());
+        json.addProperty("queue_name", basket.getQueueName());
+        json.addProperty("tasks_count", basket.getTasksCount());
+        json.addProperty("is_inbox", basket.isInbox());
+
+        final JsonArray tasks = new JsonArray();
+        if (withTasks) {
+            for (ICMTask task : basket.getTasks()) {
+                tasks.add(task(task, false));
+            }
+        }
+        json.add("tasks", tasks);
+
+        return json;
+    }
+
+    public static JsonArray tasks(List<ICMTask> tasks) {
+        final JsonArray json = new JsonArray();
+        for (ICMTask task : tasks) {
+            json.add(task(task, false));
+        }
+        return json;
+    }
+
+    /**
+     * @param task
+     * @param withDetails {@code true} to include the properties and the layout
+     * @return
+     */
+    public static JsonObject task(ICMTask task, boolean withDetails) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("id", task.getId());
+        json.addProperty("subject", task.getSubject());
+        json.addProperty("step_name", task.getStepName());
+        json.addProperty("step_description", task.getStepDescription());
+        json.addProperty("participant_name", task.getParticipantName());
+        json.addProperty("originator", task.getOriginator());
+        json.addProperty("date_received", task.getDateReceived());
+        json.addProperty("deadline", task.getDeadline());
+        json.addProperty("reminder_date", task.getReminderDate());
+        json.addProperty("locked_user", task.getLockedUser());
+        json.addProperty("can_reasign", task.isCanReassign());
+        json.addProperty("overdue_status", task.getOverdueStatus());
+        json.addProperty("comment", task.getComment());
+        json.addProperty("case_id", task.getCaseId());
+        json.addProperty("case_title", task.getCaseTitle());
+        json.addProperty("task_type", task.getTaskType());
+        json.addProperty("state", task.getState());
+        json.addProperty("case_type_id", task.getCaseTypeId());
+        json.addProperty("latitude", task.getLatitude());
+        json.addProperty("longitude", task.getLongitude());
+        json.add("responses", GSON.toJsonTree(task.getResponses()));
+
+        final JsonArray inbaskets = new JsonArray();
+        for (ICMQueue queue : task.getInbaskets()) {
+            final JsonObject queueJson = new JsonObject();
+            queueJson.addProperty("queue_name", queue.getQueueName());
+            inbaskets.add(queueJson);
+        }
+        json.add("inbaskets", inbaskets);
+
+        if (withDetails) {
+            final JsonArray properties = new JsonArray();
+            for (ICMProperty property : task.getProperties()) {
+                properties.add(property(property));
+            }
+            json.add("properties", properties);
+
+            final JsonArray layout = new JsonArray();
+            for (ICMLayout item : task.getLayout()) {
+                layout.add(layout(item));
+            }
+            json.add("layout", layout);
+        }
+
+        return json;
+    }
+
+    public static JsonObject property(ICMProperty property) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("display_name", property.getDisplayName());
+        json.addProperty("symbolic_name", property.getSymbolicName());
+        json.add("value", GSON.toJsonTree(property.getValue()));
+        json.addProperty("description", property.getDescription());
+        json.addProperty("is_array", property.isArray());
+        json.addProperty("is_readonly", property.isReadonly());
+        json.addProperty("type", property.getType());
+        json.add("default_value", GSON.toJsonTree(property.getDefaultValue()));
+        json.addProperty("maximum_length", property.getMaximumLength());
+        json.add("maximum_value", GSON.toJsonTree(property.getMaximumValue()));
+        json.add("minimum_value", GSON.toJsonTree(property.getMinimumValue()));
+        json.addProperty("is_hidden", property.isHidden());
+        json.addProperty("is_required", property.isRequired());
+        json.add("choices", GSON.toJsonTree(property.getChoices()));
+        json.addProperty("has_choice_list", property.hasChoiceList());
+        json.addProperty("case_id", property.getCaseId());
+        json.addProperty("task_id", property.getTaskId());
+        json.addProperty("document_id", property.getDocumentId());
+        return json;
+    }
+
+    public static JsonObject layout(ICMLayout layout) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("type", layout.getType());
+        json.addProperty("title", layout.getTitle());
+        json.addProperty("name", layout.getName());
+        json.add("properties", GSON.toJsonTree(layout.getProperties()));
+        return json;
+    }
+
+    /**
+     * The case returned when a task is completed.
+     *
+     * @param task
+     * @return
+     */
+    public static JsonObject caseOf(ICMTask task) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("id", task.getCaseId());
+        json.addProperty("title", task.getCaseTitle());
+        json.addProperty("case_type_id", task.getCaseTypeId());
+        json.addProperty("latitude", task.getLatitude());
+        json.addProperty("longitude", task.getLongitude());
+        return json;
+    }
+
+    public static JsonObject user(String name) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("id", name);
+        json.addProperty("display_name", name);
+        json.addProperty("short_name", name);
+        json.addProperty("email", name + "@example.com");
+        return json;
+    }
+
+    public static JsonObject error(String message) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("success", false);
+        json.addProperty("message", message);
+        return json;
+    }
+
+    /**
+     * Add filler characters to a response so it reaches a realistic size. The SDK ignores the
+     * unknown field.
+     *
+     * @param json
+     * @param paddingBytes
+     * @return
+     */
+    public static JsonElement pad(JsonElement json, int paddingBytes) {
+        if (paddingBytes <= 0) {
+            return json;
+        }
+
+        final char[] filler = new char[paddingBytes];
+        Arrays.fill(filler, 'x');
+        final JsonPrimitive padding = new JsonPrimitive(new String(filler));
+
+        if (json.isJsonObject()) {
+            json.getAsJsonObject().add("padding", padding);
+        } else if (json.isJsonArray() && json.getAsJsonArray().size() > 0
+                && json.getAsJsonArray().get(0).isJsonObject()) {
+            json.getAsJsonArray().get(0).getAsJsonObject().add("padding", padding);
+        }
+
+        return json;
+    }
+}
@@ -1,8 +1,19 @@
 package com.ibm.casesdk.sample.edittask;
 
 import android.app.Application;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
 
+import com.ibm.casesdk.sample.edittask.controllers.OperationJournal;
 import com.ibm.casesdk.sample.edittask.controllers.TaskController;
+import com.ibm.casesdk.sample.edittask.utils.Constants;
+import com.ibm.casesdk.sample.edittask.utils.StartupTracer;
+import com.ibm.casesdk.sample.edittask.utils.Utils;
+
+import java.io.File;
 
 /**
  * Created by stelian on 26/10/2015.
@@ -12,6 +23,34 @@ public class TaskManagerApp extends Application {
     // Save the TaskController at Application level so it can be accessible in multiple parts of the app
     private TaskController taskController;
 
+    // Operations saved while offline, shared by all the TaskController instances
+    private OperationJournal operationJournal;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // trace the startup until the first task is displayed
+        final StartupTracer tracer = StartupTracer.getInstance();
+        tracer.start(new File(getFilesDir(), Constants.STARTUP_TRACE_FILE));
+        tracer.beginStage("Application.onCreate");
+
+        operationJournal = new OperationJournal(new File(getFilesDir(), Constants.JOURNAL_FILE),
+                Constants.JOURNAL_MAX_ENTRIES);
+
+        // send the operations saved while offline as soon as the network is back
+        registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                if (taskController != null && Utils.isNetworkAvailable(context)) {
+                    taskController.replayJournal();
+                }
+            }
+        }, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+
+        tracer.endStage("Application.onCreate");
+    }
+
     public TaskController getTaskController() {
         return taskController;
     }
@@ -19,4 +58,8 @@ public class TaskManagerApp extends Application {
     public void setTaskController(TaskController taskController) {
         this.taskController = taskController;
     }
+
+    public OperationJournal getOperationJournal() {
+        return operationJournal;
+    }
 }
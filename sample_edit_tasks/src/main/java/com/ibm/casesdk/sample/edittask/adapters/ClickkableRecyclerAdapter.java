@@ -13,15 +13,24 @@ public abstract class ClickkableRecyclerAdapter<VH extends ClickkableRecyclerAda
     private int mSelectedItemPosition = -1;
     private RecyclerView mRecyclerView;
     private RecyclerViewClickListener mClickListener;
+    private RecyclerViewLongClickListener mLongClickListener;
 
     public void setRecyclerViewClickListener(@NonNull RecyclerViewClickListener listener) {
         mClickListener = listener;
     }
 
+    public void setRecyclerViewLongClickListener(@NonNull RecyclerViewLongClickListener listener) {
+        mLongClickListener = listener;
+    }
+
     public interface RecyclerViewClickListener {
         void onRecyclerViewItemClicked(int position);
     }
 
+    public interface RecyclerViewLongClickListener {
+        boolean onRecyclerViewItemLongClicked(int position);
+    }
+
     @Override
     public void onAttachedToRecyclerView(RecyclerView recyclerView) {
         super.onAttachedToRecyclerView(recyclerView);
@@ -46,6 +55,15 @@ public abstract class ClickkableRecyclerAdapter<VH extends ClickkableRecyclerAda
                     }
                 }
             });
+
+            itemView.setOnLongClickListener(new View.OnLongClickListener() {
+                @Override
+                public boolean onLongClick(View v) {
+                    return mLongClickListener != null &&
+                            mLongClickListener.onRecyclerViewItemLongClicked(
+                                    mRecyclerView.getChildAdapterPosition(v));
+                }
+            });
         }
     }
 }
@@ -1,8 +1,11 @@
 package com.ibm.casesdk.sample.edittask.adapters;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.v4.content.ContextCompat;
+import android.support.v7.widget.CardView;
 import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -12,9 +15,15 @@ import android.widget.TextView;
 
 import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
 import com.ibm.casesdk.sample.edittask.R;
+import com.ibm.casesdk.sample.edittask.utils.StartupTracer;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import butterknife.Bind;
 import butterknife.ButterKnife;
@@ -24,14 +33,28 @@ import butterknife.ButterKnife;
  */
 public class TaskListAdapter extends ClickkableRecyclerAdapter<TaskListAdapter.TaskHolder> {
 
+    // payload used when only the selection state of a row changes
+    private static final int CHANGE_SELECTION = 1 << 8;
+
+    // task list differences are calculated away from the main thread, one at a time
+    private static final ExecutorService sDiffExecutor = Executors.newSingleThreadExecutor();
+
     private Context mContext;
     private ArrayList<ICMTask> mTasks;
     private LayoutInflater mInflater;
+    private Handler mMainHandler;
+    private HashMap<String, Long> mStableIds;
+    private HashSet<String> mSelectedTaskIds;
+    private int mUpdateGeneration;
 
     public TaskListAdapter(@NonNull Context context) {
         mContext = context;
         mInflater = LayoutInflater.from(mContext);
         mTasks = new ArrayList<>();
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mStableIds = new HashMap<>();
+        mSelectedTaskIds = new HashSet<>();
+        setHasStableIds(true);
     }
 
     @Override
@@ -41,19 +64,26 @@ public class TaskListAdapter extends ClickkableRecyclerAdapter<TaskListAdapter.T
 
     @Override
     public void onBindViewHolder(TaskListAdapter.TaskHolder holder, int position) {
-        final ICMTask task = mTasks.get(position);
+        bindTask(holder, mTasks.get(position), TaskListDiff.CHANGE_LOCK | TaskListDiff.CHANGE_STEP
+                | TaskListDiff.CHANGE_TITLE | CHANGE_SELECTION);
 
-        //  populate the rest of the fields
-        holder.taskName.setText(task.getCaseTitle());
-        holder.taskSubject.setText(task.getStepName());
+        // the startup ends with the first displayed task, this is a no-op afterwards
+        StartupTracer.getInstance().finish("first task row");
+    }
 
-        if (TextUtils.isEmpty(task.getLockedUser())) {
-            holder.taskStatus.setImageDrawable(ContextCompat.getDrawable(mContext, R.drawable.ic_lock_open));
-        } else {
-            holder.taskStatus.setImageDrawable(ContextCompat.getDrawable(mContext, R.drawable.ic_lock_closed));
+    @Override
+    public void onBindViewHolder(TaskListAdapter.TaskHolder holder, int position, List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
         }
 
-        holder.taskStatus.refreshDrawableState();
+        // only update the fields that changed
+        int changes = 0;
+        for (Object payload : payloads) {
+            changes |= (Integer) payload;
+        }
+        bindTask(holder, mTasks.get(position), changes);
     }
 
     @Override
@@ -61,16 +91,119 @@ public class TaskListAdapter extends ClickkableRecyclerAdapter<TaskListAdapter.T
         return mTasks.size();
     }
 
+    @Override
+    public long getItemId(int position) {
+        final String taskId = mTasks.get(position).getId();
+        Long stableId = mStableIds.get(taskId);
+
+        if (stableId == null) {
+            stableId = (long) mStableIds.size();
+            mStableIds.put(taskId, stableId);
+        }
+
+        return stableId;
+    }
+
     /**
      * Display a new list of tasks.
+     * <p>
+     * The differences with the displayed tasks are calculated on a background thread and only the
+     * rows that changed are updated. If a new list arrives before the calculation is done, the
+     * older list is dropped.
      *
      * @param newTasks
      */
     public void updateTasks(final List<ICMTask> newTasks) {
-        mTasks.clear();
+        final int generation = ++mUpdateGeneration;
+        final List<ICMTask> oldTasks = new ArrayList<>(mTasks);
+        final List<ICMTask> tasks = new ArrayList<>(newTasks);
+
+        sDiffExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final TaskListDiff diff = TaskListDiff.calculate(oldTasks, tasks);
 
-        mTasks.addAll(newTasks);
-        notifyDataSetChanged();
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        // a newer list was submitted in the meantime
+                        if (generation != mUpdateGeneration) {
+                            return;
+                        }
+
+                        mTasks = new ArrayList<>(tasks);
+                        diff.dispatch(new TaskListDiff.Callback() {
+                            @Override
+                            public void onInserted(int position) {
+                                notifyItemInserted(position);
+                            }
+
+                            @Override
+                            public void onRemoved(int position) {
+                                notifyItemRemoved(position);
+                            }
+
+                            @Override
+                            public void onMoved(int fromPosition, int toPosition) {
+                                notifyItemMoved(fromPosition, toPosition);
+                            }
+
+                            @Override
+                            public void onChanged(int position, Object payload) {
+                                notifyItemChanged(position, payload);
+                            }
+                        });
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Select the task at the given position, or deselect it if it's already selected.
+     *
+     * @param position
+     */
+    public void toggleSelection(int position) {
+        final String taskId = mTasks.get(position).getId();
+
+        if (!mSelectedTaskIds.remove(taskId)) {
+            mSelectedTaskIds.add(taskId);
+        }
+        notifyItemChanged(position, CHANGE_SELECTION);
+    }
+
+    /**
+     * Deselect all the tasks.
+     */
+    public void clearSelection() {
+        for (int i = 0; i < mTasks.size(); i++) {
+            if (mSelectedTaskIds.contains(mTasks.get(i).getId())) {
+                notifyItemChanged(i, CHANGE_SELECTION);
+            }
+        }
+        mSelectedTaskIds.clear();
+    }
+
+    /**
+     * @return the selected tasks, in list order
+     */
+    public List<ICMTask> getSelectedTasks() {
+        final List<ICMTask> selectedTasks = new ArrayList<>();
+        for (ICMTask task : mTasks) {
+            if (mSelectedTaskIds.contains(task.getId())) {
+                selectedTasks.add(task);
+            }
+        }
+
+        return selectedTasks;
+    }
+
+    /**
+     * @return the displayed tasks, in list order
+     */
+    public List<ICMTask> getTasks() {
+        return Collections.unmodifiableList(mTasks);
     }
 
     /**
@@ -89,6 +222,33 @@ public class TaskListAdapter extends ClickkableRecyclerAdapter<TaskListAdapter.T
         return task;
     }
 
+    private void bindTask(TaskHolder holder, ICMTask task, int fields) {
+        //  populate the rest of the fields
+        if ((fields & TaskListDiff.CHANGE_TITLE) != 0) {
+            holder.taskName.setText(task.getCaseTitle());
+        }
+
+        if ((fields & TaskListDiff.CHANGE_STEP) != 0) {
+            holder.taskSubject.setText(task.getStepName());
+        }
+
+        if ((fields & TaskListDiff.CHANGE_LOCK) != 0) {
+            if (TextUtils.isEmpty(task.getLockedUser())) {
+                holder.taskStatus.setImageDrawable(ContextCompat.getDrawable(mContext, R.drawable.ic_lock_open));
+            } else {
+                holder.taskStatus.setImageDrawable(ContextCompat.getDrawable(mContext, R.drawable.ic_lock_closed));
+            }
+
+            holder.taskStatus.refreshDrawableState();
+        }
+
+        if ((fields & CHANGE_SELECTION) != 0) {
+            final boolean selected = mSelectedTaskIds.contains(task.getId());
+            ((CardView) holder.itemView).setCardBackgroundColor(ContextCompat.getColor(mContext,
+                    selected ? R.color.primary_light : R.color.icons));
+        }
+    }
+
     public class TaskHolder extends ClickkableRecyclerAdapter.ViewHolder {
 
         @Bind(R.id.task_status)
@@ -0,0 +1,204 @@
+package com.ibm.casesdk.sample.edittask.adapters;
+
+import android.support.annotation.NonNull;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * The list of operations that turn a list of {@link ICMTask} into another one.
+ * <p>
+ * Tasks are matched by id. A task present in both lists is reported as changed when one of the
+ * displayed fields (lock user, step name, case title) is different, the payload of the change
+ * holds the {@code CHANGE_*} flags of the fields that changed.
+ * <p>
+ * The calculation doesn't touch any view, so it can run on a background thread. The operations
+ * must be dispatched in order, positions refer to the list as modified by the previous operations.
+ */
+public class TaskListDiff {
+
+    public static final int CHANGE_LOCK = 1;
+    public static final int CHANGE_STEP = 1 << 1;
+    public static final int CHANGE_TITLE = 1 << 2;
+
+    /**
+     * Receives the operations of a {@link TaskListDiff}.
+     */
+    public interface Callback {
+        void onInserted(int position);
+
+        void onRemoved(int position);
+
+        void onMoved(int fromPosition, int toPosition);
+
+        void onChanged(int position, Object payload);
+    }
+
+    private static final int OP_INSERT = 0;
+    private static final int OP_REMOVE = 1;
+    private static final int OP_MOVE = 2;
+    private static final int OP_CHANGE = 3;
+
+    // each operation is stored as 3 ints: type, first position, second position or change flags
+    private final int[] mOperations;
+    private final int mOperationCount;
+
+    private TaskListDiff(int[] operations, int operationCount) {
+        mOperations = operations;
+        mOperationCount = operationCount;
+    }
+
+    /**
+     * Calculate the operations that turn {@code oldTasks} into {@code newTasks}.
+     *
+     * @param oldTasks
+     * @param newTasks
+     * @return
+     */
+    public static TaskListDiff calculate(@NonNull List<ICMTask> oldTasks, @NonNull List<ICMTask> newTasks) {
+        final OperationList operations = new OperationList();
+        final ArrayList<ICMTask> working = new ArrayList<>(oldTasks);
+
+        final HashSet<String> newIds = new HashSet<>(newTasks.size() * 2);
+        for (ICMTask task : newTasks) {
+            newIds.add(task.getId());
+        }
+
+        // remove the tasks that are gone, from the end so positions stay valid
+        for (int i = working.size() - 1; i >= 0; i--) {
+            if (!newIds.contains(working.get(i).getId())) {
+                working.remove(i);
+                operations.add(OP_REMOVE, i, 0);
+            }
+        }
+
+        // walk the new list placing each task in its position
+        for (int i = 0; i < newTasks.size(); i++) {
+            final ICMTask newTask = newTasks.get(i);
+            final int oldPosition = indexOf(working, newTask.getId(), i);
+
+            if (oldPosition == -1) {
+                working.add(i, newTask);
+                operations.add(OP_INSERT, i, 0);
+            } else {
+                final ICMTask oldTask = working.get(oldPosition);
+                if (oldPosition != i) {
+                    working.remove(oldPosition);
+                    working.add(i, oldTask);
+                    operations.add(OP_MOVE, oldPosition, i);
+                }
+
+                final int changes = getChanges(oldTask, newTask);
+                if (changes != 0) {
+                    operations.add(OP_CHANGE, i, changes);
+                }
+                working.set(i, newTask);
+            }
+        }
+
+        // leftovers are duplicated ids of the old list
+        for (int i = working.size() - 1; i >= newTasks.size(); i--) {
+            working.remove(i);
+            operations.add(OP_REMOVE, i, 0);
+        }
+
+        return new TaskListDiff(operations.mValues, operations.mCount);
+    }
+
+    /**
+     * Get the {@code CHANGE_*} flags for the displayed fields that differ between two versions of
+     * the same task.
+     *
+     * @param oldTask
+     * @param newTask
+     * @return
+     */
+    public static int getChanges(@NonNull ICMTask oldTask, @NonNull ICMTask newTask) {
+        int changes = 0;
+
+        if (!equals(oldTask.getLockedUser(), newTask.getLockedUser())) {
+            changes |= CHANGE_LOCK;
+        }
+        if (!equals(oldTask.getStepName(), newTask.getStepName())) {
+            changes |= CHANGE_STEP;
+        }
+        if (!equals(oldTask.getCaseTitle(), newTask.getCaseTitle())) {
+            changes |= CHANGE_TITLE;
+        }
+
+        return changes;
+    }
+
+    /**
+     * Send the operations to the given callback, in order.
+     *
+     * @param callback
+     */
+    public void dispatch(@NonNull Callback callback) {
+        for (int i = 0; i < mOperationCount; i++) {
+            final int type = mOperations[i * 3];
+            final int first = mOperations[i * 3 + 1];
+            final int second = mOperations[i * 3 + 2];
+
+            switch (type) {
+                case OP_INSERT:
+                    callback.onInserted(first);
+                    break;
+                case OP_REMOVE:
+                    callback.onRemoved(first);
+                    break;
+                case OP_MOVE:
+                    callback.onMoved(first, second);
+                    break;
+                case OP_CHANGE:
+                    callback.onChanged(first, second);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @return the number of operations
+     */
+    public int size() {
+        return mOperationCount;
+    }
+
+    private static int indexOf(List<ICMTask> tasks, String id, int fromIndex) {
+        for (int i = fromIndex; i < tasks.size(); i++) {
+            if (equals(tasks.get(i).getId(), id)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean equals(String first, String second) {
+        return first == null ? second == null : first.equals(second);
+    }
+
+    /**
+     * Growable array of operations.
+     */
+    private static class OperationList {
+        private int[] mValues = new int[48];
+        private int mCount;
+
+        void add(int type, int first, int second) {
+            if ((mCount + 1) * 3 > mValues.length) {
+                final int[] values = new int[mValues.length * 2];
+                System.arraycopy(mValues, 0, values, 0, mValues.length);
+                mValues = values;
+            }
+
+            mValues[mCount * 3] = type;
+            mValues[mCount * 3 + 1] = first;
+            mValues[mCount * 3 + 2] = second;
+            mCount++;
+        }
+    }
+}
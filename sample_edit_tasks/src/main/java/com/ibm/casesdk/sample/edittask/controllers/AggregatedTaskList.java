@@ -0,0 +1,202 @@
+package com.ibm.casesdk.sample.edittask.controllers;
+
+import android.support.annotation.IntDef;
+import android.support.annotation.NonNull;
+import android.text.TextUtils;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMInBasket;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+import com.ibm.casesdk.sample.edittask.utils.TimeZoneFormat;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Merges the tasks of all the {@link ICMInBasket} of a role into a single list.
+ * <p>
+ * Baskets can be added in any order, e.g. as their details arrive, and adding a basket again
+ * replaces its tasks. A task found in several baskets is only listed once, for the basket that
+ * comes first in the role. The merged list is sorted with the chosen {@link Order}, tasks without
+ * the date used for sorting come last.
+ */
+public class AggregatedTaskList {
+
+    public static final int ORDER_BASKET = 0;
+    public static final int ORDER_DEADLINE = 1;
+    public static final int ORDER_DATE_RECEIVED = 2;
+
+    /**
+     * Define valid task orders.
+     */
+    @IntDef({ORDER_BASKET, ORDER_DEADLINE, ORDER_DATE_RECEIVED})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Order {
+    }
+
+    // basket key -> position of the basket in the role
+    private final HashMap<String, Integer> mBasketPositions = new HashMap<>();
+
+    // basket key -> tasks of the basket
+    private final HashMap<String, List<ICMTask>> mBasketTasks = new HashMap<>();
+
+    // date string -> time, dates are parsed once
+    private final HashMap<String, Long> mParsedDates = new HashMap<>();
+
+    private int mOrder;
+    private List<ICMTask> mTasks = new ArrayList<>();
+    private int mDuplicateCount;
+
+    public AggregatedTaskList(@Order int order) {
+        mOrder = order;
+    }
+
+    /**
+     * Set the baskets of the role, in the order of the role. The tasks of the baskets that are
+     * not in the list anymore are removed.
+     *
+     * @param baskets
+     * @return {@code true} if tasks were removed
+     */
+    public synchronized boolean setBaskets(@NonNull List<ICMInBasket> baskets) {
+        mBasketPositions.clear();
+        for (int i = 0; i < baskets.size(); i++) {
+            mBasketPositions.put(basketKey(baskets.get(i)), i);
+        }
+
+        final boolean removed = mBasketTasks.keySet().retainAll(mBasketPositions.keySet());
+        merge();
+        return removed;
+    }
+
+    /**
+     * Add the tasks of a basket, replacing the ones previously added for the same basket.
+     *
+     * @param basket the basket with its details
+     */
+    public synchronized void putBasket(@NonNull ICMInBasket basket) {
+        final List<ICMTask> tasks = basket.getTasks();
+        mBasketTasks.put(basketKey(basket), tasks != null ? new ArrayList<>(tasks) : new ArrayList<ICMTask>());
+        merge();
+    }
+
+    /**
+     * @param order
+     * @return {@code true} if the order changed
+     */
+    public synchronized boolean setOrder(@Order int order) {
+        if (mOrder == order) {
+            return false;
+        }
+
+        mOrder = order;
+        merge();
+        return true;
+    }
+
+    @Order
+    public synchronized int getOrder() {
+        return mOrder;
+    }
+
+    /**
+     * @return the merged tasks, without duplicates and in the current order
+     */
+    public synchronized List<ICMTask> getTasks() {
+        return Collections.unmodifiableList(mTasks);
+    }
+
+    /**
+     * @return the number of tasks left out of the merged list because another basket has them
+     */
+    public synchronized int getDuplicateCount() {
+        return mDuplicateCount;
+    }
+
+    /**
+     * Remove all the baskets.
+     */
+    public synchronized void clear() {
+        mBasketPositions.clear();
+        mBasketTasks.clear();
+        mParsedDates.clear();
+        mTasks = new ArrayList<>();
+        mDuplicateCount = 0;
+    }
+
+    private void merge() {
+        // baskets in the order of the role, the ones that are not part of it last
+        final List<String> basketKeys = new ArrayList<>(mBasketTasks.keySet());
+        Collections.sort(basketKeys, new Comparator<String>() {
+            @Override
+            public int compare(String lhs, String rhs) {
+                return Integer.compare(basketPosition(lhs), basketPosition(rhs));
+            }
+        });
+
+        final List<ICMTask> tasks = new ArrayList<>();
+        final Set<String> taskKeys = new HashSet<>();
+        int duplicateCount = 0;
+
+        for (String basketKey : basketKeys) {
+            for (ICMTask task : mBasketTasks.get(basketKey)) {
+                if (task == null || task.getId() == null) {
+                    continue;
+                }
+
+                if (taskKeys.add(task.getId().toLowerCase(Locale.US))) {
+                    tasks.add(task);
+                } else {
+                    duplicateCount++;
+                }
+            }
+        }
+
+        if (mOrder != ORDER_BASKET) {
+            // the sort is stable, tasks with the same date keep the basket order
+            Collections.sort(tasks, new Comparator<ICMTask>() {
+                @Override
+                public int compare(ICMTask lhs, ICMTask rhs) {
+                    return Long.compare(sortTime(lhs), sortTime(rhs));
+                }
+            });
+        }
+
+        mTasks = tasks;
+        mDuplicateCount = duplicateCount;
+    }
+
+    private int basketPosition(String basketKey) {
+        final Integer position = mBasketPositions.get(basketKey);
+        return position != null ? position : Integer.MAX_VALUE;
+    }
+
+    private long sortTime(ICMTask task) {
+        final String date = mOrder == ORDER_DEADLINE ? task.getDeadline() : task.getDateReceived();
+        if (TextUtils.isEmpty(date)) {
+            return Long.MAX_VALUE;
+        }
+
+        Long time = mParsedDates.get(date);
+        if (time == null) {
+            final Date parsed = TimeZoneFormat.parse(date);
+            time = parsed != null ? parsed.getTime() : Long.MAX_VALUE;
+            mParsedDates.put(date, time);
+        }
+
+        return time;
+    }
+
+    private static String basketKey(ICMInBasket basket) {
+        // baskets don't have an id, the queue name is the closest thing to one
+        return basket.getQueueName() != null ? basket.getQueueName() : basket.getName();
+    }
+}
@@ -0,0 +1,107 @@
+package com.ibm.casesdk.sample.edittask.controllers;
+
+import android.os.SystemClock;
+import android.support.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Stops sending requests to a server that keeps failing.
+ * <p>
+ * The breaker opens after a number of consecutive failures and rejects every request while it
+ * is open. Once the open duration has passed, a single trial request is allowed: the breaker
+ * closes if it succeeds and opens again if it fails.
+ */
+public class CircuitBreaker {
+
+    public static final int STATE_CLOSED = 0;
+    public static final int STATE_OPEN = 1;
+    public static final int STATE_HALF_OPEN = 2;
+
+    /**
+     * Define valid breaker states.
+     */
+    @IntDef({STATE_CLOSED, STATE_OPEN, STATE_HALF_OPEN})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface State {
+    }
+
+    private final int mFailureThreshold;
+    private final long mOpenDurationMillis;
+
+    private int mState = STATE_CLOSED;
+    private int mConsecutiveFailures;
+    private long mOpenedAt;
+    private boolean mTrialInFlight;
+    private int mTripCount;
+
+    /**
+     * @param failureThreshold   number of consecutive failures that open the breaker
+     * @param openDurationMillis time during which requests are rejected once the breaker opens
+     */
+    public CircuitBreaker(int failureThreshold, long openDurationMillis) {
+        mFailureThreshold = Math.max(1, failureThreshold);
+        mOpenDurationMillis = openDurationMillis;
+    }
+
+    /**
+     * Determine if a request can be sent. When this returns {@code true} the outcome of the
+     * request must be reported with {@link #onSuccess()} or {@link #onFailure()}.
+     *
+     * @return
+     */
+    public synchronized boolean allowRequest() {
+        if (mState == STATE_OPEN) {
+            if (SystemClock.elapsedRealtime() - mOpenedAt < mOpenDurationMillis) {
+                return false;
+            }
+
+            mState = STATE_HALF_OPEN;
+            mTrialInFlight = false;
+        }
+
+        if (mState == STATE_HALF_OPEN) {
+            // only the trial request goes through
+            if (mTrialInFlight) {
+                return false;
+            }
+            mTrialInFlight = true;
+        }
+
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        mState = STATE_CLOSED;
+        mConsecutiveFailures = 0;
+        mTrialInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        mConsecutiveFailures++;
+
+        if (mState == STATE_HALF_OPEN || (mState == STATE_CLOSED && mConsecutiveFailures >= mFailureThreshold)) {
+            mState = STATE_OPEN;
+            mOpenedAt = SystemClock.elapsedRealtime();
+            mTrialInFlight = false;
+            mTripCount++;
+        }
+    }
+
+    @State
+    public synchronized int getState() {
+        return mState;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return mConsecutiveFailures;
+    }
+
+    /**
+     * @return the number of times the breaker has opened
+     */
+    public synchronized int getTripCount() {
+        return mTripCount;
+    }
+}
@@ -0,0 +1,224 @@
+package com.ibm.casesdk.sample.edittask.controllers;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMCallback;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMInBasket;
+import com.ibm.casemanagersdk.sdk.manager.InBasketManager;
+import com.ibm.casemanagersdk.sdk.manager.SolutionManager;
+import com.ibm.casesdk.sample.edittask.viewmodels.TaskViewModel;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Loads the details of a list of {@link ICMInBasket} with a limited number of requests in flight.
+ * <p>
+ * Every basket is completed exactly once, either when its details arrive, when the request fails
+ * or when it takes longer than the configured timeout, retries included. The listener is notified
+ * for each basket, so partial results can be used before the slowest basket arrives, and once
+ * more when every basket has completed.
+ * <p>
+ * The {@link InBasketManager} of each basket comes from the {@link ManagerCache} of the
+ * controller, so the task operations that follow the load reuse it.
+ * <p>
+ * The loader must be used from the main thread, which is where the SDK delivers its callbacks.
+ */
+public class InBasketLoader {
+
+    public interface Listener {
+
+        /**
+         * Notify when the details of a basket have been loaded.
+         *
+         * @param basket         the basket with all its details
+         * @param completedCount number of baskets completed so far, including failed ones
+         * @param totalCount     number of baskets being loaded
+         */
+        void onBasketLoaded(ICMInBasket basket, int completedCount, int totalCount);
+
+        /**
+         * Notify when the details of a basket could not be loaded or took too long.
+         *
+         * @param basket         the basket as it was passed to the loader
+         * @param error          the error message
+         * @param completedCount number of baskets completed so far, including failed ones
+         * @param totalCount     number of baskets being loaded
+         */
+        void onBasketFailed(ICMInBasket basket, String error, int completedCount, int totalCount);
+
+        /**
+         * Notify when every basket has either been loaded or has failed.
+         *
+         * @param loadedCount number of baskets loaded with their details
+         * @param failedCount number of baskets that failed or timed out
+         */
+        void onAllBasketsLoaded(int loadedCount, int failedCount);
+    }
+
+    private final SolutionManager mSolutionManager;
+    private final ManagerCache mManagerCache;
+    private final ResilientExecutor mResilientExecutor;
+    private final int mMaxConcurrentRequests;
+    private final long mTimeoutMillis;
+    private final Handler mHandler;
+
+    private LinkedList<ICMInBasket> mPendingBaskets;
+    private final HashSet<BasketRequest> mInFlightRequests = new HashSet<>();
+    private Listener mListener;
+    private int mTotalCount;
+    private int mInFlightCount;
+    private int mLoadedCount;
+    private int mFailedCount;
+    private boolean mCancelled;
+
+    /**
+     * @param solutionManager       used to create the {@link InBasketManager} for each basket
+     * @param managerCache          the cache the {@link InBasketManager} are taken from
+     * @param resilientExecutor     used to perform the basket requests
+     * @param maxConcurrentRequests maximum number of basket requests in flight at the same time
+     * @param timeoutMillis         time after which a basket request is considered failed
+     */
+    public InBasketLoader(@NonNull SolutionManager solutionManager, @NonNull ManagerCache managerCache,
+                          @NonNull ResilientExecutor resilientExecutor, int maxConcurrentRequests,
+                          long timeoutMillis) {
+        mSolutionManager = solutionManager;
+        mManagerCache = managerCache;
+        mResilientExecutor = resilientExecutor;
+        mMaxConcurrentRequests = Math.max(1, maxConcurrentRequests);
+        mTimeoutMillis = timeoutMillis;
+        mHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Start loading the details for the given baskets. A loader can only be started once.
+     *
+     * @param baskets
+     * @param listener
+     */
+    public void load(@NonNull List<ICMInBasket> baskets, @NonNull Listener listener) {
+        if (mListener != null) {
+            throw new IllegalStateException("The loader has already been started");
+        }
+
+        mListener = listener;
+        mPendingBaskets = new LinkedList<>(baskets);
+        mTotalCount = baskets.size();
+
+        if (mTotalCount == 0) {
+            mListener.onAllBasketsLoaded(0, 0);
+        } else {
+            startPendingRequests();
+        }
+    }
+
+    /**
+     * Stop loading. Baskets that have not been requested yet won't be, the requests in flight
+     * are not attempted again and their results will be ignored.
+     */
+    public void cancel() {
+        mCancelled = true;
+        mPendingBaskets = new LinkedList<>();
+        mHandler.removeCallbacksAndMessages(null);
+
+        for (BasketRequest request : mInFlightRequests) {
+            request.mRequest.cancel();
+        }
+        mInFlightRequests.clear();
+    }
+
+    private void startPendingRequests() {
+        while (!mCancelled && mInFlightCount < mMaxConcurrentRequests && !mPendingBaskets.isEmpty()) {
+            requestBasket(mPendingBaskets.removeFirst());
+        }
+    }
+
+    private void requestBasket(final ICMInBasket basket) {
+        mInFlightCount++;
+
+        final BasketRequest request = new BasketRequest(basket);
+        mInFlightRequests.add(request);
+        mHandler.postDelayed(request, mTimeoutMillis);
+
+        final InBasketManager inbasketManager = mManagerCache.getInbasketManager(mSolutionManager, basket);
+        request.mRequest = mResilientExecutor.execute(TaskViewModel.FIND_NEARBY_TASKS, new ResilientExecutor.Call<ICMInBasket>() {
+            @Override
+            public void execute(ICMCallback<ICMInBasket> callback) {
+                inbasketManager.getInBasketDetails(callback);
+            }
+        }, request);
+    }
+
+    private void onRequestCompleted() {
+        mInFlightCount--;
+
+        if (mLoadedCount + mFailedCount == mTotalCount) {
+            mListener.onAllBasketsLoaded(mLoadedCount, mFailedCount);
+        } else {
+            startPendingRequests();
+        }
+    }
+
+    /**
+     * Callback for a single basket request that also acts as its timeout.
+     */
+    private class BasketRequest implements ICMCallback<ICMInBasket>, Runnable {
+
+        private final ICMInBasket mBasket;
+        private ResilientExecutor.Request mRequest;
+        private boolean mCompleted;
+
+        BasketRequest(ICMInBasket basket) {
+            mBasket = basket;
+        }
+
+        @Override
+        public void onSuccess(ICMInBasket icmInBasket) {
+            if (complete()) {
+                mLoadedCount++;
+                mListener.onBasketLoaded(icmInBasket, mLoadedCount + mFailedCount, mTotalCount);
+                onRequestCompleted();
+            }
+        }
+
+        @Override
+        public void onError(String error) {
+            fail(error);
+        }
+
+        @Override
+        public void run() {
+            // the timeout expired before the SDK answered, a retry would come too late
+            mRequest.cancel();
+            fail("Timed out loading the details for " + mBasket.getName());
+        }
+
+        private void fail(String error) {
+            if (complete()) {
+                mFailedCount++;
+                mListener.onBasketFailed(mBasket, error, mLoadedCount + mFailedCount, mTotalCount);
+                onRequestCompleted();
+            }
+        }
+
+        /**
+         * Mark the request as completed.
+         *
+         * @return {@code false} if the request was already completed or the loader was cancelled
+         */
+        private boolean complete() {
+            if (mCompleted || mCancelled) {
+                return false;
+            }
+
+            mCompleted = true;
+            mInFlightRequests.remove(this);
+            mHandler.removeCallbacks(this);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.ibm.casesdk.sample.edittask.controllers;
+
+import android.support.annotation.NonNull;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMInBasket;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+import com.ibm.casemanagersdk.sdk.manager.InBasketManager;
+import com.ibm.casemanagersdk.sdk.manager.SolutionManager;
+import com.ibm.casemanagersdk.sdk.manager.TaskManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the most recently used {@link InBasketManager} and {@link TaskManager} instances, so
+ * consecutive operations on the same basket or task reuse the same manager.
+ * <p>
+ * The managers belong to the {@link SolutionManager} that created them, so the cache has to be
+ * invalidated when a new {@link SolutionManager} is used.
+ */
+public class ManagerCache {
+
+    private final LruMap<String, InBasketManager> mInbasketManagers;
+    private final LruMap<String, TaskManager> mTaskManagers;
+    private SolutionManager mSolutionManager;
+    private int mHitCount;
+    private int mMissCount;
+
+    /**
+     * @param maxInbasketManagers maximum number of {@link InBasketManager} kept in the cache
+     * @param maxTaskManagers     maximum number of {@link TaskManager} kept in the cache
+     */
+    public ManagerCache(int maxInbasketManagers, int maxTaskManagers) {
+        mInbasketManagers = new LruMap<>(maxInbasketManagers);
+        mTaskManagers = new LruMap<>(maxTaskManagers);
+    }
+
+    /**
+     * Get the {@link InBasketManager} for the given basket, creating it if it's not cached.
+     *
+     * @param solutionManager
+     * @param basket
+     * @return
+     */
+    public synchronized InBasketManager getInbasketManager(@NonNull SolutionManager solutionManager,
+                                                           @NonNull ICMInBasket basket) {
+        // managers created by a different solution manager can't be reused
+        if (mSolutionManager != solutionManager) {
+            invalidate();
+            mSolutionManager = solutionManager;
+        }
+
+        final String basketKey = basket.getQueueName() != null ? basket.getQueueName() : basket.getName();
+        InBasketManager inbasketManager = mInbasketManagers.get(basketKey);
+
+        if (inbasketManager != null) {
+            mHitCount++;
+        } else {
+            mMissCount++;
+            inbasketManager = solutionManager.getInbasketManager(basket);
+            mInbasketManagers.put(basketKey, inbasketManager);
+        }
+
+        return inbasketManager;
+    }
+
+    /**
+     * Get the {@link TaskManager} for the given task, creating it if it's not cached or if the
+     * cached one was created by a different {@link InBasketManager}.
+     *
+     * @param inbasketManager
+     * @param task
+     * @return
+     */
+    public synchronized TaskManager getTaskManager(@NonNull InBasketManager inbasketManager,
+                                                   @NonNull ICMTask task) {
+        TaskManager taskManager = mTaskManagers.get(task.getId());
+
+        if (taskManager != null && taskManager.getInBasketManager() == inbasketManager) {
+            mHitCount++;
+        } else {
+            mMissCount++;
+            taskManager = inbasketManager.getTaskManager(task);
+            mTaskManagers.put(task.getId(), taskManager);
+        }
+
+        return taskManager;
+    }
+
+    /**
+     * Remove all the cached managers.
+     */
+    public synchronized void invalidate() {
+        mInbasketManagers.clear();
+        mTaskManagers.clear();
+        mSolutionManager = null;
+    }
+
+    /**
+     * @return the number of times a cached manager was returned
+     */
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * @return the number of times a new manager had to be created
+     */
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * {@link LinkedHashMap} in access order that drops the least recently used entry when it
+     * grows over its maximum size.
+     */
+    private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+        private final int mMaxSize;
+
+        LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            mMaxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > mMaxSize;
+        }
+    }
+}
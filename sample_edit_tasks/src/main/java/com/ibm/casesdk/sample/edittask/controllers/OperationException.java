@@ -0,0 +1,28 @@
+package com.ibm.casesdk.sample.edittask.controllers;
+
+import com.ibm.casesdk.sample.edittask.viewmodels.TaskViewModel;
+
+/**
+ * The error of a failed {@link TaskViewModel} operation, used to reject a {@link Promise}.
+ */
+public class OperationException extends Exception {
+
+    private final int mOperation;
+
+    /**
+     * @param operation the code of the operation that failed
+     * @param message   the error message
+     */
+    public OperationException(@TaskViewModel.Operations int operation, String message) {
+        super(message);
+        mOperation = operation;
+    }
+
+    /**
+     * @return the code of the operation that failed
+     */
+    @TaskViewModel.Operations
+    public int getOperation() {
+        return mOperation;
+    }
+}
@@ -0,0 +1,412 @@
+package com.ibm.casesdk.sample.edittask.controllers;
+
+import android.support.annotation.IntDef;
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Durable list of task operations that could not be sent because the device was offline.
+ * <p>
+ * Only the ids the operations need are kept - the task id, the queue name of its basket, the
+ * properties and the response - so the journal doesn't depend on the SDK classes. The entries are
+ * stored as versioned JSON, written on a background thread after each change, so pending
+ * operations survive process death without blocking the caller. Each entry counts the attempts
+ * that failed to send it. Successive property updates of the same task are merged into one entry.
+ * The journal holds at most a fixed number of entries, operations are refused once it's full.
+ */
+public class OperationJournal {
+
+    private static final String LOG_TAG = OperationJournal.class.getSimpleName();
+
+    // the version of the file format, increase it when the entries change
+    private static final int VERSION = 1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // the file is written one change at a time, in order
+    private static final ExecutorService sWriteExecutor = Executors.newSingleThreadExecutor();
+
+    public static final int OP_UPDATE = 0;
+    public static final int OP_COMPLETE = 1;
+    public static final int OP_LOCK = 2;
+    public static final int OP_UNLOCK = 3;
+
+    /**
+     * Define valid journal operations.
+     */
+    @IntDef({OP_UPDATE, OP_COMPLETE, OP_LOCK, OP_UNLOCK})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Operation {
+    }
+
+    /**
+     * A pending operation.
+     */
+    public static class Entry {
+
+        @SerializedName("operation")
+        private final int mOperation;
+
+        @SerializedName("taskId")
+        private final String mTaskId;
+
+        @SerializedName("queueName")
+        private final String mQueueName;
+
+        @SerializedName("properties")
+        private final HashMap<String, String> mProperties;
+
+        @SerializedName("response")
+        private final String mResponse;
+
+        @SerializedName("attempts")
+        private int mAttemptCount;
+
+        Entry(@Operation int operation, String taskId, String queueName,
+              Map<String, String> properties, String response) {
+            mOperation = operation;
+            mTaskId = taskId;
+            mQueueName = queueName;
+            mProperties = properties != null ? new HashMap<>(properties) : new HashMap<String, String>();
+            mResponse = response;
+        }
+
+        @Operation
+        public int getOperation() {
+            return mOperation;
+        }
+
+        public String getTaskId() {
+            return mTaskId;
+        }
+
+        /**
+         * @return the queue name of the basket the task was in when the operation was saved
+         */
+        public String getQueueName() {
+            return mQueueName;
+        }
+
+        public Map<String, String> getProperties() {
+            return mProperties;
+        }
+
+        /**
+         * @return the response used to complete the task - only set for {@link #OP_COMPLETE}
+         */
+        public String getResponse() {
+            return mResponse;
+        }
+
+        /**
+         * @return the number of times the server refused the operation or failed with it
+         */
+        public int getAttemptCount() {
+            return mAttemptCount;
+        }
+    }
+
+    /**
+     * The content of the journal file.
+     */
+    private static class JournalFile {
+
+        @SerializedName("version")
+        int mVersion;
+
+        @SerializedName("entries")
+        ArrayList<Entry> mEntries;
+    }
+
+    private final File mFile;
+    private final int mMaxEntries;
+    private ArrayList<Entry> mEntries;
+    private int mCoalescedCount;
+    private int mReplayedCount;
+    private int mRejectedCount;
+    private boolean mReplaying;
+
+    // the entry being sent by the replay, nothing may be merged into it
+    private Entry mSendingEntry;
+
+    /**
+     * Create a journal stored in the given file. Entries already stored in the file are loaded.
+     *
+     * @param file
+     * @param maxEntries maximum number of pending entries
+     */
+    public OperationJournal(@NonNull File file, int maxEntries) {
+        mFile = file;
+        mMaxEntries = maxEntries;
+        mEntries = load(file);
+    }
+
+    /**
+     * Add an operation to the journal. A property update for a task whose last pending operation
+     * is also an update is merged into that entry, unless that entry is being sent.
+     *
+     * @param operation
+     * @param taskId
+     * @param queueName  the queue name of the basket the task belongs to
+     * @param properties the updated properties, for {@link #OP_UPDATE} and {@link #OP_COMPLETE}
+     * @param response   the response used to complete the task, for {@link #OP_COMPLETE}
+     * @return {@code false} if the journal is full
+     */
+    public synchronized boolean append(@Operation int operation, @NonNull String taskId,
+                                       @NonNull String queueName, Map<String, String> properties,
+                                       String response) {
+        if (operation == OP_UPDATE) {
+            final Entry lastEntry = findLastEntry(taskId);
+            if (lastEntry != null && lastEntry.getOperation() == OP_UPDATE && lastEntry != mSendingEntry) {
+                lastEntry.mProperties.putAll(properties);
+                mCoalescedCount++;
+                persist();
+                return true;
+            }
+        }
+
+        if (mEntries.size() >= mMaxEntries) {
+            return false;
+        }
+
+        mEntries.add(new Entry(operation, taskId, queueName, properties, response));
+        persist();
+        return true;
+    }
+
+    /**
+     * @return the oldest pending entry or {@code null} if there is none
+     */
+    public synchronized Entry peek() {
+        return mEntries.isEmpty() ? null : mEntries.get(0);
+    }
+
+    /**
+     * Mark the oldest pending entry as being sent, until it's removed or the replay ends. Updates
+     * of its task are added as a new entry in the meantime, they would be lost with it otherwise.
+     *
+     * @param entry the entry returned by {@link #peek()}
+     */
+    public synchronized void beginSend(@NonNull Entry entry) {
+        mSendingEntry = entry;
+    }
+
+    /**
+     * Remove the oldest pending entry after it has been replayed.
+     *
+     * @param accepted {@code false} if the server rejected the operation
+     */
+    public synchronized void removeFirst(boolean accepted) {
+        mSendingEntry = null;
+        if (!mEntries.isEmpty()) {
+            mEntries.remove(0);
+            if (accepted) {
+                mReplayedCount++;
+            } else {
+                mRejectedCount++;
+            }
+            persist();
+        }
+    }
+
+    /**
+     * Count a failed attempt to send the oldest pending entry, which stays in the journal.
+     *
+     * @return the number of failed attempts of the entry
+     */
+    public synchronized int recordFailedAttempt() {
+        if (mEntries.isEmpty()) {
+            return 0;
+        }
+
+        final Entry entry = mEntries.get(0);
+        entry.mAttemptCount++;
+        persist();
+        return entry.mAttemptCount;
+    }
+
+    /**
+     * Determine if there are pending operations for the given task. New operations on such a task
+     * have to be added to the journal too, so they are sent in order.
+     *
+     * @param taskId
+     * @return
+     */
+    public synchronized boolean hasPendingEntries(@NonNull String taskId) {
+        return findLastEntry(taskId) != null;
+    }
+
+    /**
+     * Mark the journal as being replayed, so only one replay runs at a time.
+     *
+     * @return {@code false} if a replay is already running
+     */
+    public synchronized boolean beginReplay() {
+        if (mReplaying) {
+            return false;
+        }
+
+        mReplaying = true;
+        return true;
+    }
+
+    /**
+     * Mark the end of the replay started with {@link #beginReplay()}.
+     */
+    public synchronized void endReplay() {
+        mReplaying = false;
+        mSendingEntry = null;
+    }
+
+    /**
+     * @return a copy of the pending entries, oldest first
+     */
+    public synchronized List<Entry> getEntries() {
+        return new ArrayList<>(mEntries);
+    }
+
+    public synchronized int getPendingCount() {
+        return mEntries.size();
+    }
+
+    /**
+     * @return the number of updates merged into an existing entry
+     */
+    public synchronized int getCoalescedCount() {
+        return mCoalescedCount;
+    }
+
+    /**
+     * @return the number of entries replayed and accepted by the server
+     */
+    public synchronized int getReplayedCount() {
+        return mReplayedCount;
+    }
+
+    /**
+     * @return the number of entries replayed and rejected by the server
+     */
+    public synchronized int getRejectedCount() {
+        return mRejectedCount;
+    }
+
+    /**
+     * @return the size of the journal file in bytes, the latest changes might not be written yet
+     */
+    public synchronized long getSizeInBytes() {
+        return mFile.length();
+    }
+
+    private Entry findLastEntry(String taskId) {
+        for (int i = mEntries.size() - 1; i >= 0; i--) {
+            final Entry entry = mEntries.get(i);
+            if (entry.getTaskId().equalsIgnoreCase(taskId)) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    private void persist() {
+        // the entries are converted now, they might change before the file is written
+        final JournalFile journalFile = new JournalFile();
+        journalFile.mVersion = VERSION;
+        journalFile.mEntries = mEntries;
+        final String json = new Gson().toJson(journalFile);
+
+        sWriteExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                write(mFile, json);
+            }
+        });
+    }
+
+    private static void write(File file, String json) {
+        // write to a temporary file first so a crash can't leave a half written journal
+        final File tempFile = new File(file.getPath() + ".tmp");
+        Writer out = null;
+
+        try {
+            out = new OutputStreamWriter(new FileOutputStream(tempFile), UTF_8);
+            out.write(json);
+            out.close();
+            out = null;
+
+            if (!tempFile.renameTo(file)) {
+                Log.e(LOG_TAG, "Could not replace " + file);
+            }
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Could not write " + file, e);
+        } finally {
+            closeQuietly(out);
+        }
+    }
+
+    private static ArrayList<Entry> load(File file) {
+        final ArrayList<Entry> entries = new ArrayList<>();
+        if (!file.exists()) {
+            return entries;
+        }
+
+        Reader in = null;
+        try {
+            in = new InputStreamReader(new FileInputStream(file), UTF_8);
+            final JournalFile journalFile = new Gson().fromJson(in, JournalFile.class);
+            if (journalFile == null || journalFile.mEntries == null) {
+                return entries;
+            }
+
+            if (journalFile.mVersion != VERSION) {
+                Log.e(LOG_TAG, "Unknown version " + journalFile.mVersion + " of " + file);
+                return entries;
+            }
+
+            for (Entry entry : journalFile.mEntries) {
+                if (entry != null && entry.getTaskId() != null && entry.getQueueName() != null) {
+                    entries.add(entry);
+                }
+            }
+        } catch (IOException | JsonParseException e) {
+            Log.e(LOG_TAG, "Could not read " + file, e);
+        } finally {
+            closeQuietly(in);
+        }
+
+        return entries;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // nothing we can really do
+            }
+        }
+    }
+}
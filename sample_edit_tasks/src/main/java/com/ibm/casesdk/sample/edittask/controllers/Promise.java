@@ -0,0 +1,492 @@
+package com.ibm.casesdk.sample.edittask.controllers;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The result of an asynchronous operation, which is either a value or an error.
+ * <p>
+ * Promises are chained with {@link #then(Function)} and {@link #thenCompose(AsyncFunction)} and
+ * combined with {@link #all(Executor, List)} and {@link #any(Executor, List)}. Callbacks always
+ * run on the executor of the promise, never on the caller's stack.
+ * <p>
+ * Cancelling a promise rejects it with a {@link CancellationException} and also cancels the
+ * promises it was derived from, so work that nobody waits for anymore is stopped.
+ *
+ * @param <T> the type of the value
+ */
+public class Promise<T> {
+
+    /**
+     * Transforms the value of a promise.
+     */
+    public interface Function<A, R> {
+        R apply(A value) throws Exception;
+    }
+
+    /**
+     * Starts another asynchronous operation with the value of a promise.
+     */
+    public interface AsyncFunction<A, R> {
+        Promise<R> apply(A value) throws Exception;
+    }
+
+    /**
+     * Receives the outcome of a promise.
+     */
+    public interface Callback<T> {
+        void onFulfilled(T value);
+
+        void onRejected(Exception error);
+    }
+
+    private static final int STATE_PENDING = 0;
+    private static final int STATE_FULFILLED = 1;
+    private static final int STATE_REJECTED = 2;
+
+    private static Executor sMainThreadExecutor;
+    private static ScheduledExecutorService sTimer;
+
+    private final Executor mExecutor;
+    private final List<Callback<T>> mCallbacks = new ArrayList<>();
+    private final List<Promise<?>> mSources = new ArrayList<>();
+    private int mState = STATE_PENDING;
+    private T mValue;
+    private Exception mError;
+
+    /**
+     * Create a pending promise, settled with {@link #resolve(Object)} or {@link #reject(Exception)}.
+     *
+     * @param executor the executor the callbacks run on
+     */
+    public Promise(@NonNull Executor executor) {
+        mExecutor = executor;
+    }
+
+    public static <T> Promise<T> fulfilled(@NonNull Executor executor, T value) {
+        final Promise<T> promise = new Promise<>(executor);
+        promise.resolve(value);
+        return promise;
+    }
+
+    public static <T> Promise<T> rejected(@NonNull Executor executor, @NonNull Exception error) {
+        final Promise<T> promise = new Promise<>(executor);
+        promise.reject(error);
+        return promise;
+    }
+
+    /**
+     * @return an executor that runs the callbacks on the main thread
+     */
+    public static synchronized Executor mainThreadExecutor() {
+        if (sMainThreadExecutor == null) {
+            final Handler handler = new Handler(Looper.getMainLooper());
+            sMainThreadExecutor = new Executor() {
+                @Override
+                public void execute(@NonNull Runnable command) {
+                    handler.post(command);
+                }
+            };
+        }
+
+        return sMainThreadExecutor;
+    }
+
+    /**
+     * Create a promise fulfilled with the values of all the given promises, in the same order, or
+     * rejected with the first error. The remaining promises are cancelled after an error.
+     *
+     * @param executor
+     * @param promises
+     * @return
+     */
+    public static <T> Promise<List<T>> all(@NonNull Executor executor, @NonNull final List<Promise<T>> promises) {
+        final Promise<List<T>> result = new Promise<>(executor);
+        result.addSources(promises);
+
+        if (promises.isEmpty()) {
+            result.resolve(Collections.<T>emptyList());
+            return result;
+        }
+
+        final List<T> values = new ArrayList<>(Collections.<T>nCopies(promises.size(), null));
+        final int[] remaining = {promises.size()};
+
+        for (int i = 0; i < promises.size(); i++) {
+            final int index = i;
+            promises.get(i).whenComplete(new Callback<T>() {
+                @Override
+                public void onFulfilled(T value) {
+                    synchronized (values) {
+                        values.set(index, value);
+                        if (--remaining[0] > 0) {
+                            return;
+                        }
+                    }
+
+                    result.resolve(values);
+                }
+
+                @Override
+                public void onRejected(Exception error) {
+                    if (result.reject(error)) {
+                        cancelAll(promises);
+                    }
+                }
+            });
+        }
+
+        return result;
+    }
+
+    /**
+     * Create a promise fulfilled with the value of the first given promise that is fulfilled, or
+     * rejected with the last error if all of them are rejected. The remaining promises are
+     * cancelled once a value is available.
+     *
+     * @param executor
+     * @param promises
+     * @return
+     */
+    public static <T> Promise<T> any(@NonNull Executor executor, @NonNull final List<Promise<T>> promises) {
+        final Promise<T> result = new Promise<>(executor);
+        result.addSources(promises);
+
+        if (promises.isEmpty()) {
+            result.reject(new IllegalArgumentException("No promises to wait for"));
+            return result;
+        }
+
+        final int[] remaining = {promises.size()};
+
+        for (Promise<T> promise : promises) {
+            promise.whenComplete(new Callback<T>() {
+                @Override
+                public void onFulfilled(T value) {
+                    if (result.resolve(value)) {
+                        cancelAll(promises);
+                    }
+                }
+
+                @Override
+                public void onRejected(Exception error) {
+                    synchronized (remaining) {
+                        if (--remaining[0] > 0) {
+                            return;
+                        }
+                    }
+
+                    result.reject(error);
+                }
+            });
+        }
+
+        return result;
+    }
+
+    /**
+     * Fulfill the promise with the given value.
+     *
+     * @param value
+     * @return {@code false} if the promise was already settled
+     */
+    public boolean resolve(T value) {
+        return settle(STATE_FULFILLED, value, null);
+    }
+
+    /**
+     * Reject the promise with the given error.
+     *
+     * @param error
+     * @return {@code false} if the promise was already settled
+     */
+    public boolean reject(@NonNull Exception error) {
+        return settle(STATE_REJECTED, null, error);
+    }
+
+    /**
+     * Reject the promise with a {@link CancellationException} and cancel the promises it was
+     * derived from.
+     *
+     * @return {@code false} if the promise was already settled
+     */
+    public boolean cancel() {
+        if (!reject(new CancellationException())) {
+            return false;
+        }
+
+        final List<Promise<?>> sources;
+        synchronized (this) {
+            sources = new ArrayList<>(mSources);
+            mSources.clear();
+        }
+        cancelAll(sources);
+        return true;
+    }
+
+    public synchronized boolean isDone() {
+        return mState != STATE_PENDING;
+    }
+
+    public synchronized boolean isCancelled() {
+        return mError instanceof CancellationException;
+    }
+
+    public Executor getExecutor() {
+        return mExecutor;
+    }
+
+    /**
+     * Register a callback for the outcome of the promise. The callback runs on the executor of
+     * the promise, even if it is already settled.
+     *
+     * @param callback
+     * @return this promise
+     */
+    public Promise<T> whenComplete(@NonNull Callback<T> callback) {
+        synchronized (this) {
+            if (mState == STATE_PENDING) {
+                mCallbacks.add(callback);
+                return this;
+            }
+        }
+
+        dispatch(callback);
+        return this;
+    }
+
+    /**
+     * Create a promise fulfilled with the value returned by the function. Errors, including the
+     * ones thrown by the function, are passed on.
+     *
+     * @param function
+     * @return
+     */
+    public <R> Promise<R> then(@NonNull final Function<? super T, ? extends R> function) {
+        final Promise<R> result = new Promise<>(mExecutor);
+        result.addSource(this);
+
+        whenComplete(new Callback<T>() {
+            @Override
+            public void onFulfilled(T value) {
+                try {
+                    result.resolve(function.apply(value));
+                } catch (Exception e) {
+                    result.reject(e);
+                }
+            }
+
+            @Override
+            public void onRejected(Exception error) {
+                result.reject(error);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Create a promise settled like the one returned by the function, which starts once this
+     * promise is fulfilled. Errors are passed on.
+     *
+     * @param function
+     * @return
+     */
+    public <R> Promise<R> thenCompose(@NonNull final AsyncFunction<? super T, R> function) {
+        final Promise<R> result = new Promise<>(mExecutor);
+        result.addSource(this);
+
+        whenComplete(new Callback<T>() {
+            @Override
+            public void onFulfilled(T value) {
+                final Promise<R> next;
+                try {
+                    next = function.apply(value);
+                } catch (Exception e) {
+                    result.reject(e);
+                    return;
+                }
+
+                // cancelling the result now stops the next operation
+                result.addSource(next);
+                next.whenComplete(new Callback<R>() {
+                    @Override
+                    public void onFulfilled(R nextValue) {
+                        result.resolve(nextValue);
+                    }
+
+                    @Override
+                    public void onRejected(Exception error) {
+                        result.reject(error);
+                    }
+                });
+            }
+
+            @Override
+            public void onRejected(Exception error) {
+                result.reject(error);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Create a promise fulfilled with the value returned by the function when this promise is
+     * rejected. Values are passed on.
+     *
+     * @param function receives the error
+     * @return
+     */
+    public Promise<T> recover(@NonNull final Function<Exception, ? extends T> function) {
+        final Promise<T> result = new Promise<>(mExecutor);
+        result.addSource(this);
+
+        whenComplete(new Callback<T>() {
+            @Override
+            public void onFulfilled(T value) {
+                result.resolve(value);
+            }
+
+            @Override
+            public void onRejected(Exception error) {
+                try {
+                    result.resolve(function.apply(error));
+                } catch (Exception e) {
+                    result.reject(e);
+                }
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Create a promise settled like this one, or rejected with a {@link TimeoutException} if this
+     * promise isn't settled in time. This promise is cancelled when the time is up.
+     *
+     * @param timeoutMillis
+     * @return
+     */
+    public Promise<T> timeout(final long timeoutMillis) {
+        final Promise<T> result = new Promise<>(mExecutor);
+        result.addSource(this);
+
+        final ScheduledFuture<?> timeout = getTimer().schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (result.reject(new TimeoutException("Timed out after " + timeoutMillis + " ms"))) {
+                    cancel();
+                }
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+        whenComplete(new Callback<T>() {
+            @Override
+            public void onFulfilled(T value) {
+                timeout.cancel(false);
+                result.resolve(value);
+            }
+
+            @Override
+            public void onRejected(Exception error) {
+                timeout.cancel(false);
+                result.reject(error);
+            }
+        });
+
+        return result;
+    }
+
+    private boolean settle(int state, T value, Exception error) {
+        final List<Callback<T>> callbacks;
+
+        synchronized (this) {
+            if (mState != STATE_PENDING) {
+                return false;
+            }
+
+            mState = state;
+            mValue = value;
+            mError = error;
+            callbacks = new ArrayList<>(mCallbacks);
+            mCallbacks.clear();
+
+            // a settled promise doesn't have to cancel anything anymore
+            if (!(error instanceof CancellationException)) {
+                mSources.clear();
+            }
+        }
+
+        for (Callback<T> callback : callbacks) {
+            dispatch(callback);
+        }
+        return true;
+    }
+
+    private void dispatch(final Callback<T> callback) {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final int state;
+                final T value;
+                final Exception error;
+                synchronized (Promise.this) {
+                    state = mState;
+                    value = mValue;
+                    error = mError;
+                }
+
+                if (state == STATE_FULFILLED) {
+                    callback.onFulfilled(value);
+                } else {
+                    callback.onRejected(error);
+                }
+            }
+        });
+    }
+
+    private synchronized void addSource(Promise<?> source) {
+        if (mState == STATE_PENDING) {
+            mSources.add(source);
+        }
+    }
+
+    private synchronized void addSources(List<? extends Promise<?>> sources) {
+        mSources.addAll(sources);
+    }
+
+    private static void cancelAll(List<? extends Promise<?>> promises) {
+        for (Promise<?> promise : promises) {
+            promise.cancel();
+        }
+    }
+
+    private static synchronized ScheduledExecutorService getTimer() {
+        if (sTimer == null) {
+            sTimer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "promise-timer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        return sTimer;
+    }
+}
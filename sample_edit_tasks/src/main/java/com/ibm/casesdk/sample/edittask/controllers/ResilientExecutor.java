@@ -0,0 +1,262 @@
+package com.ibm.casesdk.sample.edittask.controllers;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMCallback;
+import com.ibm.casesdk.sample.edittask.utils.Constants;
+import com.ibm.casesdk.sample.edittask.utils.StartupTracer;
+import com.ibm.casesdk.sample.edittask.utils.Utils;
+import com.ibm.casesdk.sample.edittask.viewmodels.TaskViewModel;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Performs SDK calls with the {@link RetryPolicy} of their operation, behind a
+ * {@link CircuitBreaker} shared by all the operations.
+ * <p>
+ * Every operation is sent once by default, a policy has to be set for the operations that can
+ * safely be repeated. Requests are rejected right away with the circuit open message while the
+ * breaker is open. Only transport failures count against the breaker and are retried: the SDK
+ * reports every failure of a call with the same fixed message, so an attempt is a transport
+ * failure when the device is offline or when it took as long as the SDK timeout. Any other error
+ * came from a server that is up, e.g. a lock conflict, and is reported right away. The executor
+ * must be used from the main thread, which is where the SDK delivers its callbacks.
+ * <p>
+ * A request can be cancelled with the {@link Request} returned by {@link #execute}: it isn't
+ * attempted again and its callback isn't called anymore. The SDK call in flight can't be stopped,
+ * its outcome is still recorded.
+ * <p>
+ * The latency of every attempt and the time spent in the callbacks are recorded in the
+ * {@link OperationMetrics} of the executor.
+ */
+public class ResilientExecutor {
+
+    /**
+     * A call that can be attempted several times.
+     */
+    public interface Call<T> {
+        void execute(ICMCallback<T> callback);
+    }
+
+    /**
+     * A request sent with {@link #execute}.
+     */
+    public class Request {
+
+        private Runnable mPendingAttempt;
+        private boolean mCancelled;
+
+        /**
+         * Stop the request: the attempt waiting for its delay is dropped and the callback won't be
+         * called.
+         */
+        public void cancel() {
+            mCancelled = true;
+            if (mPendingAttempt != null) {
+                mHandler.removeCallbacks(mPendingAttempt);
+                mPendingAttempt = null;
+            }
+        }
+
+        public boolean isCancelled() {
+            return mCancelled;
+        }
+    }
+
+    private static final int OPERATION_COUNT = TaskViewModel.PREFETCH_TASK_DETAILS + 1;
+
+    private static final long SDK_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(Constants.SDK_TIMEOUT);
+
+    private final Context mContext;
+    private final CircuitBreaker mCircuitBreaker;
+    private final String mCircuitOpenMessage;
+    private final RetryPolicy[] mPolicies;
+    private final Handler mHandler;
+    private final Random mRandom;
+    private final OperationMetrics mMetrics;
+
+    private final int[] mCallCounts;
+    private final int[] mRetryCounts;
+    private final int[] mFailureCounts;
+    private final int[] mRejectedCounts;
+
+    /**
+     * @param context            used to check the network state
+     * @param circuitBreaker     the breaker shared by all the operations
+     * @param circuitOpenMessage the error reported for requests rejected by the breaker
+     */
+    public ResilientExecutor(@NonNull Context context, @NonNull CircuitBreaker circuitBreaker,
+                             @NonNull String circuitOpenMessage) {
+        mContext = context.getApplicationContext();
+        mCircuitBreaker = circuitBreaker;
+        mCircuitOpenMessage = circuitOpenMessage;
+        mPolicies = new RetryPolicy[OPERATION_COUNT];
+        mHandler = new Handler(Looper.getMainLooper());
+        mRandom = new Random();
+        mMetrics = new OperationMetrics();
+
+        mCallCounts = new int[OPERATION_COUNT];
+        mRetryCounts = new int[OPERATION_COUNT];
+        mFailureCounts = new int[OPERATION_COUNT];
+        mRejectedCounts = new int[OPERATION_COUNT];
+
+        for (int i = 0; i < OPERATION_COUNT; i++) {
+            mPolicies[i] = RetryPolicy.NO_RETRY;
+        }
+    }
+
+    /**
+     * Set the retry policy for an operation.
+     *
+     * @param operationCode
+     * @param policy
+     */
+    public void setPolicy(@TaskViewModel.Operations int operationCode, @NonNull RetryPolicy policy) {
+        mPolicies[operationCode] = policy;
+    }
+
+    /**
+     * Perform the call, attempting it again according to the policy of the operation if it fails.
+     *
+     * @param operationCode the operation the call belongs to
+     * @param call
+     * @param callback      receives the first successful result or the error of the last attempt
+     * @return the request, to cancel it
+     */
+    public <T> Request execute(@TaskViewModel.Operations int operationCode, @NonNull Call<T> call,
+                               @NonNull ICMCallback<T> callback) {
+        final Request request = new Request();
+        mCallCounts[operationCode]++;
+        attempt(operationCode, call, callback, request, 1);
+        return request;
+    }
+
+    private <T> void attempt(final int operationCode, final Call<T> call, final ICMCallback<T> callback,
+                             final Request request, final int attempt) {
+        request.mPendingAttempt = null;
+        if (request.mCancelled) {
+            return;
+        }
+
+        if (!mCircuitBreaker.allowRequest()) {
+            // fail fast while the server is down
+            mRejectedCounts[operationCode]++;
+            callback.onError(mCircuitOpenMessage);
+            return;
+        }
+
+        final long startTime = System.nanoTime();
+
+        call.execute(new ICMCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                final long resultTime = System.nanoTime();
+                mMetrics.recordServerCall(operationCode, (resultTime - startTime) / 1000, true);
+                StartupTracer.getInstance().recordNetwork(OperationMetrics.getOperationName(operationCode),
+                        startTime, resultTime);
+                mCircuitBreaker.onSuccess();
+
+                if (request.mCancelled) {
+                    return;
+                }
+
+                callback.onSuccess(result);
+                mMetrics.recordClientHandling(operationCode, (System.nanoTime() - resultTime) / 1000);
+            }
+
+            @Override
+            public void onError(String error) {
+                final long resultTime = System.nanoTime();
+                mMetrics.recordServerCall(operationCode, (resultTime - startTime) / 1000, false);
+                StartupTracer.getInstance().recordNetwork(OperationMetrics.getOperationName(operationCode),
+                        startTime, resultTime);
+
+                final boolean transportFailure = isTransportFailure(resultTime - startTime);
+                if (transportFailure) {
+                    mCircuitBreaker.onFailure();
+                } else {
+                    // the server is up, it just refused the request
+                    mCircuitBreaker.onSuccess();
+                }
+
+                if (request.mCancelled) {
+                    return;
+                }
+
+                final RetryPolicy policy = mPolicies[operationCode];
+                if (transportFailure && policy.shouldRetry(attempt)) {
+                    mRetryCounts[operationCode]++;
+                    request.mPendingAttempt = new Runnable() {
+                        @Override
+                        public void run() {
+                            attempt(operationCode, call, callback, request, attempt + 1);
+                        }
+                    };
+                    mHandler.postDelayed(request.mPendingAttempt, policy.getDelay(attempt, mRandom));
+                } else {
+                    mFailureCounts[operationCode]++;
+                    callback.onError(error);
+                    mMetrics.recordClientHandling(operationCode, (System.nanoTime() - resultTime) / 1000);
+                }
+            }
+        });
+    }
+
+    /**
+     * Determine if a failed attempt means the server couldn't be reached, rather than refused the
+     * request.
+     *
+     * @param latencyNanos the time the attempt took
+     * @return {@code true} if the device is offline or the attempt timed out
+     */
+    private boolean isTransportFailure(long latencyNanos) {
+        return !Utils.isNetworkAvailable(mContext) || latencyNanos >= SDK_TIMEOUT_NANOS;
+    }
+
+    /**
+     * @return the latencies and outcome counts of the calls made by this executor
+     */
+    public OperationMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return mCircuitBreaker;
+    }
+
+    /**
+     * @param operationCode
+     * @return the number of times the operation was requested
+     */
+    public int getCallCount(@TaskViewModel.Operations int operationCode) {
+        return mCallCounts[operationCode];
+    }
+
+    /**
+     * @param operationCode
+     * @return the number of attempts made after a failure
+     */
+    public int getRetryCount(@TaskViewModel.Operations int operationCode) {
+        return mRetryCounts[operationCode];
+    }
+
+    /**
+     * @param operationCode
+     * @return the number of requests that failed after their last attempt
+     */
+    public int getFailureCount(@TaskViewModel.Operations int operationCode) {
+        return mFailureCounts[operationCode];
+    }
+
+    /**
+     * @param operationCode
+     * @return the number of attempts rejected because the breaker was open
+     */
+    public int getRejectedCount(@TaskViewModel.Operations int operationCode) {
+        return mRejectedCounts[operationCode];
+    }
+}
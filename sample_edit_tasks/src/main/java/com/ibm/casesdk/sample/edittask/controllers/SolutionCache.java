@@ -0,0 +1,126 @@
+package com.ibm.casesdk.sample.edittask.controllers;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMInBasket;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMRole;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMSolution;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Keeps the last loaded {@link ICMSolution} details and a signature of the last tasks delivered for
+ * each {@link ICMInBasket}.
+ * <p>
+ * The solution is considered fresh for a limited amount of time after it was loaded. The task
+ * signatures are used to find out if a reloaded basket has any change worth displaying.
+ */
+public class SolutionCache {
+
+    private final long mFreshnessMillis;
+    private final HashMap<String, String> mTaskSignatures;
+    private ICMSolution mSolution;
+    private long mLoadTime;
+
+    /**
+     * @param freshnessMillis time for which a loaded solution is considered fresh
+     */
+    public SolutionCache(long freshnessMillis) {
+        mFreshnessMillis = freshnessMillis;
+        mTaskSignatures = new HashMap<>();
+    }
+
+    /**
+     * Save newly loaded solution details.
+     *
+     * @param solution
+     */
+    public synchronized void putSolution(@NonNull ICMSolution solution) {
+        mSolution = solution;
+        mLoadTime = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * @return the cached solution details or {@code null}
+     */
+    public synchronized ICMSolution getSolution() {
+        return mSolution;
+    }
+
+    /**
+     * @return {@code true} if the cached solution was loaded within the freshness window
+     */
+    public synchronized boolean isFresh() {
+        return mSolution != null && SystemClock.elapsedRealtime() - mLoadTime < mFreshnessMillis;
+    }
+
+    /**
+     * Determine if the given solution has different roles or workbaskets than the cached one.
+     *
+     * @param solution
+     * @return
+     */
+    public synchronized boolean isStructureChanged(@NonNull ICMSolution solution) {
+        return mSolution == null || !solutionSignature(mSolution).equals(solutionSignature(solution));
+    }
+
+    /**
+     * Save the tasks delivered for a basket.
+     *
+     * @param basket
+     * @param tasks
+     * @return {@code true} if the tasks are different from the ones previously delivered for the
+     * same basket
+     */
+    public synchronized boolean updateTasks(@NonNull ICMInBasket basket, @NonNull List<ICMTask> tasks) {
+        final String basketKey = basket.getQueueName() != null ? basket.getQueueName() : basket.getName();
+        final String signature = tasksSignature(tasks);
+
+        return !signature.equals(mTaskSignatures.put(basketKey, signature));
+    }
+
+    /**
+     * Remove all the cached data.
+     */
+    public synchronized void clear() {
+        mSolution = null;
+        mTaskSignatures.clear();
+    }
+
+    private static String tasksSignature(List<ICMTask> tasks) {
+        final StringBuilder builder = new StringBuilder();
+
+        // the fields displayed in the task list
+        for (ICMTask task : tasks) {
+            builder.append(task.getId()).append('|')
+                    .append(task.getLockedUser()).append('|')
+                    .append(task.getStepName()).append('|')
+                    .append(task.getCaseTitle()).append('\n');
+        }
+
+        return builder.toString();
+    }
+
+    private static String solutionSignature(ICMSolution solution) {
+        final StringBuilder builder = new StringBuilder();
+
+        try {
+            // sdk throws NPE if there are no roles
+            for (ICMRole role : solution.getRoles()) {
+                builder.append(role.getName()).append(':');
+
+                for (ICMInBasket basket : role.getWorkbaskets()) {
+                    builder.append(basket.getQueueName()).append(',');
+                }
+                builder.append('\n');
+            }
+        } catch (Exception e) {
+            // a solution without roles has an empty signature
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,204 @@
+package com.ibm.casesdk.sample.edittask.controllers;
+
+import android.os.SystemClock;
+import android.support.annotation.IntDef;
+import android.support.annotation.NonNull;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMCallback;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Performs the same operation on a list of {@link ICMTask}, keeping a limited number of
+ * operations in flight.
+ * <p>
+ * The listener is notified when each task completes and once more when all the tasks have
+ * completed. A batch must be used from the main thread, which is where the SDK delivers its
+ * callbacks.
+ */
+public class TaskBatch {
+
+    public static final int ACTION_LOCK = 0;
+    public static final int ACTION_UNLOCK = 1;
+    public static final int ACTION_COMPLETE = 2;
+    public static final int ACTION_REASSIGN = 3;
+
+    /**
+     * Define valid batch actions.
+     */
+    @IntDef({ACTION_LOCK, ACTION_UNLOCK, ACTION_COMPLETE, ACTION_REASSIGN})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Action {
+    }
+
+    /**
+     * The operation performed for each task of the batch.
+     */
+    public interface TaskOperation {
+        void execute(ICMTask task, ICMCallback<Object> callback);
+    }
+
+    public interface Listener {
+
+        /**
+         * Notify when the operation has completed for a task.
+         *
+         * @param task           the task the operation was performed on
+         * @param error          the error message or {@code null} if the operation succeeded
+         * @param completedCount number of tasks completed so far, including failed ones
+         * @param totalCount     number of tasks in the batch
+         */
+        void onBatchProgress(ICMTask task, String error, int completedCount, int totalCount);
+
+        /**
+         * Notify when the operation has completed for every task.
+         *
+         * @param result
+         */
+        void onBatchFinished(Result result);
+    }
+
+    /**
+     * The outcome of a batch.
+     */
+    public static class Result {
+
+        private final List<ICMTask> mSucceeded;
+        private final Map<ICMTask, String> mFailed;
+        private final long mElapsedMillis;
+
+        Result(List<ICMTask> succeeded, Map<ICMTask, String> failed, long elapsedMillis) {
+            mSucceeded = succeeded;
+            mFailed = failed;
+            mElapsedMillis = elapsedMillis;
+        }
+
+        public List<ICMTask> getSucceeded() {
+            return mSucceeded;
+        }
+
+        /**
+         * @return the failed tasks and their error messages
+         */
+        public Map<ICMTask, String> getFailed() {
+            return mFailed;
+        }
+
+        public long getElapsedMillis() {
+            return mElapsedMillis;
+        }
+
+        /**
+         * @return number of tasks completed per second, including failed ones
+         */
+        public double getThroughput() {
+            final int count = mSucceeded.size() + mFailed.size();
+            return mElapsedMillis > 0 ? count * 1000.0 / mElapsedMillis : count;
+        }
+    }
+
+    private final int mParallelism;
+    private final List<ICMTask> mSucceeded;
+    private final Map<ICMTask, String> mFailed;
+
+    private LinkedList<ICMTask> mPendingTasks;
+    private TaskOperation mOperation;
+    private Listener mListener;
+    private int mTotalCount;
+    private int mInFlightCount;
+    private long mStartTime;
+    private boolean mCancelled;
+
+    /**
+     * @param parallelism maximum number of operations in flight at the same time
+     */
+    public TaskBatch(int parallelism) {
+        mParallelism = Math.max(1, parallelism);
+        mSucceeded = new ArrayList<>();
+        mFailed = new LinkedHashMap<>();
+    }
+
+    /**
+     * Start performing the operation on the given tasks. A batch can only be started once.
+     *
+     * @param tasks
+     * @param operation
+     * @param listener
+     */
+    public void execute(@NonNull List<ICMTask> tasks, @NonNull TaskOperation operation,
+                        @NonNull Listener listener) {
+        if (mListener != null) {
+            throw new IllegalStateException("The batch has already been started");
+        }
+
+        mPendingTasks = new LinkedList<>(tasks);
+        mOperation = operation;
+        mListener = listener;
+        mTotalCount = tasks.size();
+        mStartTime = SystemClock.elapsedRealtime();
+
+        if (mTotalCount == 0) {
+            finish();
+        } else {
+            startPendingOperations();
+        }
+    }
+
+    /**
+     * Stop starting new operations. Operations in flight will still complete and be reported.
+     */
+    public void cancel() {
+        mCancelled = true;
+    }
+
+    private void startPendingOperations() {
+        while (!mCancelled && mInFlightCount < mParallelism && !mPendingTasks.isEmpty()) {
+            final ICMTask task = mPendingTasks.removeFirst();
+            mInFlightCount++;
+
+            mOperation.execute(task, new ICMCallback<Object>() {
+                @Override
+                public void onSuccess(Object o) {
+                    mSucceeded.add(task);
+                    onOperationCompleted(task, null);
+                }
+
+                @Override
+                public void onError(String error) {
+                    mFailed.put(task, error);
+                    onOperationCompleted(task, error);
+                }
+            });
+        }
+
+        // a cancelled batch finishes when its last operation in flight does
+        if (mCancelled && mInFlightCount == 0) {
+            finish();
+        }
+    }
+
+    private void onOperationCompleted(ICMTask task, String error) {
+        mInFlightCount--;
+
+        final int completedCount = mSucceeded.size() + mFailed.size();
+        mListener.onBatchProgress(task, error, completedCount, mTotalCount);
+
+        if (completedCount == mTotalCount) {
+            finish();
+        } else {
+            startPendingOperations();
+        }
+    }
+
+    private void finish() {
+        mListener.onBatchFinished(new Result(mSucceeded, mFailed,
+                SystemClock.elapsedRealtime() - mStartTime));
+    }
+}
@@ -1,7 +1,11 @@
 package com.ibm.casesdk.sample.edittask.controllers;
 
 import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
+import android.util.Log;
 
 import com.google.gson.Gson;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMCallback;
@@ -10,23 +14,34 @@ import com.ibm.casemanagersdk.sdk.interfaces.ICMProperty;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMRole;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMSolution;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMUser;
 import com.ibm.casemanagersdk.sdk.manager.InBasketManager;
 import com.ibm.casemanagersdk.sdk.manager.RoleManager;
 import com.ibm.casemanagersdk.sdk.manager.SessionManager;
 import com.ibm.casemanagersdk.sdk.manager.SolutionManager;
 import com.ibm.casemanagersdk.sdk.manager.TaskManager;
 import com.ibm.casesdk.sample.edittask.R;
+import com.ibm.casesdk.sample.edittask.TaskManagerApp;
 import com.ibm.casesdk.sample.edittask.utils.Constants;
+import com.ibm.casesdk.sample.edittask.utils.StartupTracer;
+import com.ibm.casesdk.sample.edittask.utils.Utils;
 import com.ibm.casesdk.sample.edittask.viewmodels.TaskViewModel;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
 
 /**
  * Created by stelian on 26/10/2015.
  */
 public class TaskController {
 
+    private static final String LOG_TAG = TaskController.class.getSimpleName();
+
     private Activity mCallingActivity;
     private TaskViewModel mViewModel;
 
@@ -35,11 +50,65 @@ public class TaskController {
     private RoleManager mRoleManager;
     private ICMSolution mSolution;
     private ICMInBasket mCurrentInbasket;
-
+    private TaskBasketIndex mTaskBasketIndex;
+    private AggregatedTaskList mAggregatedTasks;
+    private InBasketLoader mInBasketLoader;
+    private ManagerCache mManagerCache;
+    private SingleFlight<ICMTask> mTaskDetailsFlight;
+    private TaskDetailsCache mTaskDetailsCache;
+    private TaskPrefetcher mTaskPrefetcher;
+    private SolutionCache mSolutionCache;
+    private OperationJournal mJournal;
+    private Handler mReplayHandler;
+    private RetryPolicy mReplayRetryPolicy;
+    private Random mRandom;
+    private ResilientExecutor mResilientExecutor;
+    private Executor mCallbackExecutor;
 
     public TaskController(@NonNull Activity callingActivity, @NonNull TaskViewModel model) {
         mCallingActivity = callingActivity;
         mViewModel = model;
+        mManagerCache = new ManagerCache(Constants.MANAGER_CACHE_INBASKETS, Constants.MANAGER_CACHE_TASKS);
+        mTaskDetailsFlight = new SingleFlight<>(callingActivity.getString(R.string.err_task_details));
+        mTaskBasketIndex = new TaskBasketIndex();
+        mTaskDetailsCache = new TaskDetailsCache(Constants.TASK_DETAILS_CACHE_SIZE, Constants.TASK_DETAILS_FRESHNESS);
+        mSolutionCache = new SolutionCache(Constants.SOLUTION_CACHE_FRESHNESS);
+        mJournal = ((TaskManagerApp) callingActivity.getApplication()).getOperationJournal();
+        mReplayHandler = new Handler(Looper.getMainLooper());
+        mReplayRetryPolicy = new RetryPolicy(Constants.JOURNAL_MAX_ATTEMPTS, Constants.JOURNAL_RETRY_BASE_DELAY,
+                Constants.JOURNAL_RETRY_MAX_DELAY);
+        mRandom = new Random();
+        mResilientExecutor = createResilientExecutor();
+        mCallbackExecutor = Promise.mainThreadExecutor();
+    }
+
+    /**
+     * Create the executor used for the SDK calls. Only the operations that can safely be repeated
+     * are retried.
+     *
+     * @return
+     */
+    private ResilientExecutor createResilientExecutor() {
+        final ResilientExecutor executor = new ResilientExecutor(mCallingActivity,
+                new CircuitBreaker(Constants.CIRCUIT_FAILURE_THRESHOLD, Constants.CIRCUIT_OPEN_DURATION),
+                mCallingActivity.getString(R.string.err_service_unavailable));
+        final RetryPolicy readPolicy = new RetryPolicy(Constants.RETRY_MAX_ATTEMPTS,
+                Constants.RETRY_BASE_DELAY, Constants.RETRY_MAX_DELAY);
+
+        // reads don't change anything on the server
+        executor.setPolicy(TaskViewModel.FIND_SOLUTION, readPolicy);
+        executor.setPolicy(TaskViewModel.LOAD_SOLUTION_DETAILS, readPolicy);
+        executor.setPolicy(TaskViewModel.FIND_NEARBY_TASKS, readPolicy);
+        executor.setPolicy(TaskViewModel.LOAD_TASK_DETAILS, readPolicy);
+        executor.setPolicy(TaskViewModel.PREFETCH_TASK_DETAILS, readPolicy);
+
+        // locking or unlocking twice leaves the task in the same state, so one more attempt is fine
+        final RetryPolicy lockPolicy = new RetryPolicy(2, Constants.RETRY_BASE_DELAY, Constants.RETRY_MAX_DELAY);
+        executor.setPolicy(TaskViewModel.LOCK_TASK, lockPolicy);
+        executor.setPolicy(TaskViewModel.UNLOCK_TASK, lockPolicy);
+
+        // updating and completing tasks is never repeated, the first attempt might have reached the server
+        return executor;
     }
 
     public SessionManager getSessionManager() {
@@ -74,6 +143,75 @@ public class TaskController {
         this.mSolution = solution;
     }
 
+    /**
+     * Return the cache used for the {@link InBasketManager} and {@link TaskManager} instances.
+     *
+     * @return
+     */
+    public ManagerCache getManagerCache() {
+        return mManagerCache;
+    }
+
+    /**
+     * Return the coalescing layer used for task detail requests.
+     *
+     * @return
+     */
+    public SingleFlight<ICMTask> getTaskDetailsFlight() {
+        return mTaskDetailsFlight;
+    }
+
+    /**
+     * Return the index used to find the basket of a task.
+     *
+     * @return
+     */
+    public TaskBasketIndex getTaskBasketIndex() {
+        return mTaskBasketIndex;
+    }
+
+    /**
+     * Return the cache of the loaded and prefetched task details, e.g. to read its hit rate.
+     *
+     * @return
+     */
+    public TaskDetailsCache getTaskDetailsCache() {
+        return mTaskDetailsCache;
+    }
+
+    /**
+     * Return the executor that applies the retry policies and the circuit breaker to the SDK
+     * calls, e.g. to read its metrics.
+     *
+     * @return
+     */
+    public ResilientExecutor getResilientExecutor() {
+        return mResilientExecutor;
+    }
+
+    /**
+     * Return the latency histograms and outcome counts recorded for each operation.
+     *
+     * @return
+     */
+    public OperationMetrics getOperationMetrics() {
+        return mResilientExecutor.getMetrics();
+    }
+
+    public Executor getCallbackExecutor() {
+        return mCallbackExecutor;
+    }
+
+    /**
+     * Set the executor the callbacks of the promises returned by this controller run on. The
+     * {@link TaskViewModel} is notified on the same executor. Defaults to the main thread.
+     *
+     * @param callbackExecutor
+     */
+    public void setCallbackExecutor(@NonNull Executor callbackExecutor) {
+        mCallbackExecutor = callbackExecutor;
+    }
+
     /**
      * Copy context from a different {@link TaskController} object.
      *
@@ -85,6 +223,40 @@ public class TaskController {
         setRoleManager(oldTaskController.getRoleManager());
         setSolution(oldTaskController.getSolution());
         mCurrentInbasket = oldTaskController.getCurrentInbasket();
+        mTaskBasketIndex = oldTaskController.getTaskBasketIndex();
+
+        // share the managers created so far and the requests in flight
+        mManagerCache = oldTaskController.getManagerCache();
+        mTaskDetailsFlight = oldTaskController.getTaskDetailsFlight();
+        mTaskDetailsCache = oldTaskController.getTaskDetailsCache();
+
+        // the circuit breaker is for the server, not for a single controller
+        mResilientExecutor = oldTaskController.getResilientExecutor();
+        mCallbackExecutor = oldTaskController.getCallbackExecutor();
+    }
+
+    /**
+     * Create a session with the given credentials.
+     *
+     * @param user
+     * @param password
+     * @return a promise for the {@link SessionManager}, which is also kept by this controller
+     */
+    public Promise<SessionManager> initSession(@NonNull final String user, @NonNull final String password) {
+        StartupTracer.getInstance().beginStage("login");
+
+        return endStage("login", execute(TaskViewModel.INITIATE_SESSION, new ResilientExecutor.Call<SessionManager>() {
+            @Override
+            public void execute(ICMCallback<SessionManager> callback) {
+                SessionManager.initSession(mCallingActivity, Constants.ENDPOINT, user, password, callback);
+            }
+        }).then(new Promise.Function<SessionManager, SessionManager>() {
+            @Override
+            public SessionManager apply(SessionManager sessionManager) {
+                mSessionManager = sessionManager;
+                return sessionManager;
+            }
+        }));
     }
 
     /**
@@ -93,54 +265,69 @@ public class TaskController {
      * If the operation is successful, the {@link TaskViewModel} passed in the constructor
      * will be notified in it's {@code onSessionInitiated()} method.
      */
-    public void login(@NonNull String user, @NonNull String password) {
-        // set session manager
-        SessionManager.initSession(mCallingActivity, Constants.ENDPOINT, user, password,
-                new ICMCallback<SessionManager>() {
-                    @Override
-                    public void onSuccess(SessionManager ret) {
-                        mSessionManager = ret;
-                        mViewModel.onSessionInitiated();
-                    }
+    public void login(@NonNull final String user, @NonNull final String password) {
+        initSession(user, password).whenComplete(new Promise.Callback<SessionManager>() {
+            @Override
+            public void onFulfilled(SessionManager sessionManager) {
+                mViewModel.onSessionInitiated();
+            }
 
-                    @Override
-                    public void onError(String error) {
-                        mViewModel.onError(TaskViewModel.INITIATE_SESSION, error);
-                    }
-                });
+            @Override
+            public void onRejected(Exception error) {
+                notifyError(TaskViewModel.INITIATE_SESSION, error);
+            }
+        });
     }
 
     /**
      * Obtain a list of all the available solutions from the SDK and search for the one with the
      * given name.
-     * <p/>
-     * If there is no solution with the searched name we show an error message on the calling
-     * activity.
+     *
+     * @param solutionName
+     * @return a promise for the solution, rejected if there is no solution with the searched name
      */
-    public void findSolution(@NonNull final String solutionName) {
+    public Promise<ICMSolution> fetchSolution(@NonNull final String solutionName) {
+        StartupTracer.getInstance().beginStage("findSolution");
+
         // get all available solutions and search for the one we need
-        mSessionManager.getSolutions(new ICMCallback<List<ICMSolution>>() {
+        final SessionManager sessionManager = mSessionManager;
+        return endStage("findSolution", execute(TaskViewModel.FIND_SOLUTION, new ResilientExecutor.Call<List<ICMSolution>>() {
+            @Override
+            public void execute(ICMCallback<List<ICMSolution>> callback) {
+                sessionManager.getSolutions(callback);
+            }
+        }).then(new Promise.Function<List<ICMSolution>, ICMSolution>() {
             @Override
-            public void onSuccess(List<ICMSolution> ret) {
-                boolean found = false;
-                for (ICMSolution solution : ret) {
+            public ICMSolution apply(List<ICMSolution> solutions) throws OperationException {
+                for (ICMSolution solution : solutions) {
                     if (solution.getName().equalsIgnoreCase(solutionName)) {
-                        mViewModel.onSolutionFound(solution);
-                        found = true;
-                        break;
+                        return solution;
                     }
                 }
 
-                // show error message if we didn't find any solution
-                if (!found) {
-                    mViewModel.onError(TaskViewModel.FIND_SOLUTION,
-                            mCallingActivity.getString(R.string.err_solution_not_found));
-                }
+                throw new OperationException(TaskViewModel.FIND_SOLUTION,
+                        mCallingActivity.getString(R.string.err_solution_not_found));
+            }
+        }));
+    }
+
+    /**
+     * Obtain a list of all the available solutions from the SDK and search for the one with the
+     * given name.
+     * <p/>
+     * If there is no solution with the searched name we show an error message on the calling
+     * activity.
+     */
+    public void findSolution(@NonNull final String solutionName) {
+        fetchSolution(solutionName).whenComplete(new Promise.Callback<ICMSolution>() {
+            @Override
+            public void onFulfilled(ICMSolution solution) {
+                mViewModel.onSolutionFound(solution);
             }
 
             @Override
-            public void onError(String error) {
-                mViewModel.onError(TaskViewModel.FIND_SOLUTION, error);
+            public void onRejected(Exception error) {
+                notifyError(TaskViewModel.FIND_SOLUTION, error);
             }
         });
     }
@@ -150,36 +337,120 @@ public class TaskController {
      * details.
      *
      * @param solution
+     * @return a promise for the solution with all its details
      */
-    public void loadSolutionDetails(@NonNull ICMSolution solution) {
+    public Promise<ICMSolution> fetchSolutionDetails(@NonNull ICMSolution solution) {
+        StartupTracer.getInstance().beginStage("loadSolutionDetails");
+
         mSolution = null;
         mSolutionManager = null;
         mCurrentInbasket = null;
+        mTaskBasketIndex.clear();
+        mManagerCache.invalidate();
         mSolutionManager = mSessionManager.getSolutionManager(solution);
 
-        mSolutionManager.getSolutionDetails(new ICMCallback<ICMSolution>() {
+        final SolutionManager solutionManager = mSolutionManager;
+        return endStage("loadSolutionDetails", execute(TaskViewModel.LOAD_SOLUTION_DETAILS, new ResilientExecutor.Call<ICMSolution>() {
             @Override
-            public void onSuccess(ICMSolution icmSolution) {
+            public void execute(ICMCallback<ICMSolution> callback) {
+                solutionManager.getSolutionDetails(callback);
+            }
+        }).then(new Promise.Function<ICMSolution, ICMSolution>() {
+            @Override
+            public ICMSolution apply(ICMSolution icmSolution) {
                 mSolution = icmSolution;
+                mSolutionCache.putSolution(icmSolution);
+                return icmSolution;
+            }
+        }));
+    }
+
+    /**
+     * Create a {@link SolutionManager} for the given {@link ICMSolution} and load the solution
+     * details.
+     *
+     * @param solution
+     */
+    public void loadSolutionDetails(@NonNull ICMSolution solution) {
+        fetchSolutionDetails(solution).whenComplete(new Promise.Callback<ICMSolution>() {
+            @Override
+            public void onFulfilled(ICMSolution icmSolution) {
                 mViewModel.onSolutionDetailsLoaded(icmSolution);
             }
 
+            @Override
+            public void onRejected(Exception error) {
+                notifyError(TaskViewModel.LOAD_SOLUTION_DETAILS, error);
+            }
+        });
+    }
+
+    /**
+     * Notify the {@link TaskViewModel} with the cached solution details if there are any, so the
+     * tasks can be reloaded without waiting for the solution.
+     * <p>
+     * Solution details older than {@link Constants#SOLUTION_CACHE_FRESHNESS} are also reloaded
+     * in the background. The {@link TaskViewModel} is only notified again if the roles or the
+     * workbaskets of the solution have changed. Without cached details this is the same as
+     * {@link #loadSolutionDetails(ICMSolution)}.
+     *
+     * @param solution
+     */
+    public void refreshSolutionDetails(@NonNull ICMSolution solution) {
+        final ICMSolution cachedSolution = mSolutionCache.getSolution();
+
+        if (cachedSolution == null || mSolutionManager == null) {
+            loadSolutionDetails(solution);
+            return;
+        }
+
+        if (!mSolutionCache.isFresh()) {
+            revalidateSolutionDetails();
+        }
+
+        mSolution = cachedSolution;
+        mViewModel.onSolutionDetailsLoaded(cachedSolution);
+    }
+
+    /**
+     * Reload the details of the current solution without resetting the current state.
+     */
+    private void revalidateSolutionDetails() {
+        final SolutionManager solutionManager = mSolutionManager;
+        mResilientExecutor.execute(TaskViewModel.LOAD_SOLUTION_DETAILS, new ResilientExecutor.Call<ICMSolution>() {
+            @Override
+            public void execute(ICMCallback<ICMSolution> callback) {
+                solutionManager.getSolutionDetails(callback);
+            }
+        }, new ICMCallback<ICMSolution>() {
+            @Override
+            public void onSuccess(ICMSolution icmSolution) {
+                final boolean changed = mSolutionCache.isStructureChanged(icmSolution);
+
+                mSolution = icmSolution;
+                mSolutionCache.putSolution(icmSolution);
+
+                // the roles or the workbaskets have changed, the tasks have to be loaded again
+                if (changed) {
+                    mViewModel.onSolutionDetailsLoaded(icmSolution);
+                }
+            }
+
             @Override
             public void onError(String s) {
-                mViewModel.onError(TaskViewModel.LOAD_SOLUTION_DETAILS, s);
+                // the cached solution is still displayed, we'll try again on the next refresh
             }
         });
     }
 
     /**
      * Find a role with the given name in the current {@link ICMSolution}.
-     * <p/>
-     * If no role is found, an error message will be displayed.
      *
      * @param roleName
+     * @return a promise for the role, rejected if no role is found
      */
-    public void findRole(@NonNull String roleName) {
-        boolean found = false;
+    public Promise<ICMRole> fetchRole(@NonNull String roleName) {
+        StartupTracer.getInstance().beginStage("findRole");
 
         if (mSolution != null) {
             try {
@@ -188,9 +459,8 @@ public class TaskController {
 
                 for (ICMRole role : roles) {
                     if (role.getName().equalsIgnoreCase(roleName)) {
-                        mViewModel.onRoleFound(role);
-                        found = true;
-                        break;
+                        StartupTracer.getInstance().endStage("findRole");
+                        return Promise.fulfilled(mCallbackExecutor, role);
                     }
                 }
             } catch (Exception e) {
@@ -198,11 +468,30 @@ public class TaskController {
             }
         }
 
-        // show error message if we didn't find any solution
-        if (!found) {
-            mViewModel.onError(TaskViewModel.FIND_ROLE,
-                    mCallingActivity.getString(R.string.err_role_not_found));
-        }
+        StartupTracer.getInstance().endStage("findRole");
+        return Promise.rejected(mCallbackExecutor, new OperationException(TaskViewModel.FIND_ROLE,
+                mCallingActivity.getString(R.string.err_role_not_found)));
+    }
+
+    /**
+     * Find a role with the given name in the current {@link ICMSolution}.
+     * <p/>
+     * If no role is found, an error message will be displayed.
+     *
+     * @param roleName
+     */
+    public void findRole(@NonNull String roleName) {
+        fetchRole(roleName).whenComplete(new Promise.Callback<ICMRole>() {
+            @Override
+            public void onFulfilled(ICMRole role) {
+                mViewModel.onRoleFound(role);
+            }
+
+            @Override
+            public void onRejected(Exception error) {
+                notifyError(TaskViewModel.FIND_ROLE, error);
+            }
+        });
     }
 
     /**
@@ -211,24 +500,34 @@ public class TaskController {
      * @param role
      */
     public void createRoleManager(@NonNull ICMRole role) {
+        StartupTracer.getInstance().beginStage("createRoleManager");
+
         // reset current role manager
         mRoleManager = null;
         mRoleManager = mSolutionManager.getRoleManager(role);
+
+        StartupTracer.getInstance().endStage("createRoleManager");
     }
 
     /**
      * Load the details for the given {@link ICMTask}.
+     * <p>
+     * Fresh details from the {@link TaskDetailsCache} are delivered right away, before this method
+     * returns. Requests for a task whose details are already being loaded share the pending
+     * request.
      *
      * @param task
      */
-    public void loadTaskDetails(@NonNull ICMTask task) {
-        if (mCurrentInbasket != null) {
-            final InBasketManager inbasketManager = mSolutionManager.getInbasketManager(mCurrentInbasket);
-            final TaskManager taskManager = inbasketManager.getTaskManager(task);
-
-            taskManager.getTaskDetails(new ICMCallback<ICMTask>() {
+    public void loadTaskDetails(@NonNull final ICMTask task) {
+        final ICMTask cachedTask = mTaskDetailsCache.get(task.getId());
+        if (cachedTask != null) {
+            mViewModel.onTaskDetailsLoaded(cachedTask);
+        } else if (findTaskBasket(task) != null) {
+            final long version = mTaskDetailsCache.getVersion(task.getId());
+            fetchTaskDetails(task, TaskViewModel.LOAD_TASK_DETAILS, new ICMCallback<ICMTask>() {
                 @Override
                 public void onSuccess(ICMTask icmTask) {
+                    mTaskDetailsCache.put(icmTask, false, version);
                     mViewModel.onTaskDetailsLoaded(icmTask);
                 }
 
@@ -244,24 +543,99 @@ public class TaskController {
         }
     }
 
+    /**
+     * Prefetch the details of the tasks on screen and around them into the
+     * {@link TaskDetailsCache}, see {@link TaskPrefetcher}.
+     *
+     * @param tasks        the tasks of the list
+     * @param firstVisible the position of the first visible row, or -1 if there is none
+     * @param lastVisible  the position of the last visible row
+     */
+    public void prefetchTaskDetails(@NonNull List<ICMTask> tasks, int firstVisible, int lastVisible) {
+        if (mCurrentInbasket == null && mTaskBasketIndex.size() == 0) {
+            return;
+        }
+
+        if (mTaskPrefetcher == null) {
+            mTaskPrefetcher = new TaskPrefetcher(mTaskDetailsCache, new TaskPrefetcher.Loader() {
+                @Override
+                public void load(ICMTask task, ICMCallback<ICMTask> callback) {
+                    fetchTaskDetails(task, TaskViewModel.PREFETCH_TASK_DETAILS, callback);
+                }
+            }, Constants.PREFETCH_PARALLELISM, Constants.PREFETCH_LOOKAHEAD, Constants.PREFETCH_DELAY);
+        }
+        mTaskPrefetcher.setVisibleRange(tasks, firstVisible, lastVisible);
+    }
+
+    /**
+     * Drop the tasks waiting to be prefetched.
+     */
+    public void cancelPrefetch() {
+        if (mTaskPrefetcher != null) {
+            mTaskPrefetcher.cancel();
+        }
+    }
+
+    /**
+     * Load the details of a task from the server, sharing the request already in flight for the
+     * same task if there is one. A request sent before the task was last invalidated is not shared.
+     *
+     * @param task
+     * @param operationCode the operation the request is recorded as, prefetches are kept apart
+     *                      from the requests of the user
+     * @param callback
+     */
+    private void fetchTaskDetails(@NonNull final ICMTask task, @TaskViewModel.Operations final int operationCode,
+                                  @NonNull ICMCallback<ICMTask> callback) {
+        final String key = task.getId() + "@" + mTaskDetailsCache.getVersion(task.getId());
+        mTaskDetailsFlight.execute(key, new SingleFlight.Call<ICMTask>() {
+            @Override
+            public void execute(ICMCallback<ICMTask> callback) {
+                final InBasketManager inbasketManager = mManagerCache.getInbasketManager(mSolutionManager, findTaskBasket(task));
+                final TaskManager taskManager = mManagerCache.getTaskManager(inbasketManager, task);
+
+                mResilientExecutor.execute(operationCode, new ResilientExecutor.Call<ICMTask>() {
+                    @Override
+                    public void execute(ICMCallback<ICMTask> callback) {
+                        taskManager.getTaskDetails(callback);
+                    }
+                }, callback);
+            }
+        }, callback);
+    }
+
     /**
      * Lock the given task.
      *
      * @param task
      */
-    public void lockTask(@NonNull ICMTask task) {
-        final InBasketManager inbasketManager = mSolutionManager.getInbasketManager(mCurrentInbasket);
-        final TaskManager taskManager = inbasketManager.getTaskManager(task);
+    public void lockTask(@NonNull final ICMTask task) {
+        mTaskDetailsCache.invalidate(task.getId());
+        if (enqueueIfOffline(OperationJournal.OP_LOCK, task, null, null)) {
+            return;
+        }
+
+        final InBasketManager inbasketManager = mManagerCache.getInbasketManager(mSolutionManager, findTaskBasket(task));
+        final TaskManager taskManager = mManagerCache.getTaskManager(inbasketManager, task);
 
-        taskManager.lockTask(new ICMCallback<ICMTask>() {
+        mResilientExecutor.execute(TaskViewModel.LOCK_TASK, new ResilientExecutor.Call<ICMTask>() {
+            @Override
+            public void execute(ICMCallback<ICMTask> callback) {
+                taskManager.lockTask(callback);
+            }
+        }, new ICMCallback<ICMTask>() {
             @Override
             public void onSuccess(ICMTask icmTask) {
+                // details loaded while the operation was in flight might be older than it
+                mTaskDetailsCache.invalidate(task.getId());
                 mViewModel.onTaskLocked(icmTask);
             }
 
             @Override
             public void onError(String s) {
-                mViewModel.onError(TaskViewModel.LOCK_TASK, s);
+                if (!enqueueIfOffline(OperationJournal.OP_LOCK, task, null, null)) {
+                    mViewModel.onError(TaskViewModel.LOCK_TASK, s);
+                }
             }
         });
     }
@@ -271,19 +645,32 @@ public class TaskController {
      *
      * @param task
      */
-    public void unlockTask(@NonNull ICMTask task) {
-        final InBasketManager inbasketManager = mSolutionManager.getInbasketManager(mCurrentInbasket);
-        final TaskManager taskManager = inbasketManager.getTaskManager(task);
+    public void unlockTask(@NonNull final ICMTask task) {
+        mTaskDetailsCache.invalidate(task.getId());
+        if (enqueueIfOffline(OperationJournal.OP_UNLOCK, task, null, null)) {
+            return;
+        }
+
+        final InBasketManager inbasketManager = mManagerCache.getInbasketManager(mSolutionManager, findTaskBasket(task));
+        final TaskManager taskManager = mManagerCache.getTaskManager(inbasketManager, task);
 
-        taskManager.unlockTask(new ICMCallback<ICMTask>() {
+        mResilientExecutor.execute(TaskViewModel.UNLOCK_TASK, new ResilientExecutor.Call<ICMTask>() {
+            @Override
+            public void execute(ICMCallback<ICMTask> callback) {
+                taskManager.unlockTask(callback);
+            }
+        }, new ICMCallback<ICMTask>() {
             @Override
             public void onSuccess(ICMTask icmTask) {
+                mTaskDetailsCache.invalidate(task.getId());
                 mViewModel.onTaskUnlocked(icmTask);
             }
 
             @Override
             public void onError(String s) {
-                mViewModel.onError(TaskViewModel.UNLOCK_TASK, s);
+                if (!enqueueIfOffline(OperationJournal.OP_UNLOCK, task, null, null)) {
+                    mViewModel.onError(TaskViewModel.UNLOCK_TASK, s);
+                }
             }
         });
     }
@@ -295,18 +682,31 @@ public class TaskController {
      * @param updatedProperties the map holding the new property values -  the map key is
      *                          {@link ICMProperty#getSymbolicName()}
      */
-    public void updateTask(@NonNull ICMTask task, final Map<String, String> updatedProperties) {
-        final InBasketManager inbasketManager = mSolutionManager.getInbasketManager(mCurrentInbasket);
-        final TaskManager taskManager = inbasketManager.getTaskManager(task);
-        taskManager.updateTask(updatedProperties, new ICMCallback<ICMTask>() {
+    public void updateTask(@NonNull final ICMTask task, final Map<String, String> updatedProperties) {
+        mTaskDetailsCache.invalidate(task.getId());
+        if (enqueueIfOffline(OperationJournal.OP_UPDATE, task, updatedProperties, null)) {
+            return;
+        }
+
+        final InBasketManager inbasketManager = mManagerCache.getInbasketManager(mSolutionManager, findTaskBasket(task));
+        final TaskManager taskManager = mManagerCache.getTaskManager(inbasketManager, task);
+        mResilientExecutor.execute(TaskViewModel.TASK_ACTION, new ResilientExecutor.Call<ICMTask>() {
+            @Override
+            public void execute(ICMCallback<ICMTask> callback) {
+                taskManager.updateTask(updatedProperties, callback);
+            }
+        }, new ICMCallback<ICMTask>() {
             @Override
             public void onSuccess(ICMTask icmTask) {
+                mTaskDetailsCache.invalidate(task.getId());
                 mViewModel.onTaskUpdated(icmTask);
             }
 
             @Override
             public void onError(String s) {
-                mViewModel.onError(TaskViewModel.TASK_ACTION, s);
+                if (!enqueueIfOffline(OperationJournal.OP_UPDATE, task, updatedProperties, null)) {
+                    mViewModel.onError(TaskViewModel.TASK_ACTION, s);
+                }
             }
         });
     }
@@ -317,108 +717,599 @@ public class TaskController {
      * @param task        the task to perform the operation on
      * @param actionIndex the index of the action to be performed - MUST be a valid index for the {@code task.getResponses()} list
      */
-    public void performTaskAction(@NonNull final ICMTask task, @NonNull Map<String, String> properties, final int actionIndex) {
-        final InBasketManager inbasketManager = mSolutionManager.getInbasketManager(mCurrentInbasket);
-        final TaskManager taskManager = inbasketManager.getTaskManager(task);
-        taskManager.completeTask(task.getResponses().get(actionIndex),
-                new Gson().toJson(properties), new ICMCallback<Object>() {
+    public void performTaskAction(@NonNull final ICMTask task, @NonNull final Map<String, String> properties, final int actionIndex) {
+        final String response = task.getResponses().get(actionIndex);
+        mTaskDetailsCache.invalidate(task.getId());
+        if (enqueueIfOffline(OperationJournal.OP_COMPLETE, task, properties, response)) {
+            return;
+        }
+
+        final InBasketManager inbasketManager = mManagerCache.getInbasketManager(mSolutionManager, findTaskBasket(task));
+        final TaskManager taskManager = mManagerCache.getTaskManager(inbasketManager, task);
+        mResilientExecutor.execute(TaskViewModel.TASK_ACTION, new ResilientExecutor.Call<Object>() {
+                    @Override
+                    public void execute(ICMCallback<Object> callback) {
+                        taskManager.completeTask(response, new Gson().toJson(properties), callback);
+                    }
+                },
+                new ICMCallback<Object>() {
                     @Override
                     public void onSuccess(Object object) {
+                        mTaskDetailsCache.invalidate(task.getId());
                         mViewModel.onTaskActionPerformed(task, actionIndex);
                     }
 
                     @Override
                     public void onError(String s) {
-                        mViewModel.onError(TaskViewModel.TASK_ACTION, s);
+                        if (!enqueueIfOffline(OperationJournal.OP_COMPLETE, task, properties, response)) {
+                            mViewModel.onError(TaskViewModel.TASK_ACTION, s);
+                        }
                     }
                 });
     }
 
     /**
-     * Get all the tasks from the {@link ICMInBasket} found at the given index from the
-     * available baskets for the current role.
+     * Send the operations saved in the {@link OperationJournal} while the device was offline, in
+     * order, one at a time and at most one every {@link Constants#JOURNAL_REPLAY_INTERVAL}
+     * milliseconds.
+     * <p>
+     * The replay stops if the network is lost again, or if the basket of the next task hasn't been
+     * loaded yet, the remaining operations are kept for the next replay. An operation the server
+     * fails with is kept too and the replay starts again after a delay, the SDK doesn't tell a
+     * refused operation from a server error. It's only dropped after
+     * {@link Constants#JOURNAL_MAX_ATTEMPTS} attempts, or once its task is no longer in its loaded
+     * basket.
+     */
+    public void replayJournal() {
+        if (mSolutionManager == null || mJournal.getPendingCount() == 0 || !mJournal.beginReplay()) {
+            return;
+        }
+
+        replayNextEntry(0, 0, SystemClock.elapsedRealtime());
+    }
+
+    private void replayNextEntry(final int replayedCount, final int rejectedCount, final long startTime) {
+        final OperationJournal.Entry entry = mJournal.peek();
+
+        if (entry == null || !Utils.isNetworkAvailable(mCallingActivity)) {
+            finishReplay(replayedCount, rejectedCount, startTime);
+            return;
+        }
+
+        // the SDK needs the task as loaded from its basket, the journal only has its id
+        final ICMInBasket basket = mTaskBasketIndex.findBasket(entry.getTaskId());
+        final ICMTask task = basket != null ? findTask(basket, entry.getTaskId()) : null;
+        if (task == null) {
+            if (mTaskBasketIndex.containsBasket(entry.getQueueName())) {
+                Log.w(LOG_TAG, "Dropping operation on a task that is no longer in its basket: " + entry.getTaskId());
+                mJournal.removeFirst(false);
+                scheduleNextEntry(replayedCount, rejectedCount + 1, startTime);
+            } else {
+                // replayed again once the basket is loaded
+                finishReplay(replayedCount, rejectedCount, startTime);
+            }
+            return;
+        }
+
+        mJournal.beginSend(entry);
+        sendJournalEntry(entry, task, basket, new ICMCallback<Object>() {
+            @Override
+            public void onSuccess(Object o) {
+                mTaskDetailsCache.invalidate(entry.getTaskId());
+                mJournal.removeFirst(true);
+                scheduleNextEntry(replayedCount + 1, rejectedCount, startTime);
+            }
+
+            @Override
+            public void onError(String s) {
+                if (!Utils.isNetworkAvailable(mCallingActivity)) {
+                    // offline again - keep the operation for the replay started by the network change
+                    finishReplay(replayedCount, rejectedCount, startTime);
+                } else if (mResilientExecutor.getCircuitBreaker().getState() == CircuitBreaker.STATE_OPEN) {
+                    // the server is down - keep the operation until the breaker lets requests through
+                    finishReplay(replayedCount, rejectedCount, startTime);
+                    scheduleReplay(Constants.CIRCUIT_OPEN_DURATION);
+                } else {
+                    final int attemptCount = mJournal.recordFailedAttempt();
+                    if (mReplayRetryPolicy.shouldRetry(attemptCount)) {
+                        Log.w(LOG_TAG, "Operation failed " + attemptCount + " times, sending it again later: " + s);
+                        finishReplay(replayedCount, rejectedCount, startTime);
+                        scheduleReplay(mReplayRetryPolicy.getDelay(attemptCount, mRandom));
+                    } else {
+                        Log.w(LOG_TAG, "Dropping operation that failed " + attemptCount + " times: " + s);
+                        mJournal.removeFirst(false);
+                        scheduleNextEntry(replayedCount, rejectedCount + 1, startTime);
+                    }
+                }
+            }
+        });
+    }
+
+    private void scheduleNextEntry(final int replayedCount, final int rejectedCount, final long startTime) {
+        mReplayHandler.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                replayNextEntry(replayedCount, rejectedCount, startTime);
+            }
+        }, Constants.JOURNAL_REPLAY_INTERVAL);
+    }
+
+    private void scheduleReplay(long delayMillis) {
+        mReplayHandler.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                replayJournal();
+            }
+        }, delayMillis);
+    }
+
+    private void finishReplay(int replayedCount, int rejectedCount, long startTime) {
+        mJournal.endReplay();
+
+        final long elapsed = Math.max(1, SystemClock.elapsedRealtime() - startTime);
+        Log.i(LOG_TAG, String.format("Replayed %d operations in %d ms (%.1f/s), %d rejected, %d pending, %d coalesced, %d bytes",
+                replayedCount, elapsed, (replayedCount + rejectedCount) * 1000.0 / elapsed, rejectedCount,
+                mJournal.getPendingCount(), mJournal.getCoalescedCount(), mJournal.getSizeInBytes()));
+
+        if (replayedCount + rejectedCount > 0) {
+            mViewModel.onOperationsReplayed(replayedCount, rejectedCount);
+        }
+    }
+
+    /**
+     * Send a saved operation to the server.
      *
-     * @param inBasketIndex
+     * @param entry
+     * @param task     the task of the entry
+     * @param basket   the basket that contains the task
+     * @param callback
      */
-    public void getTasksFromBasket(@NonNull ICMRole role, @NonNull int inBasketIndex) {
-        final List<ICMInBasket> workbaskets = role.getWorkbaskets();
+    private void sendJournalEntry(@NonNull final OperationJournal.Entry entry, @NonNull ICMTask task,
+                                  @NonNull ICMInBasket basket, @NonNull ICMCallback<Object> callback) {
+        final InBasketManager inbasketManager = mManagerCache.getInbasketManager(mSolutionManager, basket);
+        final TaskManager taskManager = mManagerCache.getTaskManager(inbasketManager, task);
+        mTaskDetailsCache.invalidate(task.getId());
+        final int operationCode = entry.getOperation() == OperationJournal.OP_LOCK ? TaskViewModel.LOCK_TASK
+                : entry.getOperation() == OperationJournal.OP_UNLOCK ? TaskViewModel.UNLOCK_TASK
+                : TaskViewModel.TASK_ACTION;
+
+        mResilientExecutor.execute(operationCode, new ResilientExecutor.Call<Object>() {
+            @Override
+            public void execute(ICMCallback<Object> callback) {
+                switch (entry.getOperation()) {
+                    case OperationJournal.OP_UPDATE:
+                        taskManager.updateTask(entry.getProperties(), new ForwardingCallback<ICMTask>(callback));
+                        break;
+                    case OperationJournal.OP_COMPLETE:
+                        taskManager.completeTask(entry.getResponse(), new Gson().toJson(entry.getProperties()), callback);
+                        break;
+                    case OperationJournal.OP_LOCK:
+                        taskManager.lockTask(new ForwardingCallback<ICMTask>(callback));
+                        break;
+                    case OperationJournal.OP_UNLOCK:
+                        taskManager.unlockTask(new ForwardingCallback<ICMTask>(callback));
+                        break;
+                }
+            }
+        }, callback);
+    }
+
+    /**
+     * Save the operation in the {@link OperationJournal} if it can't be sent now, because the
+     * device is offline or earlier operations on the same task are still waiting to be sent. In the
+     * latter case the journal is replayed right away.
+     *
+     * @param operation
+     * @param task
+     * @param properties
+     * @param response
+     * @return {@code true} if the operation was saved and must not be sent, {@code false} if it
+     * has to be sent now or the journal is full
+     */
+    private boolean enqueueIfOffline(@OperationJournal.Operation int operation, @NonNull ICMTask task,
+                                     Map<String, String> properties, String response) {
+        final ICMInBasket basket = findTaskBasket(task);
+        final boolean online = Utils.isNetworkAvailable(mCallingActivity);
+        if (basket == null || task.getId() == null
+                || (online && !mJournal.hasPendingEntries(task.getId()))
+                || !mJournal.append(operation, task.getId(), basketKey(basket), properties, response)) {
+            return false;
+        }
+
+        mViewModel.onTaskOperationQueued(operation, task, mJournal.getPendingCount());
+
+        // no network change is coming to start the replay
+        if (online) {
+            replayJournal();
+        }
+        return true;
+    }
 
-        if (!workbaskets.isEmpty()) {
-            if (inBasketIndex <= workbaskets.size()) {
+    /**
+     * Perform the same action on several tasks of the current {@link ICMInBasket}, with at most
+     * {@link Constants#BATCH_PARALLELISM} operations in flight.
+     * <p>
+     * The {@link TaskViewModel} is not notified, the results are reported to the given listener.
+     *
+     * @param action   the action to perform
+     * @param tasks    the tasks to perform the action on
+     * @param assignee the user the tasks are reassigned to - only used by
+     *                 {@link TaskBatch#ACTION_REASSIGN}
+     * @param response the response the tasks are completed with, one of
+     *                 {@link #findCommonResponses(List)} - only used by
+     *                 {@link TaskBatch#ACTION_COMPLETE}. The tasks are completed without changing
+     *                 their properties, there is no form to edit them for several tasks.
+     * @param listener
+     * @return the running batch
+     */
+    public TaskBatch performBatchAction(@TaskBatch.Action final int action, @NonNull List<ICMTask> tasks,
+                                        final ICMUser assignee, final String response,
+                                        @NonNull TaskBatch.Listener listener) {
+        final TaskBatch batch = new TaskBatch(Constants.BATCH_PARALLELISM);
+        final int operationCode = action == TaskBatch.ACTION_LOCK ? TaskViewModel.LOCK_TASK
+                : action == TaskBatch.ACTION_UNLOCK ? TaskViewModel.UNLOCK_TASK
+                : TaskViewModel.TASK_ACTION;
 
-                // load inbasket details
-                final InBasketManager inbasketManager = mSolutionManager.getInbasketManager(workbaskets.get(inBasketIndex));
-                inbasketManager.getInBasketDetails(new ICMCallback<ICMInBasket>() {
+        batch.execute(tasks, new TaskBatch.TaskOperation() {
+            @Override
+            public void execute(ICMTask task, ICMCallback<Object> callback) {
+                final InBasketManager inbasketManager = mManagerCache.getInbasketManager(mSolutionManager, findTaskBasket(task));
+                final TaskManager taskManager = mManagerCache.getTaskManager(inbasketManager, task);
+                final String taskResponse = findResponse(task, response);
+                mTaskDetailsCache.invalidate(task.getId());
+
+                if (action == TaskBatch.ACTION_COMPLETE && taskResponse == null) {
+                    callback.onError(mCallingActivity.getString(R.string.err_no_complete_action));
+                    return;
+                }
+
+                mResilientExecutor.execute(operationCode, new ResilientExecutor.Call<Object>() {
                     @Override
-                    public void onSuccess(ICMInBasket icmInBasket) {
-                        mCurrentInbasket = icmInBasket;
-                        mViewModel.onTasksFound(icmInBasket.getTasks());
+                    public void execute(ICMCallback<Object> callback) {
+                        switch (action) {
+                            case TaskBatch.ACTION_LOCK:
+                                taskManager.lockTask(new ForwardingCallback<ICMTask>(callback));
+                                break;
+                            case TaskBatch.ACTION_UNLOCK:
+                                taskManager.unlockTask(new ForwardingCallback<ICMTask>(callback));
+                                break;
+                            case TaskBatch.ACTION_REASSIGN:
+                                taskManager.reassignTask(assignee, new ForwardingCallback<ICMTask>(callback));
+                                break;
+                            case TaskBatch.ACTION_COMPLETE:
+                                taskManager.completeTask(taskResponse, "{}", callback);
+                                break;
+                        }
                     }
+                }, callback);
+            }
+        }, listener);
 
-                    @Override
-                    public void onError(String s) {
-                        // there are no work baskets for the current role
-                        mViewModel.onError(TaskViewModel.FIND_NEARBY_TASKS,
-                                mCallingActivity.getString(R.string.err_workbasket_details));
+        return batch;
+    }
+
+    /**
+     * Find the user with the given short name or display name.
+     *
+     * @param userName
+     * @param callback receives the user or an error if there is no such user
+     */
+    public void findUser(@NonNull final String userName, @NonNull final ICMCallback<ICMUser> callback) {
+        mSolutionManager.getUsers(userName, new ICMCallback<List<ICMUser>>() {
+            @Override
+            public void onSuccess(List<ICMUser> users) {
+                for (ICMUser user : users) {
+                    if (userName.equalsIgnoreCase(user.getShortName())
+                            || userName.equalsIgnoreCase(user.getDisplayName())) {
+                        callback.onSuccess(user);
+                        return;
                     }
-                });
+                }
 
-            } else {
-                // the index of the work basket is not in the valid range
-                mViewModel.onError(TaskViewModel.FIND_NEARBY_TASKS,
-                        mCallingActivity.getString(R.string.err_no_workbaskets_for_index));
+                callback.onError(mCallingActivity.getString(R.string.err_user_not_found));
             }
-        } else {
+
+            @Override
+            public void onError(String s) {
+                callback.onError(s);
+            }
+        });
+    }
+
+    /**
+     * Load the {@link ICMInBasket} found at the given index from the available baskets for the
+     * given role, which becomes the current basket.
+     *
+     * @param role
+     * @param inBasketIndex
+     * @return a promise for the tasks of the basket
+     */
+    public Promise<List<ICMTask>> loadBasket(@NonNull ICMRole role, int inBasketIndex) {
+        StartupTracer.getInstance().beginStage("getTasksFromBasket");
+
+        final List<ICMInBasket> workbaskets = role.getWorkbaskets();
+
+        if (workbaskets.isEmpty()) {
             // there are no work baskets for the current role
+            StartupTracer.getInstance().endStage("getTasksFromBasket");
+            return Promise.rejected(mCallbackExecutor, new OperationException(TaskViewModel.FIND_NEARBY_TASKS,
+                    mCallingActivity.getString(R.string.err_no_workbaskets_for_role)));
+        }
+
+        if (inBasketIndex < 0 || inBasketIndex >= workbaskets.size()) {
+            // the index of the work basket is not in the valid range
+            StartupTracer.getInstance().endStage("getTasksFromBasket");
+            return Promise.rejected(mCallbackExecutor, new OperationException(TaskViewModel.FIND_NEARBY_TASKS,
+                    mCallingActivity.getString(R.string.err_no_workbaskets_for_index)));
+        }
+
+        // load inbasket details
+        final InBasketManager inbasketManager = mManagerCache.getInbasketManager(mSolutionManager, workbaskets.get(inBasketIndex));
+        final String errorMessage = mCallingActivity.getString(R.string.err_workbasket_details);
+        return endStage("getTasksFromBasket", execute(TaskViewModel.FIND_NEARBY_TASKS, new ResilientExecutor.Call<ICMInBasket>() {
+            @Override
+            public void execute(ICMCallback<ICMInBasket> callback) {
+                inbasketManager.getInBasketDetails(callback);
+            }
+        }, errorMessage).then(new Promise.Function<ICMInBasket, List<ICMTask>>() {
+            @Override
+            public List<ICMTask> apply(ICMInBasket icmInBasket) {
+                mCurrentInbasket = icmInBasket;
+                mTaskBasketIndex.indexBasket(icmInBasket);
+
+                // the saved operations on the tasks of the basket can be sent now
+                replayJournal();
+                return icmInBasket.getTasks();
+            }
+        }));
+    }
+
+    /**
+     * Get all the tasks from the {@link ICMInBasket} found at the given index from the
+     * available baskets for the current role.
+     *
+     * @param inBasketIndex
+     */
+    public void getTasksFromBasket(@NonNull ICMRole role, @NonNull int inBasketIndex) {
+        // the tasks of the basket replace the merged tasks of all the baskets
+        final boolean wasAggregated = mAggregatedTasks != null;
+        mAggregatedTasks = null;
+        if (mInBasketLoader != null) {
+            mInBasketLoader.cancel();
+            mInBasketLoader = null;
+        }
+
+        loadBasket(role, inBasketIndex).whenComplete(new Promise.Callback<List<ICMTask>>() {
+            @Override
+            public void onFulfilled(List<ICMTask> tasks) {
+                // only notify with tasks that are different from the ones displayed
+                if (mSolutionCache.updateTasks(mCurrentInbasket, tasks) || wasAggregated) {
+                    mViewModel.onTasksFound(tasks);
+                } else {
+                    mViewModel.onTasksUnchanged();
+                }
+            }
+
+            @Override
+            public void onRejected(Exception error) {
+                notifyError(TaskViewModel.FIND_NEARBY_TASKS, error);
+            }
+        });
+    }
+
+    /**
+     * Load every {@link ICMInBasket} of the given role, a few at a time, and merge their tasks into
+     * a single list.
+     * <p>
+     * The {@link TaskViewModel} is notified with the merged tasks each time a basket with changed
+     * tasks arrives, so the list fills up without waiting for the slowest basket. The merged list
+     * is kept between loads, a reloaded basket only replaces its own tasks.
+     *
+     * @param role
+     * @param order the order of the merged tasks
+     */
+    public void getTasksFromAllBaskets(@NonNull ICMRole role, @AggregatedTaskList.Order int order) {
+        final List<ICMInBasket> workbaskets = role.getWorkbaskets();
+        if (workbaskets.isEmpty()) {
             mViewModel.onError(TaskViewModel.FIND_NEARBY_TASKS,
                     mCallingActivity.getString(R.string.err_no_workbaskets_for_role));
+            return;
+        }
+
+        // stop loading the baskets of a previous request
+        if (mInBasketLoader != null) {
+            mInBasketLoader.cancel();
         }
+
+        // the list has to be displayed again when it replaces a single basket, is sorted
+        // differently or lost the baskets removed from the role
+        final boolean displayed = mAggregatedTasks != null;
+        if (mAggregatedTasks == null) {
+            mAggregatedTasks = new AggregatedTaskList(order);
+        }
+        final AggregatedTaskList aggregatedTasks = mAggregatedTasks;
+        final boolean reordered = aggregatedTasks.setOrder(order);
+        final boolean pruned = aggregatedTasks.setBaskets(workbaskets);
+        final boolean changed = !displayed || reordered || pruned;
+
+        final InBasketLoader loader = new InBasketLoader(mSolutionManager, mManagerCache, mResilientExecutor,
+                Constants.INBASKET_LOAD_CONCURRENCY, Constants.INBASKET_LOAD_TIMEOUT);
+        mInBasketLoader = loader;
+        loader.load(workbaskets, new InBasketLoader.Listener() {
+            private boolean mPendingChange = changed;
+            private boolean mNotified;
+
+            @Override
+            public void onBasketLoaded(ICMInBasket basket, int completedCount, int totalCount) {
+                mTaskBasketIndex.indexBasket(basket);
+                if (mCurrentInbasket == null) {
+                    mCurrentInbasket = basket;
+                }
+                replayJournal();
+
+                // only notify with tasks that are different from the ones displayed
+                aggregatedTasks.putBasket(basket);
+                if (mSolutionCache.updateTasks(basket, basket.getTasks()) || mPendingChange) {
+                    mPendingChange = false;
+                    mNotified = true;
+                    mViewModel.onTasksFound(aggregatedTasks.getTasks());
+                }
+            }
+
+            @Override
+            public void onBasketFailed(ICMInBasket basket, String error, int completedCount, int totalCount) {
+                // the tasks previously loaded for the basket stay in the list
+                Log.d(LOG_TAG, error);
+            }
+
+            @Override
+            public void onAllBasketsLoaded(int loadedCount, int failedCount) {
+                if (mPendingChange) {
+                    // no basket could be loaded, display what is left of the list
+                    mViewModel.onTasksFound(aggregatedTasks.getTasks());
+                } else if (!mNotified) {
+                    mViewModel.onTasksUnchanged();
+                }
+
+                if (failedCount > 0) {
+                    mViewModel.onError(TaskViewModel.FIND_NEARBY_TASKS, mCallingActivity.getString(
+                            R.string.err_workbaskets_failed, failedCount, loadedCount + failedCount));
+                }
+            }
+        });
     }
 
     /**
-     * Search a {@link ICMInBasket} from the ones assigned to the current {@link ICMRole}
-     * that contains the given {@link ICMTask}.
+     * Run the whole bootstrap chain: login, find the solution, load its details, find the role
+     * and load the tasks of one of its baskets. Each stage starts as soon as the previous one
+     * completes, the first error rejects the result.
+     *
+     * @param user
+     * @param password
+     * @param solutionName
+     * @param roleName
+     * @param inBasketIndex
+     * @return a promise for the tasks, rejected if the chain takes longer than
+     * {@link Constants#BOOTSTRAP_TIMEOUT}
+     */
+    public Promise<List<ICMTask>> bootstrap(@NonNull String user, @NonNull String password,
+                                            @NonNull final String solutionName, @NonNull final String roleName,
+                                            final int inBasketIndex) {
+        return initSession(user, password).thenCompose(new Promise.AsyncFunction<SessionManager, ICMSolution>() {
+            @Override
+            public Promise<ICMSolution> apply(SessionManager sessionManager) {
+                return fetchSolution(solutionName);
+            }
+        }).thenCompose(new Promise.AsyncFunction<ICMSolution, ICMSolution>() {
+            @Override
+            public Promise<ICMSolution> apply(ICMSolution solution) {
+                return fetchSolutionDetails(solution);
+            }
+        }).thenCompose(new Promise.AsyncFunction<ICMSolution, ICMRole>() {
+            @Override
+            public Promise<ICMRole> apply(ICMSolution solution) {
+                return fetchRole(roleName);
+            }
+        }).thenCompose(new Promise.AsyncFunction<ICMRole, List<ICMTask>>() {
+            @Override
+            public Promise<List<ICMTask>> apply(ICMRole role) {
+                createRoleManager(role);
+                return loadBasket(role, inBasketIndex);
+            }
+        }).timeout(Constants.BOOTSTRAP_TIMEOUT);
+    }
+
+    /**
+     * Find the {@link ICMInBasket} that contains the given {@link ICMTask}, among the baskets
+     * loaded so far.
      *
      * @param task
-     * @return a {@link ICMInBasket} that contains the given task or {@code null}
-     */
-    private ICMInBasket findTaskBasket(final ICMTask task) {
-        final List<ICMInBasket> workBaskets = mRoleManager.getRole().getWorkbaskets();
-        ICMInBasket taskBasket = null;
-
-        // search through all the baskets available for this role
-//        for (ICMInBasket basket : workBaskets) {
-//
-//            // load inbasket details
-//            final InBasketManager inbasketManager = mSolutionManager.getInbasketManager(basket);
-//            inbasketManager.getInBasketDetails(new ICMCallback<ICMInBasket>() {
-//                @Override
-//                public void onSuccess(ICMInBasket icmInBasket) {
-//                    // search through all the tasks defined in a basket
-//                    for (ICMTask tk : icmInBasket.getTasks()) {
-//
-//                        // if the basket contains our task -> break the loops
-//                        if (tk.getId().equalsIgnoreCase(task.getId())) {
-//                            taskBasket = icmInBasket;
-//                            break;
-//                        }
-//                    }
-//                }
-//
-//                @Override
-//                public void onError(String s) {
-//                }
-//            });
-//
-//
-//            if (taskBasket != null) {
-//                break;
-//            }
-//        }
-
-        return taskBasket;
+     * @return the basket of the task, the current basket if the task was not indexed, or
+     * {@code null} if no basket was loaded
+     */
+    private ICMInBasket findTaskBasket(@NonNull ICMTask task) {
+        final ICMInBasket basket = mTaskBasketIndex.findBasket(task);
+        return basket != null ? basket : mCurrentInbasket;
+    }
+
+    /**
+     * Find a task among the loaded tasks of a basket.
+     *
+     * @param basket
+     * @param taskId
+     * @return the task or {@code null} if the basket doesn't contain it
+     */
+    private static ICMTask findTask(@NonNull ICMInBasket basket, @NonNull String taskId) {
+        final List<ICMTask> tasks = basket.getTasks();
+        if (tasks != null) {
+            for (ICMTask task : tasks) {
+                if (task != null && taskId.equalsIgnoreCase(task.getId())) {
+                    return task;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param basket
+     * @return the key the baskets are saved with in the {@link OperationJournal}, the same as the
+     * one of the {@link TaskBasketIndex}
+     */
+    private static String basketKey(@NonNull ICMInBasket basket) {
+        return basket.getQueueName() != null ? basket.getQueueName() : basket.getName();
     }
 
+    /**
+     * Find the responses all the given tasks can be completed with.
+     *
+     * @param tasks
+     * @return the responses, in the order of the first task, empty if there is none in common
+     */
+    public List<String> findCommonResponses(@NonNull List<ICMTask> tasks) {
+        final List<String> responses = new ArrayList<>();
+        if (tasks.isEmpty()) {
+            return responses;
+        }
+
+        try {
+            responses.addAll(tasks.get(0).getResponses());
+        } catch (Exception e) {
+            // no responses available
+        }
+
+        for (int i = 1; i < tasks.size() && !responses.isEmpty(); i++) {
+            final Iterator<String> iterator = responses.iterator();
+            while (iterator.hasNext()) {
+                if (findResponse(tasks.get(i), iterator.next()) == null) {
+                    iterator.remove();
+                }
+            }
+        }
+        return responses;
+    }
+
+    /**
+     * Find the given response in the responses of a task, ignoring the case.
+     *
+     * @param task
+     * @param response
+     * @return the response as the task spells it or {@code null} if the task doesn't have it
+     */
+    private String findResponse(@NonNull ICMTask task, String response) {
+        try {
+            for (String taskResponse : task.getResponses()) {
+                if (taskResponse.equalsIgnoreCase(response)) {
+                    return taskResponse;
+                }
+            }
+        } catch (Exception e) {
+            // no responses available
+        }
+
+        return null;
+    }
 
     /**
      * Determine if a {@link SessionManager} exists.
@@ -433,4 +1324,119 @@ public class TaskController {
     public ICMInBasket getCurrentInbasket() {
         return mCurrentInbasket;
     }
+
+    /**
+     * Perform an SDK call through the {@link ResilientExecutor}.
+     *
+     * @param operation
+     * @param call
+     * @return a promise for the result, rejected with an {@link OperationException}. Cancelling
+     * it cancels the request
+     */
+    private <T> Promise<T> execute(@TaskViewModel.Operations int operation, @NonNull ResilientExecutor.Call<T> call) {
+        return execute(operation, call, null);
+    }
+
+    /**
+     * Perform an SDK call through the {@link ResilientExecutor}.
+     *
+     * @param operation
+     * @param call
+     * @param errorMessage the message used instead of the SDK error or {@code null}
+     * @return a promise for the result, rejected with an {@link OperationException}. Cancelling
+     * it cancels the request
+     */
+    private <T> Promise<T> execute(@TaskViewModel.Operations final int operation, @NonNull ResilientExecutor.Call<T> call,
+                                   final String errorMessage) {
+        final Promise<T> promise = new Promise<>(mCallbackExecutor);
+
+        final ResilientExecutor.Request request = mResilientExecutor.execute(operation, call, new ICMCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                promise.resolve(result);
+            }
+
+            @Override
+            public void onError(String error) {
+                promise.reject(new OperationException(operation, errorMessage != null ? errorMessage : error));
+            }
+        });
+
+        // nobody waits for the result anymore, stop retrying
+        promise.whenComplete(new Promise.Callback<T>() {
+            @Override
+            public void onFulfilled(T value) {
+            }
+
+            @Override
+            public void onRejected(Exception error) {
+                if (promise.isCancelled()) {
+                    request.cancel();
+                }
+            }
+        });
+
+        return promise;
+    }
+
+    /**
+     * End the given startup stage once the promise is settled.
+     *
+     * @param stage
+     * @param promise
+     * @return the same promise
+     */
+    private static <T> Promise<T> endStage(@NonNull final String stage, @NonNull Promise<T> promise) {
+        return promise.whenComplete(new Promise.Callback<T>() {
+            @Override
+            public void onFulfilled(T value) {
+                StartupTracer.getInstance().endStage(stage);
+            }
+
+            @Override
+            public void onRejected(Exception error) {
+                StartupTracer.getInstance().endStage(stage);
+            }
+        });
+    }
+
+    /**
+     * Notify the {@link TaskViewModel} about a rejected promise. Cancelled operations are not
+     * reported, nobody is waiting for them.
+     *
+     * @param operation the code reported if the error doesn't have one
+     * @param error
+     */
+    private void notifyError(@TaskViewModel.Operations int operation, @NonNull Exception error) {
+        if (error instanceof CancellationException) {
+            return;
+        }
+
+        if (error instanceof OperationException) {
+            operation = ((OperationException) error).getOperation();
+        }
+        mViewModel.onError(operation, error.getMessage());
+    }
+
+    /**
+     * Forwards the result of a typed SDK callback to an untyped one.
+     */
+    private static class ForwardingCallback<T> implements ICMCallback<T> {
+
+        private final ICMCallback<Object> mCallback;
+
+        ForwardingCallback(ICMCallback<Object> callback) {
+            mCallback = callback;
+        }
+
+        @Override
+        public void onSuccess(T result) {
+            mCallback.onSuccess(result);
+        }
+
+        @Override
+        public void onError(String error) {
+            mCallback.onError(error);
+        }
+    }
 }
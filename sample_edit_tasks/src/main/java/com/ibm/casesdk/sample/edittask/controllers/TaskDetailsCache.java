@@ -0,0 +1,268 @@
+package com.ibm.casesdk.sample.edittask.controllers;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Keeps the most recently loaded task details, so a detail screen can open without waiting for
+ * the server.
+ * <p>
+ * Details are considered fresh for a limited amount of time after they were loaded, and must be
+ * invalidated when the task is changed by this app. Each invalidation changes the version of the
+ * task, details loaded by a request sent before it are not saved. The cache also counts how
+ * useful the prefetched details are: a prefetch is wasted when its details are evicted or
+ * invalidated before anybody asked for them.
+ */
+public class TaskDetailsCache {
+
+    private final long mFreshnessMillis;
+    private final int mMaxInvalidations;
+    private final LruMap mEntries;
+
+    // task id -> version of its last invalidation, oldest first
+    private final LinkedHashMap<String, Long> mInvalidations;
+    private long mVersion;
+
+    // the version of the tasks whose invalidation is not kept anymore
+    private long mBaseVersion;
+
+    private int mHitCount;
+    private int mMissCount;
+    private int mPrefetchCount;
+    private int mUsedPrefetchCount;
+    private int mWastedPrefetchCount;
+
+    /**
+     * @param maxSize         maximum number of tasks kept in the cache
+     * @param freshnessMillis time for which loaded details are considered fresh
+     */
+    public TaskDetailsCache(int maxSize, long freshnessMillis) {
+        mFreshnessMillis = freshnessMillis;
+        mMaxInvalidations = maxSize;
+        mEntries = new LruMap(maxSize);
+        mInvalidations = new LinkedHashMap<String, Long>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() > mMaxInvalidations) {
+                    // the requests sent before it can't be told apart anymore, they are all dropped
+                    mBaseVersion = eldest.getValue();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the fresh details of a task, counting a hit or a miss.
+     *
+     * @param taskId
+     * @return the details or {@code null} if they are not cached or not fresh anymore
+     */
+    public synchronized ICMTask get(@NonNull String taskId) {
+        final CachedTask entry = mEntries.get(taskId);
+
+        if (entry == null || !isFresh(entry)) {
+            if (entry != null) {
+                remove(taskId);
+            }
+            mMissCount++;
+            return null;
+        }
+
+        mHitCount++;
+        if (entry.mPrefetched && !entry.mUsed) {
+            mUsedPrefetchCount++;
+        }
+        entry.mUsed = true;
+        return entry.mTask;
+    }
+
+    /**
+     * @param taskId
+     * @return {@code true} if fresh details are cached, without counting a hit or a miss
+     */
+    public synchronized boolean contains(@NonNull String taskId) {
+        final CachedTask entry = mEntries.get(taskId);
+        return entry != null && isFresh(entry);
+    }
+
+    /**
+     * Get the version of the details of a task, to be read before their request is sent and passed
+     * to {@link #put(ICMTask, boolean, long)} with the result.
+     *
+     * @param taskId
+     * @return
+     */
+    public synchronized long getVersion(@NonNull String taskId) {
+        final Long version = mInvalidations.get(taskId);
+        return version != null ? version : mBaseVersion;
+    }
+
+    /**
+     * Save newly loaded task details, unless the task was invalidated since their request was sent.
+     *
+     * @param task
+     * @param prefetched {@code true} if nobody is waiting for the details yet
+     * @param version    the version of the task when the request was sent
+     */
+    public synchronized void put(@NonNull ICMTask task, boolean prefetched, long version) {
+        if (version != getVersion(task.getId())) {
+            // the details might be older than the change
+            return;
+        }
+
+        final CachedTask previous = mEntries.remove(task.getId());
+
+        if (previous != null && isFresh(previous)) {
+            // a prefetch and a request of the user shared the same call
+            if (prefetched) {
+                mEntries.put(task.getId(), previous);
+                return;
+            }
+            if (previous.mPrefetched && !previous.mUsed) {
+                mUsedPrefetchCount++;
+            }
+        } else if (previous != null) {
+            countIfWasted(previous);
+        }
+
+        mEntries.put(task.getId(), new CachedTask(task, prefetched));
+        if (prefetched) {
+            mPrefetchCount++;
+        }
+    }
+
+    /**
+     * Remove the details of a task that has been changed.
+     *
+     * @param taskId
+     */
+    public synchronized void invalidate(@NonNull String taskId) {
+        remove(taskId);
+
+        // moved to the end, as the latest invalidation
+        mInvalidations.remove(taskId);
+        mInvalidations.put(taskId, ++mVersion);
+    }
+
+    /**
+     * Remove all the cached details.
+     */
+    public synchronized void clear() {
+        for (CachedTask entry : mEntries.values()) {
+            countIfWasted(entry);
+        }
+        mEntries.clear();
+        mInvalidations.clear();
+        mBaseVersion = ++mVersion;
+    }
+
+    /**
+     * @return the number of times fresh details were returned
+     */
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * @return the number of times the details had to be loaded from the server
+     */
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return the fraction of the requests answered from the cache, 0 if there was no request
+     */
+    public synchronized double getHitRate() {
+        final int total = mHitCount + mMissCount;
+        return total > 0 ? (double) mHitCount / total : 0;
+    }
+
+    /**
+     * @return the number of details saved by prefetching
+     */
+    public synchronized int getPrefetchCount() {
+        return mPrefetchCount;
+    }
+
+    /**
+     * @return the number of prefetched details that were requested afterwards
+     */
+    public synchronized int getUsedPrefetchCount() {
+        return mUsedPrefetchCount;
+    }
+
+    /**
+     * @return the number of prefetched details dropped before being requested
+     */
+    public synchronized int getWastedPrefetchCount() {
+        return mWastedPrefetchCount;
+    }
+
+    public synchronized String formatReport() {
+        return String.format(Locale.US, "TASK_DETAILS_CACHE\n  hits %d  misses %d  hit rate %.0f%%\n"
+                        + "  prefetched %d  used %d  wasted %d\n",
+                mHitCount, mMissCount, getHitRate() * 100, mPrefetchCount, mUsedPrefetchCount, mWastedPrefetchCount);
+    }
+
+    private boolean isFresh(CachedTask entry) {
+        return SystemClock.elapsedRealtime() - entry.mLoadTime < mFreshnessMillis;
+    }
+
+    private void remove(String taskId) {
+        final CachedTask entry = mEntries.remove(taskId);
+        if (entry != null) {
+            countIfWasted(entry);
+        }
+    }
+
+    private void countIfWasted(CachedTask entry) {
+        if (entry.mPrefetched && !entry.mUsed) {
+            mWastedPrefetchCount++;
+        }
+    }
+
+    private static class CachedTask {
+        final ICMTask mTask;
+        final long mLoadTime;
+        final boolean mPrefetched;
+        boolean mUsed;
+
+        CachedTask(ICMTask task, boolean prefetched) {
+            mTask = task;
+            mLoadTime = SystemClock.elapsedRealtime();
+            mPrefetched = prefetched;
+        }
+    }
+
+    /**
+     * {@link LinkedHashMap} in access order that drops the least recently used entry when it
+     * grows over its maximum size.
+     */
+    private class LruMap extends LinkedHashMap<String, CachedTask> {
+
+        private final int mMaxSize;
+
+        LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            mMaxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedTask> eldest) {
+            if (size() > mMaxSize) {
+                countIfWasted(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.ibm.casesdk.sample.edittask.controllers;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMCallback;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads the details of the tasks shown in a list into a {@link TaskDetailsCache} before they are
+ * opened.
+ * <p>
+ * The list reports the rows on screen while it scrolls. Once the scrolling settles for a moment,
+ * the visible tasks are loaded first, then the ones just above and below them, closest first, a
+ * few at a time so the requests of the user are not delayed. Tasks that scroll away before their
+ * request is sent are dropped, requests already sent still save their result in the cache. The
+ * prefetcher must be used from the main thread, which is where the SDK delivers its callbacks.
+ */
+public class TaskPrefetcher {
+
+    /**
+     * Loads the details of a task from the server.
+     */
+    public interface Loader {
+        void load(ICMTask task, ICMCallback<ICMTask> callback);
+    }
+
+    private final TaskDetailsCache mCache;
+    private final Loader mLoader;
+    private final int mParallelism;
+    private final int mLookahead;
+    private final long mDelayMillis;
+    private final Handler mHandler;
+
+    private final LinkedList<ICMTask> mPendingTasks = new LinkedList<>();
+    private final Set<String> mInFlightIds = new HashSet<>();
+    private List<ICMTask> mTasks;
+    private int mFirstVisible;
+    private int mLastVisible;
+    private int mRequestCount;
+    private int mDroppedCount;
+
+    private final Runnable mUpdateRunnable = new Runnable() {
+        @Override
+        public void run() {
+            schedule();
+        }
+    };
+
+    /**
+     * @param cache       the cache the details are saved to
+     * @param loader
+     * @param parallelism maximum number of requests in flight
+     * @param lookahead   number of rows above and below the visible ones that are prefetched
+     * @param delayMillis time the list has to stay still before its rows are prefetched
+     */
+    public TaskPrefetcher(@NonNull TaskDetailsCache cache, @NonNull Loader loader, int parallelism,
+                          int lookahead, long delayMillis) {
+        mCache = cache;
+        mLoader = loader;
+        mParallelism = parallelism;
+        mLookahead = lookahead;
+        mDelayMillis = delayMillis;
+        mHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Report the rows currently on screen.
+     *
+     * @param tasks        the tasks of the list
+     * @param firstVisible the position of the first visible row, or -1 if there is none
+     * @param lastVisible  the position of the last visible row
+     */
+    public void setVisibleRange(@NonNull List<ICMTask> tasks, int firstVisible, int lastVisible) {
+        mTasks = tasks;
+        mFirstVisible = firstVisible;
+        mLastVisible = lastVisible;
+
+        // wait for the scrolling to settle
+        mHandler.removeCallbacks(mUpdateRunnable);
+        mHandler.postDelayed(mUpdateRunnable, mDelayMillis);
+    }
+
+    /**
+     * Drop the tasks waiting to be prefetched, e.g. when the list is not displayed anymore.
+     */
+    public void cancel() {
+        mHandler.removeCallbacks(mUpdateRunnable);
+        mDroppedCount += mPendingTasks.size();
+        mPendingTasks.clear();
+    }
+
+    /**
+     * @return the number of requests sent to the server
+     */
+    public int getRequestCount() {
+        return mRequestCount;
+    }
+
+    /**
+     * @return the number of tasks that scrolled away before their request was sent
+     */
+    public int getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    private void schedule() {
+        final List<ICMTask> wanted = new ArrayList<>();
+        if (mTasks != null && mFirstVisible >= 0) {
+            final int last = Math.min(mLastVisible, mTasks.size() - 1);
+
+            // visible rows first, then the closest rows outside the screen, below before above
+            for (int position = mFirstVisible; position <= last; position++) {
+                wanted.add(mTasks.get(position));
+            }
+            for (int distance = 1; distance <= mLookahead; distance++) {
+                if (last + distance < mTasks.size()) {
+                    wanted.add(mTasks.get(last + distance));
+                }
+                if (mFirstVisible - distance >= 0) {
+                    wanted.add(mTasks.get(mFirstVisible - distance));
+                }
+            }
+        }
+
+        // the pending tasks that are not wanted anymore are dropped
+        final Set<String> wantedIds = new HashSet<>();
+        for (ICMTask task : wanted) {
+            wantedIds.add(task.getId());
+        }
+        for (ICMTask task : mPendingTasks) {
+            if (!wantedIds.contains(task.getId())) {
+                mDroppedCount++;
+            }
+        }
+
+        mPendingTasks.clear();
+        for (ICMTask task : wanted) {
+            if (!mInFlightIds.contains(task.getId()) && !mCache.contains(task.getId())) {
+                mPendingTasks.add(task);
+            }
+        }
+
+        sendRequests();
+    }
+
+    private void sendRequests() {
+        while (mInFlightIds.size() < mParallelism && !mPendingTasks.isEmpty()) {
+            final ICMTask task = mPendingTasks.removeFirst();
+            if (mCache.contains(task.getId())) {
+                continue;
+            }
+
+            final long version = mCache.getVersion(task.getId());
+            mInFlightIds.add(task.getId());
+            mRequestCount++;
+            mLoader.load(task, new ICMCallback<ICMTask>() {
+                @Override
+                public void onSuccess(ICMTask icmTask) {
+                    mCache.put(icmTask, true, version);
+                    onRequestFinished(task);
+                }
+
+                @Override
+                public void onError(String s) {
+                    // the task will be loaded again when it is opened
+                    onRequestFinished(task);
+                }
+            });
+        }
+    }
+
+    private void onRequestFinished(ICMTask task) {
+        mInFlightIds.remove(task.getId());
+        sendRequests();
+    }
+}
@@ -1,10 +1,12 @@
 package com.ibm.casesdk.sample.edittask.utils;
 
+import com.ibm.casesdk.sample.edittask.BuildConfig;
+
 /**
  * Created by stelian on 26/10/2015.
  */
 public class Constants {
-    public static final String ENDPOINT = "http://ecm1.fws.io:9080/navigator/";
+    public static final String ENDPOINT = BuildConfig.ICM_ENDPOINT;
     public static final String SOLUTION = "CRE Loans";
     public static final String SOLUTION_PREFIX = "CRE1";
     public static final String USER = "caseuser1";
@@ -12,6 +14,32 @@ public class Constants {
     public static final String ROLE = "Loan Officer";
     public static final double DEFAULT_RADIUS = 0.2;
     public static final int DEFAULT_TASK_ACTION_INDEX = 0;
+    public static final int MANAGER_CACHE_INBASKETS = 16;
+    public static final int MANAGER_CACHE_TASKS = 64;
+    public static final long SOLUTION_CACHE_FRESHNESS = 1000 * 60 * 5;
+    public static final int BATCH_PARALLELISM = 4;
+    public static final String JOURNAL_FILE = "operations.journal";
+    public static final int JOURNAL_MAX_ENTRIES = 200;
+    public static final long JOURNAL_REPLAY_INTERVAL = 250;
+    public static final int JOURNAL_MAX_ATTEMPTS = 5;
+    public static final long JOURNAL_RETRY_BASE_DELAY = 2000;
+    public static final long JOURNAL_RETRY_MAX_DELAY = 60000;
+    public static final int RETRY_MAX_ATTEMPTS = 4;
+    public static final long RETRY_BASE_DELAY = 500;
+    public static final long RETRY_MAX_DELAY = 8000;
+    public static final int CIRCUIT_FAILURE_THRESHOLD = 5;
+    public static final long CIRCUIT_OPEN_DURATION = 10000;
+    public static final long SDK_TIMEOUT = 15000; // connect timeout of the SDK, the shortest of its timeouts
     public static final String EXTRA_TASK = "extra_task";
     public static final int TASK_STATE_COMPLETE = 5;
+    public static final String METRICS_REPORT_FILE = "operation_metrics.txt";
+    public static final String STARTUP_TRACE_FILE = "startup_trace.json";
+    public static final long BOOTSTRAP_TIMEOUT = 60000;
+    public static final int TASK_DETAILS_CACHE_SIZE = 50;
+    public static final long TASK_DETAILS_FRESHNESS = 1000 * 60;
+    public static final int PREFETCH_PARALLELISM = 2;
+    public static final int PREFETCH_LOOKAHEAD = 3;
+    public static final long PREFETCH_DELAY = 150;
+    public static final int INBASKET_LOAD_CONCURRENCY = 4;
+    public static final long INBASKET_LOAD_TIMEOUT = 15000;
 }
@@ -0,0 +1,62 @@
+package com.ibm.casesdk.sample.edittask.utils;
+
+import android.support.annotation.NonNull;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMLayout;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Find the properties of a task displayed by each {@link ICMLayout}.
+ * <p>
+ * This class doesn't use the Android framework, so it can be benchmarked on the JVM.
+ */
+public class LayoutMatcher {
+
+    private LayoutMatcher() {
+    }
+
+    public static boolean isSection(@NonNull ICMLayout layout) {
+        return layout.getType().equalsIgnoreCase(ICMLayout.LAYOUT_SECTION);
+    }
+
+    /**
+     * Get the task properties associated with the given layout, in the order of the task.
+     *
+     * @param layout
+     * @param properties the properties of the task
+     * @return
+     */
+    public static List<ICMProperty> getLayoutProperties(@NonNull ICMLayout layout, @NonNull List<ICMProperty> properties) {
+        final List<ICMProperty> layoutProperties = new ArrayList<>();
+        final boolean isSection = isSection(layout);
+
+        for (ICMProperty p : properties) {
+            final String symbolicName = p.getSymbolicName();
+            boolean isInLayout;
+            if (isSection) {
+
+                // section layouts have property names defined in a list
+                isInLayout = !isEmpty(symbolicName) && layout.getProperties().contains(symbolicName);
+            } else {
+
+                // regular layouts define the property name as the layout name
+                isInLayout = !isEmpty(symbolicName) &&
+                        !isEmpty(layout.getName()) &&
+                        layout.getName().equalsIgnoreCase(symbolicName);
+            }
+
+            if (isInLayout) {
+                layoutProperties.add(p);
+            }
+        }
+
+        return layoutProperties;
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.length() == 0;
+    }
+}
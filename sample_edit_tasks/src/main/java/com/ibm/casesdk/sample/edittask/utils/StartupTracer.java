@@ -0,0 +1,271 @@
+package com.ibm.casesdk.sample.edittask.utils;
+
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Records the startup of the app as a timeline of spans, from {@code Application.onCreate()}
+ * until the first task is displayed.
+ * <p>
+ * Bootstrap stages are recorded with {@link #beginStage(String)} and {@link #endStage(String)},
+ * SDK requests with {@link #recordNetwork(String, long, long)}. When {@link #finish(String)} is
+ * called the time between two stages is added as a gap span and the timeline is written to the
+ * output file in the Chrome trace event format, which can be opened in {@code chrome://tracing}.
+ * Nothing is recorded after that.
+ */
+public class StartupTracer {
+
+    private static final String LOG_TAG = StartupTracer.class.getSimpleName();
+
+    private static final String CATEGORY_STAGE = "stage";
+    private static final String CATEGORY_GAP = "gap";
+    private static final String CATEGORY_NETWORK = "network";
+
+    // the stages and the gaps are on the first row of the timeline, the requests below them
+    private static final int STAGE_THREAD = 1;
+    private static final int FIRST_NETWORK_THREAD = 2;
+
+    private static final StartupTracer sInstance = new StartupTracer();
+
+    /**
+     * A completed span.
+     */
+    private static class Span {
+        final String mName;
+        final String mCategory;
+        final long mStartMicros;
+        final long mDurationMicros;
+        int mThread;
+
+        Span(String name, String category, long startMicros, long durationMicros) {
+            mName = name;
+            mCategory = category;
+            mStartMicros = startMicros;
+            mDurationMicros = durationMicros;
+        }
+
+        long getEndMicros() {
+            return mStartMicros + mDurationMicros;
+        }
+    }
+
+    private final long mOriginNanos;
+    private final List<Span> mSpans;
+    private final HashMap<String, Long> mOpenStages;
+    private volatile boolean mRecording;
+    private File mOutputFile;
+
+    private StartupTracer() {
+        mOriginNanos = System.nanoTime();
+        mSpans = new ArrayList<>();
+        mOpenStages = new HashMap<>();
+    }
+
+    public static StartupTracer getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Start recording. Should be called as early as possible, in {@code Application.onCreate()}.
+     *
+     * @param outputFile the file the trace is written to when the startup is finished
+     */
+    public synchronized void start(@NonNull File outputFile) {
+        mOutputFile = outputFile;
+        mRecording = true;
+    }
+
+    public boolean isRecording() {
+        return mRecording;
+    }
+
+    /**
+     * Mark the beginning of a bootstrap stage. A stage that is begun again before it ended
+     * restarts.
+     *
+     * @param name
+     */
+    public synchronized void beginStage(@NonNull String name) {
+        if (mRecording) {
+            mOpenStages.put(name, System.nanoTime());
+        }
+    }
+
+    /**
+     * Mark the end of a bootstrap stage. Stages that were not begun are ignored.
+     *
+     * @param name
+     */
+    public synchronized void endStage(@NonNull String name) {
+        final Long startNanos = mOpenStages.remove(name);
+        if (mRecording && startNanos != null) {
+            addSpan(name, CATEGORY_STAGE, startNanos, System.nanoTime());
+        }
+    }
+
+    /**
+     * Record a request sent to the server.
+     *
+     * @param name
+     * @param startNanos {@link System#nanoTime()} when the request was sent
+     * @param endNanos   {@link System#nanoTime()} when the result was received
+     */
+    public synchronized void recordNetwork(@NonNull String name, long startNanos, long endNanos) {
+        if (mRecording) {
+            addSpan(name, CATEGORY_NETWORK, startNanos, endNanos);
+        }
+    }
+
+    /**
+     * Stop recording and write the trace, in the background. Only the first call has any effect.
+     *
+     * @param name the name of the event that ends the startup, e.g. the first task being displayed
+     */
+    public void finish(@NonNull String name) {
+        // fast path, this is called every time a task is displayed
+        if (!mRecording) {
+            return;
+        }
+
+        final List<Span> spans;
+        final File outputFile;
+        synchronized (this) {
+            if (!mRecording) {
+                return;
+            }
+            mRecording = false;
+
+            final long now = System.nanoTime();
+            addSpan(name, CATEGORY_STAGE, now, now);
+            spans = new ArrayList<>(mSpans);
+            outputFile = mOutputFile;
+        }
+
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                addGaps(spans);
+                assignThreads(spans);
+                writeTrace(spans, outputFile);
+            }
+        }, LOG_TAG).start();
+    }
+
+    private void addSpan(String name, String category, long startNanos, long endNanos) {
+        mSpans.add(new Span(name, category, (startNanos - mOriginNanos) / 1000,
+                Math.max(0, endNanos - startNanos) / 1000));
+    }
+
+    /**
+     * Add a span for each interval between two stages, which is time spent in the callbacks and
+     * the UI rather than in any stage.
+     *
+     * @param spans
+     */
+    private static void addGaps(List<Span> spans) {
+        final List<Span> stages = new ArrayList<>();
+        for (Span span : spans) {
+            if (CATEGORY_STAGE.equals(span.mCategory)) {
+                stages.add(span);
+            }
+        }
+        sortByStart(stages);
+
+        long lastEnd = 0;
+        for (Span stage : stages) {
+            if (stage.mStartMicros > lastEnd) {
+                spans.add(new Span("gap before " + stage.mName, CATEGORY_GAP, lastEnd,
+                        stage.mStartMicros - lastEnd));
+            }
+            lastEnd = Math.max(lastEnd, stage.getEndMicros());
+        }
+    }
+
+    /**
+     * Put the stages and gaps on the stage row and spread the requests over as many rows as needed
+     * so the spans of a row don't overlap.
+     *
+     * @param spans
+     */
+    private static void assignThreads(List<Span> spans) {
+        sortByStart(spans);
+
+        final List<Long> rowEnds = new ArrayList<>();
+        for (Span span : spans) {
+            if (!CATEGORY_NETWORK.equals(span.mCategory)) {
+                span.mThread = STAGE_THREAD;
+                continue;
+            }
+
+            int row = 0;
+            while (row < rowEnds.size() && rowEnds.get(row) > span.mStartMicros) {
+                row++;
+            }
+
+            if (row == rowEnds.size()) {
+                rowEnds.add(span.getEndMicros());
+            } else {
+                rowEnds.set(row, span.getEndMicros());
+            }
+            span.mThread = FIRST_NETWORK_THREAD + row;
+        }
+    }
+
+    private static void sortByStart(List<Span> spans) {
+        Collections.sort(spans, new Comparator<Span>() {
+            @Override
+            public int compare(Span first, Span second) {
+                return first.mStartMicros < second.mStartMicros ? -1
+                        : first.mStartMicros == second.mStartMicros ? 0 : 1;
+            }
+        });
+    }
+
+    private static void writeTrace(List<Span> spans, File outputFile) {
+        final StringBuilder builder = new StringBuilder("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+        builder.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":").append(STAGE_THREAD)
+                .append(",\"args\":{\"name\":\"bootstrap\"}}");
+
+        long networkMicros = 0;
+        for (Span span : spans) {
+            builder.append(",\n{\"name\":\"").append(span.mName.replace("\"", "\\\""))
+                    .append("\",\"cat\":\"").append(span.mCategory)
+                    .append("\",\"ph\":\"X\",\"ts\":").append(span.mStartMicros)
+                    .append(",\"dur\":").append(span.mDurationMicros)
+                    .append(",\"pid\":1,\"tid\":").append(span.mThread).append('}');
+
+            if (CATEGORY_NETWORK.equals(span.mCategory)) {
+                networkMicros += span.mDurationMicros;
+            }
+        }
+        builder.append("\n]}\n");
+
+        long totalMicros = 0;
+        for (Span span : spans) {
+            totalMicros = Math.max(totalMicros, span.getEndMicros());
+        }
+        Log.i(LOG_TAG, String.format("Startup took %d ms, %d ms in requests, trace written to %s",
+                totalMicros / 1000, networkMicros / 1000, outputFile));
+
+        try {
+            final Writer writer = new FileWriter(outputFile);
+            try {
+                writer.write(builder.toString());
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Could not write the startup trace", e);
+        }
+    }
+}
@@ -6,7 +6,6 @@ import android.content.Context;
 import android.support.annotation.NonNull;
 import android.text.Editable;
 import android.text.InputType;
-import android.text.TextUtils;
 import android.text.TextWatcher;
 import android.text.format.DateFormat;
 import android.view.LayoutInflater;
@@ -25,7 +24,6 @@ import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMLayout;
 import com.ibm.casesdk.sample.edittask.R;
 
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
@@ -106,10 +104,9 @@ public class TaskDisplayHelper {
 
             // for each layout
             for (ICMLayout layout : layouts) {
-                final List<ICMProperty> layoutProperties = new ArrayList<>();
 
                 // if this layout is a section - add a section header
-                if (layout.getType().equalsIgnoreCase(ICMLayout.LAYOUT_SECTION)) {
+                if (LayoutMatcher.isSection(layout)) {
                     final TextView sectionHeader = (TextView) mInflater.inflate(R.layout.layout_task_section, null, false);
 
                     // if we don't have a title the section will just say "Generic properties"
@@ -121,25 +118,7 @@ public class TaskDisplayHelper {
                 }
 
                 // get the task properties associated with the current layout
-                for (ICMProperty p : propertyList) {
-                    final String symbolicName = p.getSymbolicName();
-                    boolean isInLayout;
-                    if (layout.getType().equalsIgnoreCase(ICMLayout.LAYOUT_SECTION)) {
-
-                        // section layouts have property names defined in a list
-                        isInLayout = !TextUtils.isEmpty(symbolicName) && layout.getProperties().contains(symbolicName);
-                    } else {
-
-                        // regular layouts define the property name as the layout name
-                        isInLayout = !TextUtils.isEmpty(symbolicName) &&
-                                !TextUtils.isEmpty(layout.getName()) &&
-                                layout.getName().equalsIgnoreCase(symbolicName);
-                    }
-
-                    if (isInLayout) {
-                        layoutProperties.add(p);
-                    }
-                }
+                final List<ICMProperty> layoutProperties = LayoutMatcher.getLayoutProperties(layout, propertyList);
 
                 // display layout properties
                 displayProperties(propertiesContainer, layoutProperties, isEditable);
@@ -0,0 +1,43 @@
+package com.ibm.casesdk.sample.edittask.utils;
+
+import android.support.annotation.NonNull;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Parse and format the dates with time zone used by the property values of a task.
+ * <p>
+ * This class doesn't use the Android framework, so it can be benchmarked on the JVM.
+ */
+public class TimeZoneFormat {
+
+    public static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+
+    private TimeZoneFormat() {
+    }
+
+    /**
+     * Parse a {@link String} that contains a valid date with time zone.
+     *
+     * @param dateTime
+     * @return the date or {@code null} if the value isn't a valid date
+     */
+    public static Date parse(@NonNull String dateTime) {
+        final SimpleDateFormat timeZoneParser = new SimpleDateFormat(PATTERN);
+        Date parsed = null;
+
+        try {
+            parsed = timeZoneParser.parse(dateTime);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return parsed;
+    }
+
+    public static String format(@NonNull Date dateTime) {
+        final SimpleDateFormat timeZoneParser = new SimpleDateFormat(PATTERN);
+        return timeZoneParser.format(dateTime);
+    }
+}
@@ -1,6 +1,9 @@
 package com.ibm.casesdk.sample.edittask.utils;
 
 import android.app.Activity;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
 import android.support.annotation.NonNull;
 import android.view.View;
 import android.view.Window;
@@ -18,6 +21,20 @@ public class Utils {
         return activity.findViewById(android.R.id.content);
     }
 
+    /**
+     * Determine if the device has a network connection.
+     *
+     * @param context
+     * @return
+     */
+    public static boolean isNetworkAvailable(@NonNull Context context) {
+        final ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        final NetworkInfo networkInfo = connectivityManager.getActiveNetworkInfo();
+
+        return networkInfo != null && networkInfo.isConnected();
+    }
+
     public static void showKeyboard(@NonNull Window window) {
         window.setSoftInputMode(WindowManager.LayoutParams.SOFT_INPUT_STATE_ALWAYS_VISIBLE);
     }
@@ -34,20 +51,10 @@ public class Utils {
      * @return
      */
     public static Date parseTimeZone(@NonNull String dateTime) {
-        final SimpleDateFormat timeZoneParser = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
-        Date parsed = null;
-
-        try {
-            parsed = timeZoneParser.parse(dateTime);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        return parsed;
+        return TimeZoneFormat.parse(dateTime);
     }
 
     public static String formatDateWithTimeZone(@NonNull Date dateTime) {
-        final SimpleDateFormat timeZoneParser = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
-        return timeZoneParser.format(dateTime);
+        return TimeZoneFormat.format(dateTime);
     }
 }
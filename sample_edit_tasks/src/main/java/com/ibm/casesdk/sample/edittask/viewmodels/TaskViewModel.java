@@ -5,6 +5,7 @@ import android.support.annotation.IntDef;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMRole;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMSolution;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+import com.ibm.casesdk.sample.edittask.controllers.OperationJournal;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -24,12 +25,13 @@ public interface TaskViewModel {
     int LOCK_TASK = 6;
     int UNLOCK_TASK = 7;
     int TASK_ACTION = 8;
+    int PREFETCH_TASK_DETAILS = 9;
 
     /**
      * Define valid operations for the {@link TaskViewModel}
      */
     @IntDef({INITIATE_SESSION, FIND_NEARBY_TASKS, FIND_ROLE, FIND_SOLUTION, LOAD_SOLUTION_DETAILS,
-            LOAD_TASK_DETAILS, LOCK_TASK, UNLOCK_TASK, TASK_ACTION})
+            LOAD_TASK_DETAILS, LOCK_TASK, UNLOCK_TASK, TASK_ACTION, PREFETCH_TASK_DETAILS})
     @Retention(RetentionPolicy.SOURCE)
     @interface Operations {
     }
@@ -63,6 +65,11 @@ public interface TaskViewModel {
      */
     void onTasksFound(final List<ICMTask> icmTasks);
 
+    /**
+     * Notify when the tasks have been reloaded but are the same as the ones previously found.
+     */
+    void onTasksUnchanged();
+
     /**
      * Notify when the details for a {@link ICMTask} have been loaded.
      *
@@ -99,6 +106,24 @@ public interface TaskViewModel {
      */
     void onTaskActionPerformed(final ICMTask task, final int actionIndex);
 
+    /**
+     * Notify when an operation on a task was saved to be sent later, because the device is offline.
+     *
+     * @param operation    the saved operation
+     * @param task
+     * @param pendingCount number of operations waiting to be sent
+     */
+    void onTaskOperationQueued(@OperationJournal.Operation final int operation, final ICMTask task,
+                               final int pendingCount);
+
+    /**
+     * Notify when the operations saved while offline have been sent.
+     *
+     * @param replayedCount number of operations accepted by the server
+     * @param rejectedCount number of operations rejected by the server
+     */
+    void onOperationsReplayed(final int replayedCount, final int rejectedCount);
+
     /**
      * Notify when an operation fails.
      *
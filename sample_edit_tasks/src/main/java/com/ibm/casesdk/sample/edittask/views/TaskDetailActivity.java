@@ -19,6 +19,7 @@ import com.ibm.casemanagersdk.sdk.interfaces.ICMSolution;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
 import com.ibm.casesdk.sample.edittask.R;
 import com.ibm.casesdk.sample.edittask.TaskManagerApp;
+import com.ibm.casesdk.sample.edittask.controllers.OperationJournal;
 import com.ibm.casesdk.sample.edittask.controllers.TaskController;
 import com.ibm.casesdk.sample.edittask.utils.Constants;
 import com.ibm.casesdk.sample.edittask.utils.TaskDisplayHelper;
@@ -52,6 +53,7 @@ public class TaskDetailActivity extends BaseActivity implements TaskViewModel, T
     private TaskController mTaskController;
     private TaskDisplayHelper mTaskDisplayHelper;
     private int mChangedPropertiesCounter = 0;
+    private boolean mDetailsLoaded = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -90,7 +92,11 @@ public class TaskDetailActivity extends BaseActivity implements TaskViewModel, T
     @Override
     protected void onResume() {
         super.onResume();
-        showIndeterminateProgress();
+
+        // cached details are displayed as soon as the activity is created
+        if (!mDetailsLoaded) {
+            showIndeterminateProgress();
+        }
 
         // show task name and subject before details are loaded
         if (mTask != null) {
@@ -174,11 +180,17 @@ public class TaskDetailActivity extends BaseActivity implements TaskViewModel, T
         // Not needed
     }
 
+    @Override
+    public void onTasksUnchanged() {
+        // Not needed
+    }
+
     @Override
     public void onTaskDetailsLoaded(ICMTask task) {
         hideIndeterminateProgress();
 
         mTask = task;
+        mDetailsLoaded = true;
 
         // update status icon
         updateTaskStatusIcon();
@@ -239,6 +251,33 @@ public class TaskDetailActivity extends BaseActivity implements TaskViewModel, T
         finish();
     }
 
+    @Override
+    public void onTaskOperationQueued(@OperationJournal.Operation int operation, ICMTask task, int pendingCount) {
+        hideIndeterminateProgress();
+
+        switch (operation) {
+            case OperationJournal.OP_COMPLETE:
+            case OperationJournal.OP_LOCK:
+                // same as when the operation is sent right away
+                finish();
+                return;
+            case OperationJournal.OP_UPDATE:
+                // the changes are saved, reset change counter and refresh menu state
+                mChangedPropertiesCounter = 0;
+                updateMenuState(false);
+                break;
+        }
+
+        Snackbar.make(Utils.getContentView(this),
+                getString(R.string.msg_operation_queued, pendingCount),
+                Snackbar.LENGTH_LONG).show();
+    }
+
+    @Override
+    public void onOperationsReplayed(int replayedCount, int rejectedCount) {
+        // Not needed
+    }
+
     @Override
     public void onError(@Operations int operationCode, String error) {
         hideIndeterminateProgress();
@@ -1,34 +1,52 @@
 package com.ibm.casesdk.sample.edittask.views;
 
+import android.content.DialogInterface;
 import android.content.Intent;
 import android.os.Bundle;
 import android.support.annotation.NonNull;
 import android.support.design.widget.Snackbar;
 import android.support.v4.widget.SwipeRefreshLayout;
+import android.support.v7.app.AlertDialog;
+import android.support.v7.view.ActionMode;
 import android.support.v7.widget.DefaultItemAnimator;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
+import android.text.TextUtils;
+import android.view.LayoutInflater;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.widget.EditText;
 
+import com.ibm.casemanagersdk.sdk.interfaces.ICMCallback;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMRole;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMSolution;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMUser;
 import com.ibm.casesdk.sample.edittask.R;
 import com.ibm.casesdk.sample.edittask.TaskManagerApp;
 import com.ibm.casesdk.sample.edittask.adapters.ClickkableRecyclerAdapter;
 import com.ibm.casesdk.sample.edittask.adapters.TaskListAdapter;
+import com.ibm.casesdk.sample.edittask.controllers.AggregatedTaskList;
+import com.ibm.casesdk.sample.edittask.controllers.OperationException;
+import com.ibm.casesdk.sample.edittask.controllers.OperationJournal;
+import com.ibm.casesdk.sample.edittask.controllers.Promise;
+import com.ibm.casesdk.sample.edittask.controllers.TaskBatch;
 import com.ibm.casesdk.sample.edittask.controllers.TaskController;
 import com.ibm.casesdk.sample.edittask.utils.Constants;
+import com.ibm.casesdk.sample.edittask.utils.StartupTracer;
 import com.ibm.casesdk.sample.edittask.utils.Utils;
 import com.ibm.casesdk.sample.edittask.viewmodels.TaskViewModel;
 
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
 import butterknife.Bind;
 import butterknife.ButterKnife;
 
 
 public class TaskManagerActivity extends BaseActivity implements SwipeRefreshLayout.OnRefreshListener,
-        TaskViewModel, ClickkableRecyclerAdapter.RecyclerViewClickListener {
+        TaskViewModel, ClickkableRecyclerAdapter.RecyclerViewClickListener,
+        ClickkableRecyclerAdapter.RecyclerViewLongClickListener, ActionMode.Callback {
 
     @Bind(R.id.recycler_view)
     RecyclerView mRecyclerView;
@@ -40,10 +58,17 @@ public class TaskManagerActivity extends BaseActivity implements SwipeRefreshLay
     private TaskController mTaskController;
 
     private boolean mAuthenticating = false;
+    private Promise<List<ICMTask>> mBootstrap;
+    private ActionMode mSelectionMode;
+    private ICMRole mRole;
+    private boolean mAllWorkbaskets = false;
+    @AggregatedTaskList.Order
+    private int mTaskOrder = AggregatedTaskList.ORDER_BASKET;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        StartupTracer.getInstance().beginStage("Activity.onCreate");
         setContentView(R.layout.activity_task_manager);
 
         ButterKnife.bind(this);
@@ -55,6 +80,52 @@ public class TaskManagerActivity extends BaseActivity implements SwipeRefreshLay
         setupSwipeRefresh();
 
         mTaskController = new TaskController(this, this);
+
+        StartupTracer.getInstance().endStage("Activity.onCreate");
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_task_manager, menu);
+        return super.onCreateOptionsMenu(menu);
+    }
+
+    @Override
+    public boolean onPrepareOptionsMenu(Menu menu) {
+        menu.findItem(R.id.action_all_workbaskets).setChecked(mAllWorkbaskets);
+
+        // the tasks of a single basket are displayed in the order of the server
+        menu.findItem(R.id.action_sort).setVisible(mAllWorkbaskets);
+        menu.findItem(mTaskOrder == AggregatedTaskList.ORDER_DEADLINE ? R.id.action_sort_deadline
+                : mTaskOrder == AggregatedTaskList.ORDER_DATE_RECEIVED ? R.id.action_sort_date_received
+                : R.id.action_sort_basket).setChecked(true);
+
+        return super.onPrepareOptionsMenu(menu);
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        switch (item.getItemId()) {
+            case R.id.action_performance_report:
+                showPerformanceReport(mTaskController.getOperationMetrics(),
+                        mTaskController.getTaskDetailsCache().formatReport());
+                return true;
+            case R.id.action_all_workbaskets:
+                mAllWorkbaskets = !mAllWorkbaskets;
+                reloadTasks();
+                return true;
+            case R.id.action_sort_basket:
+                setTaskOrder(AggregatedTaskList.ORDER_BASKET);
+                return true;
+            case R.id.action_sort_deadline:
+                setTaskOrder(AggregatedTaskList.ORDER_DEADLINE);
+                return true;
+            case R.id.action_sort_date_received:
+                setTaskOrder(AggregatedTaskList.ORDER_DATE_RECEIVED);
+                return true;
+            default:
+                return super.onOptionsItemSelected(item);
+        }
     }
 
     @Override
@@ -76,15 +147,34 @@ public class TaskManagerActivity extends BaseActivity implements SwipeRefreshLay
         onRefresh();
     }
 
+    @Override
+    protected void onPause() {
+        super.onPause();
+
+        // the rows are not visible anymore
+        mTaskController.cancelPrefetch();
+    }
+
+    @Override
+    protected void onDestroy() {
+        // nobody waits for the first tasks anymore
+        if (mBootstrap != null) {
+            mBootstrap.cancel();
+        }
+
+        super.onDestroy();
+    }
+
     @Override
     public void onRefresh() {
         // refresh task list or login if necessary
         if (mTaskController.isSessionInitiated()) {
             // user already authenticated which means we already have a solution and a role
 
-            // we need to reload the solution from the server to get the updated tasks
+            // the tasks are reloaded from the server, the solution is only reloaded when the
+            // cached one is stale
             setLayoutRefreshing(true);
-            mTaskController.loadSolutionDetails(mTaskController.getSolution());
+            mTaskController.refreshSolutionDetails(mTaskController.getSolution());
         } else {
             login();
         }
@@ -92,24 +182,19 @@ public class TaskManagerActivity extends BaseActivity implements SwipeRefreshLay
 
     @Override
     public void onSessionInitiated() {
-        mAuthenticating = false;
-
-        // save at Application level
-        final TaskManagerApp app = (TaskManagerApp) getApplication();
-        app.setTaskController(mTaskController);
-
-        //  find custom solution
-        mTaskController.findSolution(Constants.SOLUTION);
+        // Not needed here, the session is initiated by the bootstrap
     }
 
     @Override
     public void onSolutionFound(ICMSolution solution) {
-        // load solution details
-        mTaskController.loadSolutionDetails(solution);
+        // Not needed here, the solution is found by the bootstrap
     }
 
     @Override
     public void onSolutionDetailsLoaded(ICMSolution solution) {
+        // send the operations saved while offline
+        mTaskController.replayJournal();
+
         // search for the role
         mTaskController.findRole(Constants.ROLE);
     }
@@ -118,9 +203,9 @@ public class TaskManagerActivity extends BaseActivity implements SwipeRefreshLay
     public void onRoleFound(ICMRole role) {
         // after we found the role, we ca create the RoleManager and get the tasks
         mTaskController.createRoleManager(role);
+        mRole = role;
 
-        // get tasks from the first InBasket
-        mTaskController.getTasksFromBasket(role, 0);
+        loadTasks();
     }
 
     @Override
@@ -128,10 +213,8 @@ public class TaskManagerActivity extends BaseActivity implements SwipeRefreshLay
         setLayoutRefreshing(false);
 
         if (!icmTasks.isEmpty()) {
-            // update the recycler view
+            // update the recycler view - the adapter only updates the rows that changed
             mTaskListAdapter.updateTasks(icmTasks);
-            mSwipelayout.setRefreshing(false);
-            mTaskListAdapter.notifyDataSetChanged();
         } else {
             Snackbar.make(Utils.getContentView(this),
                     getString(R.string.err_no_tasks_in_basket),
@@ -139,6 +222,12 @@ public class TaskManagerActivity extends BaseActivity implements SwipeRefreshLay
         }
     }
 
+    @Override
+    public void onTasksUnchanged() {
+        // the displayed tasks are up to date
+        setLayoutRefreshing(false);
+    }
+
     @Override
     public void onTaskDetailsLoaded(ICMTask task) {
         // Not needed here
@@ -164,6 +253,21 @@ public class TaskManagerActivity extends BaseActivity implements SwipeRefreshLay
         // Not needed here
     }
 
+    @Override
+    public void onTaskOperationQueued(@OperationJournal.Operation int operation, ICMTask task, int pendingCount) {
+        // Not needed here
+    }
+
+    @Override
+    public void onOperationsReplayed(int replayedCount, int rejectedCount) {
+        Snackbar.make(Utils.getContentView(this),
+                getString(R.string.msg_operations_replayed, replayedCount, rejectedCount),
+                Snackbar.LENGTH_LONG).show();
+
+        // the tasks changed on the server
+        onRefresh();
+    }
+
     @Override
     public void onError(@Operations int operationCode, String error) {
         // hide the indeterminate progress
@@ -199,6 +303,12 @@ public class TaskManagerActivity extends BaseActivity implements SwipeRefreshLay
 
     @Override
     public void onRecyclerViewItemClicked(int position) {
+        // in selection mode a click selects the task instead of opening it
+        if (mSelectionMode != null) {
+            toggleTaskSelection(position);
+            return;
+        }
+
         // get icm task
         final ICMTask task = mTaskListAdapter.getItem(position);
         if (task != null) {
@@ -212,6 +322,81 @@ public class TaskManagerActivity extends BaseActivity implements SwipeRefreshLay
 
     }
 
+    @Override
+    public boolean onRecyclerViewItemLongClicked(int position) {
+        if (mSelectionMode == null) {
+            mSelectionMode = startSupportActionMode(this);
+        }
+
+        toggleTaskSelection(position);
+        return true;
+    }
+
+    @Override
+    public boolean onCreateActionMode(ActionMode mode, Menu menu) {
+        mode.getMenuInflater().inflate(R.menu.menu_task_batch, menu);
+        return true;
+    }
+
+    @Override
+    public boolean onPrepareActionMode(ActionMode mode, Menu menu) {
+        return false;
+    }
+
+    @Override
+    public boolean onActionItemClicked(ActionMode mode, MenuItem item) {
+        switch (item.getItemId()) {
+            case R.id.action_batch_lock:
+                performBatchAction(TaskBatch.ACTION_LOCK, null, null);
+                return true;
+            case R.id.action_batch_unlock:
+                performBatchAction(TaskBatch.ACTION_UNLOCK, null, null);
+                return true;
+            case R.id.action_batch_complete:
+                showCompleteResponseDialog();
+                return true;
+            case R.id.action_batch_reassign:
+                showReassignDialog();
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void onDestroyActionMode(ActionMode mode) {
+        mSelectionMode = null;
+        mTaskListAdapter.clearSelection();
+    }
+
+    private void loadTasks() {
+        if (mAllWorkbaskets) {
+            // the tasks of every basket are displayed as soon as the basket arrives
+            mTaskController.getTasksFromAllBaskets(mRole, mTaskOrder);
+        } else {
+            // get tasks from the first InBasket
+            mTaskController.getTasksFromBasket(mRole, 0);
+        }
+    }
+
+    private void reloadTasks() {
+        invalidateOptionsMenu();
+
+        if (mRole != null) {
+            setLayoutRefreshing(true);
+            loadTasks();
+        } else {
+            onRefresh();
+        }
+    }
+
+    private void setTaskOrder(@AggregatedTaskList.Order int order) {
+        if (mTaskOrder != order) {
+            mTaskOrder = order;
+            reloadTasks();
+        }
+    }
+
     private void setupRecyclerView() {
         mRecyclerView.setHasFixedSize(true);
         mRecyclerView.setLayoutManager(new LinearLayoutManager(this));
@@ -221,7 +406,22 @@ public class TaskManagerActivity extends BaseActivity implements SwipeRefreshLay
         // create empty adapter
         mTaskListAdapter = new TaskListAdapter(this);
         mTaskListAdapter.setRecyclerViewClickListener(this);
+        mTaskListAdapter.setRecyclerViewLongClickListener(this);
         mRecyclerView.setAdapter(mTaskListAdapter);
+
+        // load the details of the tasks on screen, also called after the rows are laid out
+        mRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                prefetchVisibleTasks();
+            }
+        });
+    }
+
+    private void prefetchVisibleTasks() {
+        final LinearLayoutManager layoutManager = (LinearLayoutManager) mRecyclerView.getLayoutManager();
+        mTaskController.prefetchTaskDetails(mTaskListAdapter.getTasks(),
+                layoutManager.findFirstVisibleItemPosition(), layoutManager.findLastVisibleItemPosition());
     }
 
     private void setupSwipeRefresh() {
@@ -232,8 +432,41 @@ public class TaskManagerActivity extends BaseActivity implements SwipeRefreshLay
 
     private void login() {
         if (!mAuthenticating) {
+            mAuthenticating = true;
             setLayoutRefreshing(true);
-            mTaskController.login(Constants.USER, Constants.PASS);
+
+            // login, find the solution and the role and load the first basket in one chain
+            mBootstrap = mTaskController.bootstrap(Constants.USER, Constants.PASS, Constants.SOLUTION,
+                    Constants.ROLE, 0);
+            mBootstrap.whenComplete(new Promise.Callback<List<ICMTask>>() {
+                @Override
+                public void onFulfilled(List<ICMTask> icmTasks) {
+                    mAuthenticating = false;
+                    mBootstrap = null;
+
+                    // save at Application level
+                    final TaskManagerApp app = (TaskManagerApp) getApplication();
+                    app.setTaskController(mTaskController);
+                    mRole = mTaskController.getRoleManager().getRole();
+
+                    if (mAllWorkbaskets) {
+                        // the option was changed while logging in
+                        loadTasks();
+                    } else {
+                        onTasksFound(icmTasks);
+                    }
+                }
+
+                @Override
+                public void onRejected(Exception error) {
+                    mAuthenticating = false;
+                    mBootstrap = null;
+                    if (!(error instanceof CancellationException)) {
+                        onError(error instanceof OperationException ? ((OperationException) error).getOperation()
+                                : INITIATE_SESSION, error.getMessage());
+                    }
+                }
+            });
         }
     }
 
@@ -248,4 +481,104 @@ public class TaskManagerActivity extends BaseActivity implements SwipeRefreshLay
         }
     }
 
+    private void toggleTaskSelection(int position) {
+        mTaskListAdapter.toggleSelection(position);
+
+        final int selectedCount = mTaskListAdapter.getSelectedTasks().size();
+        if (selectedCount == 0) {
+            mSelectionMode.finish();
+        } else {
+            mSelectionMode.setTitle(getString(R.string.msg_tasks_selected, selectedCount));
+        }
+    }
+
+    private void showReassignDialog() {
+        final EditText userName = (EditText) LayoutInflater.from(this)
+                .inflate(R.layout.dialog_reassign_user, null, false);
+
+        new AlertDialog.Builder(this)
+                .setTitle(getString(R.string.dlg_title_reassign))
+                .setView(userName)
+                .setPositiveButton(getString(R.string.action_ok), new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        if (!TextUtils.isEmpty(userName.getText())) {
+                            reassignSelectedTasks(userName.getText().toString());
+                        }
+                    }
+                })
+                .setNegativeButton(getString(R.string.action_cancel), null)
+                .show();
+    }
+
+    private void showCompleteResponseDialog() {
+        final List<String> responses = mTaskController.findCommonResponses(mTaskListAdapter.getSelectedTasks());
+        if (responses.isEmpty()) {
+            Snackbar.make(Utils.getContentView(this), getString(R.string.err_no_common_response),
+                    Snackbar.LENGTH_LONG).show();
+            return;
+        }
+
+        // this is an important operation so the user picks the response explicitly
+        new AlertDialog.Builder(this)
+                .setTitle(getString(R.string.dlg_title_batch_response))
+                .setItems(responses.toArray(new String[responses.size()]), new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        performBatchAction(TaskBatch.ACTION_COMPLETE, null, responses.get(which));
+                    }
+                })
+                .setNegativeButton(getString(R.string.action_cancel), null)
+                .show();
+    }
+
+    private void reassignSelectedTasks(@NonNull String userName) {
+        showIndeterminateProgress();
+        mTaskController.findUser(userName, new ICMCallback<ICMUser>() {
+            @Override
+            public void onSuccess(ICMUser user) {
+                performBatchAction(TaskBatch.ACTION_REASSIGN, user, null);
+            }
+
+            @Override
+            public void onError(String error) {
+                hideIndeterminateProgress();
+                Snackbar.make(Utils.getContentView(TaskManagerActivity.this), error,
+                        Snackbar.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    private void performBatchAction(@TaskBatch.Action int action, ICMUser assignee, String response) {
+        final List<ICMTask> tasks = mTaskListAdapter.getSelectedTasks();
+        if (mSelectionMode != null) {
+            mSelectionMode.finish();
+        }
+
+        showIndeterminateProgress();
+        mTaskController.performBatchAction(action, tasks, assignee, response, new TaskBatch.Listener() {
+            @Override
+            public void onBatchProgress(ICMTask task, String error, int completedCount, int totalCount) {
+                if (mToolbar != null) {
+                    mToolbar.setSubtitle(getString(R.string.msg_batch_progress, completedCount, totalCount));
+                }
+            }
+
+            @Override
+            public void onBatchFinished(TaskBatch.Result result) {
+                hideIndeterminateProgress();
+                if (mToolbar != null) {
+                    mToolbar.setSubtitle(null);
+                }
+
+                Snackbar.make(Utils.getContentView(TaskManagerActivity.this),
+                        getString(R.string.msg_batch_finished, result.getSucceeded().size(),
+                                result.getFailed().size(), result.getThroughput()),
+                        Snackbar.LENGTH_LONG).show();
+
+                // reload the tasks to show their new state
+                onRefresh();
+            }
+        });
+    }
 }
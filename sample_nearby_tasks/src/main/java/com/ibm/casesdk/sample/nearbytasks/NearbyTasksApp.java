@@ -0,0 +1,22 @@
+package com.ibm.casesdk.sample.nearbytasks;
+
+import android.app.Application;
+
+import com.ibm.casesdk.sample.nearbytasks.utils.Constants;
+import com.ibm.casesdk.sample.nearbytasks.utils.StartupTracer;
+
+import java.io.File;
+
+/**
+ * Starts the startup trace as early as possible.
+ */
+public class NearbyTasksApp extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // trace the startup until the first task marker is displayed
+        StartupTracer.getInstance().start(new File(getFilesDir(), Constants.STARTUP_TRACE_FILE));
+    }
+}
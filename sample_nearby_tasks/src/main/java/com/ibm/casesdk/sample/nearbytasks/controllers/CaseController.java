@@ -2,11 +2,14 @@ package com.ibm.casesdk.sample.nearbytasks.controllers;
 
 import android.app.Activity;
 import android.location.Location;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.util.Log;
 
 import com.ibm.casemanagersdk.sdk.interfaces.ICMCallback;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMInBasket;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMQueue;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMRole;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMSolution;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
@@ -17,12 +20,16 @@ import com.ibm.casemanagersdk.sdk.manager.SolutionManager;
 import com.ibm.casemanagersdk.sdk.manager.TaskManager;
 import com.ibm.casesdk.sample.nearbytasks.R;
 import com.ibm.casesdk.sample.nearbytasks.utils.Constants;
+import com.ibm.casesdk.sample.nearbytasks.utils.StartupTracer;
 import com.ibm.casesdk.sample.nearbytasks.viewmodel.NearbyTasksViewModel;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
 
 /**
  * This class will handle creating a session and getting the cases from a specific solution.
@@ -31,6 +38,8 @@ import java.util.List;
  */
 public class CaseController {
 
+    private static final String LOG_TAG = CaseController.class.getSimpleName();
+
     private Activity mCallingActivity;
     private NearbyTasksViewModel mViewModel;
 
@@ -39,12 +48,94 @@ public class CaseController {
     private RoleManager mRoleManager;
     private ICMSolution mSolution;
     private HashMap<ICMRole, List<ICMInBasket>> mRoleInbasketsMap;
+    private TaskBasketIndex mTaskBasketIndex;
+    private NearbyTaskCache mNearbyTaskCache;
+    private RefetchPolicy mRefetchPolicy;
+    private Handler mMainHandler;
+    private Location mPendingLocation;
+    private Double mPendingRadius;
+
+    private InBasketLoader mInBasketLoader;
+    private ManagerCache mManagerCache;
+    private SingleFlight<ICMTask> mTaskDetailsFlight;
+    private ResilientExecutor mResilientExecutor;
+    private Executor mCallbackExecutor;
     private boolean mLoadingRoles;
 
+    // passes the pending location again once the minimum interval between searches has passed
+    private final Runnable mSearchPendingLocation = new Runnable() {
+        @Override
+        public void run() {
+            searchPendingLocation();
+        }
+    };
+
     public CaseController(@NonNull Activity callingActivity, @NonNull NearbyTasksViewModel model) {
         mCallingActivity = callingActivity;
         mViewModel = model;
         mRoleInbasketsMap = new LinkedHashMap<>();
+        mTaskBasketIndex = new TaskBasketIndex();
+        mNearbyTaskCache = new NearbyTaskCache(Constants.SPATIAL_INDEX_PRECISION, Constants.NEARBY_TILE_TTL);
+        mRefetchPolicy = new RefetchPolicy(Constants.REFETCH_DISTANCE_FRACTION, Constants.REFETCH_HYSTERESIS,
+                Constants.REFETCH_MIN_INTERVAL, Constants.NEARBY_TILE_TTL);
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mManagerCache = new ManagerCache(Constants.MANAGER_CACHE_INBASKETS, Constants.MANAGER_CACHE_TASKS);
+        mTaskDetailsFlight = new SingleFlight<>(callingActivity.getString(R.string.err_task_details));
+        mResilientExecutor = createResilientExecutor();
+        mCallbackExecutor = Promise.mainThreadExecutor();
+    }
+
+    /**
+     * Create the executor used for the SDK calls. Only the operations that can safely be repeated
+     * are retried.
+     *
+     * @return
+     */
+    private ResilientExecutor createResilientExecutor() {
+        final ResilientExecutor executor = new ResilientExecutor(mCallingActivity,
+                new CircuitBreaker(Constants.CIRCUIT_FAILURE_THRESHOLD, Constants.CIRCUIT_OPEN_DURATION),
+                mCallingActivity.getString(R.string.err_service_unavailable));
+        final RetryPolicy readPolicy = new RetryPolicy(Constants.RETRY_MAX_ATTEMPTS,
+                Constants.RETRY_BASE_DELAY, Constants.RETRY_MAX_DELAY);
+
+        // reads don't change anything on the server
+        executor.setPolicy(NearbyTasksViewModel.FIND_SOLUTION, readPolicy);
+        executor.setPolicy(NearbyTasksViewModel.LOAD_SOLUTION_DETAILS, readPolicy);
+        executor.setPolicy(NearbyTasksViewModel.FIND_NEARBY_TASKS, readPolicy);
+        executor.setPolicy(NearbyTasksViewModel.LOAD_INBASKETS, readPolicy);
+        executor.setPolicy(NearbyTasksViewModel.LOAD_TASK_DETAILS, readPolicy);
+
+        // locking or unlocking twice leaves the task in the same state, so one more attempt is fine
+        final RetryPolicy lockPolicy = new RetryPolicy(2, Constants.RETRY_BASE_DELAY, Constants.RETRY_MAX_DELAY);
+        executor.setPolicy(NearbyTasksViewModel.LOCK_TASK, lockPolicy);
+        executor.setPolicy(NearbyTasksViewModel.UNLOCK_TASK, lockPolicy);
+
+        // completing a task is never repeated, the first attempt might have reached the server
+        return executor;
+    }
+
+    /**
+     * Create a session with the given credentials.
+     *
+     * @param user
+     * @param password
+     * @return a promise for the {@link SessionManager}, which is also kept by this controller
+     */
+    public Promise<SessionManager> initSession(@NonNull final String user, @NonNull final String password) {
+        StartupTracer.getInstance().beginStage("login");
+
+        return endStage("login", execute(NearbyTasksViewModel.INITIATE_SESSION, new ResilientExecutor.Call<SessionManager>() {
+            @Override
+            public void execute(ICMCallback<SessionManager> callback) {
+                SessionManager.initSession(mCallingActivity, Constants.ENDPOINT, user, password, callback);
+            }
+        }).then(new Promise.Function<SessionManager, SessionManager>() {
+            @Override
+            public SessionManager apply(SessionManager sessionManager) {
+                mSessionManager = sessionManager;
+                return sessionManager;
+            }
+        }));
     }
 
     /**
@@ -53,54 +144,69 @@ public class CaseController {
      * If the operation is successful, the {@link NearbyTasksViewModel} passed in the constructor
      * will be notified in it's {@code onSessionInitiated()} method.
      */
-    public void login(@NonNull String user, @NonNull String password) {
-        // set session manager
-        SessionManager.initSession(mCallingActivity, Constants.ENDPOINT, user, password,
-                new ICMCallback<SessionManager>() {
-                    @Override
-                    public void onSuccess(SessionManager ret) {
-                        mSessionManager = ret;
-                        mViewModel.onSessionInitiated();
-                    }
+    public void login(@NonNull final String user, @NonNull final String password) {
+        initSession(user, password).whenComplete(new Promise.Callback<SessionManager>() {
+            @Override
+            public void onFulfilled(SessionManager sessionManager) {
+                mViewModel.onSessionInitiated();
+            }
 
-                    @Override
-                    public void onError(String error) {
-                        mViewModel.onError(NearbyTasksViewModel.INITIATE_SESSION, error);
-                    }
-                });
+            @Override
+            public void onRejected(Exception error) {
+                notifyError(NearbyTasksViewModel.INITIATE_SESSION, error);
+            }
+        });
     }
 
     /**
      * Obtain a list of all the available solutions from the SDK and search for the one with the
      * given name.
-     * <p>
-     * If there is no solution with the searched name we show an error message on the calling
-     * activity.
+     *
+     * @param solutionName
+     * @return a promise for the solution, rejected if there is no solution with the searched name
      */
-    public void findSolution(@NonNull final String solutionName) {
+    public Promise<ICMSolution> fetchSolution(@NonNull final String solutionName) {
+        StartupTracer.getInstance().beginStage("findSolution");
+
         // get all available solutions and search for the one we need
-        mSessionManager.getSolutions(new ICMCallback<List<ICMSolution>>() {
+        final SessionManager sessionManager = mSessionManager;
+        return endStage("findSolution", execute(NearbyTasksViewModel.FIND_SOLUTION, new ResilientExecutor.Call<List<ICMSolution>>() {
+            @Override
+            public void execute(ICMCallback<List<ICMSolution>> callback) {
+                sessionManager.getSolutions(callback);
+            }
+        }).then(new Promise.Function<List<ICMSolution>, ICMSolution>() {
             @Override
-            public void onSuccess(List<ICMSolution> ret) {
-                boolean found = false;
-                for (ICMSolution solution : ret) {
+            public ICMSolution apply(List<ICMSolution> solutions) throws OperationException {
+                for (ICMSolution solution : solutions) {
                     if (solution.getName().equalsIgnoreCase(solutionName)) {
-                        mViewModel.onSolutionFound(solution);
-                        found = true;
-                        break;
+                        return solution;
                     }
                 }
 
-                // show error message if we didn't find any solution
-                if (!found) {
-                    mViewModel.onError(NearbyTasksViewModel.FIND_SOLUTION,
-                            mCallingActivity.getString(R.string.err_solution_not_found));
-                }
+                throw new OperationException(NearbyTasksViewModel.FIND_SOLUTION,
+                        mCallingActivity.getString(R.string.err_solution_not_found));
+            }
+        }));
+    }
+
+    /**
+     * Obtain a list of all the available solutions from the SDK and search for the one with the
+     * given name.
+     * <p>
+     * If there is no solution with the searched name we show an error message on the calling
+     * activity.
+     */
+    public void findSolution(@NonNull final String solutionName) {
+        fetchSolution(solutionName).whenComplete(new Promise.Callback<ICMSolution>() {
+            @Override
+            public void onFulfilled(ICMSolution solution) {
+                mViewModel.onSolutionFound(solution);
             }
 
             @Override
-            public void onError(String error) {
-                mViewModel.onError(NearbyTasksViewModel.FIND_SOLUTION, error);
+            public void onRejected(Exception error) {
+                notifyError(NearbyTasksViewModel.FIND_SOLUTION, error);
             }
         });
     }
@@ -110,35 +216,61 @@ public class CaseController {
      * details.
      *
      * @param solution
+     * @return a promise for the solution with all its details
      */
-    public void loadSolutionDetails(@NonNull ICMSolution solution) {
+    public Promise<ICMSolution> fetchSolutionDetails(@NonNull ICMSolution solution) {
+        StartupTracer.getInstance().beginStage("loadSolutionDetails");
+
         mSolution = null;
         mSolutionManager = null;
+        mManagerCache.invalidate();
+        mNearbyTaskCache.clear();
+        mRefetchPolicy.reset();
         mSolutionManager = mSessionManager.getSolutionManager(solution);
 
-        mSolutionManager.getSolutionDetails(new ICMCallback<ICMSolution>() {
+        final SolutionManager solutionManager = mSolutionManager;
+        return endStage("loadSolutionDetails", execute(NearbyTasksViewModel.LOAD_SOLUTION_DETAILS, new ResilientExecutor.Call<ICMSolution>() {
             @Override
-            public void onSuccess(ICMSolution icmSolution) {
+            public void execute(ICMCallback<ICMSolution> callback) {
+                solutionManager.getSolutionDetails(callback);
+            }
+        }).then(new Promise.Function<ICMSolution, ICMSolution>() {
+            @Override
+            public ICMSolution apply(ICMSolution icmSolution) {
                 mSolution = icmSolution;
+                return icmSolution;
+            }
+        }));
+    }
+
+    /**
+     * Create a {@link SolutionManager} for the given {@link ICMSolution} and load the solution
+     * details.
+     *
+     * @param solution
+     */
+    public void loadSolutionDetails(@NonNull ICMSolution solution) {
+        fetchSolutionDetails(solution).whenComplete(new Promise.Callback<ICMSolution>() {
+            @Override
+            public void onFulfilled(ICMSolution icmSolution) {
                 mViewModel.onSolutionDetailsLoaded(icmSolution);
             }
 
             @Override
-            public void onError(String s) {
-                mViewModel.onError(NearbyTasksViewModel.LOAD_SOLUTION_DETAILS, s);
+            public void onRejected(Exception error) {
+                notifyError(NearbyTasksViewModel.LOAD_SOLUTION_DETAILS, error);
             }
         });
     }
 
     /**
      * Find a role with the given name in the current {@link ICMSolution}.
-     * <p>
-     * If no role is found, an error message will be displayed.
      *
      * @param roleName
+     * @return a promise for the role, rejected if no role is found
      */
-    public void findRole(@NonNull String roleName) {
-        boolean found = false;
+    public Promise<ICMRole> fetchRole(@NonNull String roleName) {
+        StartupTracer.getInstance().beginStage("findRole");
 
         if (mSolution != null) {
             try {
@@ -151,10 +283,15 @@ public class CaseController {
                         // create new map entry
                         mRoleInbasketsMap.put(role, new ArrayList<ICMInBasket>());
 
-                        // notify liteners
-                        mViewModel.onRoleFound(role);
-                        found = true;
-                        break;
+                        // the baskets will be indexed again when they are loaded
+                        mTaskBasketIndex.clear();
+
+                        // another role can see other tasks
+                        mNearbyTaskCache.clear();
+                        mRefetchPolicy.reset();
+
+                        StartupTracer.getInstance().endStage("findRole");
+                        return Promise.fulfilled(mCallbackExecutor, role);
                     }
                 }
             } catch (Exception e) {
@@ -162,11 +299,31 @@ public class CaseController {
             }
         }
 
-        // show error message if we didn't find any solution
-        if (!found) {
-            mViewModel.onError(NearbyTasksViewModel.FIND_ROLE,
-                    mCallingActivity.getString(R.string.err_role_not_found));
-        }
+        StartupTracer.getInstance().endStage("findRole");
+        return Promise.rejected(mCallbackExecutor, new OperationException(NearbyTasksViewModel.FIND_ROLE,
+                mCallingActivity.getString(R.string.err_role_not_found)));
+    }
+
+    /**
+     * Find a role with the given name in the current {@link ICMSolution}.
+     * <p>
+     * If no role is found, an error message will be displayed.
+     *
+     * @param roleName
+     */
+    public void findRole(@NonNull String roleName) {
+        fetchRole(roleName).whenComplete(new Promise.Callback<ICMRole>() {
+            @Override
+            public void onFulfilled(ICMRole role) {
+                // notify liteners
+                mViewModel.onRoleFound(role);
+            }
+
+            @Override
+            public void onRejected(Exception error) {
+                notifyError(NearbyTasksViewModel.FIND_ROLE, error);
+            }
+        });
     }
 
     /**
@@ -175,97 +332,342 @@ public class CaseController {
      * @param role
      */
     public void createRoleManager(@NonNull final ICMRole role) {
+        StartupTracer.getInstance().beginStage("createRoleManager");
+
         // reset current role manager
         mRoleManager = null;
         mRoleManager = mSolutionManager.getRoleManager(role);
+
+        StartupTracer.getInstance().endStage("createRoleManager");
+    }
+
+    /**
+     * Load all the {@link ICMInBasket} for the current {@link ICMRole}. The {@link ICMInBasket}
+     * will be loaded with all their details.
+     * <p>
+     * At most {@link Constants#INBASKET_LOAD_CONCURRENCY} baskets are requested at the same time.
+     * The promise is fulfilled once the first {@link Constants#INBASKET_PARTIAL_RESULT_COUNT}
+     * baskets have completed, the remaining baskets are added to the index as they arrive.
+     * Cancelling the promise stops loading the remaining baskets.
+     *
+     * @return a promise for the number of baskets completed so far
+     */
+    public Promise<Integer> loadWorkbaskets() {
+        if (mRoleManager == null) {
+            return Promise.rejected(mCallbackExecutor, new OperationException(NearbyTasksViewModel.FIND_ROLE,
+                    mCallingActivity.getString(R.string.err_role_not_found)));
+        }
+
+        StartupTracer.getInstance().beginStage("loadRoleInbaskets");
+
+        final Promise<Integer> promise = new Promise<>(mCallbackExecutor);
+        final ICMRole currentRole = mRoleManager.getRole();
+        final List<ICMInBasket> workbaskets = currentRole.getWorkbaskets();
+        final List<ICMInBasket> fullDetailBaskets = mRoleInbasketsMap.get(currentRole);
+        final int partialResultCount = Math.min(workbaskets.size(),
+                Constants.INBASKET_PARTIAL_RESULT_COUNT);
+
+        // stop loading the baskets of a previous role
+        if (mInBasketLoader != null) {
+            mInBasketLoader.cancel();
+        }
+
+        final InBasketLoader loader = new InBasketLoader(mSolutionManager, mResilientExecutor,
+                Constants.INBASKET_LOAD_CONCURRENCY, Constants.INBASKET_LOAD_TIMEOUT);
+        mInBasketLoader = loader;
+        loader.load(workbaskets, new InBasketLoader.Listener() {
+            @Override
+            public void onBasketLoaded(ICMInBasket basket, int completedCount, int totalCount) {
+                fullDetailBaskets.add(basket);
+                mTaskBasketIndex.indexBasket(basket);
+                resolveIfReady(completedCount);
+            }
+
+            @Override
+            public void onBasketFailed(ICMInBasket basket, String error, int completedCount, int totalCount) {
+                Log.d(LOG_TAG, error);
+
+                // we just have to save the incomplete basket
+                fullDetailBaskets.add(basket);
+                mTaskBasketIndex.indexBasket(basket);
+                resolveIfReady(completedCount);
+            }
+
+            @Override
+            public void onAllBasketsLoaded(int loadedCount, int failedCount) {
+                // a role without baskets never reaches the partial result count
+                resolveIfReady(partialResultCount);
+            }
+
+            private void resolveIfReady(int completedCount) {
+                if (completedCount >= partialResultCount && promise.resolve(completedCount)) {
+                    StartupTracer.getInstance().endStage("loadRoleInbaskets");
+                }
+            }
+        });
+
+        // nobody waits for the baskets anymore
+        promise.whenComplete(new Promise.Callback<Integer>() {
+            @Override
+            public void onFulfilled(Integer completedCount) {
+            }
+
+            @Override
+            public void onRejected(Exception error) {
+                StartupTracer.getInstance().endStage("loadRoleInbaskets");
+                loader.cancel();
+            }
+        });
+
+        return promise;
     }
 
     /**
      * Load all the {@link ICMInBasket} for the current {@link ICMRole}. The {@link ICMInBasket}
      * will be loaded with all their details.
+     * <p>
+     * The {@link NearbyTasksViewModel} is notified once the first
+     * {@link Constants#INBASKET_PARTIAL_RESULT_COUNT} baskets have completed.
      */
     public void loadRoleInbaskets() {
-        if (mRoleManager != null) {
-            ICMRole currentRole = mRoleManager.getRole();
-            final List<ICMInBasket> workbaskets = currentRole.getWorkbaskets();
-            final List<ICMInBasket> fullDetailBaskets = mRoleInbasketsMap.get(currentRole);
-
-            for (final ICMInBasket basket : workbaskets) {
-                // create inbasket manager
-                final InBasketManager inbasketManager = mSolutionManager.getInbasketManager(basket);
-                inbasketManager.getInBasketDetails(new ICMCallback<ICMInBasket>() {
-                    @Override
-                    public void onSuccess(ICMInBasket icmInBasket) {
-                        fullDetailBaskets.add(icmInBasket);
+        loadWorkbaskets().whenComplete(new Promise.Callback<Integer>() {
+            @Override
+            public void onFulfilled(Integer completedCount) {
+                mViewModel.onWorkbasketsLoaded();
+            }
 
-                        if (fullDetailBaskets.size() == workbaskets.size()) {
-                            mViewModel.onWorkbasketsLoaded();
-                        }
-                    }
+            @Override
+            public void onRejected(Exception error) {
+                notifyError(NearbyTasksViewModel.FIND_ROLE, error);
+            }
+        });
+    }
+
+    /**
+     * Find nearby tasks for the current {@link ICMSolution} and {@link ICMRole}.
+     * <p>
+     * The tiles of the {@link NearbyTaskCache} fetched less than {@link Constants#NEARBY_TILE_TTL}
+     * ago are not fetched again. The missing ones are fetched with covering queries sent at the
+     * same time, the promise is rejected if one of them fails.
+     *
+     * @param location
+     * @param radius
+     * @return a promise for the tasks
+     */
+    public Promise<List<ICMTask>> fetchNearbyTasks(@NonNull final Location location, @NonNull final Double radius) {
+        final double latitude = location.getLatitude();
+        final double longitude = location.getLongitude();
+        final List<NearbyTaskCache.Region> missingRegions = mNearbyTaskCache.findMissingRegions(latitude, longitude, radius);
+        if (missingRegions.isEmpty()) {
+            return Promise.fulfilled(mCallbackExecutor, mNearbyTaskCache.getTasks(latitude, longitude, radius));
+        }
+
+        StartupTracer.getInstance().beginStage("getNearbyTasks");
 
+        final RoleManager roleManager = mRoleManager;
+        final List<Promise<List<ICMTask>>> fetches = new ArrayList<>();
+        for (final NearbyTaskCache.Region region : missingRegions) {
+            fetches.add(execute(NearbyTasksViewModel.FIND_NEARBY_TASKS, new ResilientExecutor.Call<List<ICMTask>>() {
+                @Override
+                public void execute(ICMCallback<List<ICMTask>> callback) {
+                    roleManager.getNearbyTasks(region.getLatitude(), region.getLongitude(), region.getRadius(), callback);
+                }
+            }).then(new Promise.Function<List<ICMTask>, List<ICMTask>>() {
+                @Override
+                public List<ICMTask> apply(List<ICMTask> icmTasks) {
+                    mNearbyTaskCache.putRegion(region, icmTasks);
+                    return icmTasks;
+                }
+            }));
+        }
+
+        return endStage("getNearbyTasks", Promise.all(mCallbackExecutor, fetches).then(new Promise.Function<List<List<ICMTask>>, List<ICMTask>>() {
+            @Override
+            public List<ICMTask> apply(List<List<ICMTask>> regionTasks) {
+                return mNearbyTaskCache.getTasks(latitude, longitude, radius);
+            }
+        }));
+    }
+
+    /**
+     * Find nearby tasks for the current {@link ICMSolution} and {@link ICMRole}.
+     * <p>
+     * The {@link RefetchPolicy} decides whether the user moved far enough since the last search:
+     * if not, the {@link NearbyTasksViewModel} is not notified. A search that has to wait for the
+     * minimum interval or for the search in flight is sent later, with the latest location only.
+     *
+     * @param location
+     * @param radius
+     */
+    public void getNearbyTasks(@NonNull final Location location, @NonNull final Double radius) {
+        mPendingLocation = location;
+        mPendingRadius = radius;
+        searchPendingLocation();
+    }
+
+    /**
+     * Drop the pending search and stop loading the workbaskets, e.g. when the activity is
+     * destroyed. Nothing posted on the main thread refers to the activity afterwards.
+     */
+    public void release() {
+        mMainHandler.removeCallbacks(mSearchPendingLocation);
+        mPendingLocation = null;
+
+        if (mInBasketLoader != null) {
+            mInBasketLoader.cancel();
+            mInBasketLoader = null;
+        }
+    }
+
+    private void searchPendingLocation() {
+        mMainHandler.removeCallbacks(mSearchPendingLocation);
+        final Location location = mPendingLocation;
+        if (location == null) {
+            return;
+        }
+
+        switch (mRefetchPolicy.onLocation(location.getLatitude(), location.getLongitude(), location.getAccuracy(),
+                mPendingRadius)) {
+            case RefetchPolicy.DECISION_SKIP:
+                mPendingLocation = null;
+                break;
+            case RefetchPolicy.DECISION_DEFER:
+                // the search in flight passes the location again once it is done
+                final long delay = mRefetchPolicy.getDeferDelayMillis();
+                if (delay > 0) {
+                    mMainHandler.postDelayed(mSearchPendingLocation, delay);
+                }
+                break;
+            case RefetchPolicy.DECISION_FETCH:
+                mPendingLocation = null;
+                fetchNearbyTasks(location, mPendingRadius).whenComplete(new Promise.Callback<List<ICMTask>>() {
                     @Override
-                    public void onError(String s) {
-                        Log.d("CaseControlelr", s);
+                    public void onFulfilled(List<ICMTask> icmTasks) {
+                        mRefetchPolicy.onFetchFinished(true);
+                        mViewModel.onNearbyTasksFound(icmTasks);
+                        searchPendingLocation();
+                    }
 
-                        // we just have to save the incomplete basket
-                        fullDetailBaskets.add(basket);
+                    @Override
+                    public void onRejected(Exception error) {
+                        mRefetchPolicy.onFetchFinished(false);
+                        notifyError(NearbyTasksViewModel.FIND_NEARBY_TASKS, error);
+                        searchPendingLocation();
                     }
                 });
-            }
+                break;
         }
     }
 
     /**
-     * Find nearby tasks for the current {@link ICMSolution} and {@link ICMRole}.
+     * Run the whole bootstrap chain: login, find the solution, load its details and find the
+     * role. Then the nearby tasks are searched while the workbaskets are preloaded, neither
+     * depends on the other. The first error rejects the result and cancels the requests still
+     * running.
      *
+     * @param user
+     * @param password
+     * @param solutionName
+     * @param roleName
      * @param location
      * @param radius
+     * @return a promise for the nearby tasks, fulfilled once the workbaskets are loaded too and
+     * rejected if the chain takes longer than {@link Constants#BOOTSTRAP_TIMEOUT}
      */
-    public void getNearbyTasks(@NonNull Location location, @NonNull Double radius) {
-        mRoleManager.getNearbyTasks(location.getLatitude(),
-                location.getLongitude(), radius, new ICMCallback<List<ICMTask>>() {
+    public Promise<List<ICMTask>> bootstrap(@NonNull String user, @NonNull String password,
+                                            @NonNull final String solutionName, @NonNull final String roleName,
+                                            @NonNull final Location location, @NonNull final Double radius) {
+        return initSession(user, password).thenCompose(new Promise.AsyncFunction<SessionManager, ICMSolution>() {
+            @Override
+            public Promise<ICMSolution> apply(SessionManager sessionManager) {
+                return fetchSolution(solutionName);
+            }
+        }).thenCompose(new Promise.AsyncFunction<ICMSolution, ICMSolution>() {
+            @Override
+            public Promise<ICMSolution> apply(ICMSolution solution) {
+                return fetchSolutionDetails(solution);
+            }
+        }).thenCompose(new Promise.AsyncFunction<ICMSolution, ICMRole>() {
+            @Override
+            public Promise<ICMRole> apply(ICMSolution solution) {
+                return fetchRole(roleName);
+            }
+        }).thenCompose(new Promise.AsyncFunction<ICMRole, List<ICMTask>>() {
+            @Override
+            public Promise<List<ICMTask>> apply(ICMRole role) {
+                createRoleManager(role);
+
+                // start both requests before waiting for either
+                final Promise<Integer> workbaskets = Constants.PRELOAD_INBASKETS
+                        ? loadWorkbaskets() : Promise.fulfilled(mCallbackExecutor, 0);
+                final Promise<List<ICMTask>> tasks = fetchNearbyTasks(location, radius);
+
+                // the first error cancels the other request
+                final Promise.Function<Object, Object> anyValue = new Promise.Function<Object, Object>() {
                     @Override
-                    public void onSuccess(List<ICMTask> icmTasks) {
-                        mViewModel.onNearbyTasksFound(icmTasks);
+                    public Object apply(Object value) {
+                        return value;
                     }
+                };
+                final List<Promise<Object>> requests = new ArrayList<>();
+                requests.add(workbaskets.then(anyValue));
+                requests.add(tasks.then(anyValue));
 
+                return Promise.all(mCallbackExecutor, requests).thenCompose(new Promise.AsyncFunction<List<Object>, List<ICMTask>>() {
                     @Override
-                    public void onError(String s) {
-                        mViewModel.onError(NearbyTasksViewModel.FIND_NEARBY_TASKS, s);
+                    public Promise<List<ICMTask>> apply(List<Object> values) {
+                        return tasks;
                     }
                 });
+            }
+        }).timeout(Constants.BOOTSTRAP_TIMEOUT);
     }
 
     /**
      * Load the details for the given {@link ICMTask}.
+     * <p>
+     * Requests for a task whose details are already being loaded share the pending request.
      *
      * @param task
      */
-    public void loadTaskDetails(@NonNull ICMTask task) {
+    public void loadTaskDetails(@NonNull final ICMTask task) {
+        mTaskDetailsFlight.execute(task.getId(), new SingleFlight.Call<ICMTask>() {
+            @Override
+            public void execute(final ICMCallback<ICMTask> callback) {
 
-        // find the task basket for this task
-        final ICMInBasket taskBasket = findTaskBasket(task);
+                // find the task basket for this task
+                resolveTaskBasket(task, new ICMCallback<ICMInBasket>() {
+                    @Override
+                    public void onSuccess(ICMInBasket taskBasket) {
+                        final InBasketManager inbasketManager = mManagerCache.getInbasketManager(mSolutionManager, taskBasket);
+                        final TaskManager taskManager = mManagerCache.getTaskManager(inbasketManager, task);
 
-        if (taskBasket != null) {
-            final InBasketManager inbasketManager = mSolutionManager.getInbasketManager(taskBasket);
-            final TaskManager taskManager = inbasketManager.getTaskManager(task);
+                        mResilientExecutor.execute(NearbyTasksViewModel.LOAD_TASK_DETAILS, new ResilientExecutor.Call<ICMTask>() {
+                            @Override
+                            public void execute(ICMCallback<ICMTask> callback) {
+                                taskManager.getTaskDetails(callback);
+                            }
+                        }, callback);
+                    }
 
-            taskManager.getTaskDetails(new ICMCallback<ICMTask>() {
-                @Override
-                public void onSuccess(ICMTask icmTask) {
-                    mViewModel.onTaskDetailsLoaded(icmTask);
-                }
+                    @Override
+                    public void onError(String s) {
+                        // notify activity that we can't load details
+                        callback.onError(s);
+                    }
+                });
+            }
+        }, new ICMCallback<ICMTask>() {
+            @Override
+            public void onSuccess(ICMTask icmTask) {
+                mViewModel.onTaskDetailsLoaded(icmTask);
+            }
 
-                @Override
-                public void onError(String s) {
-                    mViewModel.onError(NearbyTasksViewModel.LOAD_TASK_DETAILS, s);
-                }
-            });
-        } else {
-            // notify activity that we can't load details
-            mViewModel.onError(NearbyTasksViewModel.LOAD_TASK_DETAILS,
-                    mCallingActivity.getString(R.string.err_no_inbasket));
-        }
+            @Override
+            public void onError(String s) {
+                mViewModel.onError(NearbyTasksViewModel.LOAD_TASK_DETAILS, s);
+            }
+        });
     }
 
     /**
@@ -273,17 +675,30 @@ public class CaseController {
      *
      * @param task
      */
-    public void lockTask(@NonNull ICMTask task) {
+    public void lockTask(@NonNull final ICMTask task) {
         // find the task basket for this task
-        final ICMInBasket taskBasket = findTaskBasket(task);
+        resolveTaskBasket(task, new ICMCallback<ICMInBasket>() {
+            @Override
+            public void onSuccess(ICMInBasket taskBasket) {
+                final InBasketManager inbasketManager = mManagerCache.getInbasketManager(mSolutionManager, taskBasket);
+                final TaskManager taskManager = mManagerCache.getTaskManager(inbasketManager, task);
 
-        final InBasketManager inbasketManager = mSolutionManager.getInbasketManager(taskBasket);
-        final TaskManager taskManager = inbasketManager.getTaskManager(task);
+                mResilientExecutor.execute(NearbyTasksViewModel.LOCK_TASK, new ResilientExecutor.Call<ICMTask>() {
+                    @Override
+                    public void execute(ICMCallback<ICMTask> callback) {
+                        taskManager.lockTask(callback);
+                    }
+                }, new ICMCallback<ICMTask>() {
+                    @Override
+                    public void onSuccess(ICMTask icmTask) {
+                        mViewModel.onTaskLocked(icmTask);
+                    }
 
-        taskManager.lockTask(new ICMCallback<ICMTask>() {
-            @Override
-            public void onSuccess(ICMTask icmTask) {
-                mViewModel.onTaskLocked(icmTask);
+                    @Override
+                    public void onError(String s) {
+                        mViewModel.onError(NearbyTasksViewModel.LOCK_TASK, s);
+                    }
+                });
             }
 
             @Override
@@ -298,17 +713,30 @@ public class CaseController {
      *
      * @param task
      */
-    public void unlockTask(@NonNull ICMTask task) {
+    public void unlockTask(@NonNull final ICMTask task) {
         // find the task basket for this task
-        final ICMInBasket taskBasket = findTaskBasket(task);
+        resolveTaskBasket(task, new ICMCallback<ICMInBasket>() {
+            @Override
+            public void onSuccess(ICMInBasket taskBasket) {
+                final InBasketManager inbasketManager = mManagerCache.getInbasketManager(mSolutionManager, taskBasket);
+                final TaskManager taskManager = mManagerCache.getTaskManager(inbasketManager, task);
 
-        final InBasketManager inbasketManager = mSolutionManager.getInbasketManager(taskBasket);
-        final TaskManager taskManager = inbasketManager.getTaskManager(task);
+                mResilientExecutor.execute(NearbyTasksViewModel.UNLOCK_TASK, new ResilientExecutor.Call<ICMTask>() {
+                    @Override
+                    public void execute(ICMCallback<ICMTask> callback) {
+                        taskManager.unlockTask(callback);
+                    }
+                }, new ICMCallback<ICMTask>() {
+                    @Override
+                    public void onSuccess(ICMTask icmTask) {
+                        mViewModel.onTaskUnlocked(icmTask);
+                    }
 
-        taskManager.unlockTask(new ICMCallback<ICMTask>() {
-            @Override
-            public void onSuccess(ICMTask icmTask) {
-                mViewModel.onTaskUnlocked(icmTask);
+                    @Override
+                    public void onError(String s) {
+                        mViewModel.onError(NearbyTasksViewModel.UNLOCK_TASK, s);
+                    }
+                });
             }
 
             @Override
@@ -324,13 +752,20 @@ public class CaseController {
      * @param task        the task to perform the operation on
      * @param actionIndex the index of the action to be performed - MUST be a valid index for the {@code task.getResponses()} list
      */
-    public void performTaskAction(@NonNull ICMTask task, final int actionIndex) {
-        final InBasketManager inbasketManager = mSolutionManager.getInbasketManager(
+    public void performTaskAction(@NonNull final ICMTask task, final int actionIndex) {
+        final InBasketManager inbasketManager = mManagerCache.getInbasketManager(mSolutionManager,
                 mRoleManager.getRole().getWorkbaskets().get(0));
-        final TaskManager taskManager = inbasketManager.getTaskManager(task);
-        taskManager.completeTask(task.getResponses().get(actionIndex), "", new ICMCallback<ICMTask>() {
+        final TaskManager taskManager = mManagerCache.getTaskManager(inbasketManager, task);
+        mResilientExecutor.execute(NearbyTasksViewModel.TASK_ACTION, new ResilientExecutor.Call<ICMTask>() {
+            @Override
+            public void execute(ICMCallback<ICMTask> callback) {
+                taskManager.completeTask(task.getResponses().get(actionIndex), "", callback);
+            }
+        }, new ICMCallback<ICMTask>() {
             @Override
             public void onSuccess(ICMTask icmTask) {
+                // the task is not open anymore, it shouldn't show up on the map
+                mNearbyTaskCache.remove(task);
                 mViewModel.onTaskActionPerformed(icmTask, actionIndex);
             }
 
@@ -341,6 +776,75 @@ public class CaseController {
         });
     }
 
+    /**
+     * Return the cache used for the {@link InBasketManager} and {@link TaskManager} instances.
+     *
+     * @return
+     */
+    public ManagerCache getManagerCache() {
+        return mManagerCache;
+    }
+
+    /**
+     * Return the cache of the nearby tasks found so far.
+     *
+     * @return
+     */
+    public NearbyTaskCache getNearbyTaskCache() {
+        return mNearbyTaskCache;
+    }
+
+    /**
+     * Return the policy that decides when the nearby tasks are searched again.
+     *
+     * @return
+     */
+    public RefetchPolicy getRefetchPolicy() {
+        return mRefetchPolicy;
+    }
+
+    /**
+     * Return the coalescing layer used for task detail requests.
+     *
+     * @return
+     */
+    public SingleFlight<ICMTask> getTaskDetailsFlight() {
+        return mTaskDetailsFlight;
+    }
+
+    /**
+     * Return the executor that applies the retry policies and the circuit breaker to the SDK
+     * calls, e.g. to read its metrics.
+     *
+     * @return
+     */
+    public ResilientExecutor getResilientExecutor() {
+        return mResilientExecutor;
+    }
+
+    /**
+     * Return the latency histograms and outcome counts recorded for each operation.
+     *
+     * @return
+     */
+    public OperationMetrics getOperationMetrics() {
+        return mResilientExecutor.getMetrics();
+    }
+
+    public Executor getCallbackExecutor() {
+        return mCallbackExecutor;
+    }
+
+    /**
+     * Set the executor the callbacks of the promises returned by this controller run on. The
+     * {@link NearbyTasksViewModel} is notified on the same executor. Defaults to the main thread.
+     *
+     * @param callbackExecutor
+     */
+    public void setCallbackExecutor(@NonNull Executor callbackExecutor) {
+        mCallbackExecutor = callbackExecutor;
+    }
+
     /**
      * Return the current {@link RoleManager}.
      *
@@ -351,37 +855,201 @@ public class CaseController {
     }
 
     /**
-     * Search a {@link ICMInBasket} from the ones assigned to the current {@link ICMRole}
-     * that contains the given {@link ICMTask}.
+     * Find the {@link ICMInBasket} assigned to the current {@link ICMRole} that contains the
+     * given {@link ICMTask}.
+     * <p>
+     * Baskets already loaded by {@link #loadRoleInbaskets()} are looked up in the index. Otherwise
+     * the basket is matched by the queue names the task reports, and only when that is not
+     * possible are the role's baskets loaded, one at a time, until the task is found.
      *
      * @param task
-     * @return a {@link ICMInBasket} that contains the given task or {@code null}
+     * @param callback receives the basket, or {@code R.string.err_no_inbasket} if the task is not
+     *                 in any of the role's baskets
      */
-    private ICMInBasket findTaskBasket(ICMTask task) {
-        ICMInBasket taskBasket = null;
+    private void resolveTaskBasket(@NonNull ICMTask task, @NonNull ICMCallback<ICMInBasket> callback) {
+        // the baskets are indexed as they are loaded
+        final ICMInBasket indexedBasket = mTaskBasketIndex.findBasket(task);
+        if (indexedBasket != null) {
+            callback.onSuccess(indexedBasket);
+            return;
+        }
 
-        // search through all the baskets available for this role
-        for (ICMInBasket basket : mRoleInbasketsMap.get(mRoleManager.getRole())) {
+        final List<ICMInBasket> workbaskets = mRoleManager.getRole().getWorkbaskets();
+        final List<ICMInBasket> queueBaskets = findQueueBaskets(task, workbaskets);
 
-            // search through all the tasks defined in a basket
-            for (ICMTask tk : basket.getTasks()) {
+        if (queueBaskets.size() == 1) {
+            // the task told us where it is, no need to load anything
+            mTaskBasketIndex.indexTask(task, queueBaskets.get(0));
+            callback.onSuccess(queueBaskets.get(0));
+        } else {
+            searchTaskBasket(task, new LinkedList<>(queueBaskets.isEmpty() ? workbaskets : queueBaskets),
+                    callback);
+        }
+    }
+
+    /**
+     * Find the baskets whose queue name matches one of the queues the task is in.
+     *
+     * @param task
+     * @param workbaskets
+     * @return the matching baskets, possibly empty
+     */
+    private List<ICMInBasket> findQueueBaskets(@NonNull ICMTask task, @NonNull List<ICMInBasket> workbaskets) {
+        final List<ICMInBasket> queueBaskets = new ArrayList<>();
 
-                // if the basket contains our task -> break the loops
-                if (tk.getId().equalsIgnoreCase(task.getId())) {
-                    taskBasket = basket;
-                    break;
+        try {
+            // sdk throws NPE if the task has no inbaskets
+            for (ICMQueue queue : task.getInbaskets()) {
+                for (ICMInBasket basket : workbaskets) {
+                    if (queue.getQueueName() != null
+                            && queue.getQueueName().equalsIgnoreCase(basket.getQueueName())
+                            && !queueBaskets.contains(basket)) {
+                        queueBaskets.add(basket);
+                    }
                 }
             }
+        } catch (Exception e) {
+            // no queue information, the baskets will have to be searched
+        }
 
-            if (taskBasket != null) {
-                break;
-            }
+        return queueBaskets;
+    }
+
+    /**
+     * Load the details of the given baskets one at a time until one of them contains the task.
+     *
+     * @param task
+     * @param candidates
+     * @param callback
+     */
+    private void searchTaskBasket(@NonNull final ICMTask task, @NonNull final LinkedList<ICMInBasket> candidates,
+                                  @NonNull final ICMCallback<ICMInBasket> callback) {
+        if (candidates.isEmpty()) {
+            callback.onError(mCallingActivity.getString(R.string.err_no_inbasket));
+            return;
         }
 
-        return taskBasket;
+        final InBasketManager inbasketManager = mManagerCache.getInbasketManager(mSolutionManager, candidates.removeFirst());
+        mResilientExecutor.execute(NearbyTasksViewModel.LOAD_INBASKETS, new ResilientExecutor.Call<ICMInBasket>() {
+            @Override
+            public void execute(ICMCallback<ICMInBasket> callback) {
+                inbasketManager.getInBasketDetails(callback);
+            }
+        }, new ICMCallback<ICMInBasket>() {
+            @Override
+            public void onSuccess(ICMInBasket icmInBasket) {
+                mTaskBasketIndex.indexBasket(icmInBasket);
+
+                final ICMInBasket taskBasket = mTaskBasketIndex.findBasket(task);
+                if (taskBasket != null) {
+                    callback.onSuccess(taskBasket);
+                } else {
+                    searchTaskBasket(task, candidates, callback);
+                }
+            }
+
+            @Override
+            public void onError(String s) {
+                Log.d(LOG_TAG, s);
+                searchTaskBasket(task, candidates, callback);
+            }
+        });
     }
 
 
+    /**
+     * Perform an SDK call through the {@link ResilientExecutor}.
+     *
+     * @param operation
+     * @param call
+     * @return a promise for the result, rejected with an {@link OperationException}. Cancelling
+     * it cancels the request
+     */
+    private <T> Promise<T> execute(@NearbyTasksViewModel.Operations int operation, @NonNull ResilientExecutor.Call<T> call) {
+        return execute(operation, call, null);
+    }
+
+    /**
+     * Perform an SDK call through the {@link ResilientExecutor}.
+     *
+     * @param operation
+     * @param call
+     * @param errorMessage the message used instead of the SDK error or {@code null}
+     * @return a promise for the result, rejected with an {@link OperationException}. Cancelling
+     * it cancels the request
+     */
+    private <T> Promise<T> execute(@NearbyTasksViewModel.Operations final int operation, @NonNull ResilientExecutor.Call<T> call,
+                                   final String errorMessage) {
+        final Promise<T> promise = new Promise<>(mCallbackExecutor);
+
+        final ResilientExecutor.Request request = mResilientExecutor.execute(operation, call, new ICMCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                promise.resolve(result);
+            }
+
+            @Override
+            public void onError(String error) {
+                promise.reject(new OperationException(operation, errorMessage != null ? errorMessage : error));
+            }
+        });
+
+        // nobody waits for the result anymore, stop retrying
+        promise.whenComplete(new Promise.Callback<T>() {
+            @Override
+            public void onFulfilled(T value) {
+            }
+
+            @Override
+            public void onRejected(Exception error) {
+                if (promise.isCancelled()) {
+                    request.cancel();
+                }
+            }
+        });
+
+        return promise;
+    }
+
+    /**
+     * End the given startup stage once the promise is settled.
+     *
+     * @param stage
+     * @param promise
+     * @return the same promise
+     */
+    private static <T> Promise<T> endStage(@NonNull final String stage, @NonNull Promise<T> promise) {
+        return promise.whenComplete(new Promise.Callback<T>() {
+            @Override
+            public void onFulfilled(T value) {
+                StartupTracer.getInstance().endStage(stage);
+            }
+
+            @Override
+            public void onRejected(Exception error) {
+                StartupTracer.getInstance().endStage(stage);
+            }
+        });
+    }
+
+    /**
+     * Notify the {@link NearbyTasksViewModel} about a rejected promise. Cancelled operations are not
+     * reported, nobody is waiting for them.
+     *
+     * @param operation the code reported if the error doesn't have one
+     * @param error
+     */
+    private void notifyError(@NearbyTasksViewModel.Operations int operation, @NonNull Exception error) {
+        if (error instanceof CancellationException) {
+            return;
+        }
+
+        if (error instanceof OperationException) {
+            operation = ((OperationException) error).getOperation();
+        }
+        mViewModel.onError(operation, error.getMessage());
+    }
+
     public ICMSolution getSolution() {
         return mSolution;
     }
@@ -0,0 +1,382 @@
+package com.ibm.casesdk.sample.nearbytasks.controllers;
+
+import android.support.annotation.NonNull;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+import com.ibm.casesdk.sample.nearbytasks.utils.GeohashGrid;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of the nearby tasks, split in the geohash tiles of a {@link TaskSpatialIndex}.
+ * <p>
+ * A radius query is answered from the tiles it overlaps. The tiles fetched less than the time to
+ * live ago are served from the index, the other ones are fetched again with as few covering
+ * queries as possible, and the results are merged by task id. The result of a query sent before
+ * the cache was cleared is dropped. The clock doesn't use the Android framework, so the cache can
+ * be benchmarked on the JVM.
+ */
+public class NearbyTaskCache {
+
+    // missing tiles are grouped in blocks of BLOCK_SIZE x BLOCK_SIZE tiles, one query per block
+    private static final int BLOCK_SIZE = 4;
+    private static final int MAX_COVERING_QUERIES = 6;
+
+    // when the server has to be asked anyway, the missing tiles this far beyond the radius are
+    // fetched along, so the next small moves don't need another query
+    private static final int PREFETCH_TILES = 2;
+
+    // rough size of the names and the numbers of a task in the JSON of the server
+    private static final int TASK_JSON_OVERHEAD = 400;
+
+    private final TaskSpatialIndex mIndex;
+    private final GeohashGrid mGrid;
+    private final long mTimeToLiveNanos;
+
+    // tile -> time its tasks were fetched, in nanoseconds
+    private final HashMap<Long, Long> mTileTimes;
+
+    // increased each time the cache is cleared
+    private int mGeneration;
+
+    private int mQueryCount;
+    private int mQueryHitCount;
+    private int mTileHitCount;
+    private int mTileMissCount;
+    private int mCoveringQueryCount;
+    private long mBytesRequested;
+    private long mBytesFetched;
+
+    /**
+     * @param precision       the geohash precision of the tiles
+     * @param timeToLiveMillis how long the tasks of a tile are served without asking the server
+     */
+    public NearbyTaskCache(int precision, long timeToLiveMillis) {
+        mIndex = new TaskSpatialIndex(precision);
+        mGrid = mIndex.getGrid();
+        mTimeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+        mTileTimes = new HashMap<>();
+    }
+
+    public TaskSpatialIndex getIndex() {
+        return mIndex;
+    }
+
+    /**
+     * Find the regions the server has to be asked about to answer a radius query.
+     *
+     * @param latitude
+     * @param longitude
+     * @param radius
+     * @return the covering queries of the tiles that are missing or expired, empty if the query
+     * can be answered by {@link #getTasks(double, double, double)} right away
+     */
+    public synchronized List<Region> findMissingRegions(double latitude, double longitude, double radius) {
+        final long now = System.nanoTime();
+        final int previousHitCount = mTileHitCount;
+        final int missingCount = countMissingTiles(latitude, longitude, radius, now);
+
+        mQueryCount++;
+        if (missingCount == 0) {
+            mQueryHitCount++;
+            return Collections.emptyList();
+        }
+
+        // nothing is cached around the point yet, e.g. at the first query: only the tiles needed
+        // now are fetched, so the tasks show up as soon as possible
+        final int prefetchTiles = mTileHitCount > previousHitCount ? PREFETCH_TILES : 0;
+        final double fetchRadius = radius + prefetchTiles * Math.max(mGrid.getCellWidth(), mGrid.getCellHeight());
+        final double squaredRadius = fetchRadius * fetchRadius;
+        final int firstColumn = mGrid.column(longitude - fetchRadius);
+        final int lastColumn = mGrid.column(longitude + fetchRadius);
+        final int firstRow = mGrid.row(latitude - fetchRadius);
+        final int lastRow = mGrid.row(latitude + fetchRadius);
+
+        // block -> missing tiles of the block
+        final LinkedHashMap<Long, List<Long>> blocks = new LinkedHashMap<>();
+        final List<Long> missingTiles = new ArrayList<>();
+        double farthestSquaredDistance = 0;
+
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                final long tile = GeohashGrid.cell(column, row);
+                if (mGrid.squaredDistanceToCell(column, row, latitude, longitude) > squaredRadius
+                        || isFresh(tile, now)) {
+                    continue;
+                }
+
+                missingTiles.add(tile);
+                farthestSquaredDistance = Math.max(farthestSquaredDistance,
+                        mGrid.squaredDistanceToFarCorner(column, row, latitude, longitude));
+
+                final long block = GeohashGrid.cell(column / BLOCK_SIZE, row / BLOCK_SIZE);
+                List<Long> blockTiles = blocks.get(block);
+                if (blockTiles == null) {
+                    blockTiles = new ArrayList<>();
+                    blocks.put(block, blockTiles);
+                }
+                blockTiles.add(tile);
+            }
+        }
+
+        final List<Region> regions = new ArrayList<>();
+        if (blocks.size() > MAX_COVERING_QUERIES) {
+            // most of the tiles are missing, e.g. at the first query - a single query around the
+            // point is cheaper than many small ones
+            regions.add(new Region(latitude, longitude, Math.sqrt(farthestSquaredDistance), missingTiles,
+                    mGeneration));
+        } else {
+            for (List<Long> blockTiles : blocks.values()) {
+                regions.add(coveringRegion(blockTiles));
+            }
+        }
+
+        mCoveringQueryCount += regions.size();
+        return regions;
+    }
+
+    /**
+     * Add the result of a covering query. Its tiles are fresh from now on. The result is dropped
+     * if the cache was cleared since the region was found, e.g. for another role.
+     *
+     * @param region a region returned by {@link #findMissingRegions(double, double, double)}
+     * @param tasks  the tasks returned by the server for the region
+     */
+    public synchronized void putRegion(@NonNull Region region, @NonNull List<ICMTask> tasks) {
+        if (region.mGeneration != mGeneration) {
+            return;
+        }
+
+        mIndex.putRegion(region.mLatitude, region.mLongitude, region.mRadius, tasks);
+
+        final long now = System.nanoTime();
+        for (Long tile : region.mTiles) {
+            mTileTimes.put(tile, now);
+        }
+
+        for (ICMTask task : tasks) {
+            mBytesFetched += estimateSize(task);
+        }
+    }
+
+    /**
+     * @param latitude
+     * @param longitude
+     * @param radius
+     * @return the cached tasks within the given distance of the point
+     */
+    public synchronized List<ICMTask> getTasks(double latitude, double longitude, double radius) {
+        final List<ICMTask> tasks = mIndex.findWithinRadius(latitude, longitude, radius);
+
+        // what a query without the cache would have downloaded
+        for (ICMTask task : tasks) {
+            mBytesRequested += estimateSize(task);
+        }
+
+        return tasks;
+    }
+
+    /**
+     * Remove a task from the cache, e.g. once it has been completed.
+     *
+     * @param task
+     */
+    public synchronized void remove(@NonNull ICMTask task) {
+        mIndex.remove(task);
+    }
+
+    /**
+     * Remove all the tasks, the next queries are answered by the server.
+     */
+    public synchronized void clear() {
+        mIndex.clear();
+        mTileTimes.clear();
+        mGeneration++;
+    }
+
+    /**
+     * @return the number of radius queries
+     */
+    public synchronized int getQueryCount() {
+        return mQueryCount;
+    }
+
+    /**
+     * @return the number of radius queries answered without asking the server
+     */
+    public synchronized int getQueryHitCount() {
+        return mQueryHitCount;
+    }
+
+    /**
+     * @return the number of covering queries sent to the server
+     */
+    public synchronized int getCoveringQueryCount() {
+        return mCoveringQueryCount;
+    }
+
+    /**
+     * @return the fraction of the tiles of the queries served from the cache, 0 if there was no
+     * query
+     */
+    public synchronized double getHitRatio() {
+        final int total = mTileHitCount + mTileMissCount;
+        return total > 0 ? (double) mTileHitCount / total : 0;
+    }
+
+    /**
+     * @return the estimated size of the tasks downloaded by the covering queries
+     */
+    public synchronized long getBytesFetched() {
+        return mBytesFetched;
+    }
+
+    /**
+     * @return the estimated size of the tasks the queries would have downloaded without the cache,
+     * minus what was actually downloaded. Negative if the covering queries fetched more than
+     * they saved.
+     */
+    public synchronized long getBytesSaved() {
+        return mBytesRequested - mBytesFetched;
+    }
+
+    public synchronized String formatReport() {
+        return String.format(Locale.US, "NEARBY_TASK_CACHE\n  queries %d  served from cache %d  tile hit ratio %.0f%%\n"
+                        + "  covering queries %d  fetched %d KB  saved %d KB\n",
+                mQueryCount, mQueryHitCount, getHitRatio() * 100, mCoveringQueryCount,
+                mBytesFetched / 1024, getBytesSaved() / 1024);
+    }
+
+    /**
+     * Count the tiles of a radius query that are missing or expired, and update the tile hit
+     * ratio.
+     *
+     * @return the number of missing tiles
+     */
+    private int countMissingTiles(double latitude, double longitude, double radius, long now) {
+        final double squaredRadius = radius * radius;
+        final int firstColumn = mGrid.column(longitude - radius);
+        final int lastColumn = mGrid.column(longitude + radius);
+        final int firstRow = mGrid.row(latitude - radius);
+        final int lastRow = mGrid.row(latitude + radius);
+        int missingCount = 0;
+
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                if (mGrid.squaredDistanceToCell(column, row, latitude, longitude) > squaredRadius) {
+                    continue;
+                }
+
+                if (isFresh(GeohashGrid.cell(column, row), now)) {
+                    mTileHitCount++;
+                } else {
+                    mTileMissCount++;
+                    missingCount++;
+                }
+            }
+        }
+
+        return missingCount;
+    }
+
+    private boolean isFresh(long tile, long now) {
+        final Long fetchTime = mTileTimes.get(tile);
+        if (fetchTime == null) {
+            return false;
+        }
+
+        if (now - fetchTime >= mTimeToLiveNanos) {
+            mTileTimes.remove(tile);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @param tiles
+     * @return the smallest circle around the bounding box of the tiles
+     */
+    private Region coveringRegion(List<Long> tiles) {
+        int firstColumn = Integer.MAX_VALUE;
+        int lastColumn = Integer.MIN_VALUE;
+        int firstRow = Integer.MAX_VALUE;
+        int lastRow = Integer.MIN_VALUE;
+        for (Long tile : tiles) {
+            firstColumn = Math.min(firstColumn, GeohashGrid.cellColumn(tile));
+            lastColumn = Math.max(lastColumn, GeohashGrid.cellColumn(tile));
+            firstRow = Math.min(firstRow, GeohashGrid.cellRow(tile));
+            lastRow = Math.max(lastRow, GeohashGrid.cellRow(tile));
+        }
+
+        final double width = (lastColumn - firstColumn + 1) * mGrid.getCellWidth();
+        final double height = (lastRow - firstRow + 1) * mGrid.getCellHeight();
+        return new Region(mGrid.south(firstRow) + height / 2, mGrid.west(firstColumn) + width / 2,
+                Math.sqrt(width * width + height * height) / 2, tiles, mGeneration);
+    }
+
+    /**
+     * @param task
+     * @return the approximate size of the task in the JSON of the server
+     */
+    private static int estimateSize(ICMTask task) {
+        int size = TASK_JSON_OVERHEAD;
+        size += length(task.getId()) + length(task.getSubject()) + length(task.getStepName())
+                + length(task.getStepDescription()) + length(task.getParticipantName())
+                + length(task.getOriginator()) + length(task.getDateReceived()) + length(task.getDeadline())
+                + length(task.getReminderDate()) + length(task.getLockedUser()) + length(task.getComment())
+                + length(task.getCaseId()) + length(task.getCaseTitle()) + length(task.getTaskType())
+                + length(task.getCaseTypeId());
+
+        if (task.getResponses() != null) {
+            for (String response : task.getResponses()) {
+                size += length(response) + 3;
+            }
+        }
+
+        return size;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    /**
+     * A circle the server is asked about, and the tiles it covers.
+     */
+    public static class Region {
+        final double mLatitude;
+        final double mLongitude;
+        final double mRadius;
+        final List<Long> mTiles;
+
+        // the generation of the cache the region was found in
+        final int mGeneration;
+
+        Region(double latitude, double longitude, double radius, List<Long> tiles, int generation) {
+            mLatitude = latitude;
+            mLongitude = longitude;
+            mRadius = radius;
+            mTiles = tiles;
+            mGeneration = generation;
+        }
+
+        public double getLatitude() {
+            return mLatitude;
+        }
+
+        public double getLongitude() {
+            return mLongitude;
+        }
+
+        public double getRadius() {
+            return mRadius;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ibm.casesdk.sample.nearbytasks.controllers;
+
+import com.ibm.casesdk.sample.nearbytasks.viewmodel.NearbyTasksViewModel;
+
+/**
+ * The error of a failed {@link NearbyTasksViewModel} operation, used to reject a {@link Promise}.
+ */
+public class OperationException extends Exception {
+
+    private final int mOperation;
+
+    /**
+     * @param operation the code of the operation that failed
+     * @param message   the error message
+     */
+    public OperationException(@NearbyTasksViewModel.Operations int operation, String message) {
+        super(message);
+        mOperation = operation;
+    }
+
+    /**
+     * @return the code of the operation that failed
+     */
+    @NearbyTasksViewModel.Operations
+    public int getOperation() {
+        return mOperation;
+    }
+}
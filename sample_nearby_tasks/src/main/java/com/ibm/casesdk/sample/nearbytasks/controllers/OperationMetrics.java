@@ -0,0 +1,144 @@
+package com.ibm.casesdk.sample.nearbytasks.controllers;
+
+import android.support.annotation.NonNull;
+
+import com.ibm.casesdk.sample.nearbytasks.viewmodel.NearbyTasksViewModel;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histograms and outcome counts for each {@link NearbyTasksViewModel.Operations} code.
+ * <p>
+ * Two latencies are recorded, in microseconds: the server time, from the moment an SDK call is
+ * made until the SDK delivers its result, and the client time, spent handling that result on the
+ * main thread. A slow operation with a low server time is slowed down by the app itself.
+ */
+public class OperationMetrics {
+
+    private static final int OPERATION_COUNT = NearbyTasksViewModel.LOAD_INBASKETS + 1;
+
+    // indexed by the operation code
+    private static final String[] OPERATION_NAMES = {"INITIATE_SESSION", "FIND_SOLUTION",
+            "LOAD_SOLUTION_DETAILS", "FIND_ROLE", "FIND_NEARBY_TASKS", "LOAD_TASK_DETAILS",
+            "LOCK_TASK", "UNLOCK_TASK", "TASK_ACTION", "LOAD_INBASKETS"};
+
+    private final LatencyHistogram[] mServerLatencies;
+    private final LatencyHistogram[] mClientLatencies;
+    private final AtomicLongArray mSuccessCounts;
+    private final AtomicLongArray mErrorCounts;
+
+    public OperationMetrics() {
+        mServerLatencies = new LatencyHistogram[OPERATION_COUNT];
+        mClientLatencies = new LatencyHistogram[OPERATION_COUNT];
+        mSuccessCounts = new AtomicLongArray(OPERATION_COUNT);
+        mErrorCounts = new AtomicLongArray(OPERATION_COUNT);
+
+        for (int i = 0; i < OPERATION_COUNT; i++) {
+            mServerLatencies[i] = new LatencyHistogram();
+            mClientLatencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Record the outcome of an SDK call.
+     *
+     * @param operationCode
+     * @param latencyMicros time between the call and its result
+     * @param success
+     */
+    public void recordServerCall(@NearbyTasksViewModel.Operations int operationCode, long latencyMicros, boolean success) {
+        mServerLatencies[operationCode].record(latencyMicros);
+
+        if (success) {
+            mSuccessCounts.incrementAndGet(operationCode);
+        } else {
+            mErrorCounts.incrementAndGet(operationCode);
+        }
+    }
+
+    /**
+     * Record the time spent handling the result of an operation.
+     *
+     * @param operationCode
+     * @param latencyMicros
+     */
+    public void recordClientHandling(@NearbyTasksViewModel.Operations int operationCode, long latencyMicros) {
+        mClientLatencies[operationCode].record(latencyMicros);
+    }
+
+    /**
+     * @param operationCode
+     * @return the name of the operation, as used in the reports
+     */
+    public static String getOperationName(int operationCode) {
+        return OPERATION_NAMES[operationCode];
+    }
+
+    public LatencyHistogram getServerLatency(@NearbyTasksViewModel.Operations int operationCode) {
+        return mServerLatencies[operationCode];
+    }
+
+    public LatencyHistogram getClientLatency(@NearbyTasksViewModel.Operations int operationCode) {
+        return mClientLatencies[operationCode];
+    }
+
+    public long getSuccessCount(@NearbyTasksViewModel.Operations int operationCode) {
+        return mSuccessCounts.get(operationCode);
+    }
+
+    public long getErrorCount(@NearbyTasksViewModel.Operations int operationCode) {
+        return mErrorCounts.get(operationCode);
+    }
+
+    /**
+     * Format the metrics of every operation that was performed at least once, latencies in
+     * milliseconds.
+     *
+     * @return
+     */
+    public String formatReport() {
+        final StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < OPERATION_COUNT; i++) {
+            final LatencyHistogram server = mServerLatencies[i];
+            final LatencyHistogram client = mClientLatencies[i];
+            if (server.getCount() == 0) {
+                continue;
+            }
+
+            builder.append(OPERATION_NAMES[i]).append('\n')
+                    .append(String.format(Locale.US, "  ok %d  errors %d\n",
+                            mSuccessCounts.get(i), mErrorCounts.get(i)))
+                    .append(formatLatency("  server", server))
+                    .append(formatLatency("  client", client));
+        }
+
+        return builder.length() > 0 ? builder.toString() : "No operations recorded\n";
+    }
+
+    /**
+     * Write the report to the given file, replacing its content.
+     *
+     * @param file
+     * @throws IOException
+     */
+    public void writeReport(@NonNull File file) throws IOException {
+        final Writer writer = new FileWriter(file);
+        try {
+            writer.write(formatReport());
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String formatLatency(String label, LatencyHistogram histogram) {
+        return String.format(Locale.US, "%s p50 %.1f  p95 %.1f  p99 %.1f  max %.1f ms\n", label,
+                histogram.getPercentile(50) / 1000.0, histogram.getPercentile(95) / 1000.0,
+                histogram.getPercentile(99) / 1000.0, histogram.getMax() / 1000.0);
+    }
+}
@@ -0,0 +1,201 @@
+package com.ibm.casesdk.sample.nearbytasks.controllers;
+
+import android.support.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when the nearby tasks have to be searched again as the user moves.
+ * <p>
+ * A search is sent once the user is farther than a fraction of the search radius from where the
+ * last one was sent, not counting the accuracy of the fix. A move beyond that distance that can't
+ * be searched yet, because the last search was sent less than the minimum interval ago or is still
+ * in flight, is kept pending. The pending search is only dropped if the user comes back within the
+ * hysteresis fraction of that distance, so a fix jittering around the threshold doesn't start and
+ * drop searches in turn. Only the latest location of a pending search matters. A user who doesn't
+ * move is searched again once the last search is older than the maximum age, so the tasks don't
+ * go stale.
+ * <p>
+ * Distances are great-circle distances in meters, the radius is in degrees like the radius of
+ * {@code RoleManager.getNearbyTasks}. The clock doesn't use the Android framework, so the policy
+ * can be run on the JVM.
+ */
+public class RefetchPolicy {
+
+    public static final int DECISION_SKIP = 0;
+    public static final int DECISION_FETCH = 1;
+    public static final int DECISION_DEFER = 2;
+
+    /**
+     * Define valid decisions.
+     */
+    @IntDef({DECISION_SKIP, DECISION_FETCH, DECISION_DEFER})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Decision {
+    }
+
+    private static final double EARTH_RADIUS = 6371008.8; // meters
+    private static final double METERS_PER_DEGREE = EARTH_RADIUS * Math.PI / 180;
+
+    private final double mDistanceFraction;
+    private final double mHysteresisFraction;
+    private final long mMinIntervalNanos;
+    private final long mMaxAgeNanos;
+
+    // where and when the last search was sent, with which radius
+    private boolean mHasAnchor;
+    private double mAnchorLatitude;
+    private double mAnchorLongitude;
+    private double mAnchorRadius;
+    private long mLastFetchNanos;
+
+    private boolean mPending;
+    private boolean mInFlight;
+
+    private int mLocationCount;
+    private int mFetchCount;
+    private int mSkipCount;
+    private int mDeferCount;
+
+    /**
+     * @param distanceFraction   the fraction of the radius the user has to move to search again
+     * @param hysteresisFraction the fraction of that distance under which a pending search is
+     *                           dropped
+     * @param minIntervalMillis  the minimum time between two searches
+     * @param maxAgeMillis       the time after which the user is searched again without moving
+     */
+    public RefetchPolicy(double distanceFraction, double hysteresisFraction, long minIntervalMillis,
+                         long maxAgeMillis) {
+        mDistanceFraction = distanceFraction;
+        mHysteresisFraction = Math.max(0, Math.min(hysteresisFraction, 1));
+        mMinIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMillis);
+        mMaxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+    }
+
+    /**
+     * Decide what to do with a new location. A {@link #DECISION_FETCH} must be followed by
+     * {@link #onFetchFinished(boolean)} once the search is done. After a {@link #DECISION_DEFER}
+     * the latest location must be passed again after {@link #getDeferDelayMillis()}, or once the
+     * search in flight is done.
+     *
+     * @param latitude
+     * @param longitude
+     * @param accuracy  the accuracy of the fix, in meters
+     * @param radius    the search radius, in degrees
+     * @return
+     */
+    @Decision
+    public synchronized int onLocation(double latitude, double longitude, float accuracy, double radius) {
+        mLocationCount++;
+
+        if (mHasAnchor && radius == mAnchorRadius && System.nanoTime() - mLastFetchNanos < mMaxAgeNanos) {
+            // the fix can be anywhere within its accuracy, only the rest is a move for sure
+            final double moved = Math.max(0, distance(mAnchorLatitude, mAnchorLongitude, latitude, longitude)
+                    - Math.max(0, accuracy));
+            final double threshold = mDistanceFraction * radius * METERS_PER_DEGREE;
+
+            if (moved <= (mPending ? threshold * mHysteresisFraction : threshold)) {
+                mPending = false;
+                mSkipCount++;
+                return DECISION_SKIP;
+            }
+        }
+
+        if (mInFlight || (mHasAnchor && System.nanoTime() - mLastFetchNanos < mMinIntervalNanos)) {
+            mPending = true;
+            mDeferCount++;
+            return DECISION_DEFER;
+        }
+
+        mHasAnchor = true;
+        mAnchorLatitude = latitude;
+        mAnchorLongitude = longitude;
+        mAnchorRadius = radius;
+        mLastFetchNanos = System.nanoTime();
+        mPending = false;
+        mInFlight = true;
+        mFetchCount++;
+        return DECISION_FETCH;
+    }
+
+    /**
+     * @param succeeded {@code false} if the search failed, the next location is then searched
+     *                  wherever it is
+     */
+    public synchronized void onFetchFinished(boolean succeeded) {
+        mInFlight = false;
+        if (!succeeded) {
+            mHasAnchor = false;
+        }
+    }
+
+    /**
+     * @return the time to wait before passing a deferred location again, 0 if it has to wait for
+     * the search in flight
+     */
+    public synchronized long getDeferDelayMillis() {
+        if (mInFlight) {
+            return 0;
+        }
+
+        final long remainingNanos = mLastFetchNanos + mMinIntervalNanos - System.nanoTime();
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos) + 1);
+    }
+
+    /**
+     * Forget where the last search was sent, e.g. when the cached tasks are cleared. The next
+     * location is searched wherever it is, once the search in flight is done.
+     */
+    public synchronized void reset() {
+        mHasAnchor = false;
+        mPending = false;
+    }
+
+    /**
+     * @return the number of locations passed to {@link #onLocation(double, double, float, double)}
+     */
+    public synchronized int getLocationCount() {
+        return mLocationCount;
+    }
+
+    /**
+     * @return the number of searches sent
+     */
+    public synchronized int getFetchCount() {
+        return mFetchCount;
+    }
+
+    /**
+     * @return the number of locations that didn't need a search
+     */
+    public synchronized int getSkipCount() {
+        return mSkipCount;
+    }
+
+    /**
+     * @return the number of locations kept pending
+     */
+    public synchronized int getDeferCount() {
+        return mDeferCount;
+    }
+
+    public synchronized String formatReport() {
+        return String.format(Locale.US, "NEARBY_REFETCH\n  locations %d  searches %d  skipped %d  deferred %d\n",
+                mLocationCount, mFetchCount, mSkipCount, mDeferCount);
+    }
+
+    /**
+     * @return the great-circle distance between the two points, in meters
+     */
+    static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        final double latitudeDelta = Math.toRadians(latitude2 - latitude1);
+        final double longitudeDelta = Math.toRadians(longitude2 - longitude1);
+        final double a = Math.sin(latitudeDelta / 2) * Math.sin(latitudeDelta / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(longitudeDelta / 2) * Math.sin(longitudeDelta / 2);
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,60 @@
+package com.ibm.casesdk.sample.nearbytasks.controllers;
+
+import java.util.Random;
+
+/**
+ * Describes how many times a failed operation is attempted and how long to wait between attempts.
+ * <p>
+ * The delay grows exponentially with each attempt, up to a maximum, and a random value between
+ * zero and that delay is used so that clients failing at the same time don't retry at the same
+ * time.
+ */
+public class RetryPolicy {
+
+    /**
+     * Policy for operations that must not be repeated blindly, e.g. completing a task.
+     */
+    public static final RetryPolicy NO_RETRY = new RetryPolicy(1, 0, 0);
+
+    private final int mMaxAttempts;
+    private final long mBaseDelayMillis;
+    private final long mMaxDelayMillis;
+
+    /**
+     * @param maxAttempts     maximum number of attempts, including the first one
+     * @param baseDelayMillis delay before the first retry, doubled for every following retry
+     * @param maxDelayMillis  maximum delay between two attempts
+     */
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        mMaxAttempts = Math.max(1, maxAttempts);
+        mBaseDelayMillis = baseDelayMillis;
+        mMaxDelayMillis = maxDelayMillis;
+    }
+
+    public int getMaxAttempts() {
+        return mMaxAttempts;
+    }
+
+    /**
+     * Determine if another attempt should be made.
+     *
+     * @param attempt the number of attempts already made
+     * @return
+     */
+    public boolean shouldRetry(int attempt) {
+        return attempt < mMaxAttempts;
+    }
+
+    /**
+     * Get the delay before the next attempt.
+     *
+     * @param attempt the number of attempts already made
+     * @param random
+     * @return
+     */
+    public long getDelay(int attempt, Random random) {
+        // cap the shift so the delay can't overflow
+        final long delay = Math.min(mMaxDelayMillis, mBaseDelayMillis << Math.min(attempt - 1, 20));
+        return (long) (random.nextDouble() * delay);
+    }
+}
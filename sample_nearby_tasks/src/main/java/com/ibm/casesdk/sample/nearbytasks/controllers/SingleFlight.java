@@ -0,0 +1,120 @@
+package com.ibm.casesdk.sample.nearbytasks.controllers;
+
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMCallback;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Coalesces concurrent requests for the same key into a single call.
+ * <p>
+ * The first caller for a key performs the call, callers that arrive while it is in flight only
+ * register their callback and receive the same result.
+ *
+ * @param <T> the type of the result
+ */
+public class SingleFlight<T> {
+
+    private static final String LOG_TAG = SingleFlight.class.getSimpleName();
+
+    /**
+     * The call that is performed once for all the waiting callers.
+     */
+    public interface Call<T> {
+        void execute(ICMCallback<T> callback);
+    }
+
+    private final HashMap<String, List<ICMCallback<T>>> mInFlight = new HashMap<>();
+    private final String mStartErrorMessage;
+    private int mCallCount;
+    private int mSavedCallCount;
+
+    /**
+     * @param startErrorMessage the error reported to the waiters when a call throws before it
+     *                          could start
+     */
+    public SingleFlight(@NonNull String startErrorMessage) {
+        mStartErrorMessage = startErrorMessage;
+    }
+
+    /**
+     * Perform the call for the given key, unless one is already in flight, in which case the
+     * callback will receive the result of that call.
+     *
+     * @param key
+     * @param call
+     * @param callback
+     */
+    public void execute(@NonNull final String key, @NonNull Call<T> call, @NonNull ICMCallback<T> callback) {
+        synchronized (this) {
+            final List<ICMCallback<T>> waiters = mInFlight.get(key);
+            if (waiters != null) {
+                waiters.add(callback);
+                mSavedCallCount++;
+                return;
+            }
+
+            final List<ICMCallback<T>> newWaiters = new ArrayList<>();
+            newWaiters.add(callback);
+            mInFlight.put(key, newWaiters);
+            mCallCount++;
+        }
+
+        // set once the call has completed, an exception thrown afterwards comes from a waiter
+        final boolean[] completed = new boolean[1];
+        try {
+            call.execute(new ICMCallback<T>() {
+                @Override
+                public void onSuccess(T result) {
+                    completed[0] = true;
+                    for (ICMCallback<T> waiter : complete(key)) {
+                        waiter.onSuccess(result);
+                    }
+                }
+
+                @Override
+                public void onError(String error) {
+                    completed[0] = true;
+                    fail(key, error);
+                }
+            });
+        } catch (RuntimeException e) {
+            if (completed[0]) {
+                throw e;
+            }
+
+            // the call never started, the waiters would otherwise wait for it forever
+            Log.e(LOG_TAG, "Could not start the call for " + key, e);
+            fail(key, mStartErrorMessage);
+        }
+    }
+
+    /**
+     * @return the number of calls that were actually performed
+     */
+    public synchronized int getCallCount() {
+        return mCallCount;
+    }
+
+    /**
+     * @return the number of calls that were avoided because one was already in flight
+     */
+    public synchronized int getSavedCallCount() {
+        return mSavedCallCount;
+    }
+
+    private void fail(String key, String error) {
+        for (ICMCallback<T> waiter : complete(key)) {
+            waiter.onError(error);
+        }
+    }
+
+    private synchronized List<ICMCallback<T>> complete(String key) {
+        final List<ICMCallback<T>> waiters = mInFlight.remove(key);
+        return waiters != null ? waiters : new ArrayList<ICMCallback<T>>();
+    }
+}
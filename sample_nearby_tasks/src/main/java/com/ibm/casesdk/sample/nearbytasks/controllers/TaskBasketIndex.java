@@ -0,0 +1,139 @@
+package com.ibm.casesdk.sample.nearbytasks.controllers;
+
+import android.support.annotation.NonNull;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMInBasket;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Index that maps a task id to the {@link ICMInBasket} that contains the task.
+ * <p>
+ * Baskets are indexed as they are loaded, so finding the basket of a task does not require
+ * walking every task of every basket. Indexing a basket again (e.g. after a reload) replaces
+ * the entries previously added for it.
+ */
+public class TaskBasketIndex {
+
+    // task id -> basket that contains the task
+    private final HashMap<String, ICMInBasket> mTaskBaskets;
+
+    // basket key -> ids of the tasks indexed for that basket, a task is in a single basket
+    private final HashMap<String, Set<String>> mBasketTasks;
+
+    public TaskBasketIndex() {
+        mTaskBaskets = new HashMap<>();
+        mBasketTasks = new HashMap<>();
+    }
+
+    /**
+     * Add all the tasks of the given {@link ICMInBasket} to the index. Entries previously indexed
+     * for the same basket are removed first.
+     *
+     * @param basket
+     */
+    public synchronized void indexBasket(@NonNull ICMInBasket basket) {
+        final String basketKey = basketKey(basket);
+        removeBasket(basketKey);
+
+        final List<ICMTask> tasks = basket.getTasks();
+        if (tasks == null) {
+            return;
+        }
+
+        for (ICMTask task : tasks) {
+            if (task != null && task.getId() != null) {
+                putTask(taskKey(task.getId()), basket, basketKey);
+            }
+        }
+    }
+
+    /**
+     * Add a single task to the index, e.g. after its basket was resolved without loading all the
+     * basket's tasks.
+     *
+     * @param task
+     * @param basket
+     */
+    public synchronized void indexTask(@NonNull ICMTask task, @NonNull ICMInBasket basket) {
+        if (task.getId() == null) {
+            return;
+        }
+
+        putTask(taskKey(task.getId()), basket, basketKey(basket));
+    }
+
+    /**
+     * Find the {@link ICMInBasket} that contains the given {@link ICMTask}.
+     *
+     * @param task
+     * @return the basket that contains the task or {@code null} if the task was not indexed
+     */
+    public synchronized ICMInBasket findBasket(@NonNull ICMTask task) {
+        if (task.getId() == null) {
+            return null;
+        }
+
+        return mTaskBaskets.get(taskKey(task.getId()));
+    }
+
+    /**
+     * Remove all the entries from the index.
+     */
+    public synchronized void clear() {
+        mTaskBaskets.clear();
+        mBasketTasks.clear();
+    }
+
+    /**
+     * @return the number of indexed tasks
+     */
+    public synchronized int size() {
+        return mTaskBaskets.size();
+    }
+
+    private void putTask(String taskKey, ICMInBasket basket, String basketKey) {
+        // the task might have moved from another basket
+        final ICMInBasket oldBasket = mTaskBaskets.put(taskKey, basket);
+        if (oldBasket != null) {
+            final String oldBasketKey = basketKey(oldBasket);
+            if (!oldBasketKey.equals(basketKey)) {
+                final Set<String> oldTaskKeys = mBasketTasks.get(oldBasketKey);
+                if (oldTaskKeys != null) {
+                    oldTaskKeys.remove(taskKey);
+                }
+            }
+        }
+
+        Set<String> taskKeys = mBasketTasks.get(basketKey);
+        if (taskKeys == null) {
+            taskKeys = new HashSet<>();
+            mBasketTasks.put(basketKey, taskKeys);
+        }
+        taskKeys.add(taskKey);
+    }
+
+    private void removeBasket(String basketKey) {
+        final Set<String> oldTaskKeys = mBasketTasks.remove(basketKey);
+        if (oldTaskKeys != null) {
+            for (String taskKey : oldTaskKeys) {
+                mTaskBaskets.remove(taskKey);
+            }
+        }
+    }
+
+    private static String basketKey(ICMInBasket basket) {
+        // baskets don't have an id, the queue name is the closest thing to one
+        return basket.getQueueName() != null ? basket.getQueueName() : basket.getName();
+    }
+
+    private static String taskKey(String taskId) {
+        // task ids used to be compared with equalsIgnoreCase()
+        return taskId.toLowerCase(Locale.US);
+    }
+}
@@ -0,0 +1,378 @@
+package com.ibm.casesdk.sample.nearbytasks.controllers;
+
+import android.support.annotation.NonNull;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+import com.ibm.casesdk.sample.nearbytasks.utils.GeohashGrid;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Groups the tasks that are close to each other on the screen, for a map zoom level.
+ * <p>
+ * The world is split in square cells of a fixed size in map pixels, so the cells get smaller as
+ * the map is zoomed in. The tasks of a cell with at least the minimum cluster size form a
+ * cluster, the other ones are shown on their own. The cells of the last zoom levels used are
+ * computed once and kept up to date as tasks are added and removed, so moving the map only
+ * selects the visible cells. The bounds don't wrap around the antimeridian. Distances are
+ * measured in the web mercator projection of the map, where the world is 256 pixels wide at
+ * zoom 0.
+ * <p>
+ * This class doesn't use the Android framework, so it can be benchmarked on the JVM.
+ */
+public class TaskClusterer {
+
+    private static final int WORLD_SIZE = 256;
+    private static final int MAX_ZOOM = 21;
+
+    // zoom levels whose cells are kept up to date, the user seldom goes far from the current one
+    private static final int MAX_LEVELS = 4;
+
+    private final int mCellSize;
+    private final int mMinClusterSize;
+    private final int mMaxClusterZoom;
+
+    // task id -> projected task
+    private final HashMap<String, ProjectedTask> mTasks = new HashMap<>();
+
+    // zoom -> cell -> tasks of the cell, for the zoom levels requested last
+    private final LinkedHashMap<Integer, HashMap<Long, List<ProjectedTask>>> mLevels =
+            new LinkedHashMap<Integer, HashMap<Long, List<ProjectedTask>>>(MAX_LEVELS + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, HashMap<Long, List<ProjectedTask>>> eldest) {
+                    return size() > MAX_LEVELS;
+                }
+            };
+
+    /**
+     * @param cellSize       the size of the cells, in map pixels
+     * @param minClusterSize the minimum number of tasks of a cluster
+     * @param maxClusterZoom the zoom level from which tasks are never clustered
+     */
+    public TaskClusterer(int cellSize, int minClusterSize, int maxClusterZoom) {
+        mCellSize = cellSize;
+        mMinClusterSize = minClusterSize;
+        mMaxClusterZoom = maxClusterZoom;
+    }
+
+    /**
+     * Replace the clustered tasks. Only the tasks that were added, removed or moved are assigned to
+     * their cells again.
+     *
+     * @param tasks
+     * @return {@code true} if the tasks changed
+     */
+    public synchronized boolean setTasks(@NonNull List<ICMTask> tasks) {
+        final Set<String> taskKeys = new HashSet<>(tasks.size());
+        boolean changed = false;
+
+        for (ICMTask task : tasks) {
+            // same check as Utils.hasLocation
+            if (task.getId() == null || task.getLatitude() == 0.0f || task.getLongitude() == 0.0f) {
+                continue;
+            }
+
+            final String taskKey = task.getId().toLowerCase(Locale.US);
+            if (!taskKeys.add(taskKey)) {
+                continue;
+            }
+
+            final ProjectedTask projectedTask = mTasks.get(taskKey);
+            if (projectedTask != null && projectedTask.isAt(task)) {
+                // the position is the same, the task might not be
+                projectedTask.mTask = task;
+                continue;
+            }
+
+            if (projectedTask != null) {
+                removeFromLevels(projectedTask);
+            }
+
+            final ProjectedTask newTask = new ProjectedTask(taskKey, task);
+            mTasks.put(taskKey, newTask);
+            addToLevels(newTask);
+            changed = true;
+        }
+
+        // the tasks that are gone
+        final Iterator<Map.Entry<String, ProjectedTask>> iterator = mTasks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, ProjectedTask> next = iterator.next();
+            if (!taskKeys.contains(next.getKey())) {
+                removeFromLevels(next.getValue());
+                iterator.remove();
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * @param zoom
+     * @param south
+     * @param west
+     * @param north
+     * @param east
+     * @return the clusters and the single tasks of the cells inside the bounds and around them
+     */
+    public synchronized List<TaskCluster> getClusters(int zoom, double south, double west, double north,
+                                                      double east) {
+        zoom = Math.max(0, Math.min(zoom, MAX_ZOOM));
+        final HashMap<Long, List<ProjectedTask>> cells = getLevel(zoom);
+        final double scale = scale(zoom);
+
+        // one more cell on each side, so the clusters on the edges don't pop in while panning
+        final int firstColumn = (int) Math.floor(projectX(west) * scale) - 1;
+        final int lastColumn = (int) Math.floor(projectX(east) * scale) + 1;
+        final int firstRow = (int) Math.floor(projectY(north) * scale) - 1;
+        final int lastRow = (int) Math.floor(projectY(south) * scale) + 1;
+
+        final List<TaskCluster> clusters = new ArrayList<>();
+        final boolean isClustering = zoom < mMaxClusterZoom;
+        final long visibleCount = (long) (lastColumn - firstColumn + 1) * (lastRow - firstRow + 1);
+        if (visibleCount < cells.size()) {
+            // zoomed in, there are fewer visible cells than cells with tasks
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                for (int row = firstRow; row <= lastRow; row++) {
+                    addClusters(clusters, zoom, column, row, cells.get(GeohashGrid.cell(column, row)), isClustering);
+                }
+            }
+        } else {
+            for (Map.Entry<Long, List<ProjectedTask>> next : cells.entrySet()) {
+                final int column = GeohashGrid.cellColumn(next.getKey());
+                final int row = GeohashGrid.cellRow(next.getKey());
+                if (column >= firstColumn && column <= lastColumn && row >= firstRow && row <= lastRow) {
+                    addClusters(clusters, zoom, column, row, next.getValue(), isClustering);
+                }
+            }
+        }
+
+        return clusters;
+    }
+
+    /**
+     * @return the number of clustered tasks
+     */
+    public synchronized int size() {
+        return mTasks.size();
+    }
+
+    /**
+     * Remove all the tasks.
+     */
+    public synchronized void clear() {
+        mTasks.clear();
+        mLevels.clear();
+    }
+
+    private void addClusters(List<TaskCluster> clusters, int zoom, int column, int row,
+                             List<ProjectedTask> cellTasks, boolean isClustering) {
+        if (cellTasks == null) {
+            return;
+        }
+
+        if (isClustering && cellTasks.size() >= mMinClusterSize) {
+            clusters.add(new TaskCluster(zoom + "/" + column + "/" + row, cellTasks));
+        } else {
+            for (ProjectedTask projectedTask : cellTasks) {
+                clusters.add(new TaskCluster(projectedTask.mKey, Collections.singletonList(projectedTask)));
+            }
+        }
+    }
+
+    private HashMap<Long, List<ProjectedTask>> getLevel(int zoom) {
+        HashMap<Long, List<ProjectedTask>> cells = mLevels.get(zoom);
+        if (cells == null) {
+            cells = new HashMap<>();
+            mLevels.put(zoom, cells);
+            for (ProjectedTask projectedTask : mTasks.values()) {
+                add(cells, zoom, projectedTask);
+            }
+        }
+
+        return cells;
+    }
+
+    private void addToLevels(ProjectedTask projectedTask) {
+        for (Map.Entry<Integer, HashMap<Long, List<ProjectedTask>>> level : mLevels.entrySet()) {
+            add(level.getValue(), level.getKey(), projectedTask);
+        }
+    }
+
+    private void removeFromLevels(ProjectedTask projectedTask) {
+        for (Map.Entry<Integer, HashMap<Long, List<ProjectedTask>>> level : mLevels.entrySet()) {
+            final long cell = cell(level.getKey(), projectedTask);
+            final List<ProjectedTask> cellTasks = level.getValue().get(cell);
+            if (cellTasks != null) {
+                cellTasks.remove(projectedTask);
+                if (cellTasks.isEmpty()) {
+                    level.getValue().remove(cell);
+                }
+            }
+        }
+    }
+
+    private void add(HashMap<Long, List<ProjectedTask>> cells, int zoom, ProjectedTask projectedTask) {
+        final long cell = cell(zoom, projectedTask);
+        List<ProjectedTask> cellTasks = cells.get(cell);
+        if (cellTasks == null) {
+            cellTasks = new ArrayList<>();
+            cells.put(cell, cellTasks);
+        }
+        cellTasks.add(projectedTask);
+    }
+
+    private long cell(int zoom, ProjectedTask projectedTask) {
+        final double scale = scale(zoom);
+        return GeohashGrid.cell((int) Math.floor(projectedTask.mX * scale), (int) Math.floor(projectedTask.mY * scale));
+    }
+
+    /**
+     * @return the number of cells across the world at the zoom level
+     */
+    private double scale(int zoom) {
+        return WORLD_SIZE * Math.pow(2, zoom) / mCellSize;
+    }
+
+    /**
+     * @return the web mercator x of the longitude, from 0 to 1
+     */
+    private static double projectX(double longitude) {
+        return Math.max(0, Math.min((longitude + 180.0) / 360.0, 1));
+    }
+
+    /**
+     * @return the web mercator y of the latitude, from 0 at the north to 1 at the south
+     */
+    private static double projectY(double latitude) {
+        final double sin = Math.sin(Math.toRadians(Math.max(-85.0511, Math.min(latitude, 85.0511))));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    private static class ProjectedTask {
+        final String mKey;
+        final double mX;
+        final double mY;
+        ICMTask mTask;
+
+        ProjectedTask(String key, ICMTask task) {
+            mKey = key;
+            mTask = task;
+            mX = projectX(task.getLongitude());
+            mY = projectY(task.getLatitude());
+        }
+
+        boolean isAt(ICMTask task) {
+            return mTask.getLatitude() == task.getLatitude() && mTask.getLongitude() == task.getLongitude();
+        }
+    }
+
+    /**
+     * A group of tasks shown as a single marker, or a single task.
+     */
+    public static class TaskCluster {
+        private final String mKey;
+        private final List<ICMTask> mTasks;
+        private final double mLatitude;
+        private final double mLongitude;
+        private final double mSouth;
+        private final double mWest;
+        private final double mNorth;
+        private final double mEast;
+
+        TaskCluster(String key, List<ProjectedTask> projectedTasks) {
+            mKey = key;
+            mTasks = new ArrayList<>(projectedTasks.size());
+
+            double latitudeSum = 0;
+            double longitudeSum = 0;
+            double south = Double.MAX_VALUE;
+            double west = Double.MAX_VALUE;
+            double north = -Double.MAX_VALUE;
+            double east = -Double.MAX_VALUE;
+            for (ProjectedTask projectedTask : projectedTasks) {
+                final ICMTask task = projectedTask.mTask;
+                mTasks.add(task);
+                latitudeSum += task.getLatitude();
+                longitudeSum += task.getLongitude();
+                south = Math.min(south, task.getLatitude());
+                west = Math.min(west, task.getLongitude());
+                north = Math.max(north, task.getLatitude());
+                east = Math.max(east, task.getLongitude());
+            }
+
+            mLatitude = latitudeSum / mTasks.size();
+            mLongitude = longitudeSum / mTasks.size();
+            mSouth = south;
+            mWest = west;
+            mNorth = north;
+            mEast = east;
+        }
+
+        /**
+         * @return the id of the task of a single task, the cell of a cluster otherwise
+         */
+        public String getKey() {
+            return mKey;
+        }
+
+        public boolean isCluster() {
+            return mTasks.size() > 1;
+        }
+
+        public int size() {
+            return mTasks.size();
+        }
+
+        public List<ICMTask> getTasks() {
+            return mTasks;
+        }
+
+        /**
+         * @return the task of a single task cluster, the first task otherwise
+         */
+        public ICMTask getTask() {
+            return mTasks.get(0);
+        }
+
+        /**
+         * @return the average latitude of the tasks
+         */
+        public double getLatitude() {
+            return mLatitude;
+        }
+
+        /**
+         * @return the average longitude of the tasks
+         */
+        public double getLongitude() {
+            return mLongitude;
+        }
+
+        public double getSouth() {
+            return mSouth;
+        }
+
+        public double getWest() {
+            return mWest;
+        }
+
+        public double getNorth() {
+            return mNorth;
+        }
+
+        public double getEast() {
+            return mEast;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.ibm.casesdk.sample.nearbytasks.controllers;
+
+import android.support.annotation.NonNull;
+
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+import com.ibm.casesdk.sample.nearbytasks.utils.GeohashGrid;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Index of the task locations on a {@link GeohashGrid}, so the nearby tasks can be found without
+ * asking the server again.
+ * <p>
+ * The index doesn't know which regions it has all the tasks of, see {@link NearbyTaskCache}.
+ * Distances are measured in degrees, like the radius of {@code RoleManager.getNearbyTasks}.
+ * Tasks without a location are not indexed.
+ */
+public class TaskSpatialIndex {
+
+    private final GeohashGrid mGrid;
+
+    // cell -> tasks located in the cell
+    private final HashMap<Long, List<IndexedTask>> mCellTasks;
+
+    // task id -> indexed task
+    private final HashMap<String, IndexedTask> mTasks;
+
+    /**
+     * @param precision the geohash precision of the cells, see {@link GeohashGrid}
+     */
+    public TaskSpatialIndex(int precision) {
+        mGrid = new GeohashGrid(precision);
+        mCellTasks = new HashMap<>();
+        mTasks = new HashMap<>();
+    }
+
+    public GeohashGrid getGrid() {
+        return mGrid;
+    }
+
+    /**
+     * Add the result of a server query for the tasks within the given distance of a point. The
+     * indexed tasks of the region that are not in the result anymore are removed.
+     *
+     * @param latitude
+     * @param longitude
+     * @param radius
+     * @param tasks     the tasks returned by the server for the region
+     */
+    public synchronized void putRegion(double latitude, double longitude, double radius,
+                                       @NonNull List<ICMTask> tasks) {
+        final double squaredRadius = radius * radius;
+        final int firstColumn = mGrid.column(longitude - radius);
+        final int lastColumn = mGrid.column(longitude + radius);
+        final int firstRow = mGrid.row(latitude - radius);
+        final int lastRow = mGrid.row(latitude + radius);
+
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                if (mGrid.squaredDistanceToCell(column, row, latitude, longitude) > squaredRadius) {
+                    continue;
+                }
+
+                // the tasks the server didn't return have been completed or moved away
+                final long cell = GeohashGrid.cell(column, row);
+                final List<IndexedTask> cellTasks = mCellTasks.get(cell);
+                if (cellTasks == null) {
+                    continue;
+                }
+
+                final Iterator<IndexedTask> iterator = cellTasks.iterator();
+                while (iterator.hasNext()) {
+                    final IndexedTask indexedTask = iterator.next();
+                    if (indexedTask.isWithin(latitude, longitude, squaredRadius)) {
+                        iterator.remove();
+                        mTasks.remove(indexedTask.mKey);
+                    }
+                }
+
+                if (cellTasks.isEmpty()) {
+                    mCellTasks.remove(cell);
+                }
+            }
+        }
+
+        for (ICMTask task : tasks) {
+            put(task);
+        }
+    }
+
+    /**
+     * Add a task to the index, replacing the entry previously indexed for the same task id.
+     *
+     * @param task
+     */
+    public synchronized void put(@NonNull ICMTask task) {
+        if (task.getId() == null) {
+            return;
+        }
+
+        final String taskKey = taskKey(task.getId());
+        remove(taskKey);
+
+        // same check as Utils.hasLocation
+        if (task.getLatitude() == 0.0f || task.getLongitude() == 0.0f) {
+            return;
+        }
+
+        final IndexedTask indexedTask = new IndexedTask(taskKey, task);
+        final long cell = mGrid.cellAt(indexedTask.mLatitude, indexedTask.mLongitude);
+        List<IndexedTask> cellTasks = mCellTasks.get(cell);
+        if (cellTasks == null) {
+            cellTasks = new ArrayList<>();
+            mCellTasks.put(cell, cellTasks);
+        }
+
+        cellTasks.add(indexedTask);
+        indexedTask.mCell = cell;
+        mTasks.put(taskKey, indexedTask);
+    }
+
+    /**
+     * Remove a task from the index, e.g. once it has been completed.
+     *
+     * @param task
+     */
+    public synchronized void remove(@NonNull ICMTask task) {
+        if (task.getId() != null) {
+            remove(taskKey(task.getId()));
+        }
+    }
+
+    /**
+     * @param latitude
+     * @param longitude
+     * @param radius
+     * @return the indexed tasks within the given distance of the point, in no particular order
+     */
+    public synchronized List<ICMTask> findWithinRadius(double latitude, double longitude, double radius) {
+        final List<ICMTask> found = new ArrayList<>();
+        final double squaredRadius = radius * radius;
+        final int firstColumn = mGrid.column(longitude - radius);
+        final int lastColumn = mGrid.column(longitude + radius);
+        final int firstRow = mGrid.row(latitude - radius);
+        final int lastRow = mGrid.row(latitude + radius);
+
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                final List<IndexedTask> cellTasks = mCellTasks.get(GeohashGrid.cell(column, row));
+                if (cellTasks == null
+                        || mGrid.squaredDistanceToCell(column, row, latitude, longitude) > squaredRadius) {
+                    continue;
+                }
+
+                // the tasks of a cell inside the region don't have to be checked one by one
+                final boolean isInside =
+                        mGrid.squaredDistanceToFarCorner(column, row, latitude, longitude) <= squaredRadius;
+                for (IndexedTask indexedTask : cellTasks) {
+                    if (isInside || indexedTask.isWithin(latitude, longitude, squaredRadius)) {
+                        found.add(indexedTask.mTask);
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * @param south
+     * @param west
+     * @param north
+     * @param east
+     * @return the indexed tasks inside the bounding box, in no particular order
+     */
+    public synchronized List<ICMTask> findInBounds(double south, double west, double north, double east) {
+        final List<ICMTask> found = new ArrayList<>();
+        final int firstColumn = mGrid.column(west);
+        final int lastColumn = mGrid.column(east);
+        final int firstRow = mGrid.row(south);
+        final int lastRow = mGrid.row(north);
+
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                final List<IndexedTask> cellTasks = mCellTasks.get(GeohashGrid.cell(column, row));
+                if (cellTasks == null) {
+                    continue;
+                }
+
+                // only the cells on the edges of the box are partly outside of it
+                final boolean isInside = column != firstColumn && column != lastColumn
+                        && row != firstRow && row != lastRow;
+                for (IndexedTask indexedTask : cellTasks) {
+                    if (isInside || (indexedTask.mLatitude >= south && indexedTask.mLatitude <= north
+                            && indexedTask.mLongitude >= west && indexedTask.mLongitude <= east)) {
+                        found.add(indexedTask.mTask);
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * @return the number of indexed tasks
+     */
+    public synchronized int size() {
+        return mTasks.size();
+    }
+
+    /**
+     * Remove all the tasks.
+     */
+    public synchronized void clear() {
+        mCellTasks.clear();
+        mTasks.clear();
+    }
+
+    private void remove(String taskKey) {
+        final IndexedTask indexedTask = mTasks.remove(taskKey);
+        if (indexedTask == null) {
+            return;
+        }
+
+        final List<IndexedTask> cellTasks = mCellTasks.get(indexedTask.mCell);
+        cellTasks.remove(indexedTask);
+        if (cellTasks.isEmpty()) {
+            mCellTasks.remove(indexedTask.mCell);
+        }
+    }
+
+    private static String taskKey(@NonNull String taskId) {
+        // task ids used to be compared with equalsIgnoreCase()
+        return taskId.toLowerCase(Locale.US);
+    }
+
+    private static class IndexedTask {
+        final String mKey;
+        final ICMTask mTask;
+        final double mLatitude;
+        final double mLongitude;
+        long mCell;
+
+        IndexedTask(String key, ICMTask task) {
+            mKey = key;
+            mTask = task;
+            mLatitude = task.getLatitude();
+            mLongitude = task.getLongitude();
+        }
+
+        boolean isWithin(double latitude, double longitude, double squaredRadius) {
+            final double latitudeDelta = mLatitude - latitude;
+            final double longitudeDelta = mLongitude - longitude;
+            return latitudeDelta * latitudeDelta + longitudeDelta * longitudeDelta <= squaredRadius;
+        }
+    }
+}
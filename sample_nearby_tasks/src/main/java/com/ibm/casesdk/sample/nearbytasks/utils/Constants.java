@@ -1,10 +1,12 @@
 package com.ibm.casesdk.sample.nearbytasks.utils;
 
+import com.ibm.casesdk.sample.nearbytasks.BuildConfig;
+
 /**
  * Created by stelian on 20/10/2015.
  */
 public class Constants {
-    public static final String ENDPOINT = "http://ecm1.fws.io:9080/navigator/";
+    public static final String ENDPOINT = BuildConfig.ICM_ENDPOINT;
     public static final String SOLUTION = "CRE Loans";
     public static final String SOLUTION_PREFIX = "CRE1";
     public static final String USER = "caseuser1";
@@ -12,4 +14,27 @@ public class Constants {
     public static final String ROLE = "Loan Officer";
     public static final double DEFAULT_RADIUS = 0.2;
     public static final int DEFAULT_TASK_ACTION_INDEX = 0;
+    public static final int SPATIAL_INDEX_PRECISION = 5;
+    public static final long NEARBY_TILE_TTL = 300000;
+    public static final double REFETCH_DISTANCE_FRACTION = 0.1;
+    public static final double REFETCH_HYSTERESIS = 0.5;
+    public static final long REFETCH_MIN_INTERVAL = 15000;
+    public static final int CLUSTER_CELL_SIZE = 64;
+    public static final int CLUSTER_MIN_SIZE = 4;
+    public static final int CLUSTER_MAX_ZOOM = 17;
+    public static final int MANAGER_CACHE_INBASKETS = 16;
+    public static final int MANAGER_CACHE_TASKS = 64;
+    public static final boolean PRELOAD_INBASKETS = false;
+    public static final int INBASKET_LOAD_CONCURRENCY = 4;
+    public static final long INBASKET_LOAD_TIMEOUT = 15000;
+    public static final int INBASKET_PARTIAL_RESULT_COUNT = 3;
+    public static final int RETRY_MAX_ATTEMPTS = 4;
+    public static final long RETRY_BASE_DELAY = 500;
+    public static final long RETRY_MAX_DELAY = 8000;
+    public static final int CIRCUIT_FAILURE_THRESHOLD = 5;
+    public static final long CIRCUIT_OPEN_DURATION = 10000;
+    public static final long SDK_TIMEOUT = 15000; // connect timeout of the SDK, the shortest of its timeouts
+    public static final String METRICS_REPORT_FILE = "operation_metrics.txt";
+    public static final String STARTUP_TRACE_FILE = "startup_trace.json";
+    public static final long BOOTSTRAP_TIMEOUT = 60000;
 }
@@ -0,0 +1,184 @@
+package com.ibm.casesdk.sample.nearbytasks.utils;
+
+/**
+ * The grid of the geohash cells of a given precision, in degrees.
+ * <p>
+ * Cells are identified by their column and row packed in a {@code long}, which is cheaper to
+ * compute than the interleaved geohash bits, {@link #toGeohash(long)} gives the geohash of a
+ * cell. The grid doesn't wrap around the antimeridian, points outside of it are clamped to the
+ * closest cell.
+ * <p>
+ * This class doesn't use the Android framework, so it can be benchmarked on the JVM.
+ */
+public class GeohashGrid {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    public static final int MAX_PRECISION = 12;
+
+    private final int mPrecision;
+    private final int mLongitudeBits;
+    private final int mLatitudeBits;
+    private final double mCellWidth;
+    private final double mCellHeight;
+
+    /**
+     * @param precision the number of geohash characters, from 1 to {@link #MAX_PRECISION}
+     */
+    public GeohashGrid(int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be between 1 and " + MAX_PRECISION);
+        }
+
+        // geohash bits alternate between longitude and latitude, starting with longitude
+        final int bits = precision * 5;
+        mPrecision = precision;
+        mLongitudeBits = (bits + 1) / 2;
+        mLatitudeBits = bits / 2;
+        mCellWidth = 360.0 / (1L << mLongitudeBits);
+        mCellHeight = 180.0 / (1L << mLatitudeBits);
+    }
+
+    public int getPrecision() {
+        return mPrecision;
+    }
+
+    /**
+     * @return the width of a cell, in degrees of longitude
+     */
+    public double getCellWidth() {
+        return mCellWidth;
+    }
+
+    /**
+     * @return the height of a cell, in degrees of latitude
+     */
+    public double getCellHeight() {
+        return mCellHeight;
+    }
+
+    /**
+     * @param longitude
+     * @return the column of the cells that contain the longitude
+     */
+    public int column(double longitude) {
+        return clamp((long) Math.floor((longitude + 180.0) / mCellWidth), (1L << mLongitudeBits) - 1);
+    }
+
+    /**
+     * @param latitude
+     * @return the row of the cells that contain the latitude
+     */
+    public int row(double latitude) {
+        return clamp((long) Math.floor((latitude + 90.0) / mCellHeight), (1L << mLatitudeBits) - 1);
+    }
+
+    /**
+     * @param latitude
+     * @param longitude
+     * @return the cell that contains the point
+     */
+    public long cellAt(double latitude, double longitude) {
+        return cell(column(longitude), row(latitude));
+    }
+
+    /**
+     * @param column
+     * @return the west edge of the cells of the column
+     */
+    public double west(int column) {
+        return column * mCellWidth - 180.0;
+    }
+
+    /**
+     * @param row
+     * @return the south edge of the cells of the row
+     */
+    public double south(int row) {
+        return row * mCellHeight - 90.0;
+    }
+
+    /**
+     * @param column
+     * @param row
+     * @param latitude
+     * @param longitude
+     * @return the squared distance from the point to the closest point of the cell, 0 if the
+     * point is in the cell
+     */
+    public double squaredDistanceToCell(int column, int row, double latitude, double longitude) {
+        final double west = west(column);
+        final double south = south(row);
+        final double longitudeDelta = Math.max(0, Math.max(west - longitude, longitude - west - mCellWidth));
+        final double latitudeDelta = Math.max(0, Math.max(south - latitude, latitude - south - mCellHeight));
+        return longitudeDelta * longitudeDelta + latitudeDelta * latitudeDelta;
+    }
+
+    /**
+     * @param column
+     * @param row
+     * @param latitude
+     * @param longitude
+     * @return the squared distance from the point to the farthest corner of the cell
+     */
+    public double squaredDistanceToFarCorner(int column, int row, double latitude, double longitude) {
+        final double west = west(column);
+        final double south = south(row);
+        final double longitudeDelta = Math.max(Math.abs(west - longitude), Math.abs(west + mCellWidth - longitude));
+        final double latitudeDelta = Math.max(Math.abs(south - latitude), Math.abs(south + mCellHeight - latitude));
+        return longitudeDelta * longitudeDelta + latitudeDelta * latitudeDelta;
+    }
+
+    /**
+     * @param cell
+     * @return the geohash of the cell, {@link #getPrecision()} characters long
+     */
+    public String toGeohash(long cell) {
+        final int column = cellColumn(cell);
+        final int row = cellRow(cell);
+        final char[] geohash = new char[mPrecision];
+
+        int longitudeBit = mLongitudeBits;
+        int latitudeBit = mLatitudeBits;
+        for (int i = 0; i < mPrecision; i++) {
+            int value = 0;
+            for (int bit = 0; bit < 5; bit++) {
+                final boolean isLongitude = ((i * 5 + bit) & 1) == 0;
+                final int source = isLongitude ? column >>> --longitudeBit : row >>> --latitudeBit;
+                value = (value << 1) | (source & 1);
+            }
+            geohash[i] = BASE32[value];
+        }
+
+        return new String(geohash);
+    }
+
+    /**
+     * @param column
+     * @param row
+     * @return the cell at the given column and row
+     */
+    public static long cell(int column, int row) {
+        return ((long) column << 32) | (row & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param cell
+     * @return the column of the cell
+     */
+    public static int cellColumn(long cell) {
+        return (int) (cell >>> 32);
+    }
+
+    /**
+     * @param cell
+     * @return the row of the cell
+     */
+    public static int cellRow(long cell) {
+        return (int) cell;
+    }
+
+    private static int clamp(long value, long max) {
+        return (int) Math.max(0, Math.min(value, max));
+    }
+}
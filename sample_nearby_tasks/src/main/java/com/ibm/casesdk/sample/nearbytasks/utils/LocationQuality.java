@@ -0,0 +1,60 @@
+package com.ibm.casesdk.sample.nearbytasks.utils;
+
+/**
+ * Decide whether a new location fix is better than the current one, from the differences
+ * between the two fixes.
+ * <p>
+ * This class doesn't use the Android framework, so it can be benchmarked on the JVM.
+ */
+public class LocationQuality {
+
+    private static final int TWO_MINUTES = 1000 * 60 * 2;
+
+    private LocationQuality() {
+    }
+
+    /**
+     * @param latDelta      new latitude - current latitude
+     * @param longDelta     new longitude - current longitude
+     * @param timeDelta     new time - current time, in milliseconds
+     * @param accuracyDelta new accuracy - current accuracy, in meters
+     * @param sameProvider  {@code true} if both fixes come from the same provider
+     * @return {@code true} if the new fix is better
+     */
+    public static boolean isBetter(double latDelta, double longDelta, long timeDelta, float accuracyDelta,
+                                   boolean sameProvider) {
+        // Check if the new location is different from the old one, in any direction
+        boolean isDifferent = Math.abs(latDelta) > 0.0 || Math.abs(longDelta) > 0.0;
+
+        if (!isDifferent) {
+            return false;
+        }
+
+        // Check whether the new location fix is newer or older
+        boolean isSignificantlyNewer = timeDelta > TWO_MINUTES;
+        boolean isSignificantlyOlder = timeDelta < -TWO_MINUTES;
+        boolean isNewer = timeDelta > 0;
+
+        // If it's been more than two minutes since the current location, use the new location
+        // because the user has likely moved
+        if (isSignificantlyNewer) {
+            return true;
+            // If the new location is more than two minutes older, it must be worse
+        } else if (isSignificantlyOlder) {
+            return false;
+        }
+
+        // Check whether the new location fix is more or less accurate
+        int accuracyDeltaMeters = (int) accuracyDelta;
+        boolean isMoreAccurate = accuracyDeltaMeters < 0;
+        boolean isSignificantlyLessAccurate = accuracyDeltaMeters > 200;
+
+        // Determine location quality using a combination of timeliness and accuracy
+        if (isMoreAccurate) {
+            return true;
+        } else if (isNewer && !isSignificantlyLessAccurate && sameProvider) {
+            return true;
+        }
+        return false;
+    }
+}
@@ -5,6 +5,8 @@ import android.content.Context;
 import android.location.Address;
 import android.location.Geocoder;
 import android.location.Location;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
 import android.support.annotation.NonNull;
 import android.text.TextUtils;
 import android.view.View;
@@ -22,12 +24,24 @@ import java.util.Locale;
  */
 public class Utils {
 
-    private static final int TWO_MINUTES = 1000 * 60 * 2;
-
     public static View getContentView(Activity activity) {
         return activity.findViewById(android.R.id.content);
     }
 
+    /**
+     * Determine if the device has a network connection.
+     *
+     * @param context
+     * @return
+     */
+    public static boolean isNetworkAvailable(@NonNull Context context) {
+        final ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        final NetworkInfo networkInfo = connectivityManager.getActiveNetworkInfo();
+
+        return networkInfo != null && networkInfo.isConnected();
+    }
+
     public static void showKeyboard(@NonNull Window window) {
         window.setSoftInputMode(WindowManager.LayoutParams.SOFT_INPUT_STATE_ALWAYS_VISIBLE);
     }
@@ -45,49 +59,12 @@ public class Utils {
             return true;
         }
 
-        // Check if the new location is  different from the old one
-        double latDelta = location.getLatitude() - currentBestLocation.getLatitude();
-        double longDelta = location.getLongitude() - currentBestLocation.getLongitude();
-        boolean isDifferent = latDelta > 0.0 || longDelta > 0.0;
-
-        if (!isDifferent) {
-            return false;
-        }
-
-        // Check whether the new location fix is newer or older
-        long timeDelta = location.getTime() - currentBestLocation.getTime();
-        boolean isSignificantlyNewer = timeDelta > TWO_MINUTES;
-        boolean isSignificantlyOlder = timeDelta < -TWO_MINUTES;
-        boolean isNewer = timeDelta > 0;
-
-        // If it's been more than two minutes since the current location, use the new location
-        // because the user has likely moved
-        if (isSignificantlyNewer) {
-            return true;
-            // If the new location is more than two minutes older, it must be worse
-        } else if (isSignificantlyOlder) {
-            return false;
-        }
-
-        // Check whether the new location fix is more or less accurate
-        int accuracyDelta = (int) (location.getAccuracy() - currentBestLocation.getAccuracy());
-        boolean isLessAccurate = accuracyDelta > 0;
-        boolean isMoreAccurate = accuracyDelta < 0;
-        boolean isSignificantlyLessAccurate = accuracyDelta > 200;
-
-        // Check if the old and new location are from the same provider
-        boolean isFromSameProvider = isSameProvider(location.getProvider(),
-                currentBestLocation.getProvider());
-
-        // Determine location quality using a combination of timeliness and accuracy
-        if (isMoreAccurate) {
-            return true;
-        } /*else if (isNewer && !isLessAccurate) {
-            return true;
-        }*/ else if (isNewer && !isSignificantlyLessAccurate && isFromSameProvider) {
-            return true;
-        }
-        return false;
+        return LocationQuality.isBetter(
+                location.getLatitude() - currentBestLocation.getLatitude(),
+                location.getLongitude() - currentBestLocation.getLongitude(),
+                location.getTime() - currentBestLocation.getTime(),
+                location.getAccuracy() - currentBestLocation.getAccuracy(),
+                isSameProvider(location.getProvider(), currentBestLocation.getProvider()));
     }
 
     /**
@@ -26,13 +26,14 @@ public interface NearbyTasksViewModel {
     int LOCK_TASK = 6;
     int UNLOCK_TASK = 7;
     int TASK_ACTION = 8;
+    int LOAD_INBASKETS = 9;
 
 
     /**
      * Define valid operations for the {@link NearbyTasksViewModel}
      */
     @IntDef({INITIATE_SESSION, FIND_NEARBY_TASKS, FIND_ROLE, FIND_SOLUTION, LOAD_SOLUTION_DETAILS,
-            LOAD_TASK_DETAILS, LOCK_TASK, UNLOCK_TASK, TASK_ACTION})
+            LOAD_TASK_DETAILS, LOCK_TASK, UNLOCK_TASK, TASK_ACTION, LOAD_INBASKETS})
     @Retention(RetentionPolicy.SOURCE)
     @interface Operations {
     }
@@ -59,7 +60,8 @@ public interface NearbyTasksViewModel {
     void onRoleFound(final ICMRole role);
 
     /**
-     * Notify when all the workbaskets for a role have been loaded.
+     * Notify when the workbaskets for a role have been loaded. This can happen before the
+     * slowest workbaskets arrive, the remaining ones keep loading in the background.
      */
     void onWorkbasketsLoaded();
 
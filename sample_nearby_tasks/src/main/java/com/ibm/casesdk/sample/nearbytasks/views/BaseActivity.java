@@ -1,10 +1,14 @@
 package com.ibm.casesdk.sample.nearbytasks.views;
 
+import android.content.DialogInterface;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.design.widget.NavigationView;
+import android.support.design.widget.Snackbar;
 import android.support.v4.view.GravityCompat;
 import android.support.v4.widget.DrawerLayout;
 import android.support.v7.app.ActionBar;
+import android.support.v7.app.AlertDialog;
 import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.Toolbar;
 import android.view.MenuItem;
@@ -12,6 +16,14 @@ import android.view.View;
 import android.widget.ProgressBar;
 
 import com.ibm.casesdk.sample.nearbytasks.R;
+import com.ibm.casesdk.sample.nearbytasks.controllers.OperationMetrics;
+import com.ibm.casesdk.sample.nearbytasks.utils.Constants;
+import com.ibm.casesdk.sample.nearbytasks.utils.Utils;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
 
 import butterknife.Bind;
 
@@ -111,4 +123,56 @@ public abstract class BaseActivity extends AppCompatActivity implements Navigati
         }
     }
 
+    /**
+     * Display the latency report of the given metrics, with an option to save it to a file.
+     *
+     * @param metrics
+     */
+    protected void showPerformanceReport(@NonNull OperationMetrics metrics) {
+        showPerformanceReport(metrics, "");
+    }
+
+    /**
+     * Display the latency report of the given metrics followed by another report, with an option
+     * to save them to a file.
+     *
+     * @param metrics
+     * @param extraReport
+     */
+    protected void showPerformanceReport(@NonNull OperationMetrics metrics, @NonNull String extraReport) {
+        final String report = metrics.formatReport() + extraReport;
+
+        new AlertDialog.Builder(this)
+                .setTitle(getString(R.string.dlg_title_performance))
+                .setMessage(report)
+                .setPositiveButton(getString(R.string.action_ok), null)
+                .setNeutralButton(getString(R.string.action_save_report), new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        savePerformanceReport(report);
+                    }
+                })
+                .show();
+    }
+
+    private void savePerformanceReport(String report) {
+        // external storage might not be available
+        final File directory = getExternalFilesDir(null) != null ? getExternalFilesDir(null) : getFilesDir();
+        final File reportFile = new File(directory, Constants.METRICS_REPORT_FILE);
+
+        try {
+            final Writer writer = new FileWriter(reportFile);
+            try {
+                writer.write(report);
+            } finally {
+                writer.close();
+            }
+            Snackbar.make(Utils.getContentView(this),
+                    getString(R.string.msg_report_saved, reportFile.getAbsolutePath()),
+                    Snackbar.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Snackbar.make(Utils.getContentView(this), e.getMessage(),
+                    Snackbar.LENGTH_LONG).show();
+        }
+    }
 }
@@ -0,0 +1,273 @@
+package com.ibm.casesdk.sample.nearbytasks.views;
+
+import android.support.annotation.NonNull;
+import android.text.TextUtils;
+
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the markers of a {@link GoogleMap} in sync with a list of items, keyed by the id of the
+ * items.
+ * <p>
+ * Only the differences are applied: markers are added for the new items and removed for the
+ * items that are gone, and the markers of the items whose position, title, snippet or icon changed
+ * are updated in place. Must be used on the main thread, like the map.
+ *
+ * @param <T> the type of the items
+ */
+public class MarkerReconciler<T> {
+
+    /**
+     * Describes the marker of an item.
+     */
+    public interface Adapter<T> {
+
+        /**
+         * @param item
+         * @return the id of the item, {@code null} if the item shouldn't have a marker
+         */
+        String getKey(@NonNull T item);
+
+        /**
+         * @param item
+         * @return the position of the marker, {@code null} if the item shouldn't have a marker
+         */
+        LatLng getPosition(@NonNull T item);
+
+        String getTitle(@NonNull T item);
+
+        String getSnippet(@NonNull T item);
+
+        /**
+         * @param item
+         * @return a key that changes only when the icon of the item changes
+         */
+        String getIconKey(@NonNull T item);
+
+        /**
+         * @param item
+         * @return the options of a new marker, with the icon and the anchor - the position, title
+         * and snippet are set by the reconciler
+         */
+        MarkerOptions createMarkerOptions(@NonNull T item);
+    }
+
+    private final GoogleMap mMap;
+    private final Adapter<T> mAdapter;
+
+    // item id -> marker of the item
+    private final HashMap<String, ItemMarker<T>> mMarkers = new HashMap<>();
+
+    // marker id -> item id, markers can't hold a tag in this version of the maps library
+    private final HashMap<String, String> mMarkerKeys = new HashMap<>();
+
+    private int mAddedCount;
+    private int mRemovedCount;
+    private int mUpdatedCount;
+
+    public MarkerReconciler(@NonNull GoogleMap map, @NonNull Adapter<T> adapter) {
+        mMap = map;
+        mAdapter = adapter;
+    }
+
+    /**
+     * Update the markers so the map shows exactly the given items.
+     *
+     * @param items
+     * @return the number of markers added
+     */
+    public int reconcile(@NonNull List<T> items) {
+        final Set<String> keys = new HashSet<>(items.size());
+        int addedCount = 0;
+
+        for (T item : items) {
+            final String key = mAdapter.getKey(item);
+            final LatLng position = mAdapter.getPosition(item);
+            if (key == null || position == null || !keys.add(key)) {
+                continue;
+            }
+
+            final ItemMarker<T> itemMarker = mMarkers.get(key);
+            if (itemMarker == null) {
+                add(key, item, position);
+                addedCount++;
+            } else {
+                update(itemMarker, item, position);
+            }
+        }
+
+        // the items that are gone
+        final Iterator<Map.Entry<String, ItemMarker<T>>> iterator = mMarkers.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, ItemMarker<T>> next = iterator.next();
+            if (!keys.contains(next.getKey())) {
+                remove(next.getValue().mMarker);
+                iterator.remove();
+            }
+        }
+
+        return addedCount;
+    }
+
+    /**
+     * @param marker
+     * @return the item shown by the marker, {@code null} if the marker isn't managed by this
+     * reconciler
+     */
+    public T getItem(@NonNull Marker marker) {
+        final String key = mMarkerKeys.get(marker.getId());
+        final ItemMarker<T> itemMarker = key != null ? mMarkers.get(key) : null;
+        return itemMarker != null ? itemMarker.mItem : null;
+    }
+
+    /**
+     * @param key
+     * @return the marker of the item with the given id, {@code null} if there is none
+     */
+    public Marker getMarker(@NonNull String key) {
+        final ItemMarker<T> itemMarker = mMarkers.get(key);
+        return itemMarker != null ? itemMarker.mMarker : null;
+    }
+
+    /**
+     * @return the positions of all the markers
+     */
+    public List<LatLng> getPositions() {
+        final List<LatLng> positions = new ArrayList<>(mMarkers.size());
+        for (ItemMarker<T> itemMarker : mMarkers.values()) {
+            positions.add(itemMarker.mPosition);
+        }
+        return positions;
+    }
+
+    public int size() {
+        return mMarkers.size();
+    }
+
+    public boolean isEmpty() {
+        return mMarkers.isEmpty();
+    }
+
+    /**
+     * Remove all the markers from the map.
+     */
+    public void clear() {
+        for (ItemMarker<T> itemMarker : mMarkers.values()) {
+            remove(itemMarker.mMarker);
+        }
+        mMarkers.clear();
+    }
+
+    /**
+     * @return the number of markers added since the reconciler was created
+     */
+    public int getAddedCount() {
+        return mAddedCount;
+    }
+
+    /**
+     * @return the number of markers removed since the reconciler was created
+     */
+    public int getRemovedCount() {
+        return mRemovedCount;
+    }
+
+    /**
+     * @return the number of markers updated in place since the reconciler was created
+     */
+    public int getUpdatedCount() {
+        return mUpdatedCount;
+    }
+
+    private void add(String key, T item, LatLng position) {
+        final String title = mAdapter.getTitle(item);
+        final String snippet = mAdapter.getSnippet(item);
+        final String iconKey = mAdapter.getIconKey(item);
+        final Marker marker = mMap.addMarker(mAdapter.createMarkerOptions(item)
+                .position(position)
+                .title(title)
+                .snippet(snippet));
+
+        mMarkers.put(key, new ItemMarker<>(marker, item, position, title, snippet, iconKey));
+        mMarkerKeys.put(marker.getId(), key);
+        mAddedCount++;
+    }
+
+    private void update(ItemMarker<T> itemMarker, T item, LatLng position) {
+        // the values last applied are compared, every call to the marker goes through the map
+        final Marker marker = itemMarker.mMarker;
+        itemMarker.mItem = item;
+        boolean updated = false;
+
+        if (!position.equals(itemMarker.mPosition)) {
+            marker.setPosition(position);
+            itemMarker.mPosition = position;
+            updated = true;
+        }
+
+        final String title = mAdapter.getTitle(item);
+        if (!TextUtils.equals(title, itemMarker.mTitle)) {
+            marker.setTitle(title);
+            itemMarker.mTitle = title;
+            updated = true;
+        }
+
+        final String snippet = mAdapter.getSnippet(item);
+        if (!TextUtils.equals(snippet, itemMarker.mSnippet)) {
+            marker.setSnippet(snippet);
+            itemMarker.mSnippet = snippet;
+            updated = true;
+        }
+
+        final String iconKey = mAdapter.getIconKey(item);
+        if (!TextUtils.equals(iconKey, itemMarker.mIconKey)) {
+            marker.setIcon(mAdapter.createMarkerOptions(item).getIcon());
+            itemMarker.mIconKey = iconKey;
+            updated = true;
+        }
+
+        if (updated) {
+            mUpdatedCount++;
+
+            // an open info window doesn't show the new text until it is opened again
+            if (marker.isInfoWindowShown()) {
+                marker.showInfoWindow();
+            }
+        }
+    }
+
+    private void remove(Marker marker) {
+        mMarkerKeys.remove(marker.getId());
+        marker.remove();
+        mRemovedCount++;
+    }
+
+    private static class ItemMarker<T> {
+        final Marker mMarker;
+        T mItem;
+        LatLng mPosition;
+        String mTitle;
+        String mSnippet;
+        String mIconKey;
+
+        ItemMarker(Marker marker, T item, LatLng position, String title, String snippet, String iconKey) {
+            mMarker = marker;
+            mItem = item;
+            mPosition = position;
+            mTitle = title;
+            mSnippet = snippet;
+            mIconKey = iconKey;
+        }
+    }
+}
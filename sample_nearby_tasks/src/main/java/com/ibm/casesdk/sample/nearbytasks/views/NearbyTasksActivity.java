@@ -6,30 +6,32 @@ import android.support.design.widget.Snackbar;
 import android.support.v7.app.AlertDialog;
 import android.view.HapticFeedbackConstants;
 import android.view.LayoutInflater;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 import android.widget.Button;
 import android.widget.TextView;
 
 import com.google.android.gms.maps.CameraUpdate;
 import com.google.android.gms.maps.CameraUpdateFactory;
-import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.Marker;
-import com.google.android.gms.maps.model.MarkerOptions;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMRole;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMSolution;
 import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
 import com.ibm.casesdk.sample.nearbytasks.R;
 import com.ibm.casesdk.sample.nearbytasks.controllers.CaseController;
+import com.ibm.casesdk.sample.nearbytasks.controllers.OperationException;
+import com.ibm.casesdk.sample.nearbytasks.controllers.Promise;
 import com.ibm.casesdk.sample.nearbytasks.utils.Constants;
+import com.ibm.casesdk.sample.nearbytasks.utils.StartupTracer;
 import com.ibm.casesdk.sample.nearbytasks.utils.Utils;
 import com.ibm.casesdk.sample.nearbytasks.viewmodel.NearbyTasksViewModel;
 
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 import butterknife.ButterKnife;
 
@@ -37,11 +39,20 @@ import butterknife.ButterKnife;
 public class NearbyTasksActivity extends BaseMapLocationActivity implements NearbyTasksViewModel {
 
     private CaseController mCaseController;
-    private HashMap<Marker, ICMTask> mTaskMarkers = new LinkedHashMap<>();
+
+    // markers of the tasks and of the task clusters, created once the map is ready
+    private TaskClusterRenderer mTaskClusters;
+
+    // the nearby tasks found before the map was ready, shown once it is
+    private List<ICMTask> mPendingTasks;
+
+    // login up to the first nearby tasks, until it's done
+    private Promise<List<ICMTask>> mBootstrap;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        StartupTracer.getInstance().beginStage("Activity.onCreate");
         setContentView(R.layout.activity_locator);
 
         ButterKnife.bind(this);
@@ -51,28 +62,75 @@ public class NearbyTasksActivity extends BaseMapLocationActivity implements Near
 
         // init controller
         mCaseController = new CaseController(this, this);
+
+        StartupTracer.getInstance().endStage("Activity.onCreate");
     }
 
     @Override
-    protected void onStart() {
-        super.onStart();
+    public void onMapReady(GoogleMap googleMap) {
+        super.onMapReady(googleMap);
 
-        // login to ICM
-        mCaseController.login(Constants.USER, Constants.PASS);
-        showIndeterminateProgress();
+        mTaskClusters = new TaskClusterRenderer(this, mMap);
+        mMap.setOnCameraChangeListener(mTaskClusters);
+        mMap.setOnMarkerClickListener(mTaskClusters);
+
+        if (mPendingTasks != null) {
+            final List<ICMTask> pendingTasks = mPendingTasks;
+            mPendingTasks = null;
+            onNearbyTasksFound(pendingTasks);
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (mBootstrap != null) {
+            mBootstrap.cancel();
+        }
+        mCaseController.release();
+
+        if (mTaskClusters != null) {
+            mTaskClusters.release();
+        }
+
+        super.onDestroy();
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_nearby_tasks, menu);
+        return super.onCreateOptionsMenu(menu);
     }
 
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == R.id.action_performance_report) {
+            showPerformanceReport(mCaseController.getOperationMetrics(),
+                    mCaseController.getNearbyTaskCache().formatReport()
+                            + mCaseController.getRefetchPolicy().formatReport());
+            return true;
+        }
+
+        return super.onOptionsItemSelected(item);
+    }
+
+    @Override
+    public void onConnected(Bundle bundle) {
+        super.onConnected(bundle);
+
+        // login to ICM or search the tasks around the last location again, once it is known
+        if (mLastLocation != null) {
+            updateCases();
+        }
+    }
 
     @Override
     public void onSessionInitiated() {
-        //  find custom solution
-        mCaseController.findSolution(Constants.SOLUTION);
+        // Not needed here, the session is initiated by the bootstrap
     }
 
     @Override
     public void onSolutionFound(ICMSolution solution) {
-        // create a solution manager and load the solution details
-        mCaseController.loadSolutionDetails(solution);
+        // Not needed here, the solution is found by the bootstrap
     }
 
     @Override
@@ -85,53 +143,54 @@ public class NearbyTasksActivity extends BaseMapLocationActivity implements Near
     public void onRoleFound(ICMRole role) {
         mCaseController.createRoleManager(role);
 
-        // load all the workbaskets for the role - we need to do this because Inbaskets contain
-        // a limited number of tasks until their details are loaded
-        mCaseController.loadRoleInbaskets();
+        if (Constants.PRELOAD_INBASKETS) {
+            // load all the workbaskets for the role - Inbaskets contain a limited number of tasks
+            // until their details are loaded, so this makes task basket lookups instant
+            mCaseController.loadRoleInbaskets();
+        }
+
+        // the nearby tasks don't depend on the workbaskets, so both are loaded at the same time -
+        // the basket of a task opened before its basket is loaded is resolved on demand
+        updateCases();
     }
 
     @Override
     public void onWorkbasketsLoaded() {
-        // all the inbaskets have been loaded, we can now udpate cases
-        updateCases();
+        // enough inbaskets have been loaded, the task basket lookups are now instant
     }
 
     @Override
     public void onNearbyTasksFound(List<ICMTask> icmTasks) {
-        // create bounds for the new task markers
-        final LatLngBounds.Builder boundsBuilder = new LatLngBounds.Builder();
-        boundsBuilder.include(new LatLng(mLastLocation.getLatitude(), mLastLocation.getLongitude()));
-
-        // clear current task markers
-        clearCurrentMarkers();
-
-        // display new markers
-        for (ICMTask task : icmTasks) {
-
-            // check that we have a valid location
-            if (Utils.hasLocation(task)) {
-                // create custom marker and show it on the map
-                final Marker marker = mMap.addMarker(new MarkerOptions()
-                                .icon(BitmapDescriptorFactory.fromResource(R.drawable.ic_task_marker))
-                                .anchor(0.0f, 1.0f) // Anchors the marker on the bottom left
-                                .position(new LatLng(task.getLatitude(), task.getLongitude()))
-                                .title(task.getStepName())
-                                .snippet(task.getCaseTitle())
-                );
-
-                // save marker refference
-                mTaskMarkers.put(marker, task);
-
-                // add the marker in bounds
-                boundsBuilder.include(marker.getPosition());
-            }
+        // the tasks can be found from the cache or by the bootstrap before the map is ready
+        if (mTaskClusters == null) {
+            mPendingTasks = icmTasks;
+            return;
         }
 
+        // the clusters are calculated in the background, only the markers that changed are touched
+        final int addedCount = mTaskClusters.setTasks(icmTasks);
+
         hideIndeterminateProgress();
 
-        // zoom out so we can see all markers
-        final CameraUpdate update = CameraUpdateFactory.newLatLngBounds(boundsBuilder.build(), 200);
-        mMap.animateCamera(update);
+        // the startup ends with the first displayed tasks, this is a no-op afterwards
+        if (!icmTasks.isEmpty()) {
+            StartupTracer.getInstance().finish("first map marker");
+        }
+
+        // zoom out so we can see all markers - only when there are new ones, moving the camera on
+        // every location update would get in the way of the user
+        if (addedCount > 0) {
+            final LatLngBounds.Builder boundsBuilder = new LatLngBounds.Builder();
+            boundsBuilder.include(new LatLng(mLastLocation.getLatitude(), mLastLocation.getLongitude()));
+            for (ICMTask task : icmTasks) {
+                if (Utils.hasLocation(task)) {
+                    boundsBuilder.include(new LatLng(task.getLatitude(), task.getLongitude()));
+                }
+            }
+
+            final CameraUpdate update = CameraUpdateFactory.newLatLngBounds(boundsBuilder.build(), 200);
+            mMap.animateCamera(update);
+        }
     }
 
     @Override
@@ -194,6 +253,8 @@ public class NearbyTasksActivity extends BaseMapLocationActivity implements Near
                 break;
             case TASK_ACTION:
                 break;
+            case LOAD_INBASKETS:
+                break;
         }
 
         //display the error message
@@ -222,9 +283,9 @@ public class NearbyTasksActivity extends BaseMapLocationActivity implements Near
 
     @Override
     protected void onMarkerInfoClicked(Marker marker) {
-        final ICMTask markerTask = mTaskMarkers.get(marker);
+        final ICMTask markerTask = mTaskClusters != null ? mTaskClusters.getTask(marker) : null;
 
-        // show details only for tasks - not for last location
+        // show details only for tasks - not for clusters or the last location
         if (markerTask != null) {
             showIndeterminateProgress();
             mCaseController.loadTaskDetails(markerTask);
@@ -283,6 +344,14 @@ public class NearbyTasksActivity extends BaseMapLocationActivity implements Near
     }
 
     private void updateCases() {
+        // login first, the bootstrap searches the first nearby tasks itself
+        if (mCaseController != null && mCaseController.getRoleManager() == null) {
+            if (mBootstrap == null && mLastLocation != null) {
+                bootstrap();
+            }
+            return;
+        }
+
         // check if we have a case controller and also that we have a role manager that can get the tasks
         if (mCaseController != null && mCaseController.getRoleManager() != null) {
 
@@ -297,11 +366,29 @@ public class NearbyTasksActivity extends BaseMapLocationActivity implements Near
         }
     }
 
-    private void clearCurrentMarkers() {
-        for (Map.Entry<Marker, ICMTask> next : mTaskMarkers.entrySet()) {
-            next.getKey().remove();
-        }
+    /**
+     * Login to ICM, find the solution and the role and search the tasks around the last location,
+     * while the workbaskets are preloaded.
+     */
+    private void bootstrap() {
+        showIndeterminateProgress();
+
+        mBootstrap = mCaseController.bootstrap(Constants.USER, Constants.PASS, Constants.SOLUTION,
+                Constants.ROLE, mLastLocation, Constants.DEFAULT_RADIUS);
+        mBootstrap.whenComplete(new Promise.Callback<List<ICMTask>>() {
+            @Override
+            public void onFulfilled(List<ICMTask> icmTasks) {
+                onNearbyTasksFound(icmTasks);
+            }
 
-        mTaskMarkers.clear();
+            @Override
+            public void onRejected(Exception error) {
+                mBootstrap = null;
+                if (!(error instanceof CancellationException)) {
+                    onError(error instanceof OperationException ? ((OperationException) error).getOperation()
+                            : INITIATE_SESSION, error.getMessage());
+                }
+            }
+        });
     }
 }
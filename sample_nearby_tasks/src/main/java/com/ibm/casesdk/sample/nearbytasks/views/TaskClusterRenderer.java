@@ -0,0 +1,282 @@
+package com.ibm.casesdk.sample.nearbytasks.views;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.v4.content.ContextCompat;
+
+import com.google.android.gms.maps.CameraUpdateFactory;
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+import com.google.android.gms.maps.model.CameraPosition;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
+import com.ibm.casemanagersdk.sdk.interfaces.ICMTask;
+import com.ibm.casesdk.sample.nearbytasks.R;
+import com.ibm.casesdk.sample.nearbytasks.controllers.TaskClusterer;
+import com.ibm.casesdk.sample.nearbytasks.controllers.TaskClusterer.TaskCluster;
+import com.ibm.casesdk.sample.nearbytasks.utils.Constants;
+import com.ibm.casesdk.sample.nearbytasks.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shows the tasks on a {@link GoogleMap}, grouped in clusters where they are too close to each
+ * other at the current zoom level.
+ * <p>
+ * The clusters are calculated on a background thread with a {@link TaskClusterer} each time the
+ * tasks or the camera change, and only the markers of the clusters that changed are touched, see
+ * {@link MarkerReconciler}. Tapping a cluster zooms in on its tasks. Must be used on the main
+ * thread, like the map.
+ */
+public class TaskClusterRenderer implements GoogleMap.OnCameraChangeListener, GoogleMap.OnMarkerClickListener {
+
+    // clusters are calculated away from the main thread, one at a time
+    private static final ExecutorService sClusterExecutor = Executors.newSingleThreadExecutor();
+
+    private static final String TASK_ICON_KEY = "task";
+
+    // the counts shown on the clusters above 9, so the icons can be shared
+    private static final int[] COUNT_STEPS = {1000, 500, 200, 100, 50, 20, 10};
+
+    private static final int CLUSTER_ICON_SIZE = 40; // dp
+    private static final int CLUSTER_TEXT_SIZE = 14; // sp
+
+    private final Context mContext;
+    private final GoogleMap mMap;
+    private final TaskClusterer mClusterer;
+    private final MarkerReconciler<TaskCluster> mMarkers;
+    private final Handler mMainHandler;
+    private final BitmapDescriptor mTaskIcon;
+
+    // count label -> icon of the clusters
+    private final HashMap<String, BitmapDescriptor> mClusterIcons;
+
+    // ids of the tasks shown so far, to tell the new ones
+    private final HashSet<String> mTaskKeys;
+
+    // written on the main thread only, read by the background thread to skip outdated requests
+    private volatile int mGeneration;
+
+    public TaskClusterRenderer(@NonNull Context context, @NonNull GoogleMap map) {
+        mContext = context;
+        mMap = map;
+        mClusterer = new TaskClusterer(Constants.CLUSTER_CELL_SIZE, Constants.CLUSTER_MIN_SIZE,
+                Constants.CLUSTER_MAX_ZOOM);
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mTaskIcon = BitmapDescriptorFactory.fromResource(R.drawable.ic_task_marker);
+        mClusterIcons = new HashMap<>();
+        mTaskKeys = new HashSet<>();
+
+        mMarkers = new MarkerReconciler<>(map, new MarkerReconciler.Adapter<TaskCluster>() {
+            @Override
+            public String getKey(@NonNull TaskCluster cluster) {
+                return cluster.getKey();
+            }
+
+            @Override
+            public LatLng getPosition(@NonNull TaskCluster cluster) {
+                return new LatLng(cluster.getLatitude(), cluster.getLongitude());
+            }
+
+            @Override
+            public String getTitle(@NonNull TaskCluster cluster) {
+                return cluster.isCluster() ? mContext.getString(R.string.msg_task_cluster, cluster.size())
+                        : cluster.getTask().getStepName();
+            }
+
+            @Override
+            public String getSnippet(@NonNull TaskCluster cluster) {
+                return cluster.isCluster() ? null : cluster.getTask().getCaseTitle();
+            }
+
+            @Override
+            public String getIconKey(@NonNull TaskCluster cluster) {
+                return cluster.isCluster() ? countLabel(cluster.size()) : TASK_ICON_KEY;
+            }
+
+            @Override
+            public MarkerOptions createMarkerOptions(@NonNull TaskCluster cluster) {
+                if (cluster.isCluster()) {
+                    return new MarkerOptions()
+                            .icon(getClusterIcon(countLabel(cluster.size())))
+                            .anchor(0.5f, 0.5f);
+                }
+
+                return new MarkerOptions()
+                        .icon(mTaskIcon)
+                        .anchor(0.0f, 1.0f); // Anchors the marker on the bottom left
+            }
+        });
+    }
+
+    /**
+     * Show a new list of tasks. The clusters are updated once they have been calculated.
+     *
+     * @param tasks
+     * @return the number of tasks that were not shown before
+     */
+    public int setTasks(@NonNull List<ICMTask> tasks) {
+        final HashSet<String> taskKeys = new HashSet<>(tasks.size());
+        int addedCount = 0;
+        for (ICMTask task : tasks) {
+            if (task.getId() != null && Utils.hasLocation(task)) {
+                final String taskKey = task.getId().toLowerCase(Locale.US);
+                if (taskKeys.add(taskKey) && !mTaskKeys.contains(taskKey)) {
+                    addedCount++;
+                }
+            }
+        }
+
+        mTaskKeys.clear();
+        mTaskKeys.addAll(taskKeys);
+        update(new ArrayList<>(tasks));
+        return addedCount;
+    }
+
+    /**
+     * @param marker
+     * @return the task shown by the marker, {@code null} if the marker is a cluster or isn't
+     * managed by this renderer
+     */
+    public ICMTask getTask(@NonNull Marker marker) {
+        final TaskCluster cluster = mMarkers.getItem(marker);
+        return cluster != null && !cluster.isCluster() ? cluster.getTask() : null;
+    }
+
+    /**
+     * Drop the pending clusters and remove the markers, e.g. when the map is destroyed.
+     */
+    public void release() {
+        mGeneration++;
+        mMarkers.clear();
+    }
+
+    @Override
+    public void onCameraChange(CameraPosition cameraPosition) {
+        update(null);
+    }
+
+    @Override
+    public boolean onMarkerClick(Marker marker) {
+        final TaskCluster cluster = mMarkers.getItem(marker);
+        if (cluster == null || !cluster.isCluster()) {
+            // let the map show the info window
+            return false;
+        }
+
+        if (cluster.getSouth() == cluster.getNorth() && cluster.getWest() == cluster.getEast()) {
+            // all the tasks are at the same place, there are no bounds to zoom to
+            mMap.animateCamera(CameraUpdateFactory.newLatLngZoom(marker.getPosition(),
+                    mMap.getCameraPosition().zoom + 2));
+        } else {
+            final LatLngBounds bounds = new LatLngBounds(new LatLng(cluster.getSouth(), cluster.getWest()),
+                    new LatLng(cluster.getNorth(), cluster.getEast()));
+            mMap.animateCamera(CameraUpdateFactory.newLatLngBounds(bounds,
+                    (int) (CLUSTER_ICON_SIZE * mContext.getResources().getDisplayMetrics().density)));
+        }
+
+        return true;
+    }
+
+    /**
+     * Calculate the clusters for the current camera on the background thread, then apply them. If
+     * a newer update is requested in the meantime, the older one is dropped.
+     *
+     * @param tasks the new tasks, {@code null} if they didn't change
+     */
+    private void update(final List<ICMTask> tasks) {
+        final int generation = ++mGeneration;
+        final int zoom = (int) mMap.getCameraPosition().zoom;
+        final LatLngBounds bounds = mMap.getProjection().getVisibleRegion().latLngBounds;
+
+        sClusterExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                // the tasks are always applied, a newer request might only move the camera
+                if (tasks != null) {
+                    mClusterer.setTasks(tasks);
+                }
+
+                if (generation != mGeneration) {
+                    return;
+                }
+
+                final List<TaskCluster> clusters = mClusterer.getClusters(zoom, bounds.southwest.latitude,
+                        bounds.southwest.longitude, bounds.northeast.latitude, bounds.northeast.longitude);
+
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        // a newer update was requested in the meantime
+                        if (generation != mGeneration) {
+                            return;
+                        }
+
+                        mMarkers.reconcile(clusters);
+                    }
+                });
+            }
+        });
+    }
+
+    private BitmapDescriptor getClusterIcon(String label) {
+        BitmapDescriptor icon = mClusterIcons.get(label);
+        if (icon == null) {
+            icon = BitmapDescriptorFactory.fromBitmap(drawClusterIcon(label));
+            mClusterIcons.put(label, icon);
+        }
+
+        return icon;
+    }
+
+    private Bitmap drawClusterIcon(String label) {
+        final float density = mContext.getResources().getDisplayMetrics().density;
+        final int size = (int) (CLUSTER_ICON_SIZE * density);
+        final Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
+
+        final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(Color.WHITE);
+        canvas.drawCircle(size / 2f, size / 2f, size / 2f, paint);
+        paint.setColor(ContextCompat.getColor(mContext, R.color.colorPrimary));
+        canvas.drawCircle(size / 2f, size / 2f, size / 2f - 2 * density, paint);
+
+        paint.setColor(Color.WHITE);
+        paint.setTextSize(CLUSTER_TEXT_SIZE * mContext.getResources().getDisplayMetrics().scaledDensity);
+        paint.setTypeface(Typeface.DEFAULT_BOLD);
+        paint.setTextAlign(Paint.Align.CENTER);
+        canvas.drawText(label, size / 2f, size / 2f - (paint.descent() + paint.ascent()) / 2, paint);
+
+        return bitmap;
+    }
+
+    /**
+     * @param count
+     * @return the label of a cluster, rounded down above 9 tasks
+     */
+    private static String countLabel(int count) {
+        for (int step : COUNT_STEPS) {
+            if (count >= step) {
+                return step + "+";
+            }
+        }
+
+        return String.valueOf(count);
+    }
+}